@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+/**
+ * Training run for a dynamic AppCDS archive (JDK 13 or later): starts the test application against Redpanda with
+ * -XX:ArchiveClassesAtExit, exercises the common endpoints so their classes are loaded, and stops it.
+ * <p>
+ * Arguments: the archive file and the classpath of the application, which must only contain jars.
+ */
+public final class CdsTrainingRun {
+
+    private CdsTrainingRun() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path archive = Paths.get(args[0]);
+        Files.createDirectories(archive.toAbsolutePath().getParent());
+        Files.deleteIfExists(archive);
+
+        SchemaRegistryIntegrationTest.RedpandaContainer container = new SchemaRegistryIntegrationTest.RedpandaContainer();
+        container.start();
+        try {
+            StartupProbe probe = new StartupProbe(args[1], "localhost:" + container.getMappedPort(9092));
+            long startup = probe.start(Collections.singletonList("-XX:ArchiveClassesAtExit=" + archive));
+            System.out.println("Training run started in " + startup + " ms");
+
+            exercise(probe);
+            probe.stop();
+        } finally {
+            container.stop();
+        }
+
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("No archive was written to " + archive);
+        }
+        System.out.println("Wrote " + archive + " (" + Files.size(archive) / 1024 + " KB)");
+    }
+
+    private static void exercise(StartupProbe probe) {
+        String avro = "{\"schema\":\"{\\\"type\\\":\\\"record\\\",\\\"name\\\":\\\"Training\\\","
+                + "\\\"fields\\\":[{\\\"name\\\":\\\"id\\\",\\\"type\\\":\\\"long\\\"}]}\"}";
+        String json = "{\"schemaType\":\"JSON\",\"schema\":\"{\\\"type\\\":\\\"object\\\"}\"}";
+
+        probe.request("POST", "/api/subjects/training-avro-value/versions", avro);
+        probe.request("POST", "/api/subjects/training-json-value/versions", json);
+        probe.request("POST", "/api/compatibility/subjects/training-avro-value/versions/latest", avro);
+        probe.request("POST", "/api/subjects/training-avro-value", avro);
+        probe.request("GET", "/api/subjects/training-avro-value/versions/latest", null);
+        probe.request("GET", "/api/schemas/ids/1", null);
+        probe.request("GET", "/api/config", null);
+        probe.request("GET", "/actuator/health", null);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.rest.RestService;
+import io.confluent.kafka.schemaregistry.client.rest.entities.requests.RegisterSchemaRequest;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends bursts of concurrent lookups by id to the embedded registry, as a client resolving the writer schemas of a
+ * batch of records does, over HTTP/1.1 and over h2c.  Over HTTP/1.1 the client opens a connection for each request
+ * in flight, over h2c the requests of a burst share one connection.  The sample time mode reports the percentiles of
+ * a whole burst; the connections the registry holds open are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class H2cBenchmark {
+
+    private static final String SUBJECT = "benchmark-value";
+    private static final int SCHEMAS = 1000;
+
+    @Param({"HTTP_1_1", "HTTP_2"})
+    private HttpClient.Version version;
+
+    @Param({"16", "128"})
+    private int batch;
+
+    private SchemaRegistryIntegrationTest.RedpandaContainer container;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest[] requests;
+
+    @Setup
+    public void setup() throws Exception {
+        container = new SchemaRegistryIntegrationTest.RedpandaContainer();
+        container.start();
+        context = SpringApplication.run(SchemaRegistryApplication.class,
+                "--server.port=0",
+                "--spring.jersey.application-path=/api",
+                "--schemaregistry.kafka-store.bootstrap-servers=localhost:" + container.getMappedPort(9092),
+                "--schemaregistry.kafka-store.connection-url=",
+                "--schemaregistry.compatibility-level=NONE",
+                "--schemaregistry.http2.enabled=true",
+                // so that the largest burst fits in the stream limit of one connection
+                "--schemaregistry.http2.max-concurrent-streams=1000");
+
+        String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+        RestService restService = new RestService(url);
+        requests = new HttpRequest[SCHEMAS];
+        for (int i = 0; i < SCHEMAS; i++) {
+            int id = restService.registerSchema(new RegisterSchemaRequest(schema(i)), SUBJECT, false).getId();
+            requests[i] = HttpRequest.newBuilder(URI.create(url + "/schemas/ids/" + id)).GET().build();
+        }
+        client = HttpClient.newBuilder().version(version).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        TomcatWebServer webServer = (TomcatWebServer) ((ServletWebServerApplicationContext) context).getWebServer();
+        ProtocolHandler protocolHandler = webServer.getTomcat().getConnector().getProtocolHandler();
+        if (protocolHandler instanceof AbstractProtocol) {
+            System.out.println(version + " batch " + batch + ": "
+                    + ((AbstractProtocol<?>) protocolHandler).getConnectionCount() + " connections open");
+        }
+        context.close();
+        container.stop();
+    }
+
+    @Benchmark
+    public int batchedLookups() {
+        int offset = ThreadLocalRandom.current().nextInt(SCHEMAS);
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[batch];
+        for (int i = 0; i < batch; i++) {
+            responses[i] = client.sendAsync(requests[(offset + i) % SCHEMAS], HttpResponse.BodyHandlers.ofByteArray());
+        }
+        CompletableFuture.allOf(responses).join();
+        return responses.length;
+    }
+
+    private static AvroSchema schema(int i) {
+        return new AvroSchema("{\"type\":\"record\",\"name\":\"Benchmark" + i + "\","
+                + "\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}");
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry;
+
+import com.github.jeremylford.spring.schemaregistry.client.InProcessRestService;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.rest.RestService;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.client.rest.entities.requests.RegisterSchemaRequest;
+import io.confluent.kafka.schemaregistry.storage.KafkaSchemaRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the calls a {@code CachedSchemaRegistryClient} makes on a cache miss, sent over loopback HTTP to the
+ * embedded registry, against the same calls answered in process by {@link InProcessRestService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InProcessClientBenchmark {
+
+    private static final String SUBJECT = "benchmark-value";
+    private static final int SCHEMAS = 100;
+
+    @Param({"HTTP", "IN_PROCESS"})
+    private String transport;
+
+    private SchemaRegistryIntegrationTest.RedpandaContainer container;
+    private ConfigurableApplicationContext context;
+    private RestService restService;
+    private int[] ids;
+    private RegisterSchemaRequest[] requests;
+
+    @Setup
+    public void setup() throws Exception {
+        container = new SchemaRegistryIntegrationTest.RedpandaContainer();
+        container.start();
+        context = SpringApplication.run(SchemaRegistryApplication.class,
+                "--server.port=0",
+                "--spring.jersey.application-path=/api",
+                "--schemaregistry.kafka-store.bootstrap-servers=localhost:" + container.getMappedPort(9092),
+                "--schemaregistry.kafka-store.connection-url=",
+                "--schemaregistry.compatibility-level=NONE");
+
+        String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+        KafkaSchemaRegistry kafkaSchemaRegistry = context.getBean(KafkaSchemaRegistry.class);
+        restService = "HTTP".equals(transport) ? new RestService(url) : new InProcessRestService(kafkaSchemaRegistry, url);
+
+        ids = new int[SCHEMAS];
+        requests = new RegisterSchemaRequest[SCHEMAS];
+        for (int i = 0; i < SCHEMAS; i++) {
+            requests[i] = new RegisterSchemaRequest(schema(i));
+            ids[i] = restService.registerSchema(requests[i], SUBJECT, false).getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        container.stop();
+    }
+
+    @Benchmark
+    public SchemaString getById() throws Exception {
+        return restService.getId(ids[ThreadLocalRandom.current().nextInt(SCHEMAS)]);
+    }
+
+    @Benchmark
+    public Schema lookUpVersion() throws Exception {
+        return restService.lookUpSubjectVersion(
+                requests[ThreadLocalRandom.current().nextInt(SCHEMAS)], SUBJECT, false, false
+        );
+    }
+
+    @Benchmark
+    public Schema latestVersion() throws Exception {
+        return restService.getLatestVersion(SUBJECT);
+    }
+
+    private static AvroSchema schema(int fields) {
+        StringBuilder schema = new StringBuilder("{\"name\":\"id\",\"type\":\"long\"}");
+        for (int i = 0; i < fields; i++) {
+            schema.append(",{\"name\":\"field").append(i).append("\",\"type\":[\"null\",\"string\"],\"default\":null}");
+        }
+        return new AvroSchema("{\"type\":\"record\",\"name\":\"Benchmark\",\"fields\":[" + schema + "]}");
+    }
+}
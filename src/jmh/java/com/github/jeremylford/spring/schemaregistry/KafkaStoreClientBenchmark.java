@@ -0,0 +1,182 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry;
+
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the schema topic clients against the Redpanda container of the integration test, with the settings produced
+ * by {@link SchemaRegistryProperties.KafkaStore}.
+ * <ul>
+ * <li>{@code catchUp} reads a pre-filled schema topic from the beginning, as a starting instance does.</li>
+ * <li>{@code tailLatency} measures a single write until the reader sees it, as for a schema registered once the
+ * reader has caught up.</li>
+ * <li>{@code write} produces a batch of schema records with the default or the tuned producer settings.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class KafkaStoreClientBenchmark {
+
+    private static final String TOPIC = "_schemas_benchmark";
+    private static final int RECORDS = 200_000;
+    private static final int WRITE_BATCH = 10_000;
+
+    @Param({"DEFAULT", "BOOTSTRAP"})
+    private SchemaRegistryProperties.KafkaStore.ReaderProfile readerProfile;
+
+    @Param({"false", "true"})
+    private boolean tunedProducer;
+
+    private SchemaRegistryIntegrationTest.RedpandaContainer container;
+    private String bootstrapServers;
+    private KafkaProducer<byte[], byte[]> producer;
+    private KafkaConsumer<byte[], byte[]> tail;
+    private TopicPartition partition;
+    private byte[] value;
+
+    @Setup
+    public void setup() throws Exception {
+        container = new SchemaRegistryIntegrationTest.RedpandaContainer();
+        container.start();
+        bootstrapServers = "localhost:" + container.getMappedPort(9092);
+        partition = new TopicPartition(TOPIC, 0);
+        value = ("{\"subject\":\"benchmark-value\",\"version\":1,\"id\":1,\"schema\":"
+                + "\"{\\\"type\\\":\\\"record\\\",\\\"name\\\":\\\"Benchmark\\\",\\\"fields\\\":[]}\"}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        try (AdminClient adminClient = AdminClient.create(Collections.singletonMap(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers))) {
+            adminClient.createTopics(Collections.singleton(new NewTopic(TOPIC, 1, (short) 1))).all().get();
+        }
+
+        producer = producer();
+        for (int i = 0; i < RECORDS; i++) {
+            producer.send(new ProducerRecord<>(TOPIC, key(i), value));
+        }
+        producer.flush();
+
+        tail = consumer();
+        tail.assign(Collections.singleton(partition));
+        tail.seekToEnd(Collections.singleton(partition));
+        tail.position(partition);
+    }
+
+    @TearDown
+    public void tearDown() {
+        tail.close();
+        producer.close();
+        container.stop();
+    }
+
+    @Benchmark
+    public long catchUp() {
+        try (KafkaConsumer<byte[], byte[]> consumer = consumer()) {
+            consumer.assign(Collections.singleton(partition));
+            consumer.seekToBeginning(Collections.singleton(partition));
+            long end = consumer.endOffsets(Collections.singleton(partition)).get(partition);
+            long records = 0;
+            while (consumer.position(partition) < end) {
+                records += consumer.poll(Duration.ofMillis(100)).count();
+            }
+            return records;
+        }
+    }
+
+    @Benchmark
+    public int tailLatency() {
+        producer.send(new ProducerRecord<>(TOPIC, key(-1), value));
+        producer.flush();
+        ConsumerRecords<byte[], byte[]> records;
+        do {
+            records = tail.poll(Duration.ofMillis(100));
+        } while (records.isEmpty());
+        return records.count();
+    }
+
+    @Benchmark
+    public void write() {
+        for (int i = 0; i < WRITE_BATCH; i++) {
+            producer.send(new ProducerRecord<>(TOPIC, key(i), value));
+        }
+        producer.flush();
+    }
+
+    private KafkaProducer<byte[], byte[]> producer() {
+        SchemaRegistryProperties.KafkaStore kafkaStore = new SchemaRegistryProperties.KafkaStore();
+        if (tunedProducer) {
+            kafkaStore.getProducer().put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+            kafkaStore.getProducer().put(ProducerConfig.LINGER_MS_CONFIG, "5");
+            kafkaStore.getProducer().put(ProducerConfig.BATCH_SIZE_CONFIG, String.valueOf(256 * 1024));
+        }
+        Map<String, Object> config = new HashMap<>(kafkaStore.getProducer());
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        return new KafkaProducer<>(config, new ByteArraySerializer(), new ByteArraySerializer());
+    }
+
+    private KafkaConsumer<byte[], byte[]> consumer() {
+        SchemaRegistryProperties.KafkaStore kafkaStore = new SchemaRegistryProperties.KafkaStore();
+        kafkaStore.setReaderProfile(readerProfile);
+        Map<String, Object> config = new HashMap<>(kafkaStore.consumerOverrides());
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return new KafkaConsumer<>(config, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+    }
+
+    private static byte[] key(int i) {
+        return ("{\"keytype\":\"SCHEMA\",\"subject\":\"benchmark-value\",\"version\":" + i + ",\"magic\":1}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports the time to the first successful request, then the loaded classes and the live heap once an Avro schema
+ * is registered, of the test application with every schema type enabled and with Avro only.  Runs alternate between
+ * the two so drift on the host affects both.
+ * <p>
+ * Arguments: the classpath of the application and the number of runs of each.
+ */
+public final class SchemaTypesBenchmark {
+
+    private static final String REGISTER_BODY =
+            "{\"schema\":\"{\\\"type\\\":\\\"record\\\",\\\"name\\\":\\\"Benchmark\\\",\\\"fields\\\":"
+                    + "[{\\\"name\\\":\\\"id\\\",\\\"type\\\":\\\"long\\\"}]}\"}";
+
+    private SchemaTypesBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String classpath = args[0];
+        int iterations = Integer.parseInt(args[1]);
+
+        List<String> allTypes = Collections.emptyList();
+        List<String> avroOnly = Collections.singletonList("--schemaregistry.schema-types=AVRO");
+        long[][] all = new long[3][iterations];
+        long[][] avro = new long[3][iterations];
+
+        SchemaRegistryIntegrationTest.RedpandaContainer container = new SchemaRegistryIntegrationTest.RedpandaContainer();
+        container.start();
+        try {
+            StartupProbe probe = new StartupProbe(classpath, "localhost:" + container.getMappedPort(9092));
+            // one untimed run of each, so the OS file cache is warm for both
+            run(probe, allTypes, new long[3][1], 0);
+            run(probe, avroOnly, new long[3][1], 0);
+
+            for (int i = 0; i < iterations; i++) {
+                run(probe, allTypes, all, i);
+                run(probe, avroOnly, avro, i);
+            }
+        } finally {
+            container.stop();
+        }
+
+        System.out.printf("%-34s %10s %10s %10s %10s%n", "", "min", "median", "p90", "max");
+        report("time to first request (ms), all", all[0]);
+        report("time to first request (ms), avro", avro[0]);
+        report("loaded classes, all", all[1]);
+        report("loaded classes, avro", avro[1]);
+        report("live heap (KB), all", all[2]);
+        report("live heap (KB), avro", avro[2]);
+    }
+
+    private static void run(StartupProbe probe, List<String> arguments, long[][] results, int i) throws Exception {
+        try {
+            results[0][i] = probe.start(Collections.emptyList(), arguments);
+            int status = probe.request("POST", "/api/subjects/benchmark-value/versions", REGISTER_BODY);
+            if (status != 200) {
+                throw new IllegalStateException("Registering the schema returned " + status);
+            }
+            results[1][i] = probe.loadedClasses();
+            results[2][i] = probe.liveHeapBytes() / 1024;
+        } finally {
+            probe.stop();
+        }
+    }
+
+    private static void report(String name, long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-34s %10d %10d %10d %10d%n", name,
+                sorted[0], sorted[sorted.length / 2], sorted[(int) Math.ceil(sorted.length * 0.9) - 1],
+                sorted[sorted.length - 1]);
+    }
+}
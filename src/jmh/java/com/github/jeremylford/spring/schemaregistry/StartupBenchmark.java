@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports the time from JVM start to the first successful request of the test application, with and without the
+ * archive written by {@link CdsTrainingRun}.  Runs alternate between the two so drift on the host affects both.
+ * <p>
+ * Arguments: the archive file, the classpath used for the training run and the number of runs of each.
+ */
+public final class StartupBenchmark {
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String archive = args[0];
+        String classpath = args[1];
+        int iterations = Integer.parseInt(args[2]);
+        if (!Files.exists(Paths.get(archive))) {
+            throw new IllegalStateException(archive + " does not exist, run the cdsArchive task first");
+        }
+
+        long[] withoutArchive = new long[iterations];
+        long[] withArchive = new long[iterations];
+
+        SchemaRegistryIntegrationTest.RedpandaContainer container = new SchemaRegistryIntegrationTest.RedpandaContainer();
+        container.start();
+        try {
+            StartupProbe probe = new StartupProbe(classpath, "localhost:" + container.getMappedPort(9092));
+            // one untimed run of each, so the OS file cache is warm for both
+            run(probe, Collections.emptyList());
+            run(probe, Collections.singletonList("-XX:SharedArchiveFile=" + archive));
+
+            for (int i = 0; i < iterations; i++) {
+                withoutArchive[i] = run(probe, Collections.emptyList());
+                withArchive[i] = run(probe, Collections.singletonList("-XX:SharedArchiveFile=" + archive));
+            }
+        } finally {
+            container.stop();
+        }
+
+        System.out.printf("%-26s %8s %8s %8s %8s%n", "time to first request (ms)", "min", "median", "p90", "max");
+        report("default CDS", withoutArchive);
+        report("AppCDS archive", withArchive);
+    }
+
+    private static long run(StartupProbe probe, List<String> jvmOptions) throws Exception {
+        try {
+            return probe.start(jvmOptions);
+        } finally {
+            probe.stop();
+        }
+    }
+
+    private static void report(String name, long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-26s %8d %8d %8d %8d%n", name,
+                sorted[0], sorted[sorted.length / 2], sorted[(int) Math.ceil(sorted.length * 0.9) - 1],
+                sorted[sorted.length - 1]);
+    }
+}
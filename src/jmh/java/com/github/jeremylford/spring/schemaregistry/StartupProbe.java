@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the test application in a separate JVM and waits for its first successful request.
+ */
+final class StartupProbe {
+
+    private static final long STARTUP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    private final String classpath;
+    private final String bootstrapServers;
+
+    private Process process;
+    private int port;
+
+    StartupProbe(String classpath, String bootstrapServers) {
+        this.classpath = classpath;
+        this.bootstrapServers = bootstrapServers;
+    }
+
+    /**
+     * @return the milliseconds from starting the JVM to the first successful request
+     */
+    long start(List<String> jvmOptions) throws IOException, InterruptedException {
+        return start(jvmOptions, Collections.emptyList());
+    }
+
+    /**
+     * @param arguments application arguments added to the ones of every run
+     * @return the milliseconds from starting the JVM to the first successful request
+     */
+    long start(List<String> jvmOptions, List<String> arguments) throws IOException, InterruptedException {
+        port = freePort();
+
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(SchemaRegistryApplication.class.getName());
+        command.add("--server.port=" + port);
+        command.add("--spring.jersey.application-path=/api");
+        command.add("--schemaregistry.kafka-store.bootstrap-servers=" + bootstrapServers);
+        command.add("--schemaregistry.kafka-store.connection-url=");
+        command.addAll(arguments);
+
+        long started = System.nanoTime();
+        process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        while (request("GET", "/api/subjects", null) != 200) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue());
+            }
+            if (System.nanoTime() - started > TimeUnit.MILLISECONDS.toNanos(STARTUP_TIMEOUT_MILLIS)) {
+                throw new IllegalStateException("Application did not start within " + STARTUP_TIMEOUT_MILLIS + " ms");
+            }
+            Thread.sleep(10);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    /**
+     * @return the response status, or -1 if the application is not listening yet
+     */
+    int request(String method, String path, String body) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(1000);
+            connection.setReadTimeout(10000);
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/vnd.schemaregistry.v1+json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            connection.disconnect();
+            return status;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the bytes of live objects on the heap of the application, after a full collection
+     */
+    long liveHeapBytes() throws IOException, InterruptedException {
+        // the histogram collects first and ends with "Total <instances> <bytes>"
+        String[] lines = jcmd("GC.class_histogram").trim().split("\\R");
+        String[] total = lines[lines.length - 1].trim().split("\\s+");
+        return Long.parseLong(total[total.length - 1]);
+    }
+
+    long loadedClasses() throws IOException, InterruptedException {
+        for (String line : jcmd("PerfCounter.print").split("\\R")) {
+            if (line.startsWith("java.cls.loadedClasses=")) {
+                return Long.parseLong(line.substring("java.cls.loadedClasses=".length()).trim());
+            }
+        }
+        throw new IllegalStateException("java.cls.loadedClasses is not reported");
+    }
+
+    private String jcmd(String command) throws IOException, InterruptedException {
+        Process jcmd = new ProcessBuilder(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "jcmd",
+                String.valueOf(process.pid()), command)
+                .redirectErrorStream(true)
+                .start();
+        byte[] output = jcmd.getInputStream().readAllBytes();
+        if (jcmd.waitFor() != 0) {
+            throw new IllegalStateException("jcmd " + command + " failed: "
+                    + new String(output, StandardCharsets.UTF_8));
+        }
+        return new String(output, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stops the application the way an orchestrator does, so a dynamic archive is written on exit.
+     */
+    void stop() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(1, TimeUnit.MINUTES)) {
+                process.destroyForcibly().waitFor();
+            }
+            process = null;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
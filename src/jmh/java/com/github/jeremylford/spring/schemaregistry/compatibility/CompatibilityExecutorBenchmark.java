@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.compatibility;
+
+import com.github.jeremylford.spring.schemaregistry.provider.CompatibilityCheckingSchemaProvider;
+import io.confluent.kafka.schemaregistry.CompatibilityLevel;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.SchemaProvider;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a FULL_TRANSITIVE check of a compatible candidate (the worst case, every version is checked) run on the
+ * calling thread against the same check run by {@link CompatibilityExecutor}, called directly and as register() calls
+ * it, on schemas parsed by {@link CompatibilityCheckingSchemaProvider}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompatibilityExecutorBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int versions;
+
+    private List<ParsedSchema> history;
+    private ParsedSchema candidate;
+    private CompatibilityExecutor executor;
+    private List<ParsedSchema> registeredHistory;
+    private ParsedSchema registeredCandidate;
+
+    @Setup
+    public void setup() {
+        history = new ArrayList<>(versions);
+        for (int i = 0; i < versions; i++) {
+            history.add(schema(i));
+        }
+        candidate = schema(versions);
+        executor = new CompatibilityExecutor(Runtime.getRuntime().availableProcessors(), 1);
+
+        SchemaProvider provider = new CompatibilityCheckingSchemaProvider.Avro();
+        CompatibilityCheck check = new CompatibilityCheck(executor, false, null, false);
+        provider.configure(Collections.singletonMap(CompatibilityCheck.CONFIG, check));
+        registeredHistory = new ArrayList<>(versions);
+        for (int i = 0; i < versions; i++) {
+            registeredHistory.add(parse(provider, i));
+        }
+        registeredCandidate = parse(provider, versions);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    public List<String> sequential() {
+        return candidate.isCompatible(CompatibilityLevel.FULL_TRANSITIVE, history);
+    }
+
+    @Benchmark
+    public List<String> parallel() {
+        return executor.isCompatible(CompatibilityLevel.FULL_TRANSITIVE, candidate, history);
+    }
+
+    @Benchmark
+    public List<String> register() {
+        return registeredCandidate.isCompatible(CompatibilityLevel.FULL_TRANSITIVE, registeredHistory);
+    }
+
+    private static ParsedSchema schema(int optionalFields) {
+        return new AvroSchema(schemaString(optionalFields));
+    }
+
+    private static ParsedSchema parse(SchemaProvider provider, int optionalFields) {
+        return provider.parseSchema(schemaString(optionalFields), Collections.emptyList(), false)
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    private static String schemaString(int optionalFields) {
+        StringBuilder fields = new StringBuilder("{\"name\":\"id\",\"type\":\"long\"}");
+        for (int i = 0; i < optionalFields; i++) {
+            fields.append(",{\"name\":\"field").append(i).append("\",\"type\":[\"null\",\"string\"],\"default\":null}");
+        }
+        return "{\"type\":\"record\",\"name\":\"Benchmark\",\"fields\":[" + fields + "]}";
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.encoding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes the GET /schemas/ids/{id} entity in each of the negotiable formats.  The payload size of each
+ * combination is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EntityEncodingBenchmark {
+
+    public enum Format {
+        JSON, SMILE, CBOR
+    }
+
+    public enum SchemaType {
+        AVRO, PROTOBUF
+    }
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    private Format format;
+
+    @Param({"AVRO", "PROTOBUF"})
+    private SchemaType schemaType;
+
+    @Param({"10", "200"})
+    private int fields;
+
+    private ObjectMapper mapper;
+    private SchemaString entity;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = mapper(format);
+        entity = schemaType == SchemaType.AVRO ? avro(fields) : protobuf(fields);
+        encoded = mapper.writeValueAsBytes(entity);
+        System.out.printf("%n%s %s with %d fields: %d bytes%n", format, schemaType, fields, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(entity);
+    }
+
+    @Benchmark
+    public SchemaString decode() throws IOException {
+        return mapper.readValue(encoded, SchemaString.class);
+    }
+
+    private static ObjectMapper mapper(Format format) {
+        switch (format) {
+            case SMILE:
+                return new ObjectMapper(new SmileFactory());
+            case CBOR:
+                return new ObjectMapper(new CBORFactory());
+            default:
+                return new ObjectMapper();
+        }
+    }
+
+    private static SchemaString avro(int fields) {
+        StringBuilder schema = new StringBuilder("{\"type\":\"record\",\"name\":\"Order\",\"namespace\":\"com.example\","
+                + "\"doc\":\"An order placed through the storefront.\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}");
+        for (int i = 0; i < fields; i++) {
+            schema.append(",{\"name\":\"attribute").append(i)
+                    .append("\",\"type\":[\"null\",\"string\"],\"default\":null,\"doc\":\"Attribute ")
+                    .append(i).append(" of the order.\"}");
+        }
+        schema.append("]}");
+        return new SchemaString(schema.toString());
+    }
+
+    private static SchemaString protobuf(int fields) {
+        StringBuilder schema = new StringBuilder("syntax = \"proto3\";\npackage com.example;\n\n"
+                + "// An order placed through the storefront.\nmessage Order {\n  int64 id = 1;\n");
+        for (int i = 0; i < fields; i++) {
+            schema.append("  // Attribute ").append(i).append(" of the order.\n")
+                    .append("  string attribute").append(i).append(" = ").append(i + 2).append(";\n");
+        }
+        schema.append("}\n");
+        SchemaString schemaString = new SchemaString(schema.toString());
+        schemaString.setSchemaType("PROTOBUF");
+        return schemaString;
+    }
+}
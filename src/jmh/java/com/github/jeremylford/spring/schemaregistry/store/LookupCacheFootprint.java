@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import io.confluent.kafka.schemaregistry.storage.LookupCache;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Prints the retained size of a filled lookup cache with and without {@link IndexedLookupCache}.
+ * <p>
+ * {@code ./gradlew storeFootprint -Pfootprint.schemas=100000,500000}
+ */
+public final class LookupCacheFootprint {
+
+    private LookupCacheFootprint() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] sizes = args.length > 0 ? args[0].split(",") : new String[]{"10000", "100000", "500000"};
+
+        System.out.printf("%10s %12s %16s %16s%n", "schemas", "indexes", "retained bytes", "bytes/schema");
+        for (String size : sizes) {
+            int schemas = Integer.parseInt(size.trim());
+            for (boolean primitiveIndexes : new boolean[]{false, true}) {
+                LookupCache<SchemaRegistryKey, SchemaRegistryValue> cache =
+                        LookupCaches.create(primitiveIndexes, schemas);
+                long retained = GraphLayout.parseInstance(cache).totalSize();
+                System.out.printf("%10d %12s %16d %16d%n", schemas, primitiveIndexes ? "primitive" : "default",
+                        retained, retained / schemas);
+                cache.close();
+            }
+        }
+    }
+}
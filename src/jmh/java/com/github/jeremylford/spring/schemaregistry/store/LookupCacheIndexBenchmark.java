@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import io.confluent.kafka.schemaregistry.storage.CloseableIterator;
+import io.confluent.kafka.schemaregistry.storage.LookupCache;
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency of the default {@code InMemoryCache} indexes against {@link IndexedLookupCache}.  The heap used by
+ * each is reported by {@link LookupCacheFootprint}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LookupCacheIndexBenchmark {
+
+    @Param({"10000", "100000", "500000"})
+    private int schemas;
+
+    @Param({"false", "true"})
+    private boolean primitiveIndexes;
+
+    private LookupCache<SchemaRegistryKey, SchemaRegistryValue> cache;
+
+    @Setup
+    public void setup() throws StoreException {
+        cache = LookupCaches.create(primitiveIndexes, schemas);
+    }
+
+    @Benchmark
+    public SchemaKey schemaKeyById() throws StoreException {
+        return cache.schemaKeyById(ThreadLocalRandom.current().nextInt(schemas) + 1, null);
+    }
+
+    /**
+     * The default path is the range scan KafkaSchemaRegistry does for the latest version.
+     */
+    @Benchmark
+    public SchemaRegistryValue latestVersion() throws StoreException {
+        String subject = LookupCaches.subject(ThreadLocalRandom.current().nextInt(schemas) + 1);
+        if (cache instanceof IndexedLookupCache) {
+            int version = ((IndexedLookupCache) cache).latestVersion(subject);
+            return cache.get(new SchemaKey(subject, version));
+        }
+
+        SchemaRegistryValue latest = null;
+        try (CloseableIterator<SchemaRegistryValue> versions =
+                     cache.getAll(new SchemaKey(subject, 1), new SchemaKey(subject, Integer.MAX_VALUE))) {
+            while (versions.hasNext()) {
+                SchemaRegistryValue value = versions.next();
+                if (!((SchemaValue) value).isDeleted()) {
+                    latest = value;
+                }
+            }
+        }
+        return latest;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.storage.InMemoryCache;
+import io.confluent.kafka.schemaregistry.storage.LookupCache;
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import io.confluent.kafka.schemaregistry.storage.serialization.SchemaRegistrySerializer;
+
+import java.util.Collections;
+
+/**
+ * Builds lookup caches filled the way the store reader fills them, for the benchmarks in this package.
+ */
+final class LookupCaches {
+
+    static final int VERSIONS_PER_SUBJECT = 10;
+
+    private LookupCaches() {
+    }
+
+    static LookupCache<SchemaRegistryKey, SchemaRegistryValue> create(boolean primitiveIndexes, int schemas)
+            throws StoreException {
+        LookupCache<SchemaRegistryKey, SchemaRegistryValue> cache = new InMemoryCache<>(new SchemaRegistrySerializer());
+        if (primitiveIndexes) {
+            cache = new IndexedLookupCache(cache);
+        }
+        for (int id = 1; id <= schemas; id++) {
+            SchemaKey key = new SchemaKey(subject(id), version(id));
+            SchemaValue value = new SchemaValue(key.getSubject(), key.getVersion(), id, AvroSchema.TYPE,
+                    Collections.emptyList(), schema(id), false);
+            cache.put(key, value);
+            cache.schemaRegistered(key, value, null);
+        }
+        return cache;
+    }
+
+    static String subject(int id) {
+        return "subject-" + ((id - 1) / VERSIONS_PER_SUBJECT) + "-value";
+    }
+
+    static int version(int id) {
+        return (id - 1) % VERSIONS_PER_SUBJECT + 1;
+    }
+
+    private static String schema(int id) {
+        return "{\"type\":\"record\",\"name\":\"Record" + id + "\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}";
+    }
+}
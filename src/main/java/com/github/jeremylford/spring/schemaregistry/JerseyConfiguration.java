@@ -18,7 +18,29 @@
  */
 package com.github.jeremylford.spring.schemaregistry;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jeremylford.spring.schemaregistry.coalescing.RequestCoalescingFilter;
+import com.github.jeremylford.spring.schemaregistry.encoding.BinaryFormatProviders;
+import com.github.jeremylford.spring.schemaregistry.execution.AsyncWriteInvocationHandlerProvider;
+import com.github.jeremylford.spring.schemaregistry.execution.RejectedExecutionExceptionMapper;
+import com.github.jeremylford.spring.schemaregistry.execution.RequestExecutor;
+import com.github.jeremylford.spring.schemaregistry.execution.RequestExecutorServiceProvider;
+import com.github.jeremylford.spring.schemaregistry.execution.ResourceExecutionModelProcessor;
+import com.github.jeremylford.spring.schemaregistry.feed.ChangeFeed;
+import com.github.jeremylford.spring.schemaregistry.feed.ChangeFeedResource;
+import com.github.jeremylford.spring.schemaregistry.hotkeys.HotKeyFilter;
+import com.github.jeremylford.spring.schemaregistry.hotkeys.HotKeyTracker;
+import com.github.jeremylford.spring.schemaregistry.observation.ObservationEventListener;
+import com.github.jeremylford.spring.schemaregistry.observation.RegistryObservations;
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import com.github.jeremylford.spring.schemaregistry.ratelimit.RateLimitFilter;
+import com.github.jeremylford.spring.schemaregistry.replica.ReadOnlyReplicaFilter;
+import com.github.jeremylford.spring.schemaregistry.shutdown.RequestDrain;
+import com.github.jeremylford.spring.schemaregistry.slowrequest.PhaseTimingInterceptor;
+import com.github.jeremylford.spring.schemaregistry.slowrequest.RequestPhases;
+import com.github.jeremylford.spring.schemaregistry.slowrequest.SlowRequestListener;
+import com.github.jeremylford.spring.schemaregistry.startup.StartupTimeline;
+import com.github.jeremylford.spring.schemaregistry.tenancy.ContextIsolationFilter;
+import com.github.jeremylford.spring.schemaregistry.tenancy.StoreContexts;
 import com.fasterxml.jackson.jaxrs.base.JsonParseExceptionMapper;
 import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
 import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
@@ -26,6 +48,7 @@ import io.confluent.kafka.schemaregistry.rest.extensions.SchemaRegistryResourceE
 import io.confluent.kafka.schemaregistry.rest.filters.ContextFilter;
 import io.confluent.kafka.schemaregistry.rest.filters.RestCallMetricFilter;
 import io.confluent.kafka.schemaregistry.storage.KafkaSchemaRegistry;
+import io.confluent.kafka.schemaregistry.utils.JacksonMapper;
 import io.confluent.rest.Application;
 import io.confluent.rest.RestConfig;
 import io.confluent.rest.exceptions.ConstraintViolationExceptionMapper;
@@ -38,11 +61,14 @@ import org.apache.kafka.common.metrics.KafkaMetricsContext;
 import org.apache.kafka.common.metrics.MetricConfig;
 import org.apache.kafka.common.metrics.Metrics;
 import org.apache.kafka.common.metrics.MetricsReporter;
+import org.glassfish.jersey.internal.inject.AbstractBinder;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.spi.internal.ResourceMethodInvocationHandlerProvider;
 import org.glassfish.jersey.server.validation.ValidationFeature;
 import org.glassfish.jersey.servlet.init.FilterUrlMappingsProviderImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.jersey.JerseyAutoConfiguration;
@@ -51,6 +77,7 @@ import org.springframework.context.annotation.Configuration;
 import javax.ws.rs.core.Configurable;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
@@ -59,9 +86,62 @@ public class JerseyConfiguration extends ResourceConfig {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JerseyConfiguration.class);
 
+    private final SchemaRegistryProperties.BinaryFormats binaryFormats;
+
     @Autowired
     public JerseyConfiguration(KafkaSchemaRegistry kafkaSchemaRegistry,
-                               SchemaRegistryConfig schemaRegistryConfig) {
+                               SchemaRegistryConfig schemaRegistryConfig,
+                               RequestExecutor requestExecutor,
+                               SchemaRegistryProperties schemaRegistryProperties,
+                               ChangeFeed changeFeed,
+                               ObjectProvider<HotKeyTracker> hotKeyTracker,
+                               ObjectProvider<RegistryObservations> observations,
+                               ObjectProvider<RequestDrain> requestDrain,
+                               StoreContexts storeContexts,
+                               StartupTimeline startupTimeline) {
+        this.binaryFormats = schemaRegistryProperties.getBinaryFormats();
+
+        try (StartupTimeline.Phase ignored = startupTimeline.start("jersey.resources")) {
+            registerResources(
+                    kafkaSchemaRegistry, schemaRegistryConfig, requestExecutor, schemaRegistryProperties, changeFeed,
+                    hotKeyTracker.getIfAvailable(), observations.getIfAvailable(), requestDrain.getIfAvailable(),
+                    storeContexts
+            );
+        }
+
+        try (StartupTimeline.Phase ignored = startupTimeline.start("metrics.reporters")) {
+            configureMetrics(schemaRegistryConfig);
+        }
+        registerJsonProvider(this, schemaRegistryConfig, true);
+        registerFeatures(this, schemaRegistryConfig);
+
+        List<SchemaRegistryResourceExtension> restResourceExtensions;
+        try (StartupTimeline.Phase ignored = startupTimeline.start("jersey.extensions.load")) {
+            restResourceExtensions = schemaRegistryConfig.getConfiguredInstances(
+                    schemaRegistryConfig.definedResourceExtensionConfigName(),
+                    SchemaRegistryResourceExtension.class
+            );
+        }
+        for (SchemaRegistryResourceExtension restResourceExtension : restResourceExtensions) {
+            try (StartupTimeline.Phase ignored = startupTimeline.start(
+                    "jersey.extension", restResourceExtension.getClass().getName())) {
+                restResourceExtension.register(this, schemaRegistryConfig, kafkaSchemaRegistry);
+            } catch (SchemaRegistryException e) {
+                LOGGER.error("Failed to register resource extension {}", restResourceExtension.getClass(), e);
+                System.exit(1);
+            }
+        }
+    }
+
+    private void registerResources(KafkaSchemaRegistry kafkaSchemaRegistry,
+                                   SchemaRegistryConfig schemaRegistryConfig,
+                                   RequestExecutor requestExecutor,
+                                   SchemaRegistryProperties schemaRegistryProperties,
+                                   ChangeFeed changeFeed,
+                                   HotKeyTracker hotKeyTracker,
+                                   RegistryObservations observations,
+                                   RequestDrain requestDrain,
+                                   StoreContexts storeContexts) {
         register(new io.confluent.kafka.schemaregistry.rest.resources.CompatibilityResource(kafkaSchemaRegistry));
         register(new io.confluent.kafka.schemaregistry.rest.resources.ConfigResource(kafkaSchemaRegistry));
         register(new io.confluent.kafka.schemaregistry.rest.resources.ContextsResource(kafkaSchemaRegistry));
@@ -71,12 +151,68 @@ public class JerseyConfiguration extends ResourceConfig {
         register(new io.confluent.kafka.schemaregistry.rest.resources.ServerMetadataResource(kafkaSchemaRegistry));
         register(new io.confluent.kafka.schemaregistry.rest.resources.SubjectsResource(kafkaSchemaRegistry));
         register(new io.confluent.kafka.schemaregistry.rest.resources.SubjectVersionsResource(kafkaSchemaRegistry));
+        if (schemaRegistryProperties.getChangeFeed().isEnabled()) {
+            register(new ChangeFeedResource(changeFeed, schemaRegistryProperties.getChangeFeed().getPollTimeout()));
+        }
 
         register(new ConstraintViolationExceptionMapper());
         register(new WebApplicationExceptionMapper(schemaRegistryConfig));
         register(new GenericExceptionMapper(schemaRegistryConfig));
 
+        if (requestExecutor.isEnabled()) {
+            SchemaRegistryProperties.RequestExecution requestExecution = schemaRegistryProperties.getRequestExecution();
+            register(new ResourceExecutionModelProcessor(requestExecution.isAsyncWrites()));
+            register(new RequestExecutorServiceProvider(requestExecutor));
+            register(new RejectedExecutionExceptionMapper(requestExecutor.getRetryAfterSeconds()));
+
+            if (requestExecution.isAsyncWrites()) {
+                Executor executor = requestExecutor.getExecutorService();
+                if (observations != null) {
+                    executor = observations.propagating(executor);
+                }
+                if (schemaRegistryProperties.getSlowRequests().isEnabled()) {
+                    executor = RequestPhases.propagating(executor);
+                }
+                AsyncWriteInvocationHandlerProvider asyncWrites = new AsyncWriteInvocationHandlerProvider(
+                        requestExecutor, requestExecution.getWriteTimeout(), executor
+                );
+                register(new AbstractBinder() {
+                    @Override
+                    protected void configure() {
+                        bind(asyncWrites).to(ResourceMethodInvocationHandlerProvider.class);
+                    }
+                });
+            }
+        }
+
+        if (observations != null) {
+            register(new ObservationEventListener(observations.getRegistry()));
+        }
+        if (schemaRegistryProperties.getSlowRequests().isEnabled()) {
+            register(new SlowRequestListener(schemaRegistryProperties.getSlowRequests()));
+            register(new PhaseTimingInterceptor());
+        }
+        if (requestDrain != null) {
+            register(requestDrain);
+        }
         register(new ContextFilter());
+        SchemaRegistryProperties.Replica replica = schemaRegistryProperties.getReplica();
+        if (replica.isEnabled() && (replica.getLeaderUrl() == null || replica.getLeaderUrl().isEmpty())) {
+            register(new ReadOnlyReplicaFilter());
+        }
+        if (schemaRegistryProperties.getRateLimit().isEnabled()) {
+            register(new RateLimitFilter(schemaRegistryProperties.getRateLimit()));
+        }
+        SchemaRegistryProperties.Contexts contexts = schemaRegistryProperties.getContexts();
+        if (ContextIsolationFilter.isEnabled(contexts)) {
+            register(new ContextIsolationFilter(contexts, storeContexts));
+        }
+        if (hotKeyTracker != null) {
+            register(new HotKeyFilter(hotKeyTracker));
+        }
+        if (schemaRegistryProperties.getCoalescing().isEnabled()) {
+            register(new RequestCoalescingFilter(schemaRegistryProperties.getCoalescing().getWaitTimeout()));
+        }
 
         register(new RestCallMetricFilter(
                 kafkaSchemaRegistry.getMetricsContainer().getApiCallsSuccess(),
@@ -85,32 +221,18 @@ public class JerseyConfiguration extends ResourceConfig {
         register(new FilterUrlMappingsProviderImpl());
         property("jersey.config.beanValidation.enableOutputValidationErrorEntity.server", true);
         property("jersey.config.server.wadl.disableWadl", true);
-
-        configureMetrics(schemaRegistryConfig);
-        registerJsonProvider(this, schemaRegistryConfig, true);
-        registerFeatures(this, schemaRegistryConfig);
-
-        List<SchemaRegistryResourceExtension> restResourceExtensions = schemaRegistryConfig.getConfiguredInstances(
-                schemaRegistryConfig.definedResourceExtensionConfigName(),
-                SchemaRegistryResourceExtension.class
-        );
-        for (SchemaRegistryResourceExtension restResourceExtension : restResourceExtensions) {
-            try {
-                restResourceExtension.register(this, schemaRegistryConfig, kafkaSchemaRegistry);
-            } catch (SchemaRegistryException e) {
-                LOGGER.error("Failed to register resource extension {}", restResourceExtension.getClass(), e);
-                System.exit(1);
-            }
-        }
     }
 
     protected void registerJsonProvider(Configurable<?> config, SchemaRegistryConfig restConfig, boolean registerExceptionMapper) {
-        ObjectMapper jsonMapper = new ObjectMapper();
-        JacksonMessageBodyProvider jsonProvider = new JacksonMessageBodyProvider(jsonMapper);
+        // the mapper shared with the read front end and the hot key warmer, which fills its serializer cache
+        JacksonMessageBodyProvider jsonProvider = new JacksonMessageBodyProvider(JacksonMapper.INSTANCE);
         config.register(jsonProvider);
         if (registerExceptionMapper) {
             config.register(JsonParseExceptionMapper.class);
         }
+
+        // the same entities, written without escaping the schema text, for clients that ask for them
+        BinaryFormatProviders.register(config, binaryFormats);
     }
 
     protected void registerFeatures(Configurable<?> config, SchemaRegistryConfig restConfig) {
@@ -18,43 +18,432 @@
  */
 package com.github.jeremylford.spring.schemaregistry;
 
+import com.github.jeremylford.spring.schemaregistry.client.ClientCacheInvalidation;
+import com.github.jeremylford.spring.schemaregistry.client.InProcessRestService;
+import com.github.jeremylford.spring.schemaregistry.client.InvalidatingUpdateHandler;
+import com.github.jeremylford.spring.schemaregistry.client.LocalServerUrl;
+import com.github.jeremylford.spring.schemaregistry.compatibility.CompatibilityCheck;
+import com.github.jeremylford.spring.schemaregistry.compatibility.CompatibilityExecutor;
+import com.github.jeremylford.spring.schemaregistry.connector.ListenerConnectorCustomizer;
+import com.github.jeremylford.spring.schemaregistry.execution.RequestExecutor;
+import com.github.jeremylford.spring.schemaregistry.feed.ChangeFeed;
+import com.github.jeremylford.spring.schemaregistry.feed.ChangeFeedUpdateHandler;
+import com.github.jeremylford.spring.schemaregistry.hotkeys.HotKeyTracker;
+import com.github.jeremylford.spring.schemaregistry.hotkeys.HotKeyWarmer;
+import com.github.jeremylford.spring.schemaregistry.hotkeys.HotKeysEndpoint;
+import com.github.jeremylford.spring.schemaregistry.jfr.JfrEvents;
+import com.github.jeremylford.spring.schemaregistry.jfr.StoreApplyUpdateHandler;
 import com.github.jeremylford.spring.schemaregistry.metrics.SchemaRegistryMetricsReporter;
+import com.github.jeremylford.spring.schemaregistry.observation.RegistryObservations;
 import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import com.github.jeremylford.spring.schemaregistry.provider.CompatibilityCheckingSchemaProvider;
+import com.github.jeremylford.spring.schemaregistry.provider.DisabledSchemaProvider;
+import com.github.jeremylford.spring.schemaregistry.reactive.ReactiveReadServer;
+import com.github.jeremylford.spring.schemaregistry.shutdown.GracefulShutdown;
+import com.github.jeremylford.spring.schemaregistry.shutdown.RequestDrain;
+import com.github.jeremylford.spring.schemaregistry.slowrequest.RequestPhases;
+import com.github.jeremylford.spring.schemaregistry.startup.StartupTimeline;
+import com.github.jeremylford.spring.schemaregistry.store.InMemoryLookupCacheFactory;
+import com.github.jeremylford.spring.schemaregistry.store.IndexedLookupCacheFactory;
+import com.github.jeremylford.spring.schemaregistry.store.LookupCacheFactory;
+import com.github.jeremylford.spring.schemaregistry.store.OffHeapLookupCacheFactory;
+import com.github.jeremylford.spring.schemaregistry.store.PipelinedDecoder;
+import com.github.jeremylford.spring.schemaregistry.store.SchemaTextStore;
+import com.github.jeremylford.spring.schemaregistry.store.StoreReaderInterceptor;
+import com.github.jeremylford.spring.schemaregistry.tenancy.ContextIsolationFilter;
+import com.github.jeremylford.spring.schemaregistry.tenancy.StoreContexts;
+import com.github.jeremylford.spring.schemaregistry.tenancy.StoreContextsUpdateHandler;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
 import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
 import io.confluent.kafka.schemaregistry.storage.KafkaSchemaRegistry;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
 import io.confluent.kafka.schemaregistry.storage.serialization.SchemaRegistrySerializer;
+import io.confluent.kafka.schemaregistry.storage.serialization.Serializer;
 import io.confluent.rest.RestConfigException;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jersey.JerseyProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.metrics.ApplicationStartup;
+import reactor.netty.http.server.HttpServer;
 
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.Properties;
+import java.util.function.Supplier;
 
 @EnableConfigurationProperties({SchemaRegistryProperties.class})
 @Configuration
 @Import(JerseyConfiguration.class)
 public class SchemaRegistryAutoConfiguration {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaRegistryAutoConfiguration.class);
+
+    private static final String KAFKASTORE_PREFIX = "kafkastore.";
+
     @Bean
-    public SchemaRegistryConfig schemaRegistryConfig(SchemaRegistryProperties schemaRegistryProperties) throws RestConfigException {
+    public SchemaRegistryConfig schemaRegistryConfig(SchemaRegistryProperties schemaRegistryProperties,
+                                                     LookupCacheFactory lookupCacheFactory,
+                                                     PipelinedDecoder pipelinedDecoder,
+                                                     ClientCacheInvalidation clientCacheInvalidation,
+                                                     ChangeFeed changeFeed,
+                                                     StoreContexts storeContexts,
+                                                     CompatibilityExecutor compatibilityExecutor,
+                                                     ObjectProvider<RegistryObservations> observations,
+                                                     StartupTimeline startupTimeline) throws RestConfigException {
+        try (StartupTimeline.Phase ignored = startupTimeline.start("config.bind")) {
+            return createSchemaRegistryConfig(
+                    schemaRegistryProperties, lookupCacheFactory, pipelinedDecoder, clientCacheInvalidation, changeFeed,
+                    storeContexts, compatibilityExecutor, observations.getIfAvailable()
+            );
+        }
+    }
+
+    private static SchemaRegistryConfig createSchemaRegistryConfig(SchemaRegistryProperties schemaRegistryProperties,
+                                                                   LookupCacheFactory lookupCacheFactory,
+                                                                   PipelinedDecoder pipelinedDecoder,
+                                                                   ClientCacheInvalidation clientCacheInvalidation,
+                                                                   ChangeFeed changeFeed,
+                                                                   StoreContexts storeContexts,
+                                                                   CompatibilityExecutor compatibilityExecutor,
+                                                                   RegistryObservations observations)
+            throws RestConfigException {
         Properties properties = schemaRegistryProperties.asProperties();
 
         properties.put(ProducerConfig.METRIC_REPORTER_CLASSES_CONFIG, Collections.singletonList(
                 SchemaRegistryMetricsReporter.class.getName()
         ));
+        properties.put(SpringKafkaSchemaRegistry.LOOKUP_CACHE_FACTORY_CONFIG, lookupCacheFactory);
+        if (schemaRegistryProperties.getReplica().isEnabled()) {
+            properties.put(SchemaRegistryConfig.LEADER_ELIGIBILITY, "false");
+        }
+
+        // the compatibility checks only go through the starter when it provides the schema types
+        boolean configuredProviders = properties.get(SchemaRegistryConfig.SCHEMA_PROVIDERS_CONFIG) != null;
+        for (SchemaRegistryProperties.SchemaType schemaType : SchemaRegistryProperties.SchemaType.values()) {
+            if (!schemaRegistryProperties.getSchemaTypes().contains(schemaType)) {
+                addClass(properties, SchemaRegistryConfig.SCHEMA_PROVIDERS_CONFIG,
+                        DisabledSchemaProvider.forType(schemaType));
+                LOGGER.info("Schema type {} is disabled", schemaType);
+            } else if (!configuredProviders) {
+                addClass(properties, SchemaRegistryConfig.SCHEMA_PROVIDERS_CONFIG,
+                        CompatibilityCheckingSchemaProvider.forType(schemaType));
+            }
+        }
+
+        addClass(properties, KAFKASTORE_PREFIX + ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG, StoreReaderInterceptor.class);
+        properties.put(KAFKASTORE_PREFIX + PipelinedDecoder.CONFIG, pipelinedDecoder);
+        properties.put(SpringKafkaSchemaRegistry.STORE_SERIALIZER_CONFIG, pipelinedDecoder);
+        if (observations != null) {
+            properties.put(RegistryObservations.CONFIG, observations);
+        }
+        if (schemaRegistryProperties.getSlowRequests().isEnabled()) {
+            properties.put(RequestPhases.CONFIG, "true");
+        }
+
+        String updateHandlers = InvalidatingUpdateHandler.UPDATE_HANDLERS_CONFIG;
+        if (schemaRegistryProperties.getInProcessClient().isEnabled()) {
+            addClass(properties, updateHandlers, InvalidatingUpdateHandler.class);
+            properties.put(updateHandlers + "." + InvalidatingUpdateHandler.CONFIG, clientCacheInvalidation);
+        }
+        if (schemaRegistryProperties.getChangeFeed().isEnabled()) {
+            addClass(properties, updateHandlers, ChangeFeedUpdateHandler.class);
+            properties.put(updateHandlers + "." + ChangeFeedUpdateHandler.CONFIG, changeFeed);
+        }
+        if (ContextIsolationFilter.isEnabled(schemaRegistryProperties.getContexts())) {
+            addClass(properties, updateHandlers, StoreContextsUpdateHandler.class);
+            properties.put(updateHandlers + "." + StoreContextsUpdateHandler.CONFIG, storeContexts);
+        }
+        boolean jfrEvents = false;
+        if (schemaRegistryProperties.getJfr().isEnabled()) {
+            if (JfrEvents.isAvailable()) {
+                jfrEvents = true;
+                properties.put(JfrEvents.CONFIG, "true");
+                // last, so that the apply event spans the other handlers
+                addClass(properties, updateHandlers, StoreApplyUpdateHandler.class);
+            } else {
+                LOGGER.warn("schemaregistry.jfr.enabled is set, but this JVM has no Flight Recorder");
+            }
+        }
+        properties.put(SchemaRegistryConfig.SCHEMA_PROVIDERS_CONFIG + "." + CompatibilityCheck.CONFIG,
+                new CompatibilityCheck(compatibilityExecutor, jfrEvents, observations,
+                        schemaRegistryProperties.getSlowRequests().isEnabled()));
         return new SchemaRegistryConfig(properties);
     }
 
+    /**
+     * Appends to a comma separated list of class names, keeping the ones configured by the application.
+     */
+    private static void addClass(Properties properties, String key, Class<?> type) {
+        Object configured = properties.get(key);
+        properties.put(key, configured == null ? type.getName() : configured + "," + type.getName());
+    }
+
+    @Bean(destroyMethod = "close")
+    public ChangeFeed changeFeed(SchemaRegistryProperties schemaRegistryProperties) {
+        SchemaRegistryProperties.ChangeFeed changeFeed = schemaRegistryProperties.getChangeFeed();
+        if (!changeFeed.isEnabled()) {
+            return new ChangeFeed(1, changeFeed.getMaxSubscribers(), 0);
+        }
+        return new ChangeFeed(changeFeed.getBufferSize(), changeFeed.getMaxSubscribers(),
+                changeFeed.getHeartbeatInterval());
+    }
+
+    @Bean
+    public ClientCacheInvalidation clientCacheInvalidation() {
+        return new ClientCacheInvalidation();
+    }
+
+    @Bean
+    public StoreContexts storeContexts() {
+        return new StoreContexts();
+    }
+
+    /**
+     * A client for serializers running in this JVM that skips HTTP for lookups and registrations.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "schemaregistry.in-process-client", name = "enabled", havingValue = "true")
+    public SchemaRegistryClient schemaRegistryClient(KafkaSchemaRegistry kafkaSchemaRegistry,
+                                                     SchemaRegistryProperties schemaRegistryProperties,
+                                                     ClientCacheInvalidation clientCacheInvalidation,
+                                                     LocalServerUrl localServerUrl) {
+        SchemaRegistryProperties.InProcessClient inProcessClient = schemaRegistryProperties.getInProcessClient();
+        String fallbackUrl = inProcessClient.getFallbackUrl();
+        Supplier<String> fallback = fallbackUrl == null || fallbackUrl.isEmpty() ? localServerUrl : () -> fallbackUrl;
+        SchemaRegistryClient client = new CachedSchemaRegistryClient(
+                new InProcessRestService(kafkaSchemaRegistry, fallback), inProcessClient.getCacheCapacity()
+        );
+        clientCacheInvalidation.register(client);
+        return client;
+    }
+
+    /**
+     * The URL the in-process client falls back to when no fallback-url is set, resolved once the web server runs.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "schemaregistry.in-process-client", name = "enabled", havingValue = "true")
+    public LocalServerUrl localServerUrl(ObjectProvider<ServerProperties> serverProperties,
+                                         ObjectProvider<JerseyProperties> jerseyProperties) {
+        ServerProperties server = serverProperties.getIfAvailable();
+        String contextPath = server != null && server.getServlet().getContextPath() != null
+                ? server.getServlet().getContextPath() : "";
+        String pattern = jerseyUrlPattern(jerseyProperties.getIfAvailable());
+        return new LocalServerUrl(
+                server != null && server.getSsl() != null && server.getSsl().isEnabled(),
+                server != null ? server.getAddress() : null,
+                contextPath + pattern.substring(0, pattern.length() - 2)
+        );
+    }
+
+    @Bean
+    public StartupTimeline startupTimeline(ApplicationStartup applicationStartup) {
+        return new StartupTimeline(applicationStartup);
+    }
+
+    /**
+     * The codec for the keys and values of the schemas topic.  Declare a bean of this type to replace it.
+     */
     @Bean
-    public KafkaSchemaRegistry kafkaSchemaRegistry(SchemaRegistryConfig schemaRegistryConfig) throws SchemaRegistryException {
-        KafkaSchemaRegistry kafkaSchemaRegistry = new KafkaSchemaRegistry(
-                schemaRegistryConfig, new SchemaRegistrySerializer()
+    @ConditionalOnMissingBean
+    public Serializer<SchemaRegistryKey, SchemaRegistryValue> schemaRegistrySerializer() {
+        return new SchemaRegistrySerializer();
+    }
+
+    @Bean(destroyMethod = "close")
+    public PipelinedDecoder pipelinedDecoder(SchemaRegistryProperties schemaRegistryProperties,
+                                             Serializer<SchemaRegistryKey, SchemaRegistryValue> schemaRegistrySerializer) {
+        SchemaRegistryProperties.KafkaStore kafkaStore = schemaRegistryProperties.getKafkaStore();
+        return new PipelinedDecoder(
+                schemaRegistrySerializer, kafkaStore.getDecodeThreads(), kafkaStore.getDecodeChunkSize()
         );
-        kafkaSchemaRegistry.init(); //TODO: consider life cycle wrapper
+    }
+
+    @Bean
+    public LookupCacheFactory lookupCacheFactory(SchemaRegistryProperties schemaRegistryProperties) {
+        SchemaRegistryProperties.KafkaStore kafkaStore = schemaRegistryProperties.getKafkaStore();
+        LookupCacheFactory lookupCacheFactory;
+        if (kafkaStore.getBackend() == SchemaRegistryProperties.KafkaStore.Backend.OFF_HEAP) {
+            SchemaRegistryProperties.KafkaStore.OffHeap offHeap = kafkaStore.getOffHeap();
+            lookupCacheFactory = new OffHeapLookupCacheFactory(new SchemaTextStore(
+                    textStoreMode(offHeap.getMode()),
+                    Paths.get(offHeap.getDirectory()),
+                    offHeap.getChunkSize(),
+                    offHeap.getHotCacheSize(),
+                    offHeap.getContextHotCacheSize(),
+                    offHeap.getContextHotCacheSizes(),
+                    schemaRegistryProperties.getContexts().getMaxTracked()
+            ));
+        } else {
+            lookupCacheFactory = new InMemoryLookupCacheFactory();
+        }
+
+        if (kafkaStore.isPrimitiveIndexes()) {
+            lookupCacheFactory = new IndexedLookupCacheFactory(lookupCacheFactory);
+        }
+        return lookupCacheFactory;
+    }
+
+    private static SchemaTextStore.Mode textStoreMode(SchemaRegistryProperties.KafkaStore.OffHeap.Mode mode) {
+        switch (mode) {
+            case DIRECT:
+                return SchemaTextStore.Mode.DIRECT;
+            case MAPPED:
+                return SchemaTextStore.Mode.MAPPED;
+            default:
+                throw new IllegalArgumentException("Unknown off heap mode " + mode);
+        }
+    }
+
+    @Bean(destroyMethod = "close")
+    public CompatibilityExecutor compatibilityExecutor(SchemaRegistryProperties schemaRegistryProperties) {
+        SchemaRegistryProperties.Compatibility compatibility = schemaRegistryProperties.getCompatibility();
+        return new CompatibilityExecutor(
+                compatibility.isParallel() ? compatibility.getParallelism() : 0,
+                compatibility.getParallelThreshold()
+        );
+    }
+
+    @Bean(destroyMethod = "close")
+    public RequestExecutor requestExecutor(SchemaRegistryProperties schemaRegistryProperties) {
+        return new RequestExecutor(schemaRegistryProperties.getRequestExecution());
+    }
+
+    @Bean(destroyMethod = "close")
+    public KafkaSchemaRegistry kafkaSchemaRegistry(SchemaRegistryConfig schemaRegistryConfig,
+                                                   SchemaRegistryProperties schemaRegistryProperties,
+                                                   PipelinedDecoder pipelinedDecoder,
+                                                   StartupTimeline startupTimeline) throws SchemaRegistryException {
+        KafkaSchemaRegistry kafkaSchemaRegistry;
+        try (StartupTimeline.Phase ignored = startupTimeline.start("store.create")) {
+            kafkaSchemaRegistry = new SpringKafkaSchemaRegistry(
+                    schemaRegistryConfig, pipelinedDecoder, schemaRegistryProperties.getReplica()
+            );
+        }
+        // init() creates the topic if needed and reads it to the end
+        try (StartupTimeline.Phase phase = startupTimeline.start("store.init")) {
+            kafkaSchemaRegistry.init(); //TODO: consider life cycle wrapper
+            pipelinedDecoder.caughtUp();
+            phase.tag("records", String.valueOf(pipelinedDecoder.getRecordsRead()));
+        }
         return kafkaSchemaRegistry;
     }
+
+    /**
+     * Kept in its own class so that reactor-netty is only loaded when it is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(HttpServer.class)
+    @ConditionalOnProperty(prefix = "schemaregistry.read-front-end", name = "enabled", havingValue = "true")
+    static class ReadFrontEndConfiguration {
+
+        @Bean
+        public ReactiveReadServer reactiveReadServer(KafkaSchemaRegistry kafkaSchemaRegistry,
+                                                     SchemaRegistryProperties schemaRegistryProperties,
+                                                     SchemaRegistryConfig schemaRegistryConfig) {
+            return new ReactiveReadServer(kafkaSchemaRegistry, schemaRegistryProperties.getReadFrontEnd(),
+                    schemaRegistryConfig.getList(schemaRegistryConfig.definedResourceExtensionConfigName()));
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(Tomcat.class)
+    static class ListenerConnectorConfiguration {
+
+        @Bean
+        public ListenerConnectorCustomizer listenerConnectorCustomizer(
+                SchemaRegistryProperties schemaRegistryProperties) {
+            return new ListenerConnectorCustomizer(schemaRegistryProperties);
+        }
+    }
+
+    /**
+     * Observes the registry through the application's ObservationRegistry, when it declares one.
+     */
+    @Configuration
+    @ConditionalOnClass(ObservationRegistry.class)
+    @ConditionalOnProperty(prefix = "schemaregistry.observation", name = "enabled", matchIfMissing = true)
+    static class ObservationConfiguration {
+
+        @Bean
+        @ConditionalOnBean(ObservationRegistry.class)
+        public RegistryObservations registryObservations(ObservationRegistry observationRegistry) {
+            return new RegistryObservations(observationRegistry);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "schemaregistry.hot-keys", name = "enabled", havingValue = "true")
+    static class HotKeysConfiguration {
+
+        @Bean
+        public HotKeyTracker hotKeyTracker(SchemaRegistryProperties schemaRegistryProperties) {
+            SchemaRegistryProperties.HotKeys hotKeys = schemaRegistryProperties.getHotKeys();
+            return new HotKeyTracker(hotKeys.getTopK(), hotKeys.getSketchWidth(), hotKeys.getSketchDepth());
+        }
+
+        @Bean
+        public HotKeyWarmer hotKeyWarmer(HotKeyTracker hotKeyTracker,
+                                         KafkaSchemaRegistry kafkaSchemaRegistry,
+                                         SchemaRegistryProperties schemaRegistryProperties,
+                                         StartupTimeline startupTimeline) {
+            return new HotKeyWarmer(
+                    hotKeyTracker, kafkaSchemaRegistry, schemaRegistryProperties.getHotKeys(), startupTimeline
+            );
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        public HotKeysEndpoint hotKeysEndpoint(HotKeyTracker hotKeyTracker) {
+            return new HotKeysEndpoint(hotKeyTracker);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "schemaregistry.shutdown", name = "enabled", matchIfMissing = true)
+    static class ShutdownConfiguration {
+
+        @Bean
+        public RequestDrain requestDrain(SchemaRegistryProperties schemaRegistryProperties) {
+            return new RequestDrain(schemaRegistryProperties.getShutdown().getRetryAfterSeconds());
+        }
+
+        @Bean
+        public GracefulShutdown gracefulShutdown(KafkaSchemaRegistry kafkaSchemaRegistry,
+                                                 RequestDrain requestDrain,
+                                                 SchemaRegistryProperties schemaRegistryProperties) {
+            return new GracefulShutdown(
+                    kafkaSchemaRegistry, requestDrain, schemaRegistryProperties.getShutdown().getDrainTimeout()
+            );
+        }
+    }
+
+    private static String jerseyUrlPattern(JerseyProperties jerseyProperties) {
+        String applicationPath = jerseyProperties != null ? jerseyProperties.getApplicationPath() : null;
+        if (applicationPath == null || applicationPath.isEmpty() || "/".equals(applicationPath)) {
+            return "/*";
+        }
+        return (applicationPath.startsWith("/") ? "" : "/")
+                + (applicationPath.endsWith("/") ? applicationPath.substring(0, applicationPath.length() - 1) : applicationPath)
+                + "/*";
+    }
 }
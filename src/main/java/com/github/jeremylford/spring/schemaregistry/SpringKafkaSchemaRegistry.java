@@ -0,0 +1,284 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry;
+
+import com.github.jeremylford.spring.schemaregistry.compatibility.CompatibilityCheck;
+import com.github.jeremylford.spring.schemaregistry.jfr.JfrEvents;
+import com.github.jeremylford.spring.schemaregistry.jfr.RegistryEvents;
+import com.github.jeremylford.spring.schemaregistry.observation.RegistryObservations;
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import com.github.jeremylford.spring.schemaregistry.ratelimit.RateLimitFilter;
+import com.github.jeremylford.spring.schemaregistry.slowrequest.RequestPhases;
+import com.github.jeremylford.spring.schemaregistry.store.IndexedLookupCache;
+import com.github.jeremylford.spring.schemaregistry.store.InstrumentedKafkaStore;
+import com.github.jeremylford.spring.schemaregistry.store.LookupCacheFactory;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryInitializationException;
+import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
+import io.confluent.kafka.schemaregistry.storage.KafkaSchemaRegistry;
+import io.confluent.kafka.schemaregistry.storage.KafkaStore;
+import io.confluent.kafka.schemaregistry.storage.LeaderElector;
+import io.confluent.kafka.schemaregistry.storage.LookupCache;
+import io.confluent.kafka.schemaregistry.storage.NoopKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryIdentity;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreInitializationException;
+import io.confluent.kafka.schemaregistry.storage.serialization.Serializer;
+
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link KafkaSchemaRegistry} with the hooks used by the starter.
+ */
+public class SpringKafkaSchemaRegistry extends KafkaSchemaRegistry {
+
+    /**
+     * Config entry holding the {@link LookupCacheFactory} instance for the local store.
+     */
+    public static final String LOOKUP_CACHE_FACTORY_CONFIG = "spring.schemaregistry.lookup.cache.factory";
+
+    /**
+     * Config entry holding the serializer also passed to the constructor, needed to create an instrumented store.
+     */
+    public static final String STORE_SERIALIZER_CONFIG = "spring.schemaregistry.store.serializer";
+
+    private static final Field LEADER_ELECTOR = leaderElectorField();
+
+    private final SchemaRegistryProperties.Replica replica;
+    private final boolean jfrEvents;
+    private final RegistryObservations observations;
+
+    // assigned by lookupCache() and kafkaStore(config) during super(), so they must not have an initializer
+    private LookupCache<SchemaRegistryKey, SchemaRegistryValue> lookupCache;
+    private IndexedLookupCache indexedLookupCache;
+    private KafkaStore<SchemaRegistryKey, SchemaRegistryValue> store;
+
+    public SpringKafkaSchemaRegistry(SchemaRegistryConfig config,
+                                     Serializer<SchemaRegistryKey, SchemaRegistryValue> serializer,
+                                     SchemaRegistryProperties.Replica replica) throws SchemaRegistryException {
+        super(config, serializer);
+        this.replica = replica;
+        this.jfrEvents = JfrEvents.isEnabled(config.originals());
+        this.observations = observations(config);
+    }
+
+    /**
+     * As a replica, only the store is initialized: the node reads the schemas topic to the end and keeps tailing it,
+     * but never joins the coordination group.  Writes are forwarded to the configured leader, if any.
+     * <p>
+     * KafkaSchemaRegistry.init() joins the group right after initializing the store and has no hook in between, so
+     * the replica initializes the store it created itself.
+     */
+    @Override
+    public void init() throws SchemaRegistryException {
+        if (!replica.isEnabled()) {
+            super.init();
+            return;
+        }
+
+        try {
+            store.init();
+        } catch (StoreInitializationException e) {
+            throw new SchemaRegistryInitializationException(
+                    "Error initializing kafka store while initializing schema registry replica", e);
+        }
+        String leaderUrl = replica.getLeaderUrl();
+        if (leaderUrl != null && !leaderUrl.isEmpty()) {
+            setLeader(leaderIdentity(leaderUrl));
+        }
+    }
+
+    static SchemaRegistryIdentity leaderIdentity(String leaderUrl) {
+        URI uri = URI.create(leaderUrl);
+        int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(uri.getScheme()) ? 443 : 80);
+        return new SchemaRegistryIdentity(uri.getHost(), port, true, uri.getScheme());
+    }
+
+    /**
+     * Leaves the leader election group, so that the other nodes elect a new leader right away instead of once the
+     * group session times out.  The elector is detached first, so that close() does not close it again.
+     * <p>
+     * KafkaSchemaRegistry keeps the elector in a private field with no accessor, so it is read by reflection.  Without
+     * that field this fails, and the node leaves the group when the registry is closed, as it would without this.
+     */
+    public void relinquishLeadership() throws SchemaRegistryException {
+        if (replica.isEnabled()) {
+            return;
+        }
+        if (LEADER_ELECTOR == null) {
+            throw new SchemaRegistryException("KafkaSchemaRegistry has no accessible leader elector field");
+        }
+        LeaderElector leaderElector;
+        try {
+            leaderElector = (LeaderElector) LEADER_ELECTOR.get(this);
+            LEADER_ELECTOR.set(this, null);
+        } catch (IllegalAccessException e) {
+            throw new SchemaRegistryException("Could not access the leader elector", e);
+        }
+        if (leaderElector != null) {
+            leaderElector.close();
+            setLeader(null);
+        }
+    }
+
+    static Field leaderElectorField() {
+        try {
+            Field field = KafkaSchemaRegistry.class.getDeclaredField("leaderElector");
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    protected LookupCache<SchemaRegistryKey, SchemaRegistryValue> lookupCache() {
+        // called from the KafkaSchemaRegistry constructor, before the fields of this class are assigned
+        Object lookupCacheFactory = config().originals().get(LOOKUP_CACHE_FACTORY_CONFIG);
+        if (lookupCacheFactory instanceof LookupCacheFactory) {
+            lookupCache = ((LookupCacheFactory) lookupCacheFactory).create();
+            if (lookupCache instanceof IndexedLookupCache) {
+                indexedLookupCache = (IndexedLookupCache) lookupCache;
+            }
+        } else {
+            lookupCache = super.lookupCache();
+        }
+        return lookupCache;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected KafkaStore<SchemaRegistryKey, SchemaRegistryValue> kafkaStore(SchemaRegistryConfig config)
+            throws SchemaRegistryException {
+        // called from the KafkaSchemaRegistry constructor, after lookupCache()
+        Object serializer = config.originals().get(STORE_SERIALIZER_CONFIG);
+        boolean jfrEvents = JfrEvents.isEnabled(config.originals());
+        RegistryObservations observations = observations(config);
+        boolean slowRequests = RequestPhases.isEnabled(config.originals());
+        if ((!jfrEvents && observations == null && !slowRequests) || !(serializer instanceof Serializer)) {
+            store = super.kafkaStore(config);
+            return store;
+        }
+        try {
+            store = new InstrumentedKafkaStore(
+                    config,
+                    getSchemaUpdateHandler(config),
+                    (Serializer<SchemaRegistryKey, SchemaRegistryValue>) serializer,
+                    lookupCache,
+                    new NoopKey(),
+                    jfrEvents,
+                    observations,
+                    slowRequests
+            );
+            return store;
+        } catch (StoreInitializationException e) {
+            throw new SchemaRegistryInitializationException("Error creating the instrumented kafka store", e);
+        }
+    }
+
+    @Override
+    public SchemaString get(int id, String subject, String format, boolean fetchMaxId)
+            throws SchemaRegistryException {
+        if (!jfrEvents) {
+            return super.get(id, subject, format, fetchMaxId);
+        }
+        return RegistryEvents.lookupById(id, subject, () -> super.get(id, subject, format, fetchMaxId));
+    }
+
+    /**
+     * On a follower, the URL of the follower and the trace context are added to the headers sent with the forwarded
+     * request.  The former lets the {@link RateLimitFilter} of the leader tell the request from one sent by the client
+     * whose credentials it carries.
+     */
+    @Override
+    public int registerOrForward(String subject, Schema schema, boolean normalize,
+                                 Map<String, String> headerProperties) throws SchemaRegistryException {
+        if (isLeader()) {
+            return recordRegisterOrForward(subject, schema, normalize, headerProperties);
+        }
+        Map<String, String> forwardedHeaders = new HashMap<>();
+        if (headerProperties != null) {
+            forwardedHeaders.putAll(headerProperties);
+        }
+        forwardedHeaders.put(RateLimitFilter.FORWARDED_BY_HEADER, myIdentity().getUrl());
+        if (observations == null) {
+            return recordRegisterOrForward(subject, schema, normalize, forwardedHeaders);
+        }
+        return observations.forward("register", subject, forwardedHeaders,
+                headers -> recordRegisterOrForward(subject, schema, normalize, headers));
+    }
+
+    private int recordRegisterOrForward(String subject, Schema schema, boolean normalize,
+                                        Map<String, String> headerProperties) throws SchemaRegistryException {
+        if (!jfrEvents) {
+            return super.registerOrForward(subject, schema, normalize, headerProperties);
+        }
+        RegistryEvents.Operation<Integer, SchemaRegistryException> register =
+                () -> super.registerOrForward(subject, schema, normalize, headerProperties);
+        if (isLeader()) {
+            return RegistryEvents.register(subject, schema, register);
+        }
+        return RegistryEvents.leaderForward("register", subject, schema.getSchemaType(), register);
+    }
+
+    @Override
+    public Schema getLatestVersion(String subject) throws SchemaRegistryException {
+        if (indexedLookupCache != null) {
+            int version = indexedLookupCache.latestVersion(subject);
+            if (version > 0) {
+                Schema schema = get(subject, version, false);
+                if (schema != null) {
+                    return schema;
+                }
+            }
+        }
+        return super.getLatestVersion(subject);
+    }
+
+    /**
+     * register() checks a new version through a private method of KafkaSchemaRegistry, which calls isCompatible on
+     * the schema parsed by the provider of its type.  With the providers of the starter, that check runs in
+     * {@link CompatibilityCheck}, which is told the subject here.
+     */
+    @Override
+    public int register(String subject, Schema schema, boolean normalize) throws SchemaRegistryException {
+        return CompatibilityCheck.forSubject(subject, () -> super.register(subject, schema, normalize));
+    }
+
+    /**
+     * Called by the compatibility endpoint, which checks through {@link CompatibilityCheck} like register().
+     */
+    @Override
+    public List<String> isCompatible(String subject, Schema newSchema, List<Schema> previousSchemas)
+            throws SchemaRegistryException {
+        return CompatibilityCheck.forSubject(subject, () -> super.isCompatible(subject, newSchema, previousSchemas));
+    }
+
+    private static RegistryObservations observations(SchemaRegistryConfig config) {
+        Object observations = config.originals().get(RegistryObservations.CONFIG);
+        return observations instanceof RegistryObservations ? (RegistryObservations) observations : null;
+    }
+}
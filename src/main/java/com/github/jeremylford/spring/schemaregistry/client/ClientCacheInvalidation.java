@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.client;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Resets the caches of in-process clients when the local store sees a schema deleted.  Schemas are immutable and
+ * cached by id forever, but a soft or hard delete must stop a client from answering lookups for the deleted version
+ * out of its cache.  Deletes are rare, so the whole client cache is reset.
+ */
+public class ClientCacheInvalidation {
+
+    private final List<SchemaRegistryClient> clients = new CopyOnWriteArrayList<>();
+
+    public void register(SchemaRegistryClient client) {
+        clients.add(client);
+    }
+
+    void schemaDeleted() {
+        for (SchemaRegistryClient client : clients) {
+            client.reset();
+        }
+    }
+}
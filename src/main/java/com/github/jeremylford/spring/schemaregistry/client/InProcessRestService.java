@@ -0,0 +1,276 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.confluent.kafka.schemaregistry.client.rest.RestService;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.client.rest.entities.requests.RegisterSchemaRequest;
+import io.confluent.kafka.schemaregistry.client.rest.entities.requests.RegisterSchemaResponse;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.schemaregistry.exceptions.IncompatibleSchemaException;
+import io.confluent.kafka.schemaregistry.exceptions.InvalidSchemaException;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryRequestForwardingException;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryTimeoutException;
+import io.confluent.kafka.schemaregistry.exceptions.UnknownLeaderException;
+import io.confluent.kafka.schemaregistry.storage.KafkaSchemaRegistry;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * {@link RestService} that answers the lookups and registrations made by serializers from the local
+ * {@link KafkaSchemaRegistry} instead of over HTTP.  Registrations go through
+ * {@link KafkaSchemaRegistry#registerOrForward}, so they are only sent over the network when this node is not the
+ * leader.  Every other call falls back to HTTP against the fallback URL, which is resolved on the first such call so
+ * that it can come from the running web server.
+ */
+public class InProcessRestService extends RestService {
+
+    // the base URL of this RestService is never used, every HTTP request goes to the fallback service
+    private static final String UNUSED_BASE_URL = "http://unused.invalid";
+
+    private final LocalRegistry schemaRegistry;
+    private final Supplier<String> fallbackUrl;
+
+    private Map<String, ?> configs = Collections.emptyMap();
+    private RestService fallback;
+
+    public InProcessRestService(KafkaSchemaRegistry schemaRegistry, Supplier<String> fallbackUrl) {
+        this(LocalRegistry.of(schemaRegistry), fallbackUrl);
+    }
+
+    InProcessRestService(LocalRegistry schemaRegistry, Supplier<String> fallbackUrl) {
+        super(UNUSED_BASE_URL);
+        this.schemaRegistry = schemaRegistry;
+        this.fallbackUrl = fallbackUrl;
+    }
+
+    @Override
+    public synchronized void configure(Map<String, ?> configs) {
+        super.configure(configs);
+        this.configs = new HashMap<>(configs);
+        if (fallback != null) {
+            fallback.configure(configs);
+        }
+    }
+
+    @Override
+    public <T> T httpRequest(String path, String method, byte[] requestBodyData, Map<String, String> requestProperties,
+                             TypeReference<T> responseFormat) throws IOException, RestClientException {
+        return fallback().httpRequest(path, method, requestBodyData, requestProperties, responseFormat);
+    }
+
+    synchronized RestService fallback() {
+        if (fallback == null) {
+            RestService restService = new RestService(fallbackUrl.get());
+            restService.configure(configs);
+            fallback = restService;
+        }
+        return fallback;
+    }
+
+    @Override
+    public SchemaString getId(Map<String, String> requestProperties, int id, String subject, boolean fetchMaxId)
+            throws IOException, RestClientException {
+        SchemaString schema;
+        try {
+            schema = schemaRegistry.get(id, subject, null, fetchMaxId);
+        } catch (SchemaRegistryException e) {
+            throw restClientException(e);
+        }
+        if (schema == null) {
+            throw new RestClientException("Schema " + id + " not found", 404, 40403);
+        }
+        return schema;
+    }
+
+    @Override
+    public Schema getVersion(Map<String, String> requestProperties, String subject, int version,
+                             boolean lookupDeletedSchema) throws IOException, RestClientException {
+        Schema schema;
+        try {
+            schema = schemaRegistry.get(subject, version, lookupDeletedSchema);
+            if (schema == null && !schemaRegistry.hasSubjects(subject, lookupDeletedSchema)) {
+                throw subjectNotFound(subject);
+            }
+        } catch (SchemaRegistryException e) {
+            throw restClientException(e);
+        }
+        if (schema == null) {
+            throw new RestClientException("Version " + version + " not found.", 404, 40402);
+        }
+        return schema;
+    }
+
+    @Override
+    public Schema getLatestVersion(Map<String, String> requestProperties, String subject)
+            throws IOException, RestClientException {
+        Schema schema;
+        try {
+            schema = schemaRegistry.getLatestVersion(subject);
+        } catch (SchemaRegistryException e) {
+            throw restClientException(e);
+        }
+        if (schema == null) {
+            throw subjectNotFound(subject);
+        }
+        return schema;
+    }
+
+    @Override
+    public Schema lookUpSubjectVersion(Map<String, String> requestProperties,
+                                       RegisterSchemaRequest registerSchemaRequest, String subject,
+                                       boolean normalize, boolean lookupDeletedSchema)
+            throws IOException, RestClientException {
+        Schema schema;
+        try {
+            schema = schemaRegistry.lookUpSchemaUnderSubject(
+                    subject, schema(subject, registerSchemaRequest), normalize, lookupDeletedSchema
+            );
+            if (schema == null && !schemaRegistry.hasSubjects(subject, lookupDeletedSchema)) {
+                throw subjectNotFound(subject);
+            }
+        } catch (SchemaRegistryException e) {
+            throw restClientException(e);
+        }
+        if (schema == null) {
+            throw new RestClientException("Schema not found", 404, 40403);
+        }
+        return schema;
+    }
+
+    @Override
+    public RegisterSchemaResponse registerSchema(Map<String, String> requestProperties,
+                                                 RegisterSchemaRequest registerSchemaRequest, String subject,
+                                                 boolean normalize) throws IOException, RestClientException {
+        int id;
+        try {
+            id = schemaRegistry.registerOrForward(
+                    subject, schema(subject, registerSchemaRequest), normalize, requestProperties
+            );
+        } catch (SchemaRegistryException e) {
+            throw restClientException(e);
+        }
+        RegisterSchemaResponse response = new RegisterSchemaResponse();
+        response.setId(id);
+        return response;
+    }
+
+    private static Schema schema(String subject, RegisterSchemaRequest request) {
+        return new Schema(
+                subject,
+                request.getVersion() != null ? request.getVersion() : 0,
+                request.getId() != null ? request.getId() : -1,
+                request.getSchemaType(),
+                request.getReferences(),
+                request.getSchema()
+        );
+    }
+
+    private static RestClientException subjectNotFound(String subject) {
+        return new RestClientException("Subject '" + subject + "' not found.", 404, 40401);
+    }
+
+    /**
+     * Uses the status and error codes the REST resources answer with, so the client reacts the same way.
+     */
+    static RestClientException restClientException(SchemaRegistryException e) {
+        if (e instanceof IncompatibleSchemaException) {
+            return new RestClientException(e.getMessage(), 409, 409);
+        }
+        if (e instanceof InvalidSchemaException) {
+            return new RestClientException(e.getMessage(), 422, 42201);
+        }
+        if (e instanceof SchemaRegistryTimeoutException) {
+            return new RestClientException(e.getMessage(), 500, 50002);
+        }
+        if (e instanceof SchemaRegistryRequestForwardingException) {
+            return new RestClientException(e.getMessage(), 500, 50003);
+        }
+        if (e instanceof UnknownLeaderException) {
+            return new RestClientException(e.getMessage(), 500, 50004);
+        }
+        return new RestClientException(e.getMessage(), 500, 50001);
+    }
+
+    /**
+     * The calls on {@link KafkaSchemaRegistry} answered in process.
+     */
+    interface LocalRegistry {
+
+        SchemaString get(int id, String subject, String format, boolean fetchMaxId) throws SchemaRegistryException;
+
+        Schema get(String subject, int version, boolean lookupDeletedSchema) throws SchemaRegistryException;
+
+        boolean hasSubjects(String subject, boolean lookupDeletedSubjects) throws SchemaRegistryException;
+
+        Schema getLatestVersion(String subject) throws SchemaRegistryException;
+
+        Schema lookUpSchemaUnderSubject(String subject, Schema schema, boolean normalize, boolean lookupDeletedSchema)
+                throws SchemaRegistryException;
+
+        int registerOrForward(String subject, Schema schema, boolean normalize, Map<String, String> headerProperties)
+                throws SchemaRegistryException;
+
+        static LocalRegistry of(KafkaSchemaRegistry schemaRegistry) {
+            return new LocalRegistry() {
+                @Override
+                public SchemaString get(int id, String subject, String format, boolean fetchMaxId)
+                        throws SchemaRegistryException {
+                    return schemaRegistry.get(id, subject, format, fetchMaxId);
+                }
+
+                @Override
+                public Schema get(String subject, int version, boolean lookupDeletedSchema)
+                        throws SchemaRegistryException {
+                    return schemaRegistry.get(subject, version, lookupDeletedSchema);
+                }
+
+                @Override
+                public boolean hasSubjects(String subject, boolean lookupDeletedSubjects)
+                        throws SchemaRegistryException {
+                    return schemaRegistry.hasSubjects(subject, lookupDeletedSubjects);
+                }
+
+                @Override
+                public Schema getLatestVersion(String subject) throws SchemaRegistryException {
+                    return schemaRegistry.getLatestVersion(subject);
+                }
+
+                @Override
+                public Schema lookUpSchemaUnderSubject(String subject, Schema schema, boolean normalize,
+                                                       boolean lookupDeletedSchema) throws SchemaRegistryException {
+                    return schemaRegistry.lookUpSchemaUnderSubject(subject, schema, normalize, lookupDeletedSchema);
+                }
+
+                @Override
+                public int registerOrForward(String subject, Schema schema, boolean normalize,
+                                             Map<String, String> headerProperties) throws SchemaRegistryException {
+                    return schemaRegistry.registerOrForward(subject, schema, normalize, headerProperties);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.client;
+
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaUpdateHandler;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Map;
+
+/**
+ * Store update handler, named in {@link #UPDATE_HANDLERS_CONFIG}, that passes schema deletes to the
+ * {@link ClientCacheInvalidation} found in its configs under {@link #CONFIG}.  It is called by the store reader once
+ * the record has been applied to the local store.
+ */
+public class InvalidatingUpdateHandler implements SchemaUpdateHandler {
+
+    public static final String UPDATE_HANDLERS_CONFIG = "kafkastore.update.handlers";
+
+    public static final String CONFIG = "spring.schemaregistry.client.cache.invalidation";
+
+    private ClientCacheInvalidation invalidation;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object value = configs.get(CONFIG);
+        if (value instanceof ClientCacheInvalidation) {
+            invalidation = (ClientCacheInvalidation) value;
+        }
+    }
+
+    @Override
+    public void handleUpdate(SchemaRegistryKey key, SchemaRegistryValue value, SchemaRegistryValue oldValue,
+                             TopicPartition tp, long offset, long timestamp) {
+        if (invalidation == null || !(key instanceof SchemaKey)) {
+            return;
+        }
+        if (value == null || (value instanceof SchemaValue && ((SchemaValue) value).isDeleted())) {
+            invalidation.schemaDeleted();
+        }
+    }
+}
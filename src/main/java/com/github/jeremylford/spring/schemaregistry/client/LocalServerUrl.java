@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.client;
+
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.util.function.Supplier;
+
+/**
+ * The URL of the registry on the embedded web server, known once the server has started and so correct for a random
+ * {@code server.port=0}.  Events from a separate management server are ignored.
+ */
+public class LocalServerUrl implements Supplier<String>, ApplicationListener<WebServerInitializedEvent> {
+
+    private final String scheme;
+    private final String host;
+    private final String path;
+
+    private volatile String url;
+
+    /**
+     * @param ssl     whether the server uses TLS
+     * @param address the address the server binds to, or null for all addresses
+     * @param path    the context path and Jersey application path, without a trailing slash
+     */
+    public LocalServerUrl(boolean ssl, InetAddress address, String path) {
+        this.scheme = ssl ? "https" : "http";
+        this.host = host(address);
+        this.path = path;
+    }
+
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+        if (event.getApplicationContext().getServerNamespace() == null) {
+            url = scheme + "://" + host + ":" + event.getWebServer().getPort() + path;
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the web server has not started
+     */
+    @Override
+    public String get() {
+        String current = url;
+        if (current == null) {
+            throw new IllegalStateException("The web server has not started, set "
+                    + "schemaregistry.in-process-client.fallback-url to call the registry before it does");
+        }
+        return current;
+    }
+
+    static String host(InetAddress address) {
+        if (address == null || address.isAnyLocalAddress()) {
+            return "localhost";
+        }
+        String host = address.getHostAddress();
+        return address instanceof Inet6Address ? "[" + host + "]" : host;
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.PathSegment;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Collapses identical concurrent GET requests into a single resource method call.  The first request for a key calls
+ * the resource and captures the bytes of its response, requests arriving while it is in flight wait for those bytes
+ * and replay them.  Nothing is kept once the first request completes, so a response is never older than the request
+ * that receives it.
+ * <p>
+ * This runs inside Jersey after every authentication, authorization, rate limiting and context filter, so each
+ * request that shares a response has passed those filters itself.  The key includes the authenticated principal, so
+ * a response is only shared between requests of the same principal, or between anonymous requests.
+ */
+@Priority(Priorities.USER + 100)
+public class RequestCoalescingFilter
+        implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor, ApplicationEventListener {
+
+    private static final String METRIC_NAME = "schemaregistry.coalescing.requests";
+    private static final String LEADER = RequestCoalescingFilter.class.getName() + ".leader";
+    private static final String STATUS = RequestCoalescingFilter.class.getName() + ".status";
+
+    private final ConcurrentMap<String, CompletableFuture<CapturedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final long waitTimeoutMs;
+    private final Counter leaders;
+    private final Counter followers;
+
+    public RequestCoalescingFilter(long waitTimeoutMs) {
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.leaders = Metrics.counter(METRIC_NAME, "role", "leader");
+        this.followers = Metrics.counter(METRIC_NAME, "role", "follower");
+        Metrics.gauge("schemaregistry.coalescing.in.flight", inFlight, Map::size);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        // change feed streams and long polls stay open, their responses cannot be captured and shared
+        if (!HttpMethod.GET.equals(requestContext.getMethod())) {
+            return;
+        }
+        List<PathSegment> segments = requestContext.getUriInfo().getPathSegments();
+        if (!segments.isEmpty() && "changes".equals(segments.get(0).getPath())) {
+            return;
+        }
+
+        String key = key(requestContext);
+        CompletableFuture<CapturedResponse> pending = new CompletableFuture<>();
+        CompletableFuture<CapturedResponse> leader = inFlight.putIfAbsent(key, pending);
+
+        if (leader != null) {
+            CapturedResponse captured = await(leader);
+            if (captured != null) {
+                followers.increment();
+                requestContext.abortWith(captured.toResponse());
+            }
+            // otherwise the request calls the resource itself, without becoming a leader
+            return;
+        }
+
+        leaders.increment();
+        requestContext.setProperty(LEADER, new Leader(key, pending));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Leader leader = (Leader) requestContext.getProperty(LEADER);
+        if (leader == null) {
+            return;
+        }
+        if (responseContext.getStatus() >= 500) {
+            leader.complete(null);
+        } else if (!responseContext.hasEntity()) {
+            leader.complete(new CapturedResponse(responseContext.getStatus(), responseContext.getHeaders(), null));
+        } else {
+            requestContext.setProperty(STATUS, responseContext.getStatus());
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        Leader leader = (Leader) context.getProperty(LEADER);
+        Integer status = (Integer) context.getProperty(STATUS);
+        if (leader == null || status == null) {
+            context.proceed();
+            return;
+        }
+
+        CapturingOutputStream capturing = new CapturingOutputStream(context.getOutputStream());
+        context.setOutputStream(capturing);
+        CapturedResponse captured = null;
+        try {
+            context.proceed();
+            captured = new CapturedResponse(status, context.getHeaders(), capturing.captured.toByteArray());
+        } finally {
+            leader.complete(captured);
+        }
+    }
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        if (!HttpMethod.GET.equals(requestEvent.getContainerRequest().getMethod())) {
+            return null;
+        }
+        // releases the followers of a leader whose response was never written, e.g. when writing it failed
+        return event -> {
+            if (event.getType() == RequestEvent.Type.FINISHED) {
+                Leader leader = (Leader) event.getContainerRequest().getProperty(LEADER);
+                if (leader != null) {
+                    leader.complete(null);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the number of requests waiting for the response of another request
+     */
+    int waitingFollowers() {
+        int waiting = 0;
+        for (CompletableFuture<CapturedResponse> pending : inFlight.values()) {
+            waiting += pending.getNumberOfDependents();
+        }
+        return waiting;
+    }
+
+    private CapturedResponse await(CompletableFuture<CapturedResponse> leader) {
+        try {
+            return leader.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Requests share a response only if they ask for the same resource with the same representation, as the same
+     * principal.  Contexts are part of the path or the subject query parameter, so they are covered by the URI.
+     */
+    static String key(ContainerRequestContext requestContext) {
+        StringBuilder key = new StringBuilder(requestContext.getUriInfo().getRequestUri().toString());
+        key.append('\n').append(nullToEmpty(requestContext.getHeaderString(HttpHeaders.ACCEPT)));
+        SecurityContext securityContext = requestContext.getSecurityContext();
+        Principal principal = securityContext != null ? securityContext.getUserPrincipal() : null;
+        if (principal != null) {
+            key.append('\n').append(nullToEmpty(securityContext.getAuthenticationScheme()))
+                    .append('\n').append(principal.getName());
+        }
+        return key.toString();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private final class Leader {
+
+        private final String key;
+        private final CompletableFuture<CapturedResponse> pending;
+
+        Leader(String key, CompletableFuture<CapturedResponse> pending) {
+            this.key = key;
+            this.pending = pending;
+        }
+
+        void complete(CapturedResponse captured) {
+            inFlight.remove(key, pending);
+            pending.complete(captured);
+        }
+    }
+
+    private static final class CapturingOutputStream extends FilterOutputStream {
+
+        private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+        CapturingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            captured.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            captured.write(b, off, len);
+        }
+    }
+
+    private static final class CapturedResponse {
+
+        private final int status;
+        private final Map<String, List<String>> headers = new LinkedHashMap<>();
+        private final byte[] body;
+
+        CapturedResponse(int status, MultivaluedMap<String, ?> headers, byte[] body) {
+            this.status = status;
+            for (Map.Entry<String, ? extends List<?>> header : headers.entrySet()) {
+                if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+                    continue;
+                }
+                List<String> values = new ArrayList<>(header.getValue().size());
+                for (Object value : header.getValue()) {
+                    values.add(String.valueOf(value));
+                }
+                this.headers.put(header.getKey(), values);
+            }
+            this.body = body;
+        }
+
+        Response toResponse() {
+            Response.ResponseBuilder response = Response.status(status).entity(body);
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                for (String value : header.getValue()) {
+                    response.header(header.getKey(), value);
+                }
+            }
+            return response.build();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.compatibility;
+
+import com.github.jeremylford.spring.schemaregistry.jfr.RegistryEvents;
+import com.github.jeremylford.spring.schemaregistry.observation.RegistryObservations;
+import com.github.jeremylford.spring.schemaregistry.slowrequest.RequestPhases;
+import io.confluent.kafka.schemaregistry.CompatibilityLevel;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+
+import java.util.List;
+
+/**
+ * Runs the compatibility checks of the schemas parsed by
+ * {@link com.github.jeremylford.spring.schemaregistry.provider.CompatibilityCheckingSchemaProvider}.  Both register()
+ * and the compatibility endpoint check a schema by calling isCompatible on it, so this sees the checks of both.
+ * <p>
+ * The checks are not told the subject, so the registry sets it around them with {@link #forSubject}.
+ */
+public class CompatibilityCheck {
+
+    /**
+     * Config entry of the schema providers holding the instance that runs their checks.
+     */
+    public static final String CONFIG = "spring.schemaregistry.compatibility.check";
+
+    private static final ThreadLocal<String> SUBJECT = new ThreadLocal<>();
+
+    private final CompatibilityExecutor executor;
+    private final boolean jfrEvents;
+    private final RegistryObservations observations;
+    private final boolean slowRequests;
+
+    /**
+     * @param observations null unless the checks are observed
+     * @param slowRequests whether the checks are timed as the compatibility phase of the request
+     */
+    public CompatibilityCheck(CompatibilityExecutor executor, boolean jfrEvents, RegistryObservations observations,
+                              boolean slowRequests) {
+        this.executor = executor;
+        this.jfrEvents = jfrEvents;
+        this.observations = observations;
+        this.slowRequests = slowRequests;
+    }
+
+    /**
+     * Runs an operation of the registry on a subject, so that the checks it makes are attributed to that subject.
+     */
+    public static <T, E extends Exception> T forSubject(String subject, RegistryEvents.Operation<T, E> operation)
+            throws E {
+        String previousSubject = SUBJECT.get();
+        SUBJECT.set(subject);
+        try {
+            return operation.run();
+        } finally {
+            if (previousSubject == null) {
+                SUBJECT.remove();
+            } else {
+                SUBJECT.set(previousSubject);
+            }
+        }
+    }
+
+    public List<String> isCompatible(CompatibilityLevel level, ParsedSchema schema,
+                                     List<? extends ParsedSchema> previousSchemas) {
+        String subject = SUBJECT.get();
+        if (!slowRequests) {
+            return observe(subject, level, schema, previousSchemas);
+        }
+        return RequestPhases.time(RequestPhases.Phase.COMPATIBILITY,
+                () -> observe(subject, level, schema, previousSchemas));
+    }
+
+    private List<String> observe(String subject, CompatibilityLevel level, ParsedSchema schema,
+                                 List<? extends ParsedSchema> previousSchemas) {
+        if (observations == null) {
+            return record(subject, level, schema, previousSchemas);
+        }
+        return observations.observe(RegistryObservations.COMPATIBILITY_CHECK, subject,
+                () -> record(subject, level, schema, previousSchemas));
+    }
+
+    private List<String> record(String subject, CompatibilityLevel level, ParsedSchema schema,
+                                List<? extends ParsedSchema> previousSchemas) {
+        if (!jfrEvents) {
+            return executor.isCompatible(level, schema, previousSchemas);
+        }
+        return RegistryEvents.compatibilityCheck(subject, schema.schemaType(), previousSchemas.size(),
+                () -> executor.isCompatible(level, schema, previousSchemas));
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.compatibility;
+
+import io.confluent.kafka.schemaregistry.CompatibilityChecker;
+import io.confluent.kafka.schemaregistry.CompatibilityLevel;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks a candidate schema against the version history of a subject.  For the *_TRANSITIVE levels, each
+ * previous version is an independent check, so large histories are split over a bounded fork join pool and the
+ * checks of older versions are abandoned as soon as a newer one reports an incompatibility.
+ */
+public class CompatibilityExecutor implements AutoCloseable {
+
+    private static final String DIFFERENT_SCHEMA_TYPE = "Incompatible because of different schema type";
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    /**
+     * @param parallelism       number of worker threads, a value less than 2 disables parallel checks
+     * @param parallelThreshold minimum number of previous versions before checks are run in parallel
+     */
+    public CompatibilityExecutor(int parallelism, int parallelThreshold) {
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism, CompatibilityExecutor::newThread, null, false) : null;
+        this.parallelThreshold = Math.max(1, parallelThreshold);
+    }
+
+    /**
+     * @return true if a check at the given level against the given number of previous versions would be run in parallel
+     */
+    public boolean isParallel(CompatibilityLevel level, int previousVersions) {
+        return pool != null && perVersionLevel(level) != null && previousVersions >= parallelThreshold;
+    }
+
+    /**
+     * Equivalent to {@link ParsedSchema#isCompatible(CompatibilityLevel, List)}, but with the per-version checks of
+     * transitive levels run in parallel.  Like the sequential check, which goes from the newest version to the oldest,
+     * only the messages of the most recent incompatible version are returned, so the result does not depend on which
+     * check finished first, nor on whether the check ran in parallel.
+     */
+    public List<String> isCompatible(CompatibilityLevel level, ParsedSchema schema,
+                                     List<? extends ParsedSchema> previousSchemas) {
+        if (!isParallel(level, previousSchemas.size())) {
+            return schema.isCompatible(level, previousSchemas);
+        }
+
+        for (ParsedSchema previousSchema : previousSchemas) {
+            if (!schema.schemaType().equals(previousSchema.schemaType())) {
+                return Collections.singletonList(DIFFERENT_SCHEMA_TYPE);
+            }
+        }
+
+        CompatibilityChecker checker = CompatibilityChecker.checker(perVersionLevel(level));
+        AtomicReference<Failure> failure = new AtomicReference<>();
+        int grain = Math.max(1, previousSchemas.size() / (pool.getParallelism() * 4));
+
+        pool.invoke(new CheckTask(checker, schema, previousSchemas, 0, previousSchemas.size(), grain, failure));
+
+        Failure latest = failure.get();
+        return latest == null ? Collections.emptyList() : latest.errors;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return the level to check a single previous version with, or null if the level is not transitive
+     */
+    static CompatibilityLevel perVersionLevel(CompatibilityLevel level) {
+        switch (level) {
+            case BACKWARD_TRANSITIVE:
+                return CompatibilityLevel.BACKWARD;
+            case FORWARD_TRANSITIVE:
+                return CompatibilityLevel.FORWARD;
+            case FULL_TRANSITIVE:
+                return CompatibilityLevel.FULL;
+            default:
+                return null;
+        }
+    }
+
+    private static ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("schema-registry-compatibility-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static final class CheckTask extends RecursiveAction {
+
+        private final CompatibilityChecker checker;
+        private final ParsedSchema schema;
+        private final List<? extends ParsedSchema> previousSchemas;
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final AtomicReference<Failure> failure;
+
+        CheckTask(CompatibilityChecker checker, ParsedSchema schema, List<? extends ParsedSchema> previousSchemas,
+                  int from, int to, int grain, AtomicReference<Failure> failure) {
+            this.checker = checker;
+            this.schema = schema;
+            this.previousSchemas = previousSchemas;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.failure = failure;
+        }
+
+        @Override
+        protected void compute() {
+            // versions older than an incompatible one cannot change the result
+            if (failedAfter(to - 1)) {
+                return;
+            }
+
+            if (to - from <= grain) {
+                for (int i = to - 1; i >= from && !failedAfter(i); i--) {
+                    List<String> errors = checker.isCompatible(
+                            schema, Collections.singletonList(previousSchemas.get(i))
+                    );
+                    if (!errors.isEmpty()) {
+                        record(new Failure(i, errors));
+                        return;
+                    }
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new CheckTask(checker, schema, previousSchemas, from, middle, grain, failure),
+                    new CheckTask(checker, schema, previousSchemas, middle, to, grain, failure)
+            );
+        }
+
+        private boolean failedAfter(int index) {
+            Failure current = failure.get();
+            return current != null && current.index > index;
+        }
+
+        private void record(Failure candidate) {
+            Failure current;
+            do {
+                current = failure.get();
+                if (current != null && current.index > candidate.index) {
+                    return;
+                }
+            } while (!failure.compareAndSet(current, candidate));
+        }
+    }
+
+    private static final class Failure {
+
+        private final int index;
+        private final List<String> errors;
+
+        Failure(int index, List<String> errors) {
+            this.index = index;
+            this.errors = errors;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.connector;
+
+import com.github.jeremylford.spring.schemaregistry.ConfluentUtils;
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.apache.kafka.common.config.ConfigException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serves each configured listener on another port than server.port with its own Tomcat connector.  Every connector
+ * has its own acceptor and worker threads, so requests forwarded between nodes or sent to an admin listener do not
+ * queue behind client reads on the main port.
+ * <p>
+ * The extra connectors speak plain HTTP, TLS is configured through server.ssl for the main port only.  When enabled,
+ * the selected connectors, the main one included, also accept HTTP/2 over cleartext (h2c), so that a client sends its
+ * concurrent requests over one connection instead of opening one connection per request in flight.
+ */
+public class ListenerConnectorCustomizer implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ListenerConnectorCustomizer.class);
+
+    private static final List<String> SUPPORTED_SCHEMES = Arrays.asList(
+            SchemaRegistryConfig.HTTP,
+            SchemaRegistryConfig.HTTPS
+    );
+
+    private final SchemaRegistryProperties schemaRegistryProperties;
+
+    public ListenerConnectorCustomizer(SchemaRegistryProperties schemaRegistryProperties) {
+        this.schemaRegistryProperties = schemaRegistryProperties;
+    }
+
+    @Override
+    public void customize(TomcatServletWebServerFactory factory) {
+        if (isH2cOnMainPort(schemaRegistryProperties, factory.getPort())) {
+            factory.addConnectorCustomizers(this::addHttp2);
+            LOGGER.info("Port {} accepts h2c", factory.getPort());
+        }
+        for (ConfluentUtils.NamedURI listener : additionalListeners(schemaRegistryProperties, factory.getPort())) {
+            factory.addAdditionalTomcatConnectors(connector(listener));
+            LOGGER.info("Listener {} is served by its own connector", listener);
+        }
+    }
+
+    /**
+     * @return the listeners that need a connector besides the one on {@code mainPort}
+     */
+    static List<ConfluentUtils.NamedURI> additionalListeners(SchemaRegistryProperties schemaRegistryProperties,
+                                                             int mainPort) {
+        String[] listeners = schemaRegistryProperties.getListeners();
+        if (!schemaRegistryProperties.getConnectors().isEnabled() || listeners == null || listeners.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<ConfluentUtils.NamedURI> additional = new ArrayList<>();
+        Set<Integer> ports = new HashSet<>();
+        for (ConfluentUtils.NamedURI listener : ConfluentUtils.parseListeners(
+                Arrays.asList(listeners),
+                schemaRegistryProperties.getListenerProtocolMap(),
+                mainPort,
+                SUPPORTED_SCHEMES,
+                SchemaRegistryConfig.HTTP)) {
+            int port = listener.getUri().getPort();
+            if (port == mainPort) {
+                continue;
+            }
+            if (!SchemaRegistryConfig.HTTP.equals(listener.getUri().getScheme())) {
+                throw new ConfigException("Listener " + listener + " is not http, only the listener on port "
+                        + mainPort + " can use TLS, configured through server.ssl");
+            }
+            if (!ports.add(port)) {
+                throw new ConfigException("More than one listener was specified with port " + port);
+            }
+            additional.add(listener);
+        }
+        return additional;
+    }
+
+    static int maxThreads(SchemaRegistryProperties.Connectors connectors, ConfluentUtils.NamedURI listener) {
+        Integer maxThreads = connectors.getMaxThreads().get(key(listener));
+        return maxThreads != null ? maxThreads : connectors.getDefaultMaxThreads();
+    }
+
+    static boolean isH2c(SchemaRegistryProperties.Http2 http2, ConfluentUtils.NamedURI listener) {
+        return http2.isEnabled()
+                && (http2.getListeners().length == 0 || Arrays.asList(http2.getListeners()).contains(key(listener)));
+    }
+
+    /**
+     * The connector on the main port is created by Spring Boot, it is selected by the name of the listener on that
+     * port, if any, or by the port.
+     */
+    static boolean isH2cOnMainPort(SchemaRegistryProperties schemaRegistryProperties, int mainPort) {
+        SchemaRegistryProperties.Http2 http2 = schemaRegistryProperties.getHttp2();
+        if (!http2.isEnabled()) {
+            return false;
+        }
+        if (http2.getListeners().length == 0) {
+            return true;
+        }
+        String[] listeners = schemaRegistryProperties.getListeners();
+        if (listeners != null && listeners.length > 0) {
+            for (ConfluentUtils.NamedURI listener : ConfluentUtils.parseListeners(
+                    Arrays.asList(listeners),
+                    schemaRegistryProperties.getListenerProtocolMap(),
+                    mainPort,
+                    SUPPORTED_SCHEMES,
+                    SchemaRegistryConfig.HTTP)) {
+                if (listener.getUri().getPort() == mainPort) {
+                    return isH2c(http2, listener);
+                }
+            }
+        }
+        return Arrays.asList(http2.getListeners()).contains(String.valueOf(mainPort));
+    }
+
+    private static String key(ConfluentUtils.NamedURI listener) {
+        return listener.getName() != null ? listener.getName() : String.valueOf(listener.getUri().getPort());
+    }
+
+    private Connector connector(ConfluentUtils.NamedURI listener) {
+        SchemaRegistryProperties.Connectors connectors = schemaRegistryProperties.getConnectors();
+        Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+        connector.setPort(listener.getUri().getPort());
+        String host = listener.getUri().getHost();
+        if (host != null && !host.isEmpty() && !"0.0.0.0".equals(host)) {
+            connector.setProperty("address", host);
+        }
+
+        ProtocolHandler protocolHandler = connector.getProtocolHandler();
+        if (protocolHandler instanceof AbstractProtocol) {
+            AbstractProtocol<?> protocol = (AbstractProtocol<?>) protocolHandler;
+            int maxThreads = maxThreads(connectors, listener);
+            protocol.setMaxThreads(maxThreads);
+            protocol.setMinSpareThreads(Math.min(10, maxThreads));
+            protocol.setAcceptCount(connectors.getAcceptCount());
+        }
+        if (isH2c(schemaRegistryProperties.getHttp2(), listener)) {
+            addHttp2(connector);
+        }
+        return connector;
+    }
+
+    private void addHttp2(Connector connector) {
+        Http2Protocol http2Protocol = null;
+        for (UpgradeProtocol upgradeProtocol : connector.findUpgradeProtocols()) {
+            // already added when server.http2.enabled is set
+            if (upgradeProtocol instanceof Http2Protocol) {
+                http2Protocol = (Http2Protocol) upgradeProtocol;
+            }
+        }
+        if (http2Protocol == null) {
+            http2Protocol = new Http2Protocol();
+            connector.addUpgradeProtocol(http2Protocol);
+        }
+        SchemaRegistryProperties.Http2 http2 = schemaRegistryProperties.getHttp2();
+        http2Protocol.setMaxConcurrentStreams(http2.getMaxConcurrentStreams());
+        http2Protocol.setMaxConcurrentStreamExecution(http2.getMaxConcurrentStreamExecution());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.encoding;
+
+import org.glassfish.jersey.server.model.ModelProcessor;
+import org.glassfish.jersey.server.model.Resource;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.server.model.ResourceModel;
+
+import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.MediaType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Adds binary media types to the {@code @Produces} of the registry resource methods that produce JSON, so that a
+ * client asking for Smile or CBOR in its Accept header gets the same entity in that encoding rather than a 406.
+ * The binary types are listed with a lower quality than JSON, so clients that accept anything still get JSON.
+ */
+public class BinaryFormatModelProcessor implements ModelProcessor {
+
+    private final List<MediaType> mediaTypes;
+
+    public BinaryFormatModelProcessor(List<MediaType> mediaTypes) {
+        List<MediaType> weighted = new ArrayList<>(mediaTypes.size());
+        for (MediaType mediaType : mediaTypes) {
+            weighted.add(new MediaType(mediaType.getType(), mediaType.getSubtype(),
+                    Collections.singletonMap("qs", "0.5")));
+        }
+        this.mediaTypes = Collections.unmodifiableList(weighted);
+    }
+
+    @Override
+    public ResourceModel processResourceModel(ResourceModel resourceModel, Configuration configuration) {
+        ResourceModel.Builder builder = new ResourceModel.Builder(false);
+        for (Resource resource : resourceModel.getResources()) {
+            builder.addResource(process(resource));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public ResourceModel processSubResource(ResourceModel subResourceModel, Configuration configuration) {
+        return subResourceModel;
+    }
+
+    static boolean producesJson(ResourceMethod resourceMethod) {
+        for (MediaType mediaType : resourceMethod.getProducedTypes()) {
+            if (isJson(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isJson(MediaType mediaType) {
+        String subtype = mediaType.getSubtype();
+        return "application".equals(mediaType.getType())
+                && ("json".equals(subtype) || subtype.endsWith("+json"));
+    }
+
+    private Resource process(Resource resource) {
+        Resource.Builder builder = Resource.builder(resource);
+        for (ResourceMethod resourceMethod : resource.getResourceMethods()) {
+            if (producesJson(resourceMethod)) {
+                builder.updateMethod(resourceMethod).produces(mediaTypes);
+            }
+        }
+        for (Resource childResource : resource.getChildResources()) {
+            builder.replaceChildResource(childResource, process(childResource));
+        }
+        return builder.build();
+    }
+}
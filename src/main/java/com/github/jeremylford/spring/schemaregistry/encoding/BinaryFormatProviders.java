@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.encoding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.jaxrs.cbor.CBORMediaTypes;
+import com.fasterxml.jackson.jaxrs.cbor.JacksonCBORProvider;
+import com.fasterxml.jackson.jaxrs.smile.JacksonSmileProvider;
+import com.fasterxml.jackson.jaxrs.smile.SmileMediaTypes;
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ClassUtils;
+
+import javax.ws.rs.core.Configurable;
+import javax.ws.rs.core.MediaType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registers the Smile and CBOR providers that are enabled and on the classpath.  Both are optional dependencies,
+ * so each is only loaded, through its own nested class, once its provider class has been found.
+ */
+public final class BinaryFormatProviders {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryFormatProviders.class);
+
+    static final String SMILE_PROVIDER = "com.fasterxml.jackson.jaxrs.smile.JacksonSmileProvider";
+    static final String CBOR_PROVIDER = "com.fasterxml.jackson.jaxrs.cbor.JacksonCBORProvider";
+
+    private BinaryFormatProviders() {
+    }
+
+    public static void register(Configurable<?> config, SchemaRegistryProperties.BinaryFormats binaryFormats) {
+        List<MediaType> mediaTypes = new ArrayList<>();
+        if (binaryFormats.isSmile() && isPresent(SMILE_PROVIDER, "smile", "jackson-jaxrs-smile-provider")) {
+            mediaTypes.add(Smile.register(config));
+        }
+        if (binaryFormats.isCbor() && isPresent(CBOR_PROVIDER, "cbor", "jackson-jaxrs-cbor-provider")) {
+            mediaTypes.add(Cbor.register(config));
+        }
+        if (!mediaTypes.isEmpty()) {
+            config.register(new BinaryFormatModelProcessor(mediaTypes));
+        }
+    }
+
+    private static boolean isPresent(String className, String property, String artifact) {
+        if (ClassUtils.isPresent(className, BinaryFormatProviders.class.getClassLoader())) {
+            return true;
+        }
+        LOGGER.warn("schemaregistry.binary-formats.{} is enabled but {} is not on the classpath, add "
+                + "com.fasterxml.jackson.jaxrs:{} to serve it", property, className, artifact);
+        return false;
+    }
+
+    private static final class Smile {
+
+        static MediaType register(Configurable<?> config) {
+            config.register(new JacksonSmileProvider(new ObjectMapper(new SmileFactory())));
+            return MediaType.valueOf(SmileMediaTypes.APPLICATION_JACKSON_SMILE);
+        }
+    }
+
+    private static final class Cbor {
+
+        static MediaType register(Configurable<?> config) {
+            config.register(new JacksonCBORProvider(new ObjectMapper(new CBORFactory())));
+            return MediaType.valueOf(CBORMediaTypes.APPLICATION_JACKSON_CBOR);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.execution;
+
+import org.glassfish.jersey.server.model.Invocable;
+import org.glassfish.jersey.server.spi.internal.ResourceMethodInvocationHandlerProvider;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.container.AsyncResponse;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs write methods that take a suspended {@link AsyncResponse} (register, delete) on the {@link RequestExecutor}
+ * and returns the request thread straight away.  The response is resumed by the resource method once the write has
+ * been read back from the Kafka store or forwarded to the leader.
+ * <p>
+ * The timeout only covers the wait for an executor thread: a write that has not started by then is dropped and the
+ * request fails with a 503, so a client can always retry it safely.  A write that has started may already be in the
+ * Kafka store, so it is never timed out here; it is bounded by the store and forwarding timeouts and its response
+ * reports the actual outcome.
+ * <p>
+ * {@link ResourceMethodInvocationHandlerProvider} is an internal Jersey SPI, this is written against Jersey 2.32.
+ */
+public class AsyncWriteInvocationHandlerProvider implements ResourceMethodInvocationHandlerProvider {
+
+    private final RequestExecutor requestExecutor;
+    private final long timeoutMs;
+    private final Executor executor;
+
+    public AsyncWriteInvocationHandlerProvider(RequestExecutor requestExecutor, long timeoutMs) {
+        this(requestExecutor, timeoutMs, requestExecutor.getExecutorService());
+    }
+
+    /**
+     * @param executor runs the writes, the executor service of the request executor or a wrapper of it
+     */
+    public AsyncWriteInvocationHandlerProvider(RequestExecutor requestExecutor, long timeoutMs, Executor executor) {
+        this.requestExecutor = requestExecutor;
+        this.timeoutMs = timeoutMs;
+        this.executor = executor;
+    }
+
+    @Override
+    public InvocationHandler create(Invocable invocable) {
+        int asyncResponseIndex = asyncResponseIndex(invocable.getHandlingMethod());
+        if (asyncResponseIndex < 0 || !isWrite(invocable.getDefinitionMethod())) {
+            return null;
+        }
+
+        return (resource, method, args) -> {
+            AsyncResponse asyncResponse = (AsyncResponse) args[asyncResponseIndex];
+            // claimed by whichever comes first, the write starting or the timeout expiring
+            AtomicBoolean claimed = new AtomicBoolean();
+            asyncResponse.setTimeoutHandler(response -> {
+                if (claimed.compareAndSet(false, true)) {
+                    long retryAfter = requestExecutor.getRetryAfterSeconds();
+                    response.resume(new ServiceUnavailableException(
+                            "Write not started within " + timeoutMs + "ms", retryAfter
+                    ));
+                } else {
+                    response.setTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+                }
+            });
+            asyncResponse.setTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+
+            CompletableFuture
+                    .runAsync(() -> {
+                        if (claimed.compareAndSet(false, true)) {
+                            invoke(resource, method, args);
+                        }
+                    }, executor)
+                    .whenComplete((ignored, failure) -> {
+                        if (failure != null) {
+                            asyncResponse.resume(unwrap(failure));
+                        }
+                    });
+            return null;
+        };
+    }
+
+    static boolean isWrite(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            HttpMethod httpMethod = annotation.annotationType().getAnnotation(HttpMethod.class);
+            if (httpMethod != null && ResourceExecutionModelProcessor.WRITE_METHODS.contains(httpMethod.value())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int asyncResponseIndex(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (AsyncResponse.class.isAssignableFrom(parameterTypes[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void invoke(Object resource, Method method, Object[] args) {
+        try {
+            method.invoke(resource, args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            throw new CompletionException(e.getTargetException());
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
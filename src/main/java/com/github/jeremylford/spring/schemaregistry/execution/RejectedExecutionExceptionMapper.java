@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.execution;
+
+import io.confluent.rest.entities.ErrorMessage;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Maps a saturated {@link RequestExecutor} to a 503 the client can retry.
+ */
+public class RejectedExecutionExceptionMapper implements ExceptionMapper<RejectedExecutionException> {
+
+    private final int retryAfterSeconds;
+
+    public RejectedExecutionExceptionMapper(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public Response toResponse(RejectedExecutionException exception) {
+        Response.Status status = Response.Status.SERVICE_UNAVAILABLE;
+        return Response.status(status)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .entity(new ErrorMessage(status.getStatusCode(), exception.getMessage()))
+                .build();
+    }
+}
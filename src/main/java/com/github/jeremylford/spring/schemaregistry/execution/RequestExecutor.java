@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.execution;
+
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor that blocking resource methods are moved to, so they do not hold servlet container threads.
+ */
+public class RequestExecutor implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestExecutor.class);
+
+    private static final String METRIC_PREFIX = "schemaregistry.request.executor";
+
+    private final SchemaRegistryProperties.RequestExecution.Mode mode;
+    private final ExecutorService executorService;
+    private final int retryAfterSeconds;
+
+    public RequestExecutor(SchemaRegistryProperties.RequestExecution requestExecution) {
+        this.mode = resolveMode(requestExecution.getMode());
+        this.retryAfterSeconds = requestExecution.getRetryAfterSeconds();
+
+        Tags tags = Tags.of("mode", mode.name().toLowerCase());
+        Counter rejected = Metrics.counter(METRIC_PREFIX + ".rejected", tags);
+
+        switch (mode) {
+            case BOUNDED:
+                ThreadPoolExecutor threadPool = new ThreadPoolExecutor(
+                        requestExecution.getThreads(), requestExecution.getThreads(),
+                        60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(Math.max(1, requestExecution.getQueueCapacity())),
+                        new NamedThreadFactory("schema-registry-request-"),
+                        rejectionHandler(requestExecution.getRejection(), rejected)
+                );
+                threadPool.allowCoreThreadTimeOut(true);
+                Metrics.gauge(METRIC_PREFIX + ".queue.size", tags, threadPool, pool -> pool.getQueue().size());
+                Metrics.gauge(METRIC_PREFIX + ".active", tags, threadPool, ThreadPoolExecutor::getActiveCount);
+                this.executorService = threadPool;
+                break;
+            case VIRTUAL:
+                LimitedExecutorService limited = new LimitedExecutorService(
+                        VirtualThreads.newThreadPerTaskExecutor("schema-registry-request-"),
+                        requestExecution.getThreads(),
+                        requestExecution.getRejection(),
+                        rejected
+                );
+                Metrics.gauge(METRIC_PREFIX + ".active", tags, limited, LimitedExecutorService::inFlight);
+                this.executorService = limited;
+                break;
+            default:
+                this.executorService = null;
+        }
+    }
+
+    /**
+     * @return false when resource methods run on the servlet container threads
+     */
+    public boolean isEnabled() {
+        return executorService != null;
+    }
+
+    public SchemaRegistryProperties.RequestExecution.Mode getMode() {
+        return mode;
+    }
+
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (executorService != null) {
+            executorService.shutdown();
+            if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+            }
+        }
+    }
+
+    private static SchemaRegistryProperties.RequestExecution.Mode resolveMode(
+            SchemaRegistryProperties.RequestExecution.Mode mode) {
+        if (mode == SchemaRegistryProperties.RequestExecution.Mode.VIRTUAL && !VirtualThreads.isSupported()) {
+            LOGGER.warn("Virtual threads require Java 21 or later, falling back to a bounded request executor");
+            return SchemaRegistryProperties.RequestExecution.Mode.BOUNDED;
+        }
+        return mode;
+    }
+
+    private static RejectedExecutionHandler rejectionHandler(
+            SchemaRegistryProperties.RequestExecution.Rejection rejection, Counter rejected) {
+        if (rejection == SchemaRegistryProperties.RequestExecution.Rejection.CALLER_RUNS) {
+            ThreadPoolExecutor.CallerRunsPolicy callerRuns = new ThreadPoolExecutor.CallerRunsPolicy();
+            return (runnable, executor) -> {
+                rejected.increment();
+                callerRuns.rejectedExecution(runnable, executor);
+            };
+        }
+        return (runnable, executor) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("Request executor is saturated");
+        };
+    }
+
+    /**
+     * Caps the number of tasks in flight on an otherwise unbounded executor, such as one that starts a virtual
+     * thread per task.
+     */
+    static final class LimitedExecutorService extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+        private final int maxConcurrency;
+        private final SchemaRegistryProperties.RequestExecution.Rejection rejection;
+        private final Counter rejected;
+
+        LimitedExecutorService(ExecutorService delegate, int maxConcurrency,
+                               SchemaRegistryProperties.RequestExecution.Rejection rejection, Counter rejected) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrency);
+            this.maxConcurrency = maxConcurrency;
+            this.rejection = rejection;
+            this.rejected = rejected;
+        }
+
+        int inFlight() {
+            return maxConcurrency - permits.availablePermits();
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (!permits.tryAcquire()) {
+                rejected.increment();
+                if (rejection == SchemaRegistryProperties.RequestExecution.Rejection.CALLER_RUNS) {
+                    command.run();
+                    return;
+                }
+                throw new RejectedExecutionException("Request executor is saturated");
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        command.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
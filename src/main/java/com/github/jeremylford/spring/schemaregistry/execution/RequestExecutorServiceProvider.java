@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.execution;
+
+import org.glassfish.jersey.server.ManagedAsyncExecutor;
+import org.glassfish.jersey.spi.ExecutorServiceProvider;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Supplies the {@link RequestExecutor} to Jersey for managed async resource methods.  The executor is owned by the
+ * application context, so it is not shut down when Jersey disposes of it.
+ */
+@ManagedAsyncExecutor
+public class RequestExecutorServiceProvider implements ExecutorServiceProvider {
+
+    private final RequestExecutor requestExecutor;
+
+    public RequestExecutorServiceProvider(RequestExecutor requestExecutor) {
+        this.requestExecutor = requestExecutor;
+    }
+
+    @Override
+    public ExecutorService getExecutorService() {
+        return requestExecutor.getExecutorService();
+    }
+
+    @Override
+    public void dispose(ExecutorService executorService) {
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.execution;
+
+import org.glassfish.jersey.server.model.ModelProcessor;
+import org.glassfish.jersey.server.model.Resource;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.server.model.ResourceModel;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.Configuration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Marks the write methods of the registry resources as managed async, so Jersey runs them on the
+ * {@link RequestExecutor} rather than on a servlet container thread.  Reads are cheap lookups against the local
+ * store and stay on the container threads, so blocking writes cannot starve them.  Methods that already suspend
+ * are left alone when {@link AsyncWriteInvocationHandlerProvider} handles them.
+ */
+public class ResourceExecutionModelProcessor implements ModelProcessor {
+
+    static final Set<String> WRITE_METHODS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE
+    )));
+
+    private final boolean asyncWrites;
+
+    public ResourceExecutionModelProcessor(boolean asyncWrites) {
+        this.asyncWrites = asyncWrites;
+    }
+
+    @Override
+    public ResourceModel processResourceModel(ResourceModel resourceModel, Configuration configuration) {
+        ResourceModel.Builder builder = new ResourceModel.Builder(false);
+        for (Resource resource : resourceModel.getResources()) {
+            builder.addResource(process(resource));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public ResourceModel processSubResource(ResourceModel subResourceModel, Configuration configuration) {
+        return subResourceModel;
+    }
+
+    protected boolean isManagedAsync(ResourceMethod resourceMethod) {
+        if (asyncWrites && resourceMethod.isSuspendDeclared()) {
+            return false;
+        }
+        return WRITE_METHODS.contains(resourceMethod.getHttpMethod());
+    }
+
+    private Resource process(Resource resource) {
+        Resource.Builder builder = Resource.builder(resource);
+        for (ResourceMethod resourceMethod : resource.getResourceMethods()) {
+            if (!resourceMethod.isManagedAsyncDeclared() && isManagedAsync(resourceMethod)) {
+                builder.updateMethod(resourceMethod).managedAsync();
+            }
+        }
+        for (Resource childResource : resource.getChildResources()) {
+            builder.replaceChildResource(childResource, process(childResource));
+        }
+        return builder.build();
+    }
+}
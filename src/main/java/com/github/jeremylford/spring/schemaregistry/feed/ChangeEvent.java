@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.feed;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.jeremylford.spring.schemaregistry.store.SchemaContexts;
+
+/**
+ * A change applied from the schemas topic.  The offset of the record in the topic identifies the event, so a client
+ * can resume after the last event it saw.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeEvent {
+
+    public enum Type {
+        SCHEMA_REGISTERED,
+        SCHEMA_DELETED,
+        SUBJECT_DELETED,
+        CONFIG_CHANGED,
+        MODE_CHANGED
+    }
+
+    private final Type type;
+    private final long offset;
+    private final long timestamp;
+    private final String subject;
+    private final Integer version;
+    private final Integer id;
+
+    public ChangeEvent(Type type, long offset, long timestamp, String subject, Integer version, Integer id) {
+        this.type = type;
+        this.offset = offset;
+        this.timestamp = timestamp;
+        this.subject = subject;
+        this.version = version;
+        this.id = id;
+    }
+
+    @JsonProperty("type")
+    public Type getType() {
+        return type;
+    }
+
+    @JsonProperty("offset")
+    public long getOffset() {
+        return offset;
+    }
+
+    @JsonProperty("timestamp")
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the subject, or null for a global config or mode change
+     */
+    @JsonProperty("subject")
+    public String getSubject() {
+        return subject;
+    }
+
+    @JsonProperty("version")
+    public Integer getVersion() {
+        return version;
+    }
+
+    @JsonProperty("id")
+    public Integer getId() {
+        return id;
+    }
+
+    @JsonProperty("context")
+    public String getContext() {
+        return subject == null ? null : SchemaContexts.contextOf(subject);
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.feed;
+
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the most recent {@link ChangeEvent}s in a ring buffer and passes new events to the subscribers.  Replay and
+ * subscription happen under the same lock as publishing, so a subscriber sees every event after its resume offset
+ * exactly once.
+ * <p>
+ * Each subscriber has its own queue, drained on a pooled thread, so a slow client never holds up the store reader or
+ * the other clients.  A subscriber that falls further behind than the buffer holds is dropped: it could not have been
+ * replayed from that far back either.  Heartbeats go through the same queues, so clients that went away are noticed
+ * even when no event matches them.
+ */
+public class ChangeFeed implements AutoCloseable {
+
+    /**
+     * Receives the buffered events it missed, then the events published after it subscribed, and heartbeats in
+     * between.  These are called one at a time, in order, on a delivery thread.
+     */
+    public interface Subscriber {
+
+        /**
+         * @return false to unsubscribe
+         */
+        boolean onReplay(Replay replay);
+
+        /**
+         * @return false to unsubscribe
+         */
+        boolean onEvent(ChangeEvent event);
+
+        /**
+         * @return false to unsubscribe
+         */
+        default boolean onHeartbeat() {
+            return true;
+        }
+
+        /**
+         * Called, on another thread than the deliveries, when the subscriber is dropped for falling behind.
+         */
+        default void onDropped() {
+        }
+    }
+
+    /**
+     * The events a new subscriber missed, and whether older events it asked for are no longer buffered.
+     */
+    public static final class Replay {
+
+        private final List<ChangeEvent> events;
+        private final boolean truncated;
+
+        Replay(List<ChangeEvent> events, boolean truncated) {
+            this.events = events;
+            this.truncated = truncated;
+        }
+
+        public List<ChangeEvent> getEvents() {
+            return events;
+        }
+
+        /**
+         * @return true if events after the requested offset were dropped from the buffer, so the subscriber must
+         * reload its state
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final ChangeEvent[] buffer;
+    private final int maxSubscribers;
+    private final Map<Subscriber, Delivery> subscribers = new IdentityHashMap<>();
+    // at most one busy thread per subscriber, and there are at most maxSubscribers of them
+    private final ExecutorService delivery = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "schema-registry-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "schema-registry-change-feed-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long published;
+    private long lastOffset = -1;
+    private long droppedOffset = -1;
+
+    public ChangeFeed(int bufferSize, int maxSubscribers, long heartbeatIntervalMillis) {
+        this.buffer = new ChangeEvent[Math.max(1, bufferSize)];
+        this.maxSubscribers = maxSubscribers;
+        if (heartbeatIntervalMillis > 0) {
+            heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMillis, heartbeatIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        Metrics.gauge("schemaregistry.feed.subscribers", this, ChangeFeed::subscriberCount);
+    }
+
+    public synchronized void publish(ChangeEvent event) {
+        int slot = (int) (published++ % buffer.length);
+        if (buffer[slot] != null) {
+            droppedOffset = buffer[slot].getOffset();
+        }
+        buffer[slot] = event;
+        lastOffset = event.getOffset();
+
+        // the subscribers at the time of publishing, a later subscriber gets this event from its replay
+        offerAll(event);
+    }
+
+    /**
+     * Subscribes to the events published from now on, after a replay of the buffered events after {@code offset}.
+     *
+     * @param offset the offset of the last event the caller saw, or -1 for no replay
+     * @throws IllegalStateException if the maximum number of subscribers is reached
+     */
+    public synchronized void subscribe(long offset, Subscriber subscriber) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many change feed subscribers");
+        }
+        Delivery subscription = new Delivery(subscriber);
+        subscribers.put(subscriber, subscription);
+        subscription.offer(replay(offset));
+    }
+
+    synchronized Replay replay(long offset) {
+        if (offset < 0 || offset >= lastOffset) {
+            return new Replay(Collections.emptyList(), false);
+        }
+
+        int buffered = (int) Math.min(published, buffer.length);
+        List<ChangeEvent> events = new ArrayList<>();
+        for (long i = published - buffered; i < published; i++) {
+            ChangeEvent event = buffer[(int) (i % buffer.length)];
+            if (event.getOffset() > offset) {
+                events.add(event);
+            }
+        }
+        return new Replay(events, droppedOffset > offset);
+    }
+
+    public synchronized void unsubscribe(Subscriber subscriber) {
+        Delivery subscription = subscribers.remove(subscriber);
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    synchronized int subscriberCount() {
+        return subscribers.size();
+    }
+
+    synchronized void heartbeat() {
+        offerAll(HEARTBEAT);
+    }
+
+    private void offerAll(Object item) {
+        List<Delivery> dropped = null;
+        for (Delivery subscription : subscribers.values()) {
+            if (!subscription.offer(item)) {
+                if (dropped == null) {
+                    dropped = new ArrayList<>();
+                }
+                dropped.add(subscription);
+            }
+        }
+        if (dropped != null) {
+            for (Delivery subscription : dropped) {
+                subscribers.remove(subscription.subscriber);
+                delivery.execute(subscription.subscriber::onDropped);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            subscribers.values().forEach(Delivery::close);
+            subscribers.clear();
+        }
+        heartbeats.shutdownNow();
+        delivery.shutdownNow();
+    }
+
+    /**
+     * The items not yet passed to one subscriber.  At most one delivery thread drains it at a time.
+     */
+    private final class Delivery implements Runnable {
+
+        private final Subscriber subscriber;
+        private final Queue<Object> pending = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean heartbeatPending;
+        private boolean closed;
+
+        Delivery(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * @return false if the subscriber fell too far behind and must be dropped
+         */
+        boolean offer(Object item) {
+            synchronized (this) {
+                if (closed) {
+                    return true;
+                }
+                if (item == HEARTBEAT) {
+                    if (heartbeatPending) {
+                        return true;
+                    }
+                    heartbeatPending = true;
+                } else if (pending.size() >= buffer.length) {
+                    close();
+                    return false;
+                }
+                pending.add(item);
+                if (scheduled) {
+                    return true;
+                }
+                scheduled = true;
+            }
+            delivery.execute(this);
+            return true;
+        }
+
+        synchronized void close() {
+            closed = true;
+            pending.clear();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Object item;
+                synchronized (this) {
+                    item = pending.poll();
+                    if (item == null) {
+                        scheduled = false;
+                        return;
+                    }
+                    if (item == HEARTBEAT) {
+                        heartbeatPending = false;
+                    }
+                }
+                boolean subscribed = false;
+                try {
+                    subscribed = deliver(item);
+                } finally {
+                    if (!subscribed) {
+                        unsubscribe(subscriber);
+                    }
+                }
+                if (!subscribed) {
+                    return;
+                }
+            }
+        }
+
+        private boolean deliver(Object item) {
+            if (item == HEARTBEAT) {
+                return subscriber.onHeartbeat();
+            }
+            if (item instanceof Replay) {
+                return subscriber.onReplay((Replay) item);
+            }
+            return subscriber.onEvent((ChangeEvent) item);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.feed;
+
+import io.confluent.rest.entities.ErrorMessage;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams {@link ChangeEvent}s as server-sent events, or returns them to a long poll.  Event ids are offsets in the
+ * schemas topic: a reconnecting SSE client resumes from its Last-Event-ID, a polling client passes the offset of the
+ * last event it saw.  A {@code reset} event, or a {@code 409} to a poll, tells the client that events it missed are no
+ * longer buffered and it must reload what it caches.  Streams get a comment line at each heartbeat of the feed, which
+ * keeps proxies from timing them out and lets the feed notice clients that went away.
+ */
+@Path("/changes")
+public class ChangeFeedResource {
+
+    static final String RESET_EVENT = "reset";
+    static final String HEARTBEAT_COMMENT = "heartbeat";
+
+    private final ChangeFeed changeFeed;
+    private final long pollTimeoutMillis;
+
+    public ChangeFeedResource(ChangeFeed changeFeed, long pollTimeoutMillis) {
+        this.changeFeed = changeFeed;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+    }
+
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void stream(@Context SseEventSink sink,
+                       @Context Sse sse,
+                       @HeaderParam("Last-Event-ID") String lastEventId,
+                       @QueryParam("offset") @DefaultValue("-1") long offset,
+                       @QueryParam("subjectPrefix") String subjectPrefix,
+                       @QueryParam("context") String context) {
+        ChangeFilter filter = new ChangeFilter(subjectPrefix, context);
+        long from = resumeOffset(lastEventId, offset);
+
+        ChangeFeed.Subscriber subscriber = new ChangeFeed.Subscriber() {
+            @Override
+            public boolean onReplay(ChangeFeed.Replay replay) {
+                if (replay.isTruncated()) {
+                    send(sse.newEventBuilder().name(RESET_EVENT).data(String.class, String.valueOf(from)).build());
+                }
+                for (ChangeEvent event : replay.getEvents()) {
+                    onEvent(event);
+                }
+                return !sink.isClosed();
+            }
+
+            @Override
+            public boolean onEvent(ChangeEvent event) {
+                if (filter.matches(event)) {
+                    send(toSse(sse, event));
+                }
+                return !sink.isClosed();
+            }
+
+            @Override
+            public boolean onHeartbeat() {
+                send(sse.newEventBuilder().comment(HEARTBEAT_COMMENT).build());
+                return !sink.isClosed();
+            }
+
+            @Override
+            public void onDropped() {
+                // the client reconnects with the id of the last event it got, and is replayed from there
+                sink.close();
+            }
+
+            private void send(OutboundSseEvent event) {
+                if (!sink.isClosed()) {
+                    sink.send(event).whenComplete((ignored, failure) -> {
+                        if (failure != null) {
+                            sink.close();
+                            changeFeed.unsubscribe(this);
+                        }
+                    });
+                }
+            }
+        };
+
+        try {
+            changeFeed.subscribe(from, subscriber);
+        } catch (IllegalStateException e) {
+            sink.close();
+        }
+    }
+
+    @GET
+    @Path("/poll")
+    @Produces(MediaType.APPLICATION_JSON)
+    public void poll(@Suspended AsyncResponse asyncResponse,
+                     @QueryParam("offset") @DefaultValue("-1") long offset,
+                     @QueryParam("subjectPrefix") String subjectPrefix,
+                     @QueryParam("context") String context) {
+        ChangeFilter filter = new ChangeFilter(subjectPrefix, context);
+
+        ChangeFeed.Subscriber subscriber = new ChangeFeed.Subscriber() {
+            @Override
+            public boolean onReplay(ChangeFeed.Replay replay) {
+                if (replay.isTruncated()) {
+                    asyncResponse.resume(error(Response.Status.CONFLICT,
+                            "Events after offset " + offset + " are no longer buffered"));
+                    return false;
+                }
+                List<ChangeEvent> events = new ArrayList<>();
+                for (ChangeEvent event : replay.getEvents()) {
+                    if (filter.matches(event)) {
+                        events.add(event);
+                    }
+                }
+                if (!events.isEmpty()) {
+                    asyncResponse.resume(events);
+                    return false;
+                }
+                return !asyncResponse.isDone();
+            }
+
+            @Override
+            public boolean onHeartbeat() {
+                return !asyncResponse.isDone();
+            }
+
+            @Override
+            public boolean onEvent(ChangeEvent event) {
+                if (asyncResponse.isDone()) {
+                    return false;
+                }
+                if (filter.matches(event)) {
+                    asyncResponse.resume(Collections.singletonList(event));
+                    return false;
+                }
+                return true;
+            }
+        };
+
+        asyncResponse.setTimeout(pollTimeoutMillis, TimeUnit.MILLISECONDS);
+        asyncResponse.setTimeoutHandler(response -> {
+            changeFeed.unsubscribe(subscriber);
+            response.resume(Collections.emptyList());
+        });
+        try {
+            changeFeed.subscribe(offset, subscriber);
+        } catch (IllegalStateException e) {
+            asyncResponse.resume(error(Response.Status.SERVICE_UNAVAILABLE, e.getMessage()));
+        }
+    }
+
+    /**
+     * @return the offset in the Last-Event-ID header if there is one, else the offset query parameter
+     */
+    static long resumeOffset(String lastEventId, long offset) {
+        if (lastEventId == null || lastEventId.trim().isEmpty()) {
+            return offset;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(error(Response.Status.BAD_REQUEST,
+                    "Last-Event-ID must be the id of an event of this feed"));
+        }
+    }
+
+    private static Response error(Response.Status status, String message) {
+        return Response.status(status)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .entity(new ErrorMessage(status.getStatusCode(), message))
+                .build();
+    }
+
+    private static OutboundSseEvent toSse(Sse sse, ChangeEvent event) {
+        return sse.newEventBuilder()
+                .id(String.valueOf(event.getOffset()))
+                .name(event.getType().name())
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(ChangeEvent.class, event)
+                .build();
+    }
+}
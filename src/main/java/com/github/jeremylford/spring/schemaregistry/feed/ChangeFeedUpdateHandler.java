@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.feed;
+
+import io.confluent.kafka.schemaregistry.storage.ConfigKey;
+import io.confluent.kafka.schemaregistry.storage.DeleteSubjectKey;
+import io.confluent.kafka.schemaregistry.storage.ModeKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaUpdateHandler;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Map;
+
+/**
+ * Store update handler that turns the records applied by the store reader into {@link ChangeEvent}s on the
+ * {@link ChangeFeed} found in its configs under {@link #CONFIG}.
+ */
+public class ChangeFeedUpdateHandler implements SchemaUpdateHandler {
+
+    public static final String CONFIG = "spring.schemaregistry.change.feed";
+
+    private ChangeFeed changeFeed;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object value = configs.get(CONFIG);
+        if (value instanceof ChangeFeed) {
+            changeFeed = (ChangeFeed) value;
+        }
+    }
+
+    @Override
+    public void handleUpdate(SchemaRegistryKey key, SchemaRegistryValue value, SchemaRegistryValue oldValue,
+                             TopicPartition tp, long offset, long timestamp) {
+        if (changeFeed == null) {
+            return;
+        }
+        ChangeEvent event = toEvent(key, value, offset, timestamp);
+        if (event != null) {
+            changeFeed.publish(event);
+        }
+    }
+
+    static ChangeEvent toEvent(SchemaRegistryKey key, SchemaRegistryValue value, long offset, long timestamp) {
+        if (key instanceof SchemaKey) {
+            SchemaKey schemaKey = (SchemaKey) key;
+            SchemaValue schemaValue = value instanceof SchemaValue ? (SchemaValue) value : null;
+            boolean deleted = schemaValue == null || schemaValue.isDeleted();
+            return new ChangeEvent(
+                    deleted ? ChangeEvent.Type.SCHEMA_DELETED : ChangeEvent.Type.SCHEMA_REGISTERED,
+                    offset, timestamp, schemaKey.getSubject(), schemaKey.getVersion(),
+                    schemaValue != null ? schemaValue.getId() : null
+            );
+        }
+        if (key instanceof DeleteSubjectKey) {
+            return new ChangeEvent(ChangeEvent.Type.SUBJECT_DELETED, offset, timestamp,
+                    ((DeleteSubjectKey) key).getSubject(), null, null);
+        }
+        if (key instanceof ConfigKey) {
+            return new ChangeEvent(ChangeEvent.Type.CONFIG_CHANGED, offset, timestamp,
+                    ((ConfigKey) key).getSubject(), null, null);
+        }
+        if (key instanceof ModeKey) {
+            return new ChangeEvent(ChangeEvent.Type.MODE_CHANGED, offset, timestamp,
+                    ((ModeKey) key).getSubject(), null, null);
+        }
+        return null;
+    }
+}
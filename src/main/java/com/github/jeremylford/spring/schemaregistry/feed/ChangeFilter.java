@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.feed;
+
+import com.github.jeremylford.spring.schemaregistry.store.SchemaContexts;
+
+/**
+ * Selects the events a client asked for by subject prefix and schema context.  Global config and mode changes
+ * affect every subject, so they always match.
+ */
+final class ChangeFilter {
+
+    private final String subjectPrefix;
+    private final String context;
+
+    /**
+     * @param context the context with or without its leading dot, or null for any context
+     */
+    ChangeFilter(String subjectPrefix, String context) {
+        this.subjectPrefix = subjectPrefix == null || subjectPrefix.isEmpty() ? null : subjectPrefix;
+        this.context = context == null || context.isEmpty() ? null
+                : context.startsWith(".") ? context : "." + context;
+    }
+
+    boolean matches(ChangeEvent event) {
+        String subject = event.getSubject();
+        if (subject == null) {
+            return true;
+        }
+        if (context != null && !context.equals(SchemaContexts.contextOf(subject))) {
+            return false;
+        }
+        return subjectPrefix == null || subject.startsWith(subjectPrefix) || unqualified(subject).startsWith(subjectPrefix);
+    }
+
+    private static String unqualified(String subject) {
+        if (subject.startsWith(":.")) {
+            int end = subject.indexOf(':', 1);
+            if (end > 0) {
+                return subject.substring(end + 1);
+            }
+        }
+        return subject;
+    }
+}
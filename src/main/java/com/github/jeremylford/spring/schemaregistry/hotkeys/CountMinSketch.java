@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.hotkeys;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch of key frequencies in a fixed number of int counters.  Estimates never undercount, and overcount
+ * by a small fraction of the total.
+ */
+final class CountMinSketch {
+
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F, 0x165667B1, 0xD3A2646C};
+
+    private final int depth;
+    private final int mask;
+    private final AtomicIntegerArray counters;
+
+    /**
+     * @param width the number of counters per row, rounded up to a power of two
+     * @param depth the number of rows, at most 6
+     */
+    CountMinSketch(int width, int depth) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + SEEDS.length);
+        }
+        int capacity = Integer.highestOneBit(Math.max(16, width - 1)) << 1;
+        this.depth = depth;
+        this.mask = capacity - 1;
+        this.counters = new AtomicIntegerArray(capacity * depth);
+    }
+
+    /**
+     * @return the estimated count of the key including this addition
+     */
+    int add(Object key) {
+        int hash = spread(key.hashCode());
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = index(hash, row);
+            int count = counters.incrementAndGet(index);
+            if (count < 0) {
+                counters.set(index, Integer.MAX_VALUE);
+                count = Integer.MAX_VALUE;
+            }
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    int estimate(Object key) {
+        int hash = spread(key.hashCode());
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    int width() {
+        return mask + 1;
+    }
+
+    /**
+     * Concurrent additions may be halved or not, which only shifts their estimate by one step of aging.
+     */
+    void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+    }
+
+    private int index(int hash, int row) {
+        int h = hash * SEEDS[row];
+        h ^= h >>> 15;
+        return row * (mask + 1) + (h & mask);
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.hotkeys;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The most frequent keys of a stream, from a {@link CountMinSketch} and a {@link TopK} of its estimates.  Both are
+ * halved once ten times the sketch width has been added, so the hottest keys are those of the current traffic rather
+ * than of all traffic since startup.
+ */
+final class HeavyHitters<K> {
+
+    private final CountMinSketch sketch;
+    private final TopK<K> topK;
+    private final AtomicLong additions = new AtomicLong();
+    private final long resetAt;
+
+    HeavyHitters(int k, int sketchWidth, int sketchDepth) {
+        this.sketch = new CountMinSketch(sketchWidth, sketchDepth);
+        this.topK = new TopK<>(k);
+        this.resetAt = 10L * sketch.width();
+    }
+
+    void add(K key) {
+        topK.offer(key, sketch.add(key));
+        if (additions.incrementAndGet() % resetAt == 0) {
+            sketch.halve();
+            topK.halve();
+        }
+    }
+
+    List<TopK.Entry<K>> top() {
+        return topK.entries();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.hotkeys;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The hot keys saved between restarts, one tab separated kind and key per line, hottest first.  The file is written
+ * to a sibling and moved into place, so a crash while saving leaves the previous file.
+ */
+final class HotKeyFile {
+
+    static final String ID = "id";
+    static final String SUBJECT = "subject";
+
+    final List<String> ids = new ArrayList<>();
+    final List<String> subjects = new ArrayList<>();
+
+    private HotKeyFile() {
+    }
+
+    static void write(Path file, HotKeyTracker tracker) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (HotKeyTracker.HotKey hotKey : tracker.getIds()) {
+                writeLine(writer, ID, hotKey.getKey());
+            }
+            for (HotKeyTracker.HotKey hotKey : tracker.getSubjects()) {
+                writeLine(writer, SUBJECT, hotKey.getKey());
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lines that are not understood are skipped, so the format can grow.
+     */
+    static HotKeyFile read(Path file) throws IOException {
+        HotKeyFile hotKeyFile = new HotKeyFile();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if (tab == -1) {
+                continue;
+            }
+            String kind = line.substring(0, tab);
+            String key = line.substring(tab + 1);
+            if (ID.equals(kind)) {
+                hotKeyFile.ids.add(key);
+            } else if (SUBJECT.equals(kind)) {
+                hotKeyFile.subjects.add(key);
+            }
+        }
+        return hotKeyFile;
+    }
+
+    private static void writeLine(BufferedWriter writer, String kind, String key) throws IOException {
+        // subjects are free text, a line break would split the entry
+        if (key.indexOf('\n') != -1 || key.indexOf('\r') != -1) {
+            return;
+        }
+        writer.write(kind);
+        writer.write('\t');
+        writer.write(key);
+        writer.newLine();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.hotkeys;
+
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.PathSegment;
+import javax.ws.rs.core.UriInfo;
+import java.util.List;
+
+/**
+ * Records the schema id of {@code /schemas/ids/{id}} requests and the subject of {@code /subjects/{subject}} requests.
+ * Only reads and lookups are recorded, which includes registering a schema that is already registered.
+ */
+@Priority(Priorities.USER)
+public class HotKeyFilter implements ContainerRequestFilter {
+
+    private final HotKeyTracker tracker;
+
+    public HotKeyFilter(HotKeyTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        String method = requestContext.getMethod();
+        if (!HttpMethod.GET.equals(method) && !HttpMethod.POST.equals(method)) {
+            return;
+        }
+        UriInfo uriInfo = requestContext.getUriInfo();
+        List<PathSegment> segments = uriInfo.getPathSegments();
+        if (segments.size() < 2) {
+            return;
+        }
+        String resource = segments.get(0).getPath();
+        if ("subjects".equals(resource)) {
+            tracker.recordSubject(segments.get(1).getPath());
+        } else if ("schemas".equals(resource) && HttpMethod.GET.equals(method)
+                && segments.size() >= 3 && "ids".equals(segments.get(1).getPath())) {
+            int id = parseId(segments.get(2).getPath());
+            if (id >= 0) {
+                tracker.recordId(id, uriInfo.getQueryParameters().getFirst("subject"));
+            }
+        }
+    }
+
+    /**
+     * @return the id, or -1 if the segment is not one
+     */
+    static int parseId(String segment) {
+        if (segment.isEmpty() || segment.length() > 10) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id > Integer.MAX_VALUE ? -1 : (int) id;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.hotkeys;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks the most requested schema ids and subjects.  Recording a key costs a few counter increments, the tracked
+ * keys are only sorted when they are read.
+ */
+public class HotKeyTracker {
+
+    public static final class HotKey {
+
+        private final String key;
+        private final int estimate;
+
+        HotKey(String key, int estimate) {
+            this.key = key;
+            this.estimate = estimate;
+        }
+
+        /**
+         * @return a subject, or a schema id optionally followed by a colon and the subject it was looked up with
+         */
+        public String getKey() {
+            return key;
+        }
+
+        public int getEstimate() {
+            return estimate;
+        }
+    }
+
+    private final HeavyHitters<String> ids;
+    private final HeavyHitters<String> subjects;
+
+    public HotKeyTracker(int topK, int sketchWidth, int sketchDepth) {
+        this.ids = new HeavyHitters<>(topK, sketchWidth, sketchDepth);
+        this.subjects = new HeavyHitters<>(topK, sketchWidth, sketchDepth);
+    }
+
+    /**
+     * @param subject the subject query parameter, which selects the context of the id, or null
+     */
+    public void recordId(int id, String subject) {
+        ids.add(idKey(id, subject));
+    }
+
+    public void recordSubject(String subject) {
+        subjects.add(subject);
+    }
+
+    /**
+     * @return the hottest schema ids, hottest first
+     */
+    public List<HotKey> getIds() {
+        return hotKeys(ids);
+    }
+
+    /**
+     * @return the hottest subjects, hottest first
+     */
+    public List<HotKey> getSubjects() {
+        return hotKeys(subjects);
+    }
+
+    static String idKey(int id, String subject) {
+        return subject == null || subject.isEmpty() ? Integer.toString(id) : id + ":" + subject;
+    }
+
+    private static List<HotKey> hotKeys(HeavyHitters<String> heavyHitters) {
+        List<TopK.Entry<String>> entries = heavyHitters.top();
+        List<HotKey> hotKeys = new ArrayList<>(entries.size());
+        for (TopK.Entry<String> entry : entries) {
+            hotKeys.add(new HotKey(entry.getKey(), entry.getCount()));
+        }
+        return hotKeys;
+    }
+}
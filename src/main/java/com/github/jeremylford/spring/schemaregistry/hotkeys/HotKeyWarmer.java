@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.hotkeys;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import com.github.jeremylford.spring.schemaregistry.startup.StartupTimeline;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
+import io.confluent.kafka.schemaregistry.storage.KafkaSchemaRegistry;
+import io.confluent.kafka.schemaregistry.utils.JacksonMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the hot keys saved by the previous run before the application reports that it is ready, and saves the
+ * current ones periodically and on shutdown.
+ * <p>
+ * Warming reads each schema through the registry and serializes it with the mapper the resources use, so the first
+ * requests after a restart do not build Jackson serializers.  With the off-heap store, reading also fills its hot
+ * cache, so they do not decompress schemas either.  The default heap store keeps every schema in memory already and
+ * has no cache to fill, so there only the serializers are warmed.
+ */
+public class HotKeyWarmer implements ApplicationRunner, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HotKeyWarmer.class);
+
+    private final HotKeyTracker tracker;
+    private final KafkaSchemaRegistry kafkaSchemaRegistry;
+    private final SchemaRegistryProperties.HotKeys hotKeys;
+    private final StartupTimeline startupTimeline;
+    private final Path file;
+
+    private ScheduledExecutorService scheduler;
+
+    public HotKeyWarmer(HotKeyTracker tracker,
+                        KafkaSchemaRegistry kafkaSchemaRegistry,
+                        SchemaRegistryProperties.HotKeys hotKeys,
+                        StartupTimeline startupTimeline) {
+        this.tracker = tracker;
+        this.kafkaSchemaRegistry = kafkaSchemaRegistry;
+        this.hotKeys = hotKeys;
+        this.startupTimeline = startupTimeline;
+        this.file = Paths.get(hotKeys.getFile());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (hotKeys.isWarmOnStartup() && Files.exists(file)) {
+            try (StartupTimeline.Phase phase = startupTimeline.start("cache.warm")) {
+                warm(phase);
+            }
+        }
+
+        if (hotKeys.getPersistInterval() > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "schema-registry-hot-keys");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(
+                    this::save, hotKeys.getPersistInterval(), hotKeys.getPersistInterval(), TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        save();
+    }
+
+    private void warm(StartupTimeline.Phase phase) {
+        HotKeyFile hotKeyFile;
+        try {
+            hotKeyFile = HotKeyFile.read(file);
+        } catch (IOException e) {
+            LOGGER.warn("Could not read hot keys from {}", file, e);
+            return;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(hotKeys.getWarmTimeout());
+        int ids = 0;
+        for (String key : hotKeyFile.ids) {
+            if (System.nanoTime() - deadline > 0) {
+                break;
+            }
+            if (warmId(key)) {
+                ids++;
+            }
+        }
+        int subjects = 0;
+        for (String subject : hotKeyFile.subjects) {
+            if (System.nanoTime() - deadline > 0) {
+                break;
+            }
+            if (warmSubject(subject)) {
+                subjects++;
+            }
+        }
+        phase.tag("ids", String.valueOf(ids)).tag("subjects", String.valueOf(subjects));
+        LOGGER.info("Warmed {} schema ids and {} subjects from {}", ids, subjects, file);
+    }
+
+    private boolean warmId(String key) {
+        int colon = key.indexOf(':');
+        int id = HotKeyFilter.parseId(colon == -1 ? key : key.substring(0, colon));
+        if (id < 0) {
+            return false;
+        }
+        try {
+            SchemaString schema = kafkaSchemaRegistry.get(id, colon == -1 ? null : key.substring(colon + 1));
+            if (schema == null) {
+                return false;
+            }
+            JacksonMapper.INSTANCE.writeValueAsBytes(schema);
+            return true;
+        } catch (SchemaRegistryException | JsonProcessingException | RuntimeException e) {
+            LOGGER.debug("Could not warm schema id {}", key, e);
+            return false;
+        }
+    }
+
+    private boolean warmSubject(String subject) {
+        try {
+            Schema schema = kafkaSchemaRegistry.getLatestVersion(subject);
+            if (schema == null) {
+                return false;
+            }
+            JacksonMapper.INSTANCE.writeValueAsBytes(schema);
+            return true;
+        } catch (SchemaRegistryException | JsonProcessingException | RuntimeException e) {
+            LOGGER.debug("Could not warm subject {}", subject, e);
+            return false;
+        }
+    }
+
+    private void save() {
+        // a node restarted before it served anything keeps the keys of the run before
+        if (tracker.getIds().isEmpty() && tracker.getSubjects().isEmpty()) {
+            return;
+        }
+        try {
+            HotKeyFile.write(file, tracker);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not save hot keys to {}", file, e);
+        }
+    }
+}
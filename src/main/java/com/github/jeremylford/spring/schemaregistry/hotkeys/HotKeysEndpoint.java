@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.hotkeys;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * Shows the tracked schema ids and subjects with their estimated recent request counts.
+ */
+@Endpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+
+    private final HotKeyTracker tracker;
+
+    public HotKeysEndpoint(HotKeyTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @ReadOperation
+    public HotKeysDescriptor hotKeys() {
+        return new HotKeysDescriptor(tracker.getIds(), tracker.getSubjects());
+    }
+
+    public static final class HotKeysDescriptor {
+
+        private final List<HotKeyTracker.HotKey> ids;
+        private final List<HotKeyTracker.HotKey> subjects;
+
+        private HotKeysDescriptor(List<HotKeyTracker.HotKey> ids, List<HotKeyTracker.HotKey> subjects) {
+            this.ids = ids;
+            this.subjects = subjects;
+        }
+
+        public List<HotKeyTracker.HotKey> getIds() {
+            return ids;
+        }
+
+        public List<HotKeyTracker.HotKey> getSubjects() {
+            return subjects;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.hotkeys;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code k} keys with the highest estimated counts.  A key replaces the coldest tracked key once its estimate is
+ * higher, so a key only has to be looked up, not counted, to be checked.  Most additions are below the current
+ * minimum and return without taking the lock.
+ */
+final class TopK<K> {
+
+    /**
+     * A tracked key and its estimated count.
+     */
+    static final class Entry<K> {
+
+        private final K key;
+        private final int count;
+
+        Entry(K key, int count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        K getKey() {
+            return key;
+        }
+
+        int getCount() {
+            return count;
+        }
+    }
+
+    private final int k;
+    private final Map<K, Integer> counts;
+
+    private volatile boolean full;
+    private volatile int minCount;
+    private K minKey;
+
+    TopK(int k) {
+        this.k = k;
+        this.counts = new HashMap<>(k * 2);
+    }
+
+    void offer(K key, int estimate) {
+        if (full && estimate <= minCount) {
+            return;
+        }
+        synchronized (this) {
+            Integer previous = counts.get(key);
+            if (previous != null) {
+                counts.put(key, Math.max(previous, estimate));
+                if (key.equals(minKey)) {
+                    updateMin();
+                }
+                return;
+            }
+            if (counts.size() < k) {
+                counts.put(key, estimate);
+                if (minKey == null || estimate < minCount) {
+                    minKey = key;
+                    minCount = estimate;
+                }
+                full = counts.size() >= k;
+                return;
+            }
+            if (estimate > minCount) {
+                counts.remove(minKey);
+                counts.put(key, estimate);
+                updateMin();
+            }
+        }
+    }
+
+    /**
+     * @return the tracked keys, hottest first
+     */
+    synchronized List<Entry<K>> entries() {
+        List<Entry<K>> entries = new ArrayList<>(counts.size());
+        for (Map.Entry<K, Integer> entry : counts.entrySet()) {
+            entries.add(new Entry<>(entry.getKey(), entry.getValue()));
+        }
+        entries.sort((a, b) -> Integer.compare(b.count, a.count));
+        return entries;
+    }
+
+    /**
+     * Ages the tracked counts along with the sketch.
+     */
+    synchronized void halve() {
+        counts.replaceAll((key, count) -> count >>> 1);
+        updateMin();
+    }
+
+    private void updateMin() {
+        K coldest = null;
+        int coldestCount = Integer.MAX_VALUE;
+        for (Map.Entry<K, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() < coldestCount) {
+                coldest = entry.getKey();
+                coldestCount = entry.getValue();
+            }
+        }
+        minKey = coldest;
+        minCount = coldest == null ? 0 : coldestCount;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.jfr;
+
+import java.util.Map;
+
+/**
+ * Whether the registry emits its JDK Flight Recorder events.  They are off unless enabled in the starter
+ * properties, and need a JVM that has Flight Recorder.  When they are off, no event classes are loaded and the
+ * instrumented code paths cost a field read.
+ */
+public final class JfrEvents {
+
+    /**
+     * Config entry set to true to emit the events.
+     */
+    public static final String CONFIG = "spring.schemaregistry.jfr.events";
+
+    private static final boolean AVAILABLE = isFlightRecorderPresent();
+
+    private JfrEvents() {
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    public static boolean isEnabled(Map<String, ?> configs) {
+        return AVAILABLE && Boolean.parseBoolean(String.valueOf(configs.get(CONFIG)));
+    }
+
+    private static boolean isFlightRecorderPresent() {
+        try {
+            Class.forName("jdk.jfr.Event", false, JfrEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
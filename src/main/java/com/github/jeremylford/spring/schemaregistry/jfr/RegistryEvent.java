@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.jfr;
+
+import com.github.jeremylford.spring.schemaregistry.store.SchemaContexts;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * The fields shared by the registry events.  Stack traces are off, an operation is identified by its event type and
+ * subject, and the thread that ran it.
+ */
+@Category("Schema Registry")
+@StackTrace(false)
+abstract class RegistryEvent extends Event {
+
+    @Label("Subject")
+    String subject;
+
+    @Label("Context")
+    String context;
+
+    @Label("Schema Type")
+    String schemaType;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    void setSubject(String subject) {
+        this.subject = subject;
+        this.context = SchemaContexts.contextOf(subject);
+    }
+
+    void setSchemaType(String schemaType) {
+        this.schemaType = schemaType != null ? schemaType : AvroSchema.TYPE;
+    }
+}
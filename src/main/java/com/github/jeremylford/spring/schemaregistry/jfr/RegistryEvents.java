@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.jfr;
+
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import io.confluent.kafka.schemaregistry.storage.SubjectKey;
+
+import java.util.List;
+
+/**
+ * Runs registry operations inside Flight Recorder events.  Only called once {@link JfrEvents#isEnabled} returned
+ * true.  The event fields are only filled in when the event is recorded, which depends on the recording settings.
+ */
+public final class RegistryEvents {
+
+    @FunctionalInterface
+    public interface Operation<T, E extends Exception> {
+
+        T run() throws E;
+    }
+
+    private RegistryEvents() {
+    }
+
+    public static <E extends Exception> int register(
+            String subject, Schema schema, Operation<Integer, E> operation) throws E {
+        RegisterEvent event = new RegisterEvent();
+        event.begin();
+        int id = -1;
+        boolean succeeded = false;
+        try {
+            id = operation.run();
+            succeeded = true;
+            return id;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setSubject(subject);
+                event.setSchemaType(schema.getSchemaType());
+                event.id = id;
+                event.succeeded = succeeded;
+                event.commit();
+            }
+        }
+    }
+
+    public static <E extends Exception> SchemaString lookupById(
+            int id, String subject, Operation<SchemaString, E> operation) throws E {
+        LookupByIdEvent event = new LookupByIdEvent();
+        event.begin();
+        SchemaString schema = null;
+        boolean succeeded = false;
+        try {
+            schema = operation.run();
+            succeeded = true;
+            return schema;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setSubject(subject);
+                if (schema != null) {
+                    event.setSchemaType(schema.getSchemaType());
+                }
+                event.id = id;
+                event.succeeded = succeeded && schema != null;
+                event.commit();
+            }
+        }
+    }
+
+    public static <E extends Exception> List<String> compatibilityCheck(
+            String subject, String schemaType, int previousVersions, Operation<List<String>, E> operation) throws E {
+        CompatibilityCheckEvent event = new CompatibilityCheckEvent();
+        event.begin();
+        List<String> messages = null;
+        boolean succeeded = false;
+        try {
+            messages = operation.run();
+            succeeded = true;
+            return messages;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setSubject(subject);
+                event.setSchemaType(schemaType);
+                event.previousVersions = previousVersions;
+                event.compatible = messages != null && messages.isEmpty();
+                event.succeeded = succeeded;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * @param operation the name of the forwarded operation, such as "register"
+     */
+    public static <T, E extends Exception> T leaderForward(
+            String operation, String subject, String schemaType, Operation<T, E> forward) throws E {
+        LeaderForwardEvent event = new LeaderForwardEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            T result = forward.run();
+            succeeded = true;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setSubject(subject);
+                event.setSchemaType(schemaType);
+                event.operation = operation;
+                event.succeeded = succeeded;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Writes a record to the schemas topic and waits until the store reader has applied it.
+     */
+    public static <T, E extends Exception> T storeProduce(
+            SchemaRegistryKey key, SchemaRegistryValue value, Operation<T, E> produce) throws E {
+        StoreProduceEvent event = new StoreProduceEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            T result = produce.run();
+            succeeded = true;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                describe(event, key, value);
+                event.keyType = keyType(key);
+                event.succeeded = succeeded;
+                event.commit();
+            }
+        }
+    }
+
+    static void describe(RegistryEvent event, SchemaRegistryKey key, SchemaRegistryValue value) {
+        if (key instanceof SubjectKey) {
+            event.setSubject(((SubjectKey) key).getSubject());
+        }
+        if (value instanceof SchemaValue) {
+            event.setSchemaType(((SchemaValue) value).getSchemaType());
+        }
+    }
+
+    static String keyType(SchemaRegistryKey key) {
+        return key != null && key.getKeyType() != null ? key.getKeyType().name() : null;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.jfr;
+
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaUpdateHandler;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Map;
+
+/**
+ * Records a {@link StoreApplyEvent} for each record applied by the store reader.  The store validates a record with
+ * every update handler, writes it to the local store, then hands it to every update handler; registered last, this
+ * handler starts the event in its validation and ends it in its update, so the event spans the local store write
+ * and the other handlers.
+ * <p>
+ * The store has a single reader thread, which is the only caller.
+ */
+public class StoreApplyUpdateHandler implements SchemaUpdateHandler {
+
+    private StoreApplyEvent event;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+
+    @Override
+    public ValidationStatus validateUpdate(SchemaRegistryKey key, SchemaRegistryValue value,
+                                           TopicPartition tp, long offset, long timestamp) {
+        event = new StoreApplyEvent();
+        event.begin();
+        return ValidationStatus.SUCCESS;
+    }
+
+    @Override
+    public void handleUpdate(SchemaRegistryKey key, SchemaRegistryValue value, SchemaRegistryValue oldValue,
+                             TopicPartition tp, long offset, long timestamp) {
+        StoreApplyEvent event = this.event;
+        this.event = null;
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            RegistryEvents.describe(event, key, value);
+            event.keyType = RegistryEvents.keyType(key);
+            event.offset = offset;
+            event.succeeded = true;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.metrics;
+
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.uri.UriTemplate;
+
+import java.util.List;
+
+/**
+ * Route names used to tag request metrics, observations and logs, so that they do not grow with subjects and ids.
+ */
+public final class RouteTemplates {
+
+    private RouteTemplates() {
+    }
+
+    /**
+     * @return the path template of the matched resource method, e.g. /subjects/{subject}/versions
+     */
+    public static String of(ExtendedUriInfo uriInfo) {
+        List<UriTemplate> templates = uriInfo != null ? uriInfo.getMatchedTemplates() : null;
+        if (templates == null || templates.isEmpty()) {
+            return "UNKNOWN";
+        }
+        StringBuilder builder = new StringBuilder();
+        // matched templates are listed from the resource method up to the resource class
+        for (int i = templates.size() - 1; i >= 0; i--) {
+            String template = templates.get(i).getTemplate();
+            if (template.isEmpty() || "/".equals(template)) {
+                continue;
+            }
+            if (!template.startsWith("/")) {
+                builder.append('/');
+            }
+            builder.append(template.endsWith("/") ? template.substring(0, template.length() - 1) : template);
+        }
+        return builder.length() == 0 ? "/" : builder.toString();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.observation;
+
+import com.github.jeremylford.spring.schemaregistry.metrics.RouteTemplates;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.ReceiverContext;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+/**
+ * Observes each request handled by Jersey, continuing the trace context found in the request headers, such as one
+ * propagated by a follower forwarding a write.
+ * <p>
+ * The observation is in scope while the resource method runs, which is where the registry starts its own
+ * observations.  The scope is opened and closed by the resource method events, which are raised on the thread that
+ * runs the method, also when it runs on the request executor.
+ */
+public class ObservationEventListener implements ApplicationEventListener {
+
+    private final ObservationRegistry registry;
+
+    public ObservationEventListener(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return new ObservingRequestEventListener();
+    }
+
+    private final class ObservingRequestEventListener implements RequestEventListener {
+
+        private Observation observation;
+        private Observation.Scope scope;
+
+        @Override
+        public void onEvent(RequestEvent event) {
+            switch (event.getType()) {
+                case START:
+                    ReceiverContext<ContainerRequest> context =
+                            new ReceiverContext<>(ContainerRequest::getHeaderString);
+                    context.setCarrier(event.getContainerRequest());
+                    observation = Observation.createNotStarted(
+                            RegistryObservations.SERVER_REQUESTS, () -> context, registry
+                    ).lowCardinalityKeyValue("method", event.getContainerRequest().getMethod()).start();
+                    break;
+                case RESOURCE_METHOD_START:
+                    if (observation != null) {
+                        scope = observation.openScope();
+                    }
+                    break;
+                case RESOURCE_METHOD_FINISHED:
+                    if (scope != null) {
+                        scope.close();
+                        scope = null;
+                    }
+                    break;
+                case ON_EXCEPTION:
+                    if (observation != null && event.getException() != null) {
+                        observation.error(event.getException());
+                    }
+                    break;
+                case FINISHED:
+                    if (observation != null) {
+                        finish(event);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void finish(RequestEvent event) {
+            String method = event.getContainerRequest().getMethod();
+            String uri = RouteTemplates.of(event.getUriInfo());
+            ContainerResponse response = event.getContainerResponse();
+            int status = response != null ? response.getStatus() : 500;
+            String outcome = status < 400 ? "SUCCESS" : status < 500 ? "CLIENT_ERROR" : "SERVER_ERROR";
+            observation.contextualName(method + " " + uri)
+                    .lowCardinalityKeyValue("uri", uri)
+                    .lowCardinalityKeyValue("status", String.valueOf(status))
+                    .lowCardinalityKeyValue("outcome", outcome)
+                    .stop();
+        }
+    }
+}
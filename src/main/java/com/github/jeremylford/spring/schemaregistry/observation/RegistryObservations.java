@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.observation;
+
+import com.github.jeremylford.spring.schemaregistry.store.SchemaContexts;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.SenderContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates the observations of the registry on the application's {@link ObservationRegistry}, which turns them into
+ * spans, timers or both depending on the handlers it is configured with.  Observations started while another one is
+ * in scope become its children, so compatibility checks, forwarding and store writes nest under the request that
+ * caused them.
+ */
+public class RegistryObservations {
+
+    /**
+     * Config entry holding the instance used by the registry.
+     */
+    public static final String CONFIG = "spring.schemaregistry.observation.registry";
+
+    public static final String SERVER_REQUESTS = "schemaregistry.http.server.requests";
+    public static final String LEADER_FORWARD = "schemaregistry.leader.forward";
+    public static final String COMPATIBILITY_CHECK = "schemaregistry.compatibility.check";
+    public static final String STORE_WRITE = "schemaregistry.store.write";
+
+    /**
+     * A call that receives the headers to send, including the propagated trace context.
+     */
+    @FunctionalInterface
+    public interface Forward<T, E extends Throwable> {
+
+        T call(Map<String, String> headers) throws E;
+    }
+
+    private final ObservationRegistry registry;
+
+    public RegistryObservations(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    public ObservationRegistry getRegistry() {
+        return registry;
+    }
+
+    public <T, E extends Throwable> T observe(String name, String subject, Observation.CheckedCallable<T, E> callable)
+            throws E {
+        return Observation.createNotStarted(name, registry)
+                .lowCardinalityKeyValue("context", SchemaContexts.name(SchemaContexts.contextOf(subject)))
+                .highCardinalityKeyValue("subject", String.valueOf(subject))
+                .observeChecked(callable);
+    }
+
+    /**
+     * Observes a request forwarded to the leader.  The trace context is written into a copy of {@code headers}, which
+     * the forwarded request sends along, so the leader continues the trace.
+     *
+     * @param operation the name of the forwarded operation, such as "register"
+     */
+    public <T, E extends Throwable> T forward(String operation, String subject, Map<String, String> headers,
+                                              Forward<T, E> forward) throws E {
+        Map<String, String> carrier = headers != null ? new HashMap<>(headers) : new HashMap<>();
+        SenderContext<Map<String, String>> context = new SenderContext<>(Map::put);
+        context.setCarrier(carrier);
+        return Observation.createNotStarted(LEADER_FORWARD, () -> context, registry)
+                .contextualName("forward " + operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .lowCardinalityKeyValue("context", SchemaContexts.name(SchemaContexts.contextOf(subject)))
+                .highCardinalityKeyValue("subject", String.valueOf(subject))
+                .observeChecked(() -> forward.call(carrier));
+    }
+
+    /**
+     * @return an executor that runs each task in the scope of the observation current when it was submitted
+     */
+    public Executor propagating(Executor executor) {
+        return command -> {
+            Observation observation = registry.getCurrentObservation();
+            if (observation == null) {
+                executor.execute(command);
+                return;
+            }
+            executor.execute(() -> {
+                try (Observation.Scope ignored = observation.openScope()) {
+                    command.run();
+                }
+            });
+        };
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.properties;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validation of the producer and consumer settings passed through to the clients of the Kafka store.
+ */
+class KafkaClientOverrides {
+
+    /**
+     * Settings the Kafka store manages itself, or that have a dedicated property.
+     */
+    static final Set<String> RESERVED = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+            ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
+            ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
+            ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
+            ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
+            ConsumerConfig.GROUP_ID_CONFIG,
+            ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG,
+            ConsumerConfig.AUTO_OFFSET_RESET_CONFIG
+    )));
+
+    /**
+     * Consumer settings of the bootstrap reader profile.  Large fetches let the reader catch up on the schemas topic
+     * in few round trips, while a fetch.min.bytes of 1 and a short fetch.max.wait.ms keep the broker from holding
+     * fetches once the reader is at the end of the topic.
+     */
+    static final Map<String, String> BOOTSTRAP_READER;
+
+    static {
+        Map<String, String> bootstrapReader = new LinkedHashMap<>();
+        bootstrapReader.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, String.valueOf(16 * 1024 * 1024));
+        bootstrapReader.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, String.valueOf(64 * 1024 * 1024));
+        bootstrapReader.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "10000");
+        bootstrapReader.put(ConsumerConfig.RECEIVE_BUFFER_CONFIG, String.valueOf(1024 * 1024));
+        bootstrapReader.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, "1");
+        bootstrapReader.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, "50");
+        BOOTSTRAP_READER = Collections.unmodifiableMap(bootstrapReader);
+    }
+
+    private KafkaClientOverrides() {
+    }
+
+    static void validateProducer(Map<String, String> overrides) {
+        validate("producer", ProducerConfig.configDef(), overrides);
+    }
+
+    static void validateConsumer(Map<String, String> overrides) {
+        validate("consumer", ConsumerConfig.configDef(), overrides);
+    }
+
+    /**
+     * Checks that every setting is known to the client and that its value parses and passes the client's validator,
+     * so a typo fails at startup instead of being logged and ignored by the Kafka client.
+     */
+    static void validate(String client, ConfigDef configDef, Map<String, String> overrides) {
+        List<String> errors = new ArrayList<>();
+        for (Map.Entry<String, String> override : overrides.entrySet()) {
+            String name = override.getKey();
+            ConfigDef.ConfigKey configKey = configDef.configKeys().get(name);
+            if (RESERVED.contains(name)) {
+                errors.add(name + " is managed by the Kafka store");
+            } else if (configKey == null) {
+                errors.add(name + " is not a " + client + " setting");
+            } else {
+                try {
+                    Object value = ConfigDef.parseType(name, override.getValue(), configKey.type);
+                    if (configKey.validator != null) {
+                        configKey.validator.ensureValid(name, value);
+                    }
+                } catch (ConfigException e) {
+                    errors.add(e.getMessage());
+                }
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Invalid schemaregistry.kafka-store." + client + " settings: " + String.join("; ", errors));
+        }
+    }
+}
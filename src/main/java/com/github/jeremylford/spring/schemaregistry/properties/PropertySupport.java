@@ -83,4 +83,22 @@ class PropertySupport {
 
         return properties;
     }
+
+    /**
+     * Writes a map the way Confluent list-of-pairs settings expect it, {@code key1:value1,key2:value2}.
+     */
+    static Map putMap(Map properties, String key, Map<String, String> values) {
+        if (values != null && !values.isEmpty()) {
+            StringBuilder builder = new StringBuilder();
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                if (builder.length() > 0) {
+                    builder.append(',');
+                }
+                builder.append(entry.getKey()).append(':').append(entry.getValue());
+            }
+            properties.put(key, builder.toString());
+        }
+
+        return properties;
+    }
 }
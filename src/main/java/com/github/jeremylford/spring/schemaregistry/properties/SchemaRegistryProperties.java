@@ -20,13 +20,21 @@ package com.github.jeremylford.spring.schemaregistry.properties;
 
 import io.confluent.kafka.schemaregistry.CompatibilityLevel;
 import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
+import org.apache.kafka.common.config.SaslConfigs;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import static com.github.jeremylford.spring.schemaregistry.properties.PropertySupport.putArray;
 import static com.github.jeremylford.spring.schemaregistry.properties.PropertySupport.putBoolean;
+import static com.github.jeremylford.spring.schemaregistry.properties.PropertySupport.putDouble;
 import static com.github.jeremylford.spring.schemaregistry.properties.PropertySupport.putInteger;
+import static com.github.jeremylford.spring.schemaregistry.properties.PropertySupport.putLong;
+import static com.github.jeremylford.spring.schemaregistry.properties.PropertySupport.putMap;
 import static com.github.jeremylford.spring.schemaregistry.properties.PropertySupport.putString;
 
 @ConfigurationProperties("schemaregistry")
@@ -58,6 +66,11 @@ public class SchemaRegistryProperties {
      */
     private CompatibilityLevel compatibilityLevel = CompatibilityLevel.BACKWARD; //SchemaRegistryConfig.COMPATIBILITY_DEFAULT;
 
+    /**
+     * The schema types the registry accepts. Schemas of the other types are rejected, and the parsers of those types are never loaded.
+     */
+    private Set<SchemaType> schemaTypes = EnumSet.allOf(SchemaType.class);
+
     /**
      * A list of classes to use as SchemaRegistryResourceExtension. Implementing the interface  <code>SchemaRegistryResourceExtension</code> allows you to inject user defined resources  like filters to Schema Registry. Typically used to add custom capability like logging,  security, etc. The schema.registry.resource.extension.class name is deprecated; prefer using resource.extension.class instead.
      */
@@ -78,6 +91,57 @@ public class SchemaRegistryProperties {
      */
     private String[] innerInstanceHeadersWhitelist = new String[0];
 
+    /**
+     * The listeners of this node, e.g. http://0.0.0.0:8081,internal://0.0.0.0:8083. A listener whose scheme is not http or https is named, and its protocol is looked up in the listener protocol map. Listeners on another port than server.port are served by their own connector, see connectors.
+     */
+    private String[] listeners = new String[0];
+
+    /**
+     * The protocol of each named listener, e.g. internal: http.
+     */
+    private Map<String, String> listenerProtocolMap = new LinkedHashMap<>();
+
+    /**
+     * The name of the listener advertised to the other nodes, so writes forwarded to the leader arrive on it.
+     */
+    private String interInstanceListenerName;
+
+    private Connectors connectors = new Connectors();
+
+    private Http2 http2 = new Http2();
+
+    private Compatibility compatibility = new Compatibility();
+
+    private RequestExecution requestExecution = new RequestExecution();
+
+    private RateLimit rateLimit = new RateLimit();
+
+    private Coalescing coalescing = new Coalescing();
+
+    private Startup startup = new Startup();
+
+    private ReadFrontEnd readFrontEnd = new ReadFrontEnd();
+
+    private BinaryFormats binaryFormats = new BinaryFormats();
+
+    private Contexts contexts = new Contexts();
+
+    private InProcessClient inProcessClient = new InProcessClient();
+
+    private Replica replica = new Replica();
+
+    private ChangeFeed changeFeed = new ChangeFeed();
+
+    private HotKeys hotKeys = new HotKeys();
+
+    private Jfr jfr = new Jfr();
+
+    private Observation observation = new Observation();
+
+    private SlowRequests slowRequests = new SlowRequests();
+
+    private Shutdown shutdown = new Shutdown();
+
     public String getSchemaRegistryGroupId() {
         return schemaRegistryGroupId;
     }
@@ -126,6 +190,14 @@ public class SchemaRegistryProperties {
         this.compatibilityLevel = compatibilityLevel;
     }
 
+    public Set<SchemaType> getSchemaTypes() {
+        return schemaTypes;
+    }
+
+    public void setSchemaTypes(Set<SchemaType> schemaTypes) {
+        this.schemaTypes = schemaTypes;
+    }
+
     public String[] getResourceExtensions() {
         return resourceExtensions;
     }
@@ -158,6 +230,174 @@ public class SchemaRegistryProperties {
         this.innerInstanceHeadersWhitelist = innerInstanceHeadersWhitelist;
     }
 
+    public String[] getListeners() {
+        return listeners;
+    }
+
+    public void setListeners(String[] listeners) {
+        this.listeners = listeners;
+    }
+
+    public Map<String, String> getListenerProtocolMap() {
+        return listenerProtocolMap;
+    }
+
+    public void setListenerProtocolMap(Map<String, String> listenerProtocolMap) {
+        this.listenerProtocolMap = listenerProtocolMap;
+    }
+
+    public String getInterInstanceListenerName() {
+        return interInstanceListenerName;
+    }
+
+    public void setInterInstanceListenerName(String interInstanceListenerName) {
+        this.interInstanceListenerName = interInstanceListenerName;
+    }
+
+    public Connectors getConnectors() {
+        return connectors;
+    }
+
+    public void setConnectors(Connectors connectors) {
+        this.connectors = connectors;
+    }
+
+    public Http2 getHttp2() {
+        return http2;
+    }
+
+    public void setHttp2(Http2 http2) {
+        this.http2 = http2;
+    }
+
+    public Compatibility getCompatibility() {
+        return compatibility;
+    }
+
+    public void setCompatibility(Compatibility compatibility) {
+        this.compatibility = compatibility;
+    }
+
+    public RequestExecution getRequestExecution() {
+        return requestExecution;
+    }
+
+    public void setRequestExecution(RequestExecution requestExecution) {
+        this.requestExecution = requestExecution;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    public void setCoalescing(Coalescing coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    public Startup getStartup() {
+        return startup;
+    }
+
+    public void setStartup(Startup startup) {
+        this.startup = startup;
+    }
+
+    public ReadFrontEnd getReadFrontEnd() {
+        return readFrontEnd;
+    }
+
+    public void setReadFrontEnd(ReadFrontEnd readFrontEnd) {
+        this.readFrontEnd = readFrontEnd;
+    }
+
+    public BinaryFormats getBinaryFormats() {
+        return binaryFormats;
+    }
+
+    public void setBinaryFormats(BinaryFormats binaryFormats) {
+        this.binaryFormats = binaryFormats;
+    }
+
+    public Contexts getContexts() {
+        return contexts;
+    }
+
+    public void setContexts(Contexts contexts) {
+        this.contexts = contexts;
+    }
+
+    public InProcessClient getInProcessClient() {
+        return inProcessClient;
+    }
+
+    public void setInProcessClient(InProcessClient inProcessClient) {
+        this.inProcessClient = inProcessClient;
+    }
+
+    public Replica getReplica() {
+        return replica;
+    }
+
+    public void setReplica(Replica replica) {
+        this.replica = replica;
+    }
+
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    public void setChangeFeed(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    public HotKeys getHotKeys() {
+        return hotKeys;
+    }
+
+    public void setHotKeys(HotKeys hotKeys) {
+        this.hotKeys = hotKeys;
+    }
+
+    public Jfr getJfr() {
+        return jfr;
+    }
+
+    public void setJfr(Jfr jfr) {
+        this.jfr = jfr;
+    }
+
+    public Observation getObservation() {
+        return observation;
+    }
+
+    public void setObservation(Observation observation) {
+        this.observation = observation;
+    }
+
+    public SlowRequests getSlowRequests() {
+        return slowRequests;
+    }
+
+    public void setSlowRequests(SlowRequests slowRequests) {
+        this.slowRequests = slowRequests;
+    }
+
+    public Shutdown getShutdown() {
+        return shutdown;
+    }
+
+    public void setShutdown(Shutdown shutdown) {
+        this.shutdown = shutdown;
+    }
+
     public Properties asProperties() {
         Properties properties = new Properties();
 
@@ -169,68 +409,18 @@ public class SchemaRegistryProperties {
         putArray(properties, SchemaRegistryConfig.RESOURCE_EXTENSION_CONFIG, resourceExtensions);
         putArray(properties, SchemaRegistryConfig.RESOURCE_STATIC_LOCATIONS_CONFIG, resourceStaticLocations);
         putString(properties, SchemaRegistryConfig.INTER_INSTANCE_PROTOCOL_CONFIG, innerInstanceProtocol);
+        putArray(properties, SchemaRegistryConfig.LISTENERS_CONFIG, listeners);
+        putMap(properties, SchemaRegistryConfig.LISTENER_PROTOCOL_MAP_CONFIG, listenerProtocolMap);
+        putString(properties, SchemaRegistryConfig.INTER_INSTANCE_LISTENER_NAME_CONFIG, interInstanceListenerName);
 //        putArray(properties, SchemaRegistryConfig.INTER_INSTANCE_HEADERS_WHITELIST_CONFIG, innerInstanceHeadersWhitelist);
 
-
-        /*
-        private static final String SCHEMAREGISTRY_LISTENERS_DEFAULT = "";
-
-        protected static final String KAFKASTORE_SECURITY_PROTOCOL_DOC = "The security protocol to use when connecting with Kafka, the underlying persistent storage. Values can be `PLAINTEXT`, `SSL`, `SASL_PLAINTEXT`, or `SASL_SSL`.";
-        protected static final String KAFKASTORE_SSL_TRUSTSTORE_LOCATION_DOC = "The location of the SSL trust store file.";
-        protected static final String KAFKASTORE_SSL_TRUSTSTORE_PASSWORD_DOC = "The password to access the trust store.";
-        protected static final String KAFAKSTORE_SSL_TRUSTSTORE_TYPE_DOC = "The file format of the trust store.";
-        protected static final String KAFKASTORE_SSL_TRUSTMANAGER_ALGORITHM_DOC = "The algorithm used by the trust manager factory for SSL connections.";
-        protected static final String KAFKASTORE_SSL_KEYSTORE_LOCATION_DOC = "The location of the SSL keystore file.";
-        protected static final String KAFKASTORE_SSL_KEYSTORE_PASSWORD_DOC = "The password to access the keystore.";
-        protected static final String KAFAKSTORE_SSL_KEYSTORE_TYPE_DOC = "The file format of the keystore.";
-        protected static final String KAFKASTORE_SSL_KEYMANAGER_ALGORITHM_DOC = "The algorithm used by key manager factory for SSL connections.";
-        protected static final String KAFKASTORE_SSL_KEY_PASSWORD_DOC = "The password of the key contained in the keystore.";
-        protected static final String KAFAKSTORE_SSL_ENABLED_PROTOCOLS_DOC = "Protocols enabled for SSL connections.";
-        protected static final String KAFAKSTORE_SSL_PROTOCOL_DOC = "The SSL protocol used.";
-        protected static final String KAFAKSTORE_SSL_PROVIDER_DOC = "The name of the security provider used for SSL.";
-        protected static final String KAFKASTORE_SSL_CIPHER_SUITES_DOC = "A list of cipher suites used for SSL.";
-        protected static final String KAFKASTORE_SSL_ENDPOINT_IDENTIFICATION_ALGORITHM_DOC = "The endpoint identification algorithm to validate the server hostname using the server certificate.";
-        public static final String KAFKASTORE_SASL_KERBEROS_SERVICE_NAME_DOC = "The Kerberos principal name that the Kafka client runs as. This can be defined either in the JAAS config file or here.";
-        public static final String KAFKASTORE_SASL_MECHANISM_DOC = "The SASL mechanism used for Kafka connections. GSSAPI is the default.";
-        public static final String KAFKASTORE_SASL_KERBEROS_KINIT_CMD_DOC = "The Kerberos kinit command path.";
-        public static final String KAFKASTORE_SASL_KERBEROS_MIN_TIME_BEFORE_RELOGIN_DOC = "The login time between refresh attempts.";
-        public static final String KAFKASTORE_SASL_KERBEROS_TICKET_RENEW_JITTER_DOC = "The percentage of random jitter added to the renewal time.";
-        public static final String KAFKASTORE_SASL_KERBEROS_TICKET_RENEW_WINDOW_FACTOR_DOC = "Login thread will sleep until the specified window factor of time from last refresh to ticket's expiry has been reached, at which time it will try to renew the ticket.";
-        private static final String METRICS_JMX_PREFIX_DEFAULT_OVERRIDE = "kafka.schema.registry";
-        private static final ConfigDef config = baseSchemaRegistryConfigDef();
-        private ZkUtils zkUtils;
-
-
-        public static final String KAFKASTORE_SECURITY_PROTOCOL_CONFIG = "kafkastore.security.protocol";
-        public static final String KAFKASTORE_SSL_TRUSTSTORE_LOCATION_CONFIG = "kafkastore.ssl.truststore.location";
-        public static final String KAFKASTORE_SSL_TRUSTSTORE_PASSWORD_CONFIG = "kafkastore.ssl.truststore.password";
-        public static final String KAFKASTORE_SSL_KEYSTORE_LOCATION_CONFIG = "kafkastore.ssl.keystore.location";
-        public static final String KAFKASTORE_SSL_TRUSTSTORE_TYPE_CONFIG = "kafkastore.ssl.truststore.type";
-        public static final String KAFKASTORE_SSL_TRUSTMANAGER_ALGORITHM_CONFIG = "kafkastore.ssl.trustmanager.algorithm";
-        public static final String KAFKASTORE_SSL_KEYSTORE_PASSWORD_CONFIG = "kafkastore.ssl.keystore.password";
-        public static final String KAFKASTORE_SSL_KEYSTORE_TYPE_CONFIG = "kafkastore.ssl.keystore.type";
-        public static final String KAFKASTORE_SSL_KEYMANAGER_ALGORITHM_CONFIG = "kafkastore.ssl.keymanager.algorithm";
-        public static final String KAFKASTORE_SSL_KEY_PASSWORD_CONFIG = "kafkastore.ssl.key.password";
-        public static final String KAFKASTORE_SSL_ENABLED_PROTOCOLS_CONFIG = "kafkastore.ssl.enabled.protocols";
-        public static final String KAFKASTORE_SSL_PROTOCOL_CONFIG = "kafkastore.ssl.protocol";
-        public static final String KAFKASTORE_SSL_PROVIDER_CONFIG = "kafkastore.ssl.provider";
-        public static final String KAFKASTORE_SSL_CIPHER_SUITES_CONFIG = "kafkastore.ssl.cipher.suites";
-        public static final String KAFKASTORE_SSL_ENDPOINT_IDENTIFICATION_ALGORITHM_CONFIG = "kafkastore.ssl.endpoint.identification.algorithm";
-        public static final String KAFKASTORE_SASL_KERBEROS_SERVICE_NAME_CONFIG = "kafkastore.sasl.kerberos.service.name";
-        public static final String KAFKASTORE_SASL_MECHANISM_CONFIG = "kafkastore.sasl.mechanism";
-        public static final String KAFKASTORE_SASL_KERBEROS_KINIT_CMD_CONFIG = "kafkastore.sasl.kerberos.kinit.cmd";
-        public static final String KAFKASTORE_SASL_KERBEROS_MIN_TIME_BEFORE_RELOGIN_CONFIG = "kafkastore.sasl.kerberos.min.time.before.relogin";
-        public static final String KAFKASTORE_SASL_KERBEROS_TICKET_RENEW_JITTER_CONFIG = "kafkastore.sasl.kerberos.ticket.renew.jitter";
-        public static final String KAFKASTORE_SASL_KERBEROS_TICKET_RENEW_WINDOW_FACTOR_CONFIG = "kafkastore.sasl.kerberos.ticket.renew.window.factor";
-
-
-         */
-
-
         return properties;
     }
 
     public static class KafkaStore {
+
+        static final String KAFKASTORE_PREFIX = "kafkastore.";
+
         /**
          * Zookeeper URL for the Kafka cluster
          */
@@ -273,6 +463,52 @@ public class SchemaRegistryProperties {
          */
         private int initTimeout = 60000;
 
+        /**
+         * Where the registry keeps the schemas it reads from the topic. HEAP keeps them as strings, OFF_HEAP keeps each distinct schema once, compressed, outside of the heap.
+         */
+        private Backend backend = Backend.HEAP;
+
+        private OffHeap offHeap = new OffHeap();
+
+        /**
+         * Keep the id and subject version indexes in primitive int keyed maps and arrays instead of boxed collections.
+         */
+        private boolean primitiveIndexes = false;
+
+        /**
+         * The security protocol to use when connecting with Kafka, the underlying persistent storage. Values can be `PLAINTEXT`, `SSL`, `SASL_PLAINTEXT`, or `SASL_SSL`.
+         */
+        private String securityProtocol;
+
+        private Ssl ssl = new Ssl();
+
+        private Sasl sasl = new Sasl();
+
+        /**
+         * Additional settings for the producer that writes to the schema topic, for example `compression.type` or `linger.ms`. Keys are checked against the producer configuration at startup.
+         */
+        private Map<String, String> producer = new LinkedHashMap<>();
+
+        /**
+         * Additional settings for the consumer that reads the schema topic, for example `max.partition.fetch.bytes`. Keys are checked against the consumer configuration at startup and take precedence over the reader profile.
+         */
+        private Map<String, String> consumer = new LinkedHashMap<>();
+
+        /**
+         * Consumer settings applied to the schema topic reader. BOOTSTRAP uses large fetches so a new instance catches up on the topic quickly, without delaying fetches once it has.
+         */
+        private ReaderProfile readerProfile = ReaderProfile.DEFAULT;
+
+        /**
+         * The number of threads decoding schema topic records ahead of the store reader, which still applies them in order. With 0, records are decoded on the reader thread.
+         */
+        private int decodeThreads = 0;
+
+        /**
+         * The number of records decoded together by a decode thread.
+         */
+        private int decodeChunkSize = 256;
+
         public String getConnectionUrl() {
             return connectionUrl;
         }
@@ -329,20 +565,1614 @@ public class SchemaRegistryProperties {
             this.initTimeout = initTimeout;
         }
 
+        public Backend getBackend() {
+            return backend;
+        }
+
+        public void setBackend(Backend backend) {
+            this.backend = backend;
+        }
+
+        public OffHeap getOffHeap() {
+            return offHeap;
+        }
+
+        public void setOffHeap(OffHeap offHeap) {
+            this.offHeap = offHeap;
+        }
+
+        public boolean isPrimitiveIndexes() {
+            return primitiveIndexes;
+        }
+
+        public void setPrimitiveIndexes(boolean primitiveIndexes) {
+            this.primitiveIndexes = primitiveIndexes;
+        }
+
+        public String getSecurityProtocol() {
+            return securityProtocol;
+        }
+
+        public void setSecurityProtocol(String securityProtocol) {
+            this.securityProtocol = securityProtocol;
+        }
+
+        public Ssl getSsl() {
+            return ssl;
+        }
+
+        public void setSsl(Ssl ssl) {
+            this.ssl = ssl;
+        }
+
+        public Sasl getSasl() {
+            return sasl;
+        }
+
+        public void setSasl(Sasl sasl) {
+            this.sasl = sasl;
+        }
+
+        public Map<String, String> getProducer() {
+            return producer;
+        }
+
+        public void setProducer(Map<String, String> producer) {
+            this.producer = producer;
+        }
+
+        public Map<String, String> getConsumer() {
+            return consumer;
+        }
+
+        public void setConsumer(Map<String, String> consumer) {
+            this.consumer = consumer;
+        }
+
+        public ReaderProfile getReaderProfile() {
+            return readerProfile;
+        }
+
+        public void setReaderProfile(ReaderProfile readerProfile) {
+            this.readerProfile = readerProfile;
+        }
+
+        public int getDecodeThreads() {
+            return decodeThreads;
+        }
+
+        public void setDecodeThreads(int decodeThreads) {
+            this.decodeThreads = decodeThreads;
+        }
+
+        public int getDecodeChunkSize() {
+            return decodeChunkSize;
+        }
+
+        public void setDecodeChunkSize(int decodeChunkSize) {
+            this.decodeChunkSize = decodeChunkSize;
+        }
+
+        /**
+         * @return the reader profile settings overlaid with the consumer settings
+         */
+        public Map<String, String> consumerOverrides() {
+            Map<String, String> overrides = new LinkedHashMap<>();
+            if (readerProfile == ReaderProfile.BOOTSTRAP) {
+                overrides.putAll(KafkaClientOverrides.BOOTSTRAP_READER);
+            }
+            overrides.putAll(consumer);
+            return overrides;
+        }
+
         public Properties asProperties() {
             Properties properties = new Properties();
             putString(properties, SchemaRegistryConfig.KAFKASTORE_CONNECTION_URL_CONFIG, connectionUrl);
             putArray(properties, SchemaRegistryConfig.KAFKASTORE_BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+            putString(properties, SchemaRegistryConfig.KAFKASTORE_GROUP_ID_CONFIG, groupId);
             putString(properties, SchemaRegistryConfig.KAFKASTORE_TOPIC_CONFIG, topic);
             putInteger(properties, SchemaRegistryConfig.KAFKASTORE_TOPIC_REPLICATION_FACTOR_CONFIG, topicReplicationFactor);
             putInteger(properties, SchemaRegistryConfig.KAFKASTORE_INIT_TIMEOUT_CONFIG, initTimeout);
             putInteger(properties, SchemaRegistryConfig.KAFKASTORE_TIMEOUT_CONFIG, timeout);
 
+            putString(properties, SchemaRegistryConfig.KAFKASTORE_SECURITY_PROTOCOL_CONFIG, securityProtocol);
+            properties.putAll(ssl.asProperties());
+            properties.putAll(sasl.asProperties());
+
+            // the store passes every kafkastore.* setting to both of its clients
+            Map<String, String> consumerOverrides = consumerOverrides();
+            KafkaClientOverrides.validateProducer(producer);
+            KafkaClientOverrides.validateConsumer(consumerOverrides);
+            for (Map.Entry<String, String> override : producer.entrySet()) {
+                String existing = consumerOverrides.get(override.getKey());
+                if (existing != null && !existing.equals(override.getValue())) {
+                    throw new IllegalArgumentException("Conflicting producer and consumer values for " + override.getKey());
+                }
+            }
+            consumerOverrides.forEach((key, value) -> properties.put(KAFKASTORE_PREFIX + key, value));
+            producer.forEach((key, value) -> properties.put(KAFKASTORE_PREFIX + key, value));
+
             return properties;
         }
 
+        public enum ReaderProfile {
+            /**
+             * The Kafka consumer defaults.
+             */
+            DEFAULT,
+            /**
+             * Large fetches and polls for catching up on the schema topic, with fetch.min.bytes=1 so fetches are not held at the end of the topic.
+             */
+            BOOTSTRAP
+        }
+
+        public static class Ssl {
+
+            /**
+             * The location of the SSL trust store file.
+             */
+            private String truststoreLocation;
+
+            /**
+             * The password to access the trust store.
+             */
+            private String truststorePassword;
+
+            /**
+             * The file format of the trust store.
+             */
+            private String truststoreType;
+
+            /**
+             * The algorithm used by the trust manager factory for SSL connections.
+             */
+            private String trustmanagerAlgorithm;
+
+            /**
+             * The location of the SSL keystore file.
+             */
+            private String keystoreLocation;
+
+            /**
+             * The password to access the keystore.
+             */
+            private String keystorePassword;
+
+            /**
+             * The file format of the keystore.
+             */
+            private String keystoreType;
+
+            /**
+             * The algorithm used by key manager factory for SSL connections.
+             */
+            private String keymanagerAlgorithm;
+
+            /**
+             * The password of the key contained in the keystore.
+             */
+            private String keyPassword;
+
+            /**
+             * Protocols enabled for SSL connections.
+             */
+            private String[] enabledProtocols = new String[0];
+
+            /**
+             * The SSL protocol used.
+             */
+            private String protocol;
+
+            /**
+             * The name of the security provider used for SSL.
+             */
+            private String provider;
+
+            /**
+             * A list of cipher suites used for SSL.
+             */
+            private String[] cipherSuites = new String[0];
+
+            /**
+             * The endpoint identification algorithm to validate the server hostname using the server certificate.
+             */
+            private String endpointIdentificationAlgorithm;
+
+            public String getTruststoreLocation() {
+                return truststoreLocation;
+            }
+
+            public void setTruststoreLocation(String truststoreLocation) {
+                this.truststoreLocation = truststoreLocation;
+            }
+
+            public String getTruststorePassword() {
+                return truststorePassword;
+            }
+
+            public void setTruststorePassword(String truststorePassword) {
+                this.truststorePassword = truststorePassword;
+            }
+
+            public String getTruststoreType() {
+                return truststoreType;
+            }
+
+            public void setTruststoreType(String truststoreType) {
+                this.truststoreType = truststoreType;
+            }
+
+            public String getTrustmanagerAlgorithm() {
+                return trustmanagerAlgorithm;
+            }
+
+            public void setTrustmanagerAlgorithm(String trustmanagerAlgorithm) {
+                this.trustmanagerAlgorithm = trustmanagerAlgorithm;
+            }
+
+            public String getKeystoreLocation() {
+                return keystoreLocation;
+            }
+
+            public void setKeystoreLocation(String keystoreLocation) {
+                this.keystoreLocation = keystoreLocation;
+            }
+
+            public String getKeystorePassword() {
+                return keystorePassword;
+            }
+
+            public void setKeystorePassword(String keystorePassword) {
+                this.keystorePassword = keystorePassword;
+            }
+
+            public String getKeystoreType() {
+                return keystoreType;
+            }
+
+            public void setKeystoreType(String keystoreType) {
+                this.keystoreType = keystoreType;
+            }
+
+            public String getKeymanagerAlgorithm() {
+                return keymanagerAlgorithm;
+            }
+
+            public void setKeymanagerAlgorithm(String keymanagerAlgorithm) {
+                this.keymanagerAlgorithm = keymanagerAlgorithm;
+            }
+
+            public String getKeyPassword() {
+                return keyPassword;
+            }
+
+            public void setKeyPassword(String keyPassword) {
+                this.keyPassword = keyPassword;
+            }
+
+            public String[] getEnabledProtocols() {
+                return enabledProtocols;
+            }
+
+            public void setEnabledProtocols(String[] enabledProtocols) {
+                this.enabledProtocols = enabledProtocols;
+            }
+
+            public String getProtocol() {
+                return protocol;
+            }
+
+            public void setProtocol(String protocol) {
+                this.protocol = protocol;
+            }
+
+            public String getProvider() {
+                return provider;
+            }
+
+            public void setProvider(String provider) {
+                this.provider = provider;
+            }
+
+            public String[] getCipherSuites() {
+                return cipherSuites;
+            }
+
+            public void setCipherSuites(String[] cipherSuites) {
+                this.cipherSuites = cipherSuites;
+            }
+
+            public String getEndpointIdentificationAlgorithm() {
+                return endpointIdentificationAlgorithm;
+            }
+
+            public void setEndpointIdentificationAlgorithm(String endpointIdentificationAlgorithm) {
+                this.endpointIdentificationAlgorithm = endpointIdentificationAlgorithm;
+            }
+
+            public Properties asProperties() {
+                Properties properties = new Properties();
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SSL_TRUSTSTORE_LOCATION_CONFIG, truststoreLocation);
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SSL_TRUSTSTORE_PASSWORD_CONFIG, truststorePassword);
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SSL_TRUSTSTORE_TYPE_CONFIG, truststoreType);
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SSL_TRUSTMANAGER_ALGORITHM_CONFIG, trustmanagerAlgorithm);
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SSL_KEYSTORE_LOCATION_CONFIG, keystoreLocation);
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SSL_KEYSTORE_PASSWORD_CONFIG, keystorePassword);
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SSL_KEYSTORE_TYPE_CONFIG, keystoreType);
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SSL_KEYMANAGER_ALGORITHM_CONFIG, keymanagerAlgorithm);
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SSL_KEY_PASSWORD_CONFIG, keyPassword);
+                putArray(properties, SchemaRegistryConfig.KAFKASTORE_SSL_ENABLED_PROTOCOLS_CONFIG, enabledProtocols);
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SSL_PROTOCOL_CONFIG, protocol);
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SSL_PROVIDER_CONFIG, provider);
+                putArray(properties, SchemaRegistryConfig.KAFKASTORE_SSL_CIPHER_SUITES_CONFIG, cipherSuites);
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SSL_ENDPOINT_IDENTIFICATION_ALGORITHM_CONFIG, endpointIdentificationAlgorithm);
+                return properties;
+            }
+        }
+
+        public static class Sasl {
+
+            /**
+             * The SASL mechanism used for Kafka connections. GSSAPI is the default.
+             */
+            private String mechanism;
+
+            /**
+             * JAAS login context parameters for SASL connections, in the format used by JAAS configuration files.
+             */
+            private String jaasConfig;
+
+            /**
+             * The Kerberos principal name that the Kafka client runs as. This can be defined either in the JAAS config file or here.
+             */
+            private String kerberosServiceName;
+
+            /**
+             * The Kerberos kinit command path.
+             */
+            private String kerberosKinitCmd;
+
+            /**
+             * The login time between refresh attempts.
+             */
+            private Long kerberosMinTimeBeforeRelogin;
+
+            /**
+             * The percentage of random jitter added to the renewal time.
+             */
+            private Double kerberosTicketRenewJitter;
+
+            /**
+             * Login thread will sleep until the specified window factor of time from last refresh to ticket's expiry has been reached, at which time it will try to renew the ticket.
+             */
+            private Double kerberosTicketRenewWindowFactor;
+
+            public String getMechanism() {
+                return mechanism;
+            }
+
+            public void setMechanism(String mechanism) {
+                this.mechanism = mechanism;
+            }
+
+            public String getJaasConfig() {
+                return jaasConfig;
+            }
+
+            public void setJaasConfig(String jaasConfig) {
+                this.jaasConfig = jaasConfig;
+            }
+
+            public String getKerberosServiceName() {
+                return kerberosServiceName;
+            }
+
+            public void setKerberosServiceName(String kerberosServiceName) {
+                this.kerberosServiceName = kerberosServiceName;
+            }
+
+            public String getKerberosKinitCmd() {
+                return kerberosKinitCmd;
+            }
+
+            public void setKerberosKinitCmd(String kerberosKinitCmd) {
+                this.kerberosKinitCmd = kerberosKinitCmd;
+            }
+
+            public Long getKerberosMinTimeBeforeRelogin() {
+                return kerberosMinTimeBeforeRelogin;
+            }
+
+            public void setKerberosMinTimeBeforeRelogin(Long kerberosMinTimeBeforeRelogin) {
+                this.kerberosMinTimeBeforeRelogin = kerberosMinTimeBeforeRelogin;
+            }
+
+            public Double getKerberosTicketRenewJitter() {
+                return kerberosTicketRenewJitter;
+            }
+
+            public void setKerberosTicketRenewJitter(Double kerberosTicketRenewJitter) {
+                this.kerberosTicketRenewJitter = kerberosTicketRenewJitter;
+            }
+
+            public Double getKerberosTicketRenewWindowFactor() {
+                return kerberosTicketRenewWindowFactor;
+            }
+
+            public void setKerberosTicketRenewWindowFactor(Double kerberosTicketRenewWindowFactor) {
+                this.kerberosTicketRenewWindowFactor = kerberosTicketRenewWindowFactor;
+            }
+
+            public Properties asProperties() {
+                Properties properties = new Properties();
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SASL_MECHANISM_CONFIG, mechanism);
+                putString(properties, KAFKASTORE_PREFIX + SaslConfigs.SASL_JAAS_CONFIG, jaasConfig);
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SASL_KERBEROS_SERVICE_NAME_CONFIG, kerberosServiceName);
+                putString(properties, SchemaRegistryConfig.KAFKASTORE_SASL_KERBEROS_KINIT_CMD_CONFIG, kerberosKinitCmd);
+                putLong(properties, SchemaRegistryConfig.KAFKASTORE_SASL_KERBEROS_MIN_TIME_BEFORE_RELOGIN_CONFIG, kerberosMinTimeBeforeRelogin);
+                putDouble(properties, SchemaRegistryConfig.KAFKASTORE_SASL_KERBEROS_TICKET_RENEW_JITTER_CONFIG, kerberosTicketRenewJitter);
+                putDouble(properties, SchemaRegistryConfig.KAFKASTORE_SASL_KERBEROS_TICKET_RENEW_WINDOW_FACTOR_CONFIG, kerberosTicketRenewWindowFactor);
+                return properties;
+            }
+        }
+
+        public enum Backend {
+            HEAP,
+            OFF_HEAP
+        }
+
+        public static class OffHeap {
+
+            public enum Mode {
+                DIRECT,
+                MAPPED
+            }
+
+            /**
+             * DIRECT allocates direct buffers, MAPPED maps unlinked files in the directory below so the schemas are backed by the page cache.
+             */
+            private Mode mode = Mode.DIRECT;
+
+            /**
+             * The directory used for MAPPED storage.
+             */
+            private String directory = System.getProperty("java.io.tmpdir") + "/schema-registry";
+
+            /**
+             * The size in bytes of each buffer allocated for compressed schemas.
+             */
+            private int chunkSize = 8 * 1024 * 1024;
+
+            /**
+             * The size in bytes of the on-heap cache of recently read schemas.
+             */
+            private long hotCacheSize = 16 * 1024 * 1024;
+
+            /**
+             * If greater than 0, each schema context gets its own cache of this many bytes, so one context cannot evict another's schemas. The default context keeps hot-cache-size.
+             */
+            private long contextHotCacheSize = 0;
+
+            /**
+             * Cache sizes in bytes for individual schema contexts, overriding context-hot-cache-size.
+             */
+            private Map<String, Long> contextHotCacheSizes = new LinkedHashMap<>();
+
+            public Mode getMode() {
+                return mode;
+            }
+
+            public void setMode(Mode mode) {
+                this.mode = mode;
+            }
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public void setDirectory(String directory) {
+                this.directory = directory;
+            }
+
+            public int getChunkSize() {
+                return chunkSize;
+            }
+
+            public void setChunkSize(int chunkSize) {
+                this.chunkSize = chunkSize;
+            }
+
+            public long getHotCacheSize() {
+                return hotCacheSize;
+            }
+
+            public void setHotCacheSize(long hotCacheSize) {
+                this.hotCacheSize = hotCacheSize;
+            }
+
+            public long getContextHotCacheSize() {
+                return contextHotCacheSize;
+            }
+
+            public void setContextHotCacheSize(long contextHotCacheSize) {
+                this.contextHotCacheSize = contextHotCacheSize;
+            }
+
+            public Map<String, Long> getContextHotCacheSizes() {
+                return contextHotCacheSizes;
+            }
+
+            public void setContextHotCacheSizes(Map<String, Long> contextHotCacheSizes) {
+                this.contextHotCacheSizes = contextHotCacheSizes;
+            }
+        }
+
         protected static final String KAFKASTORE_WRITE_RETRIES_DOC = "Retry a failed register schema request to the underlying Kafka store up to this many times,  for example in case of a Kafka broker failure";
         protected static final String KAFKASTORE_WRITE_RETRY_BACKOFF_MS_DOC = "The amount of time in milliseconds to wait before attempting to retry a failed write to the Kafka store";
 
     }
+
+    public static class Compatibility {
+
+        /**
+         * If true, checks against the version history of a subject with a *_TRANSITIVE compatibility level are split over a dedicated fork join pool and stop once the most recent incompatible version is known. Applies to registrations and to the compatibility endpoint, unless the application sets schema.providers itself.
+         */
+        private boolean parallel = true;
+
+        /**
+         * The number of threads used for parallel compatibility checks.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * The minimum number of previous versions before compatibility checks are run in parallel. Smaller histories are checked on the request thread.
+         */
+        private int parallelThreshold = 16;
+
+        public boolean isParallel() {
+            return parallel;
+        }
+
+        public void setParallel(boolean parallel) {
+            this.parallel = parallel;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getParallelThreshold() {
+            return parallelThreshold;
+        }
+
+        public void setParallelThreshold(int parallelThreshold) {
+            this.parallelThreshold = parallelThreshold;
+        }
+    }
+
+    public static class RequestExecution {
+
+        public enum Mode {
+            /**
+             * Resource methods run on the servlet container threads.
+             */
+            CONTAINER,
+            /**
+             * Write methods run on a dedicated bounded thread pool.
+             */
+            BOUNDED,
+            /**
+             * Write methods run on virtual threads, with at most {@code threads} in flight. Requires Java 21, otherwise BOUNDED is used.
+             */
+            VIRTUAL
+        }
+
+        public enum Rejection {
+            /**
+             * Saturated requests fail with a 503 and a Retry-After header.
+             */
+            ABORT,
+            /**
+             * Saturated requests run on the servlet container thread.
+             */
+            CALLER_RUNS
+        }
+
+        /**
+         * Where blocking write methods (register, delete, config and mode updates) are run.
+         */
+        private Mode mode = Mode.CONTAINER;
+
+        /**
+         * The number of threads of the bounded executor, or the maximum number of requests in flight on virtual threads.
+         */
+        private int threads = 32;
+
+        /**
+         * The number of requests that may wait for a thread of the bounded executor.
+         */
+        private int queueCapacity = 256;
+
+        /**
+         * What happens to a request when the executor is saturated.
+         */
+        private Rejection rejection = Rejection.ABORT;
+
+        /**
+         * The Retry-After value, in seconds, returned with a rejected request.
+         */
+        private int retryAfterSeconds = 1;
+
+        /**
+         * If true, write methods that complete through an AsyncResponse (register, delete) are handed to the executor and release the request thread while they wait on the Kafka store or the leader.
+         */
+        private boolean asyncWrites = false;
+
+        /**
+         * The time in milliseconds an asynchronous write may wait for an executor thread before the request fails with a 503. A write that has started is not timed out, as it may already be in the Kafka store.
+         */
+        private int writeTimeout = 30000;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Rejection getRejection() {
+            return rejection;
+        }
+
+        public void setRejection(Rejection rejection) {
+            this.rejection = rejection;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public boolean isAsyncWrites() {
+            return asyncWrites;
+        }
+
+        public void setAsyncWrites(boolean asyncWrites) {
+            this.asyncWrites = asyncWrites;
+        }
+
+        public int getWriteTimeout() {
+            return writeTimeout;
+        }
+
+        public void setWriteTimeout(int writeTimeout) {
+            this.writeTimeout = writeTimeout;
+        }
+    }
+
+    public static class RateLimit {
+
+        /**
+         * If true, requests are subject to the client, subject and inter-instance limits below. Throttled requests fail with a 429 and a Retry-After header.
+         */
+        private boolean enabled = false;
+
+        /**
+         * A request header identifying the client. When not set, or not present on a request, the authenticated principal and then the remote address are used.
+         */
+        private String clientIdHeader;
+
+        /**
+         * Client identities of the other schema registry instances, whose requests are held to the forwarded limits instead of the client limits. Writes forwarded by the followers of this starter are recognized by the X-Schema-Registry-Forwarded-By header they add, which a proxy in front of the leader should strip from client requests.
+         */
+        private String[] interInstanceClients = new String[0];
+
+        /**
+         * The maximum number of clients or subjects tracked per limit. Keys whose bucket has refilled are dropped to make room, further keys share a single bucket while every tracked bucket is still refilling.
+         */
+        private int maxTrackedKeys = 10000;
+
+        /**
+         * Limits per client identity.
+         */
+        private Limits client = new Limits();
+
+        /**
+         * Limits per subject, shared by all clients.
+         */
+        private Limits subject = new Limits();
+
+        /**
+         * Limits per inter-instance client, i.e. per follower forwarding writes.
+         */
+        private Limits forwarded = new Limits();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getClientIdHeader() {
+            return clientIdHeader;
+        }
+
+        public void setClientIdHeader(String clientIdHeader) {
+            this.clientIdHeader = clientIdHeader;
+        }
+
+        public String[] getInterInstanceClients() {
+            return interInstanceClients;
+        }
+
+        public void setInterInstanceClients(String[] interInstanceClients) {
+            this.interInstanceClients = interInstanceClients;
+        }
+
+        public int getMaxTrackedKeys() {
+            return maxTrackedKeys;
+        }
+
+        public void setMaxTrackedKeys(int maxTrackedKeys) {
+            this.maxTrackedKeys = maxTrackedKeys;
+        }
+
+        public Limits getClient() {
+            return client;
+        }
+
+        public void setClient(Limits client) {
+            this.client = client;
+        }
+
+        public Limits getSubject() {
+            return subject;
+        }
+
+        public void setSubject(Limits subject) {
+            this.subject = subject;
+        }
+
+        public Limits getForwarded() {
+            return forwarded;
+        }
+
+        public void setForwarded(Limits forwarded) {
+            this.forwarded = forwarded;
+        }
+
+        public static class Limits {
+
+            /**
+             * The limit for GET requests.
+             */
+            private Limit read = new Limit();
+
+            /**
+             * The limit for POST, PUT and DELETE requests.
+             */
+            private Limit write = new Limit();
+
+            public Limit getRead() {
+                return read;
+            }
+
+            public void setRead(Limit read) {
+                this.read = read;
+            }
+
+            public Limit getWrite() {
+                return write;
+            }
+
+            public void setWrite(Limit write) {
+                this.write = write;
+            }
+        }
+
+        public static class Limit {
+
+            /**
+             * The sustained number of requests per second. 0 disables the limit.
+             */
+            private double permitsPerSecond = 0;
+
+            /**
+             * The number of requests that may be made at once after a quiet period.
+             */
+            private int burst = 1;
+
+            public double getPermitsPerSecond() {
+                return permitsPerSecond;
+            }
+
+            public void setPermitsPerSecond(double permitsPerSecond) {
+                this.permitsPerSecond = permitsPerSecond;
+            }
+
+            public int getBurst() {
+                return burst;
+            }
+
+            public void setBurst(int burst) {
+                this.burst = burst;
+            }
+        }
+    }
+
+    public static class Coalescing {
+
+        /**
+         * If true, identical concurrent GET requests (same path, query, Accept and authenticated principal) are served from a single lookup, once each of them has passed the authentication, rate limiting and context filters.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The time in milliseconds a request waits for an identical in-flight request before doing its own lookup.
+         */
+        private int waitTimeout = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getWaitTimeout() {
+            return waitTimeout;
+        }
+
+        public void setWaitTimeout(int waitTimeout) {
+            this.waitTimeout = waitTimeout;
+        }
+    }
+
+    /**
+     * Read from the environment before the application context is created, see StartupTimelineRunListener.
+     */
+    public static class Startup {
+
+        /**
+         * If true, and the application did not set an ApplicationStartup, a BufferingApplicationStartup is installed so that startup steps are available from the actuator startup endpoint. Otherwise the steps go to the ApplicationStartup of the application, which may buffer them itself.
+         */
+        private boolean timeline = false;
+
+        /**
+         * The maximum number of buffered startup steps.
+         */
+        private int bufferSize = 4096;
+
+        public boolean isTimeline() {
+            return timeline;
+        }
+
+        public void setTimeline(boolean timeline) {
+            this.timeline = timeline;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+    }
+
+    /**
+     * A second, non-blocking HTTP listener serving the read-only lookups.  Requires reactor-netty-http on the classpath.
+     */
+    public static class ReadFrontEnd {
+
+        /**
+         * If true, GET /schemas/ids/{id}, /subjects and /subjects/{subject}/versions[/{version}] are also served on a Reactor Netty listener. No Jersey filter or resource extension runs there, so it cannot be enabled together with resource-extensions.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The address the listener binds to.
+         */
+        private String host = "0.0.0.0";
+
+        /**
+         * The port the listener binds to.
+         */
+        private int port = 8082;
+
+        /**
+         * A path prepended to every route, e.g. /api.
+         */
+        private String basePath = "";
+
+        /**
+         * The number of event loop threads. 0 uses the Reactor Netty default of one per core.
+         */
+        private int ioThreads = 0;
+
+        /**
+         * The time in milliseconds an idle keep-alive connection is kept open. 0 keeps it open until the client closes it.
+         */
+        private int idleTimeout = 300000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public String getBasePath() {
+            return basePath;
+        }
+
+        public void setBasePath(String basePath) {
+            this.basePath = basePath;
+        }
+
+        public int getIoThreads() {
+            return ioThreads;
+        }
+
+        public void setIoThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+
+        public int getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(int idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+    }
+
+    /**
+     * Binary Jackson encodings of the REST entities, picked by the Accept header.  JSON stays the default.
+     */
+    public static class BinaryFormats {
+
+        /**
+         * If true, responses are also available as application/x-jackson-smile. Needs com.fasterxml.jackson.jaxrs:jackson-jaxrs-smile-provider on the classpath.
+         */
+        private boolean smile = false;
+
+        /**
+         * If true, responses are also available as application/cbor. Needs com.fasterxml.jackson.jaxrs:jackson-jaxrs-cbor-provider on the classpath.
+         */
+        private boolean cbor = false;
+
+        public boolean isSmile() {
+            return smile;
+        }
+
+        public void setSmile(boolean smile) {
+            this.smile = smile;
+        }
+
+        public boolean isCbor() {
+            return cbor;
+        }
+
+        public void setCbor(boolean cbor) {
+            this.cbor = cbor;
+        }
+    }
+
+    /**
+     * Isolation between schema contexts, for registries that host one tenant per context.
+     */
+    public static class Contexts {
+
+        /**
+         * If true, request counts and latencies are recorded per schema context.
+         */
+        private boolean metrics = false;
+
+        /**
+         * The number of contexts tracked individually by metrics, concurrency limits and context caches. Requests are only tracked individually for contexts holding a schema or listed in concurrency-limits, and listed contexts do not count against this. Further contexts share the "_other" entry.
+         */
+        private int maxTracked = 100;
+
+        /**
+         * The number of requests a context may have in progress at once. 0 disables the limit.
+         */
+        private int maxConcurrentRequests = 0;
+
+        /**
+         * Concurrency limits for individual contexts, overriding max-concurrent-requests.
+         */
+        private Map<String, Integer> concurrencyLimits = new LinkedHashMap<>();
+
+        public boolean isMetrics() {
+            return metrics;
+        }
+
+        public void setMetrics(boolean metrics) {
+            this.metrics = metrics;
+        }
+
+        public int getMaxTracked() {
+            return maxTracked;
+        }
+
+        public void setMaxTracked(int maxTracked) {
+            this.maxTracked = maxTracked;
+        }
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public Map<String, Integer> getConcurrencyLimits() {
+            return concurrencyLimits;
+        }
+
+        public void setConcurrencyLimits(Map<String, Integer> concurrencyLimits) {
+            this.concurrencyLimits = concurrencyLimits;
+        }
+    }
+
+    /**
+     * A SchemaRegistryClient bean for serializers running in the same JVM as the registry.
+     */
+    public static class InProcessClient {
+
+        /**
+         * If true, a SchemaRegistryClient bean that calls the local registry directly is defined, unless the application defines its own.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The maximum number of schemas the client caches per subject.
+         */
+        private int cacheCapacity = 1000;
+
+        /**
+         * The URL of this registry, used for the calls the client does not make in process. Defaults to the port of the running web server, on server.address or localhost and over https when server.ssl is enabled, under the Jersey application path.
+         */
+        private String fallbackUrl;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCacheCapacity() {
+            return cacheCapacity;
+        }
+
+        public void setCacheCapacity(int cacheCapacity) {
+            this.cacheCapacity = cacheCapacity;
+        }
+
+        public String getFallbackUrl() {
+            return fallbackUrl;
+        }
+
+        public void setFallbackUrl(String fallbackUrl) {
+            this.fallbackUrl = fallbackUrl;
+        }
+    }
+
+    /**
+     * A read-only node that tails the schemas topic without joining the coordination group.
+     */
+    public static class Replica {
+
+        /**
+         * If true, this node only reads the schemas topic. It never becomes leader and does not take part in rebalances.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The URL of the leader writes are forwarded to, e.g. http://registry:8081. Without it, writes are rejected. The leader must serve the API at the root path.
+         */
+        private String leaderUrl;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getLeaderUrl() {
+            return leaderUrl;
+        }
+
+        public void setLeaderUrl(String leaderUrl) {
+            this.leaderUrl = leaderUrl;
+        }
+    }
+
+    /**
+     * A stream of the changes applied from the schemas topic, served at /changes.
+     */
+    public static class ChangeFeed {
+
+        /**
+         * If true, GET /changes streams change events as server-sent events and GET /changes/poll returns them to long polls.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The number of recent events kept for clients resuming from an offset.
+         */
+        private int bufferSize = 10000;
+
+        /**
+         * The maximum number of open streams and pending polls.
+         */
+        private int maxSubscribers = 1000;
+
+        /**
+         * The time in milliseconds a long poll waits for an event before returning an empty list.
+         */
+        private long pollTimeout = 30000;
+
+        /**
+         * The time in milliseconds between the comment lines sent on idle streams, which also remove streams whose client went away. 0 disables them.
+         */
+        private long heartbeatInterval = 15000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+
+        public long getPollTimeout() {
+            return pollTimeout;
+        }
+
+        public void setPollTimeout(long pollTimeout) {
+            this.pollTimeout = pollTimeout;
+        }
+
+        public long getHeartbeatInterval() {
+            return heartbeatInterval;
+        }
+
+        public void setHeartbeatInterval(long heartbeatInterval) {
+            this.heartbeatInterval = heartbeatInterval;
+        }
+    }
+
+    public static class HotKeys {
+
+        /**
+         * If true, the most requested schema ids and subjects are tracked, shown by the hotkeys actuator endpoint and saved for the next start.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The number of schema ids, and of subjects, tracked.
+         */
+        private int topK = 1000;
+
+        /**
+         * The number of counters per row of the frequency sketch.  Wider sketches overestimate less.
+         */
+        private int sketchWidth = 16384;
+
+        /**
+         * The number of rows of the frequency sketch, at most 6.
+         */
+        private int sketchDepth = 4;
+
+        /**
+         * The file the hot keys are saved to and warmed from.
+         */
+        private String file = System.getProperty("java.io.tmpdir") + "/schema-registry/hot-keys.txt";
+
+        /**
+         * The time in milliseconds between saves of the hot keys, 0 to only save them on shutdown.
+         */
+        private long persistInterval = 60000;
+
+        /**
+         * If true, the saved hot keys are read through the store before the application reports that it is ready. This fills the hot cache of the off-heap store; the heap store has none, so there only the JSON serializers are warmed.
+         */
+        private boolean warmOnStartup = true;
+
+        /**
+         * The maximum time in milliseconds spent warming on startup.
+         */
+        private long warmTimeout = 30000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public int getSketchDepth() {
+            return sketchDepth;
+        }
+
+        public void setSketchDepth(int sketchDepth) {
+            this.sketchDepth = sketchDepth;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public long getPersistInterval() {
+            return persistInterval;
+        }
+
+        public void setPersistInterval(long persistInterval) {
+            this.persistInterval = persistInterval;
+        }
+
+        public boolean isWarmOnStartup() {
+            return warmOnStartup;
+        }
+
+        public void setWarmOnStartup(boolean warmOnStartup) {
+            this.warmOnStartup = warmOnStartup;
+        }
+
+        public long getWarmTimeout() {
+            return warmTimeout;
+        }
+
+        public void setWarmTimeout(long warmTimeout) {
+            this.warmTimeout = warmTimeout;
+        }
+    }
+
+    public static class Connectors {
+
+        /**
+         * If true, each listener on another port than server.port gets its own Tomcat connector, with a thread pool of its own.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The maximum number of worker threads of a listener connector that has no entry in max-threads.
+         */
+        private int defaultMaxThreads = 50;
+
+        /**
+         * The maximum number of worker threads per listener, by listener name, or by port for unnamed listeners.
+         */
+        private Map<String, Integer> maxThreads = new LinkedHashMap<>();
+
+        /**
+         * The number of connections a listener connector queues once all of its threads are busy.
+         */
+        private int acceptCount = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getDefaultMaxThreads() {
+            return defaultMaxThreads;
+        }
+
+        public void setDefaultMaxThreads(int defaultMaxThreads) {
+            this.defaultMaxThreads = defaultMaxThreads;
+        }
+
+        public Map<String, Integer> getMaxThreads() {
+            return maxThreads;
+        }
+
+        public void setMaxThreads(Map<String, Integer> maxThreads) {
+            this.maxThreads = maxThreads;
+        }
+
+        public int getAcceptCount() {
+            return acceptCount;
+        }
+
+        public void setAcceptCount(int acceptCount) {
+            this.acceptCount = acceptCount;
+        }
+    }
+
+    public static class Http2 {
+
+        /**
+         * If true, the listeners accept HTTP/2 over cleartext (h2c), both through an Upgrade from HTTP/1.1 and with prior knowledge, so that a client can multiplex its requests over one connection. On a TLS server.port, HTTP/2 is negotiated through ALPN instead.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The listeners that accept HTTP/2, by listener name, or by port for unnamed listeners. All listeners when empty.
+         */
+        private String[] listeners = new String[0];
+
+        /**
+         * The number of streams a client may have open at once on one connection.
+         */
+        private long maxConcurrentStreams = 100;
+
+        /**
+         * The number of streams of one connection that may be processed by worker threads at once.
+         */
+        private int maxConcurrentStreamExecution = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String[] getListeners() {
+            return listeners;
+        }
+
+        public void setListeners(String[] listeners) {
+            this.listeners = listeners;
+        }
+
+        public long getMaxConcurrentStreams() {
+            return maxConcurrentStreams;
+        }
+
+        public void setMaxConcurrentStreams(long maxConcurrentStreams) {
+            this.maxConcurrentStreams = maxConcurrentStreams;
+        }
+
+        public int getMaxConcurrentStreamExecution() {
+            return maxConcurrentStreamExecution;
+        }
+
+        public void setMaxConcurrentStreamExecution(int maxConcurrentStreamExecution) {
+            this.maxConcurrentStreamExecution = maxConcurrentStreamExecution;
+        }
+    }
+    public static class Jfr {
+
+        /**
+         * If true, register, lookup by id, compatibility check, leader forward, store produce and store apply are recorded as JDK Flight Recorder events under the Schema Registry category. Needs a JVM with Flight Recorder.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Observation {
+
+        /**
+         * If true, and the application declares an ObservationRegistry, requests, leader forwarding, compatibility checks and store writes are observed, and the trace context is sent with forwarded requests. Requires micrometer-observation on the classpath.
+         */
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class SlowRequests {
+
+        /**
+         * If true, requests taking longer than their threshold are counted and logged with a breakdown of the time spent in filters, parsing, compatibility checks, store writes, the resource method and serialization.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The duration in milliseconds above which a request is slow, for routes without a threshold of their own.
+         */
+        private long threshold = 1000;
+
+        /**
+         * Thresholds in milliseconds by route template, optionally preceded by the method, e.g. "[POST /subjects/{subject}/versions]". A threshold for the method and route wins over one for the route.
+         */
+        private Map<String, Long> thresholds = new LinkedHashMap<>();
+
+        /**
+         * The rate at which slow requests are logged. Slow requests over the rate are only counted.
+         */
+        private double maxLogsPerSecond = 1;
+
+        /**
+         * The number of slow requests that can be logged at once, after a quiet period.
+         */
+        private int logBurst = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(long threshold) {
+            this.threshold = threshold;
+        }
+
+        public Map<String, Long> getThresholds() {
+            return thresholds;
+        }
+
+        public void setThresholds(Map<String, Long> thresholds) {
+            this.thresholds = thresholds;
+        }
+
+        public double getMaxLogsPerSecond() {
+            return maxLogsPerSecond;
+        }
+
+        public void setMaxLogsPerSecond(double maxLogsPerSecond) {
+            this.maxLogsPerSecond = maxLogsPerSecond;
+        }
+
+        public int getLogBurst() {
+            return logBurst;
+        }
+
+        public void setLogBurst(int logBurst) {
+            this.logBurst = logBurst;
+        }
+    }
+
+    public static class Shutdown {
+
+        /**
+         * If true, on shutdown new writes are rejected with a 503, the writes in flight are drained, and the node leaves the leader election group before the store is closed, so that another node takes over leadership at once.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The time in milliseconds to wait for the writes in flight to complete before leaving the group anyway.
+         */
+        private long drainTimeout = 10000;
+
+        /**
+         * The Retry-After, in seconds, of the writes rejected while draining.
+         */
+        private int retryAfterSeconds = 1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getDrainTimeout() {
+            return drainTimeout;
+        }
+
+        public void setDrainTimeout(long drainTimeout) {
+            this.drainTimeout = drainTimeout;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+
+    /**
+     * The schema types of the providers built into the registry.
+     */
+    public enum SchemaType {
+        AVRO,
+        JSON,
+        PROTOBUF
+    }
 }
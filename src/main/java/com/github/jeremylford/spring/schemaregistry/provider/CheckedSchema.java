@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.provider;
+
+import com.github.jeremylford.spring.schemaregistry.compatibility.CompatibilityCheck;
+import io.confluent.kafka.schemaregistry.CompatibilityLevel;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A schema parsed by a built-in provider, whose compatibility checks run through a {@link CompatibilityCheck}.  The
+ * check, like every other method, is given the schemas parsed by the built-in provider, never this wrapper.
+ */
+class CheckedSchema implements ParsedSchema {
+
+    private final ParsedSchema delegate;
+    private final CompatibilityCheck check;
+
+    CheckedSchema(ParsedSchema delegate, CompatibilityCheck check) {
+        this.delegate = delegate;
+        this.check = check;
+    }
+
+    static ParsedSchema unwrap(ParsedSchema schema) {
+        return schema instanceof CheckedSchema ? ((CheckedSchema) schema).delegate : schema;
+    }
+
+    private ParsedSchema wrap(ParsedSchema schema) {
+        return schema == delegate ? this : new CheckedSchema(schema, check);
+    }
+
+    @Override
+    public String schemaType() {
+        return delegate.schemaType();
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    @Override
+    public String canonicalString() {
+        return delegate.canonicalString();
+    }
+
+    @Override
+    public String formattedString(String format) {
+        return delegate.formattedString(format);
+    }
+
+    @Override
+    public Integer version() {
+        return delegate.version();
+    }
+
+    @Override
+    public List<SchemaReference> references() {
+        return delegate.references();
+    }
+
+    @Override
+    public ParsedSchema normalize() {
+        return wrap(delegate.normalize());
+    }
+
+    @Override
+    public void validate() {
+        delegate.validate();
+    }
+
+    @Override
+    public List<String> isBackwardCompatible(ParsedSchema previousSchema) {
+        return delegate.isBackwardCompatible(unwrap(previousSchema));
+    }
+
+    @Override
+    public List<String> isCompatible(CompatibilityLevel level, List<? extends ParsedSchema> previousSchemas) {
+        List<ParsedSchema> unwrapped = new ArrayList<>(previousSchemas.size());
+        for (ParsedSchema previousSchema : previousSchemas) {
+            unwrapped.add(unwrap(previousSchema));
+        }
+        return check.isCompatible(level, delegate, unwrapped);
+    }
+
+    @Override
+    public Object rawSchema() {
+        return delegate.rawSchema();
+    }
+
+    @Override
+    public boolean deepEquals(ParsedSchema schema) {
+        return delegate.deepEquals(unwrap(schema));
+    }
+
+    @Override
+    public ParsedSchema copy() {
+        return wrap(delegate.copy());
+    }
+
+    @Override
+    public ParsedSchema copy(Integer version) {
+        return wrap(delegate.copy(version));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ParsedSchema ? delegate.equals(unwrap((ParsedSchema) o)) : delegate.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
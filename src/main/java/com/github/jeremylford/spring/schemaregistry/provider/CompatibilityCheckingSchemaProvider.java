@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.provider;
+
+import com.github.jeremylford.spring.schemaregistry.compatibility.CompatibilityCheck;
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import io.confluent.kafka.schemaregistry.AbstractSchemaProvider;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.SchemaProvider;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.json.JsonSchemaProvider;
+import io.confluent.kafka.schemaregistry.protobuf.ProtobufSchemaProvider;
+
+import java.util.Map;
+
+/**
+ * Takes the place of the built-in provider of a schema type and parses schemas with it, but the schemas it returns
+ * run their compatibility checks through the {@link CompatibilityCheck} found under {@link CompatibilityCheck#CONFIG}
+ * in the provider configs.  KafkaSchemaRegistry checks a new version by calling isCompatible on the parsed schema from
+ * private methods, so this is how the checks of register() can be run in parallel.
+ * <p>
+ * Like {@link DisabledSchemaProvider}, there is one subclass per type, each of which only loads the built-in provider
+ * of its own type.
+ */
+public abstract class CompatibilityCheckingSchemaProvider extends AbstractSchemaProvider {
+
+    private final SchemaProvider delegate;
+    private CompatibilityCheck check;
+
+    CompatibilityCheckingSchemaProvider(SchemaProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    public static Class<? extends CompatibilityCheckingSchemaProvider> forType(
+            SchemaRegistryProperties.SchemaType schemaType) {
+        switch (schemaType) {
+            case AVRO:
+                return Avro.class;
+            case JSON:
+                return Json.class;
+            case PROTOBUF:
+                return Protobuf.class;
+            default:
+                throw new IllegalArgumentException("Unknown schema type " + schemaType);
+        }
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        super.configure(configs);
+        delegate.configure(configs);
+        Object check = configs.get(CompatibilityCheck.CONFIG);
+        this.check = check instanceof CompatibilityCheck ? (CompatibilityCheck) check : null;
+    }
+
+    @Override
+    public String schemaType() {
+        return delegate.schemaType();
+    }
+
+    @Override
+    public ParsedSchema parseSchemaOrElseThrow(Schema schema, boolean isNew) {
+        ParsedSchema parsedSchema = delegate.parseSchemaOrElseThrow(schema, isNew);
+        return check != null ? new CheckedSchema(parsedSchema, check) : parsedSchema;
+    }
+
+    public static class Avro extends CompatibilityCheckingSchemaProvider {
+
+        public Avro() {
+            super(new AvroSchemaProvider());
+        }
+    }
+
+    public static class Json extends CompatibilityCheckingSchemaProvider {
+
+        public Json() {
+            super(new JsonSchemaProvider());
+        }
+    }
+
+    public static class Protobuf extends CompatibilityCheckingSchemaProvider {
+
+        public Protobuf() {
+            super(new ProtobufSchemaProvider());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.provider;
+
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import io.confluent.kafka.schemaregistry.AbstractSchemaProvider;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+
+/**
+ * Takes the place of the built-in provider of a schema type that is not enabled, so that schemas of that type are
+ * rejected and the parser behind the built-in provider, with its dependencies, is never loaded.
+ * <p>
+ * Providers listed in schema.providers replace the built-in ones of the same type.  The registry creates them from
+ * their class name, hence one subclass per type.
+ */
+public abstract class DisabledSchemaProvider extends AbstractSchemaProvider {
+
+    private final String schemaType;
+
+    DisabledSchemaProvider(SchemaRegistryProperties.SchemaType schemaType) {
+        this.schemaType = schemaType.name();
+    }
+
+    public static Class<? extends DisabledSchemaProvider> forType(SchemaRegistryProperties.SchemaType schemaType) {
+        switch (schemaType) {
+            case AVRO:
+                return Avro.class;
+            case JSON:
+                return Json.class;
+            case PROTOBUF:
+                return Protobuf.class;
+            default:
+                throw new IllegalArgumentException("Unknown schema type " + schemaType);
+        }
+    }
+
+    @Override
+    public String schemaType() {
+        return schemaType;
+    }
+
+    @Override
+    public ParsedSchema parseSchemaOrElseThrow(Schema schema, boolean isNew) {
+        throw new IllegalArgumentException("Schema type " + schemaType + " is not enabled on this registry");
+    }
+
+    public static class Avro extends DisabledSchemaProvider {
+
+        public Avro() {
+            super(SchemaRegistryProperties.SchemaType.AVRO);
+        }
+    }
+
+    public static class Json extends DisabledSchemaProvider {
+
+        public Json() {
+            super(SchemaRegistryProperties.SchemaType.JSON);
+        }
+    }
+
+    public static class Protobuf extends DisabledSchemaProvider {
+
+        public Protobuf() {
+            super(SchemaRegistryProperties.SchemaType.PROTOBUF);
+        }
+    }
+}
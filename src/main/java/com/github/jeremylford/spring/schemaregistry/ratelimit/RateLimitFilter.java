@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.ratelimit;
+
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import io.confluent.rest.entities.ErrorMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+import javax.annotation.Priority;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enforces token bucket limits per client, per subject and per read/write class.  Writes forwarded to the leader by
+ * other registry nodes are held to their own budget instead of the client budget, so that a throttled client cannot
+ * also throttle the followers forwarding on its behalf.
+ * <p>
+ * A forwarded request carries the credentials of the client, so it is recognized by the {@link #FORWARDED_BY_HEADER}
+ * the follower adds, and counted against the follower named there.  Requests from the clients listed as inter-instance
+ * clients are held to the forwarded budget as well.
+ */
+@Priority(Priorities.AUTHORIZATION + 100)
+public class RateLimitFilter implements ContainerRequestFilter {
+
+    /**
+     * Added by a follower to the requests it forwards to the leader, holding the URL of the follower.
+     */
+    public static final String FORWARDED_BY_HEADER = "X-Schema-Registry-Forwarded-By";
+
+    static final int TOO_MANY_REQUESTS = 429;
+
+    private static final String OVERFLOW_KEY = "";
+
+    private final SchemaRegistryProperties.RateLimit rateLimit;
+    private final Set<String> interInstanceClients;
+
+    private final Budget client;
+    private final Budget subject;
+    private final Budget forwarded;
+
+    @Context
+    private HttpServletRequest servletRequest;
+
+    public RateLimitFilter(SchemaRegistryProperties.RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+        this.interInstanceClients = new HashSet<>(Arrays.asList(rateLimit.getInterInstanceClients()));
+        this.client = new Budget("client", rateLimit.getClient(), rateLimit.getMaxTrackedKeys());
+        this.subject = new Budget("subject", rateLimit.getSubject(), rateLimit.getMaxTrackedKeys());
+        this.forwarded = new Budget("forwarded", rateLimit.getForwarded(), rateLimit.getMaxTrackedKeys());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        boolean write = !HttpMethod.GET.equals(requestContext.getMethod())
+                && !HttpMethod.HEAD.equals(requestContext.getMethod())
+                && !HttpMethod.OPTIONS.equals(requestContext.getMethod());
+
+        String subjectName = requestContext.getUriInfo().getPathParameters().getFirst("subject");
+        String forwardedBy = requestContext.getHeaderString(FORWARDED_BY_HEADER);
+        boolean forwardedRequest = forwardedBy != null && !forwardedBy.isEmpty();
+        long waitNanos = tryAcquire(forwardedRequest ? forwardedBy : clientId(requestContext), forwardedRequest,
+                subjectName, write);
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            requestContext.abortWith(Response.status(TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, retryAfter)
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .entity(new ErrorMessage(TOO_MANY_REQUESTS, "Rate limit exceeded, retry after " + retryAfter + "s"))
+                    .build());
+        }
+    }
+
+    /**
+     * @param forwardedRequest whether the request was forwarded by the follower {@code clientId}
+     * @return 0 if the request is within the client and subject limits, otherwise the nanoseconds to wait
+     */
+    long tryAcquire(String clientId, boolean forwardedRequest, String subjectName, boolean write) {
+        Budget clientBudget = forwardedRequest || interInstanceClients.contains(clientId) ? forwarded : client;
+        TokenBucket clientBucket = clientBudget.bucket(clientId, write);
+        long waitNanos = clientBucket == null ? 0 : clientBudget.tryAcquire(clientBucket, write);
+        if (waitNanos > 0 || subjectName == null) {
+            return waitNanos;
+        }
+
+        TokenBucket subjectBucket = subject.bucket(subjectName, write);
+        waitNanos = subjectBucket == null ? 0 : subject.tryAcquire(subjectBucket, write);
+        if (waitNanos > 0 && clientBucket != null) {
+            // the request is rejected, so it does not count against the client
+            clientBucket.release();
+        }
+        return waitNanos;
+    }
+
+    private String clientId(ContainerRequestContext requestContext) {
+        if (rateLimit.getClientIdHeader() != null) {
+            String header = requestContext.getHeaderString(rateLimit.getClientIdHeader());
+            if (header != null && !header.isEmpty()) {
+                return header;
+            }
+        }
+        Principal principal = requestContext.getSecurityContext() != null
+                ? requestContext.getSecurityContext().getUserPrincipal() : null;
+        if (principal != null) {
+            return principal.getName();
+        }
+        return servletRequest != null ? servletRequest.getRemoteAddr() : OVERFLOW_KEY;
+    }
+
+    /**
+     * The buckets of one limit, per key.  A bucket that has refilled completely is indistinguishable from a new one,
+     * so once the cap is reached full buckets are dropped to make room; only while every tracked bucket is still
+     * refilling do further keys share a single bucket.
+     */
+    static final class Budget {
+
+        private static final long SWEEP_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        private final SchemaRegistryProperties.RateLimit.Limits limits;
+        private final int maxTrackedKeys;
+        private final ConcurrentMap<String, TokenBucket> readBuckets = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, TokenBucket> writeBuckets = new ConcurrentHashMap<>();
+        private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+        private final Counter readThrottled;
+        private final Counter writeThrottled;
+
+        Budget(String scope, SchemaRegistryProperties.RateLimit.Limits limits, int maxTrackedKeys) {
+            this.limits = limits;
+            this.maxTrackedKeys = maxTrackedKeys;
+            this.readThrottled = Metrics.counter("schemaregistry.ratelimit.throttled", "scope", scope, "class", "read");
+            this.writeThrottled = Metrics.counter("schemaregistry.ratelimit.throttled", "scope", scope, "class", "write");
+        }
+
+        /**
+         * @return the bucket of the key, or null if this class of requests is not limited
+         */
+        TokenBucket bucket(String key, boolean write) {
+            SchemaRegistryProperties.RateLimit.Limit limit = write ? limits.getWrite() : limits.getRead();
+            if (limit.getPermitsPerSecond() <= 0) {
+                return null;
+            }
+
+            ConcurrentMap<String, TokenBucket> buckets = write ? writeBuckets : readBuckets;
+            TokenBucket bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= maxTrackedKeys) {
+                    evictFull(buckets);
+                }
+                // keys beyond the cap share a single bucket rather than growing the map without bound
+                String bucketKey = buckets.size() < maxTrackedKeys ? key : OVERFLOW_KEY;
+                bucket = buckets.computeIfAbsent(bucketKey,
+                        k -> new TokenBucket(limit.getPermitsPerSecond(), limit.getBurst()));
+            }
+            return bucket;
+        }
+
+        long tryAcquire(TokenBucket bucket, boolean write) {
+            long waitNanos = bucket.tryAcquire();
+            if (waitNanos > 0) {
+                (write ? writeThrottled : readThrottled).increment();
+            }
+            return waitNanos;
+        }
+
+        private void evictFull(ConcurrentMap<String, TokenBucket> buckets) {
+            long now = System.nanoTime();
+            long sweepAt = nextSweep.get();
+            if (now - sweepAt < 0 || !nextSweep.compareAndSet(sweepAt, now)) {
+                return;
+            }
+            if (!buckets.values().removeIf(TokenBucket::isFull)) {
+                // every key is busy, scanning again on each new key would not free anything
+                nextSweep.set(now + SWEEP_BACKOFF_NANOS);
+            }
+        }
+    }
+}
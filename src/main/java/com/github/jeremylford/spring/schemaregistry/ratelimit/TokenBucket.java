@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as a generic cell rate algorithm: the only state is the theoretical arrival
+ * time of the next request, which is advanced with a compare and set.
+ */
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final long origin = System.nanoTime();
+    private final AtomicLong theoreticalArrival = new AtomicLong();
+
+    /**
+     * @param permitsPerSecond the sustained rate
+     * @param burst            the number of permits that may be taken at once
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(1, burst);
+    }
+
+    /**
+     * @return 0 if a permit was taken, otherwise the number of nanoseconds until one is available
+     */
+    public long tryAcquire() {
+        return tryAcquire(System.nanoTime() - origin);
+    }
+
+    long tryAcquire(long now) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long allowedAt = next - burstToleranceNanos;
+            if (allowedAt > now) {
+                return allowedAt - now;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a permit taken by {@link #tryAcquire()}, for a request that was rejected by another limit.
+     */
+    public void release() {
+        theoreticalArrival.addAndGet(-emissionIntervalNanos);
+    }
+
+    /**
+     * @return true if the bucket has refilled completely, it then behaves exactly like a new bucket and can be dropped
+     */
+    public boolean isFull() {
+        return isFull(System.nanoTime() - origin);
+    }
+
+    boolean isFull(long now) {
+        return theoreticalArrival.get() <= now;
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
+import io.confluent.kafka.schemaregistry.storage.KafkaSchemaRegistry;
+import io.confluent.kafka.schemaregistry.utils.JacksonMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.http.server.HttpServerRoutes;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serves the read-only lookups from the local {@link KafkaSchemaRegistry} on a Reactor Netty listener next to the
+ * servlet container.  A connection costs a channel on an event loop rather than a thread, so many mostly idle
+ * keep-alive clients can share a few threads.  Writes, mode and config requests stay on the Jersey port.
+ * <p>
+ * The lookups only read the local store, so they run directly on the event loop.  None of the Jersey filters run on
+ * this listener: there is no rate limiting, coalescing or per-context limit, and no resource extension sees the
+ * request.  As resource extensions are how authentication is added, the server refuses to be created when any are
+ * configured rather than serve the same reads unauthenticated.
+ */
+public class ReactiveReadServer implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveReadServer.class);
+
+    static final String CONTENT_TYPE = "application/vnd.schemaregistry.v1+json";
+
+    private final Reads schemaRegistry;
+    private final SchemaRegistryProperties.ReadFrontEnd properties;
+
+    private volatile LoopResources loopResources;
+    private volatile DisposableServer server;
+
+    /**
+     * @param resourceExtensions the resource extension classes configured for the Jersey port
+     * @throws IllegalStateException if there are any
+     */
+    public ReactiveReadServer(KafkaSchemaRegistry schemaRegistry, SchemaRegistryProperties.ReadFrontEnd properties,
+                              List<String> resourceExtensions) {
+        this(Reads.of(schemaRegistry), properties, resourceExtensions);
+    }
+
+    ReactiveReadServer(Reads schemaRegistry, SchemaRegistryProperties.ReadFrontEnd properties,
+                       List<String> resourceExtensions) {
+        if (resourceExtensions != null && !resourceExtensions.isEmpty()) {
+            throw new IllegalStateException("The read front end does not run the resource extensions "
+                    + resourceExtensions + ", so it would serve reads without them. "
+                    + "Set schemaregistry.read-front-end.enabled=false or remove the resource extensions.");
+        }
+        this.schemaRegistry = schemaRegistry;
+        this.properties = properties;
+    }
+
+    ReactiveReadServer(Reads schemaRegistry, SchemaRegistryProperties.ReadFrontEnd properties) {
+        this(schemaRegistry, properties, Collections.emptyList());
+    }
+
+    @Override
+    public synchronized void start() {
+        if (server != null) {
+            return;
+        }
+        HttpServer httpServer = HttpServer.create()
+                .host(properties.getHost())
+                .port(properties.getPort())
+                .route(this::routes);
+        if (properties.getIdleTimeout() > 0) {
+            httpServer = httpServer.idleTimeout(Duration.ofMillis(properties.getIdleTimeout()));
+        }
+        if (properties.getIoThreads() > 0) {
+            loopResources = LoopResources.create("schema-registry-read", properties.getIoThreads(), true);
+            httpServer = httpServer.runOn(loopResources);
+        }
+        server = httpServer.bindNow();
+        LOGGER.info("Read front end listening on {}", server.address());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+        if (loopResources != null) {
+            loopResources.disposeLater().block();
+            loopResources = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Starts with the embedded web server and stops after it.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1;
+    }
+
+    /**
+     * @return the bound port, or -1 if the server is not running
+     */
+    public int getPort() {
+        DisposableServer current = server;
+        return current != null ? current.port() : -1;
+    }
+
+    private void routes(HttpServerRoutes routes) {
+        String basePath = basePath(properties.getBasePath());
+        routes.get(basePath + "/schemas/ids/{id}", (request, response) -> send(response, () -> schemaById(request)))
+                .get(basePath + "/schemas/ids/{id}/schema", (request, response) -> send(response, () -> rawSchemaById(request)))
+                .get(basePath + "/subjects", (request, response) -> send(response, () -> subjects(request)))
+                .get(basePath + "/subjects/{subject}/versions", (request, response) -> send(response, () -> versions(request)))
+                .get(basePath + "/subjects/{subject}/versions/{version}", (request, response) -> send(response, () -> version(request)))
+                .get(basePath + "/subjects/{subject}/versions/{version}/schema", (request, response) -> send(response, () -> rawVersion(request)));
+    }
+
+    private Object schemaById(HttpServerRequest request) throws SchemaRegistryException {
+        int id = parseId(request.param("id"));
+        SchemaString schema = schemaRegistry.get(id, queryParam(request, "subject"));
+        if (schema == null) {
+            throw new LookupException(HttpResponseStatus.NOT_FOUND, 40403, "Schema " + id + " not found");
+        }
+        return schema;
+    }
+
+    private Object rawSchemaById(HttpServerRequest request) throws SchemaRegistryException {
+        return ((SchemaString) schemaById(request)).getSchemaString();
+    }
+
+    private Object subjects(HttpServerRequest request) throws SchemaRegistryException {
+        Set<String> subjects = schemaRegistry.listSubjects(deleted(request));
+        return new ArrayList<>(subjects);
+    }
+
+    private Object versions(HttpServerRequest request) throws SchemaRegistryException {
+        String subject = pathParam(request, "subject");
+        boolean deleted = deleted(request);
+        List<Integer> versions = new ArrayList<>();
+        Iterator<Schema> schemas = schemaRegistry.getAllVersions(subject, deleted);
+        while (schemas.hasNext()) {
+            versions.add(schemas.next().getVersion());
+        }
+        if (versions.isEmpty() && !schemaRegistry.hasSubjects(subject, deleted)) {
+            throw subjectNotFound(subject);
+        }
+        return versions;
+    }
+
+    private Object version(HttpServerRequest request) throws SchemaRegistryException {
+        String subject = pathParam(request, "subject");
+        String version = request.param("version");
+        boolean deleted = deleted(request);
+
+        Schema schema;
+        if ("latest".equalsIgnoreCase(version) || "-1".equals(version)) {
+            schema = schemaRegistry.getLatestVersion(subject);
+        } else {
+            schema = schemaRegistry.get(subject, parseVersion(version), deleted);
+        }
+        if (schema == null) {
+            if (!schemaRegistry.hasSubjects(subject, deleted)) {
+                throw subjectNotFound(subject);
+            }
+            throw new LookupException(HttpResponseStatus.NOT_FOUND, 40402, "Version " + version + " not found.");
+        }
+        return schema;
+    }
+
+    private Object rawVersion(HttpServerRequest request) throws SchemaRegistryException {
+        return ((Schema) version(request)).getSchema();
+    }
+
+    private static Publisher<Void> send(HttpServerResponse response, Lookup lookup) {
+        HttpResponseStatus status = HttpResponseStatus.OK;
+        Object entity;
+        try {
+            entity = lookup.get();
+        } catch (LookupException e) {
+            status = e.status;
+            entity = error(e.errorCode, e.getMessage());
+        } catch (SchemaRegistryException e) {
+            LOGGER.warn("Read front end lookup failed", e);
+            status = HttpResponseStatus.INTERNAL_SERVER_ERROR;
+            entity = error(50001, "Error in the backend data store");
+        }
+
+        String body;
+        try {
+            body = entity instanceof String ? (String) entity : JacksonMapper.INSTANCE.writeValueAsString(entity);
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Could not write read front end response", e);
+            return response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR).send();
+        }
+        return response.status(status)
+                .header(HttpHeaderNames.CONTENT_TYPE, CONTENT_TYPE)
+                .sendString(Mono.just(body));
+    }
+
+    private static Map<String, Object> error(int errorCode, String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error_code", errorCode);
+        error.put("message", message);
+        return error;
+    }
+
+    private static LookupException subjectNotFound(String subject) {
+        return new LookupException(HttpResponseStatus.NOT_FOUND, 40401, "Subject '" + subject + "' not found.");
+    }
+
+    private static int parseId(String id) throws LookupException {
+        try {
+            return Integer.parseInt(id);
+        } catch (NumberFormatException e) {
+            throw new LookupException(HttpResponseStatus.NOT_FOUND, 40403, "Schema " + id + " not found");
+        }
+    }
+
+    private static int parseVersion(String version) throws LookupException {
+        try {
+            int value = Integer.parseInt(version);
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new LookupException(HttpResponseStatus.UNPROCESSABLE_ENTITY, 42202,
+                "The specified version '" + version + "' is not a valid version id. "
+                        + "Allowed values are between [1, 2^31-1] and the string \"latest\"");
+    }
+
+    private static String pathParam(HttpServerRequest request, String name) {
+        return QueryStringDecoder.decodeComponent(request.param(name));
+    }
+
+    private static String queryParam(HttpServerRequest request, String name) {
+        List<String> values = new QueryStringDecoder(request.uri()).parameters().get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static boolean deleted(HttpServerRequest request) {
+        return Boolean.parseBoolean(queryParam(request, "deleted"));
+    }
+
+    static String basePath(String basePath) {
+        if (basePath == null || basePath.isEmpty() || "/".equals(basePath)) {
+            return "";
+        }
+        String path = basePath.startsWith("/") ? basePath : "/" + basePath;
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    /**
+     * The lookups of {@link KafkaSchemaRegistry} the routes use.
+     */
+    interface Reads {
+
+        SchemaString get(int id, String subject) throws SchemaRegistryException;
+
+        Set<String> listSubjects(boolean deleted) throws SchemaRegistryException;
+
+        Iterator<Schema> getAllVersions(String subject, boolean deleted) throws SchemaRegistryException;
+
+        boolean hasSubjects(String subject, boolean deleted) throws SchemaRegistryException;
+
+        Schema getLatestVersion(String subject) throws SchemaRegistryException;
+
+        Schema get(String subject, int version, boolean deleted) throws SchemaRegistryException;
+
+        static Reads of(KafkaSchemaRegistry schemaRegistry) {
+            return new Reads() {
+                @Override
+                public SchemaString get(int id, String subject) throws SchemaRegistryException {
+                    return schemaRegistry.get(id, subject);
+                }
+
+                @Override
+                public Set<String> listSubjects(boolean deleted) throws SchemaRegistryException {
+                    return schemaRegistry.listSubjects(deleted);
+                }
+
+                @Override
+                public Iterator<Schema> getAllVersions(String subject, boolean deleted)
+                        throws SchemaRegistryException {
+                    return schemaRegistry.getAllVersions(subject, deleted);
+                }
+
+                @Override
+                public boolean hasSubjects(String subject, boolean deleted) throws SchemaRegistryException {
+                    return schemaRegistry.hasSubjects(subject, deleted);
+                }
+
+                @Override
+                public Schema getLatestVersion(String subject) throws SchemaRegistryException {
+                    return schemaRegistry.getLatestVersion(subject);
+                }
+
+                @Override
+                public Schema get(String subject, int version, boolean deleted) throws SchemaRegistryException {
+                    return schemaRegistry.get(subject, version, deleted);
+                }
+            };
+        }
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        Object get() throws SchemaRegistryException;
+    }
+
+    /**
+     * A lookup that maps to an error response with a schema registry error code.
+     */
+    private static final class LookupException extends SchemaRegistryException {
+
+        private final HttpResponseStatus status;
+        private final int errorCode;
+
+        LookupException(HttpResponseStatus status, int errorCode, String message) {
+            super(message);
+            this.status = status;
+            this.errorCode = errorCode;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.replica;
+
+import io.confluent.kafka.schemaregistry.rest.resources.CompatibilityResource;
+import io.confluent.kafka.schemaregistry.rest.resources.SubjectsResource;
+import io.confluent.rest.entities.ErrorMessage;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.server.model.ResourceMethod;
+
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.lang.reflect.Method;
+
+/**
+ * Rejects writes on a replica that has no leader to forward them to.  POST requests that only read, a schema lookup
+ * under a subject and a compatibility check, are let through.
+ * <p>
+ * The decision is made from the matched resource method rather than the path, so that a subject containing an
+ * encoded slash is not mistaken for a deeper resource.
+ */
+@Priority(Priorities.AUTHORIZATION + 50)
+public class ReadOnlyReplicaFilter implements ContainerRequestFilter {
+
+    static final int UNPROCESSABLE_ENTITY = 422;
+    static final int READ_ONLY_ERROR_CODE = 42205;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (isWrite(requestContext)) {
+            requestContext.abortWith(Response.status(UNPROCESSABLE_ENTITY)
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .entity(new ErrorMessage(READ_ONLY_ERROR_CODE, "This node is a read-only replica"))
+                    .build());
+        }
+    }
+
+    /**
+     * Only valid once the request is matched, i.e. from a filter that is not pre-matching.
+     */
+    public static boolean isWrite(ContainerRequestContext requestContext) {
+        return isWrite(requestContext.getMethod(),
+                ((ExtendedUriInfo) requestContext.getUriInfo()).getMatchedResourceMethod());
+    }
+
+    /**
+     * @param resourceMethod the matched resource method, null if none matched
+     */
+    public static boolean isWrite(String method, ResourceMethod resourceMethod) {
+        if (HttpMethod.PUT.equals(method) || HttpMethod.DELETE.equals(method)) {
+            return true;
+        }
+        if (!HttpMethod.POST.equals(method) || resourceMethod == null) {
+            return false;
+        }
+        Method definition = resourceMethod.getInvocable().getDefinitionMethod();
+        if (CompatibilityResource.class.isAssignableFrom(definition.getDeclaringClass())) {
+            return false;
+        }
+        // POST /subjects/{subject} looks a schema up, POST /subjects/{subject}/versions registers it
+        return !(SubjectsResource.class.isAssignableFrom(definition.getDeclaringClass())
+                && "lookUpSchemaUnderSubject".equals(definition.getName()));
+    }
+
+    /**
+     * @return true if a request with this method may be a write, before it is matched
+     */
+    public static boolean mayWrite(String method) {
+        return HttpMethod.PUT.equals(method) || HttpMethod.DELETE.equals(method) || HttpMethod.POST.equals(method);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.shutdown;
+
+import com.github.jeremylford.spring.schemaregistry.SpringKafkaSchemaRegistry;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
+import io.confluent.kafka.schemaregistry.storage.KafkaSchemaRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands off leadership before the registry is closed.  On shutdown, new writes are rejected, the writes in flight
+ * are given up to the drain timeout to complete, then the node leaves the leader election group, so that the other
+ * nodes elect a new leader right away rather than once the group session times out.  The store is closed afterwards,
+ * when the registry bean is destroyed.
+ * <p>
+ * This runs on the {@link ContextClosedEvent}, which the context publishes before it stops any lifecycle bean.  The
+ * embedded web server's graceful shutdown already stops in the highest phase there is, so no phase would order this
+ * before it, and reads must still be served while writes drain.
+ */
+public class GracefulShutdown implements ApplicationListener<ContextClosedEvent>, ApplicationContextAware {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GracefulShutdown.class);
+
+    private final Registry schemaRegistry;
+    private final RequestDrain requestDrain;
+    private final long drainTimeout;
+    private ApplicationContext applicationContext;
+    private boolean stopped;
+
+    public GracefulShutdown(KafkaSchemaRegistry schemaRegistry, RequestDrain requestDrain, long drainTimeout) {
+        this(Registry.of(schemaRegistry), requestDrain, drainTimeout);
+    }
+
+    GracefulShutdown(Registry schemaRegistry, RequestDrain requestDrain, long drainTimeout) {
+        this.schemaRegistry = schemaRegistry;
+        this.requestDrain = requestDrain;
+        this.drainTimeout = drainTimeout;
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextClosedEvent event) {
+        // child contexts, such as a management context on its own port, publish their close event here too
+        if (applicationContext == null || event.getApplicationContext() == applicationContext) {
+            stop();
+        }
+    }
+
+    synchronized void stop() {
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+
+        long start = System.nanoTime();
+        boolean leader = schemaRegistry.isLeader();
+        requestDrain.startDraining();
+        try {
+            if (!requestDrain.awaitWrites(drainTimeout)) {
+                LOGGER.warn("{} writes still in flight after {} ms, leaving the group anyway",
+                        requestDrain.getWritesInFlight(), drainTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            schemaRegistry.relinquishLeadership();
+        } catch (SchemaRegistryException | RuntimeException e) {
+            LOGGER.warn("Could not leave the leader election group, the registry is closed without it", e);
+        }
+        LOGGER.info("Writes drained and {} handed off in {} ms", leader ? "leadership" : "group membership",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * The part of the registry used on shutdown.
+     */
+    interface Registry {
+
+        boolean isLeader();
+
+        void relinquishLeadership() throws SchemaRegistryException;
+
+        static Registry of(KafkaSchemaRegistry schemaRegistry) {
+            return new Registry() {
+                @Override
+                public boolean isLeader() {
+                    return schemaRegistry.isLeader();
+                }
+
+                @Override
+                public void relinquishLeadership() throws SchemaRegistryException {
+                    // a plain KafkaSchemaRegistry leaves the group when it is closed
+                    if (schemaRegistry instanceof SpringKafkaSchemaRegistry) {
+                        ((SpringKafkaSchemaRegistry) schemaRegistry).relinquishLeadership();
+                    }
+                }
+            };
+        }
+    }
+}
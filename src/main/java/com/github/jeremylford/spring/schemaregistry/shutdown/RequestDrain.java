@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.shutdown;
+
+import com.github.jeremylford.spring.schemaregistry.replica.ReadOnlyReplicaFilter;
+import io.confluent.rest.entities.ErrorMessage;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the writes in flight and, once draining, rejects new ones with a 503 the client can retry against another
+ * node.  Reads, schema lookups under a subject and compatibility checks are still served.
+ */
+@Priority(Priorities.AUTHENTICATION - 100)
+public class RequestDrain implements ContainerRequestFilter, ApplicationEventListener {
+
+    private final int retryAfterSeconds;
+    private final AtomicInteger writesInFlight = new AtomicInteger();
+    private volatile boolean draining;
+
+    public RequestDrain(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (draining && ReadOnlyReplicaFilter.isWrite(requestContext)) {
+            Response.Status status = Response.Status.SERVICE_UNAVAILABLE;
+            requestContext.abortWith(Response.status(status)
+                    .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .entity(new ErrorMessage(status.getStatusCode(), "This node is shutting down"))
+                    .build());
+        }
+    }
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+    }
+
+    /**
+     * The request is only matched after this is called, so whether it writes is decided once it is.  It is counted
+     * before the request filters run, so a write either sees the drain flag or is waited for.
+     */
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        if (!ReadOnlyReplicaFilter.mayWrite(requestEvent.getContainerRequest().getMethod())) {
+            return null;
+        }
+        return new WriteListener();
+    }
+
+    public void startDraining() {
+        draining = true;
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+
+    public int getWritesInFlight() {
+        return writesInFlight.get();
+    }
+
+    /**
+     * @return true if no write is in flight anymore, false if the timeout elapsed first
+     */
+    public boolean awaitWrites(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (writesInFlight) {
+            while (writesInFlight.get() > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(writesInFlight, remaining);
+            }
+        }
+        return true;
+    }
+
+    void started() {
+        writesInFlight.incrementAndGet();
+    }
+
+    void finished() {
+        if (writesInFlight.decrementAndGet() == 0 && draining) {
+            synchronized (writesInFlight) {
+                writesInFlight.notifyAll();
+            }
+        }
+    }
+
+    private final class WriteListener implements RequestEventListener {
+
+        private boolean counted;
+
+        @Override
+        public void onEvent(RequestEvent event) {
+            if (event.getType() == RequestEvent.Type.REQUEST_MATCHED) {
+                ContainerRequest request = event.getContainerRequest();
+                if (ReadOnlyReplicaFilter.isWrite(request.getMethod(), event.getUriInfo().getMatchedResourceMethod())) {
+                    counted = true;
+                    started();
+                }
+            } else if (event.getType() == RequestEvent.Type.FINISHED && counted) {
+                finished();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.slowrequest;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+
+/**
+ * Times reading the request entity and writing the response entity, for requests timed by the
+ * {@link SlowRequestListener}.
+ */
+public class PhaseTimingInterceptor implements ReaderInterceptor, WriterInterceptor {
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException, WebApplicationException {
+        Object phases = context.getProperty(RequestPhases.PROPERTY);
+        if (!(phases instanceof RequestPhases)) {
+            return context.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return context.proceed();
+        } finally {
+            ((RequestPhases) phases).add(RequestPhases.Phase.PARSE, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        Object phases = context.getProperty(RequestPhases.PROPERTY);
+        if (!(phases instanceof RequestPhases)) {
+            context.proceed();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            context.proceed();
+        } finally {
+            ((RequestPhases) phases).add(RequestPhases.Phase.SERIALIZATION, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.slowrequest;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time spent by one request in the phases that are timed inside the resource method and message body handling.
+ * Jersey's interceptors find the request's phases through a request property.  The registry finds them through a
+ * thread local, which is set while the resource method runs and carried over to the executor that runs async writes.
+ */
+public final class RequestPhases {
+
+    /**
+     * Config entry set to true to time compatibility checks and store writes.
+     */
+    public static final String CONFIG = "spring.schemaregistry.slow.requests";
+
+    static final String PROPERTY = RequestPhases.class.getName();
+
+    private static final ThreadLocal<RequestPhases> CURRENT = new ThreadLocal<>();
+
+    public enum Phase {
+        PARSE,
+        COMPATIBILITY,
+        STORE_WAIT,
+        SERIALIZATION
+    }
+
+    @FunctionalInterface
+    public interface Operation<T, E extends Exception> {
+
+        T run() throws E;
+    }
+
+    private final AtomicLongArray nanos = new AtomicLongArray(Phase.values().length);
+
+    RequestPhases() {
+    }
+
+    public static boolean isEnabled(Map<String, ?> configs) {
+        return Boolean.parseBoolean(String.valueOf(configs.get(CONFIG)));
+    }
+
+    /**
+     * Runs the operation, adding its duration to the phases of the request handled by this thread, if any.
+     */
+    public static <T, E extends Exception> T time(Phase phase, Operation<T, E> operation) throws E {
+        RequestPhases phases = CURRENT.get();
+        if (phases == null) {
+            return operation.run();
+        }
+        long start = System.nanoTime();
+        try {
+            return operation.run();
+        } finally {
+            phases.add(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return an executor that runs each task with the phases of the request that submitted it
+     */
+    public static Executor propagating(Executor executor) {
+        return command -> {
+            RequestPhases phases = CURRENT.get();
+            if (phases == null) {
+                executor.execute(command);
+                return;
+            }
+            executor.execute(() -> {
+                RequestPhases previous = attach(phases);
+                try {
+                    command.run();
+                } finally {
+                    attach(previous);
+                }
+            });
+        };
+    }
+
+    /**
+     * @return the phases attached to this thread before, to restore once the request leaves it
+     */
+    static RequestPhases attach(RequestPhases phases) {
+        RequestPhases previous = CURRENT.get();
+        if (phases == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(phases);
+        }
+        return previous;
+    }
+
+    void add(Phase phase, long nanos) {
+        this.nanos.addAndGet(phase.ordinal(), nanos);
+    }
+
+    long get(Phase phase) {
+        return nanos.get(phase.ordinal());
+    }
+}
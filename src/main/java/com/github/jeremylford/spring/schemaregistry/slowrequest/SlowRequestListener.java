@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.slowrequest;
+
+import com.github.jeremylford.spring.schemaregistry.metrics.RouteTemplates;
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import com.github.jeremylford.spring.schemaregistry.ratelimit.TokenBucket;
+import io.micrometer.core.instrument.Metrics;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every request and reports the ones that take longer than the threshold of their route, counting them and
+ * logging a breakdown of where the time went.  The log lines are limited to a rate, the requests over the rate are
+ * only counted.
+ * <p>
+ * The breakdown has the request filters, including the ones added by resource extensions, reading the request
+ * entity, compatibility checks, waiting for store writes, the rest of the resource method, writing the response
+ * entity, and what is left, such as matching, queueing for the request executor and response filters.
+ */
+public class SlowRequestListener implements ApplicationEventListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowRequestListener.class);
+
+    private final SlowRequestThresholds thresholds;
+    private final TokenBucket logRate;
+
+    public SlowRequestListener(SchemaRegistryProperties.SlowRequests slowRequests) {
+        this.thresholds = new SlowRequestThresholds(slowRequests.getThreshold(), slowRequests.getThresholds());
+        this.logRate = new TokenBucket(slowRequests.getMaxLogsPerSecond(), slowRequests.getLogBurst());
+    }
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return new TimingRequestEventListener();
+    }
+
+    private final class TimingRequestEventListener implements RequestEventListener {
+
+        private final long start = System.nanoTime();
+        private final RequestPhases phases = new RequestPhases();
+        private long filtered;
+        private long methodStart;
+        private long method;
+        private RequestPhases previous;
+
+        @Override
+        public void onEvent(RequestEvent event) {
+            switch (event.getType()) {
+                case START:
+                    event.getContainerRequest().setProperty(RequestPhases.PROPERTY, phases);
+                    break;
+                case REQUEST_FILTERED:
+                    filtered = System.nanoTime();
+                    break;
+                case RESOURCE_METHOD_START:
+                    methodStart = System.nanoTime();
+                    previous = RequestPhases.attach(phases);
+                    break;
+                case RESOURCE_METHOD_FINISHED:
+                    method += System.nanoTime() - methodStart;
+                    RequestPhases.attach(previous);
+                    previous = null;
+                    break;
+                case FINISHED:
+                    finish(event, System.nanoTime() - start);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void finish(RequestEvent event, long total) {
+            String httpMethod = event.getContainerRequest().getMethod();
+            ExtendedUriInfo uriInfo = event.getUriInfo();
+            String uri = RouteTemplates.of(uriInfo);
+            long threshold = thresholds.nanos(httpMethod, uri);
+            if (total < threshold) {
+                return;
+            }
+
+            Metrics.counter("schemaregistry.requests.slow", "method", httpMethod, "uri", uri).increment();
+            if (logRate.tryAcquire() != 0) {
+                Metrics.counter("schemaregistry.requests.slow.unlogged", "method", httpMethod, "uri", uri)
+                        .increment();
+                return;
+            }
+
+            long filters = filtered != 0 ? filtered - start : 0;
+            long parse = phases.get(RequestPhases.Phase.PARSE);
+            long compatibility = phases.get(RequestPhases.Phase.COMPATIBILITY);
+            long storeWait = phases.get(RequestPhases.Phase.STORE_WAIT);
+            long serialization = phases.get(RequestPhases.Phase.SERIALIZATION);
+            long handler = Math.max(0, method - parse - compatibility - storeWait);
+            long other = Math.max(0, total - filters - method - serialization);
+            ContainerResponse response = event.getContainerResponse();
+            LOGGER.warn("Slow request method={} uri={} subject={} status={} totalMs={} thresholdMs={} filtersMs={} "
+                            + "parseMs={} compatibilityMs={} storeWaitMs={} handlerMs={} serializationMs={} otherMs={}",
+                    httpMethod, uri,
+                    uriInfo != null ? uriInfo.getPathParameters().getFirst("subject") : null,
+                    response != null ? response.getStatus() : 500,
+                    millis(total), millis(threshold), millis(filters), millis(parse), millis(compatibility),
+                    millis(storeWait), millis(handler), millis(serialization), millis(other));
+        }
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
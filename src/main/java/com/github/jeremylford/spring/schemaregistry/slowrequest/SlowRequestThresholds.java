@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.slowrequest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The duration above which a request is slow.  A threshold is configured for a route template, optionally preceded by
+ * the method, e.g. "POST /subjects/{subject}/versions"; the method specific one wins.
+ */
+final class SlowRequestThresholds {
+
+    private final long defaultNanos;
+    private final Map<String, Long> nanos = new HashMap<>();
+
+    SlowRequestThresholds(long defaultMillis, Map<String, Long> millis) {
+        this.defaultNanos = TimeUnit.MILLISECONDS.toNanos(defaultMillis);
+        millis.forEach((route, threshold) -> nanos.put(route.trim(), TimeUnit.MILLISECONDS.toNanos(threshold)));
+    }
+
+    long nanos(String method, String uri) {
+        if (nanos.isEmpty()) {
+            return defaultNanos;
+        }
+        Long threshold = nanos.get(method + " " + uri);
+        if (threshold == null) {
+            threshold = nanos.get(uri);
+        }
+        return threshold != null ? threshold : defaultNanos;
+    }
+}
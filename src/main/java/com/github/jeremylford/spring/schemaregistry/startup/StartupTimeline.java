@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.startup;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the startup phases of the registry as {@link StartupStep}s, shown by the actuator startup endpoint when the
+ * application uses a buffering {@link ApplicationStartup}, and as {@code schemaregistry.startup.phase} timers.
+ * <p>
+ * Most phases end while beans are still being created, before any meter registry has joined
+ * {@link Metrics#globalRegistry}, where a timer would drop the sample.  Their durations are kept and recorded once
+ * the application is ready; phases ending after that are recorded right away.
+ */
+public class StartupTimeline implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final String STEP_PREFIX = "schemaregistry.";
+
+    private final ApplicationStartup applicationStartup;
+
+    // guarded by this, null once published
+    private List<Phase> ended = new ArrayList<>();
+
+    public StartupTimeline(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
+    public Phase start(String phase) {
+        return start(phase, "none");
+    }
+
+    /**
+     * @param detail what the phase applies to, such as a resource extension class
+     */
+    public Phase start(String phase, String detail) {
+        StartupStep step = applicationStartup.start(STEP_PREFIX + phase);
+        if (!"none".equals(detail)) {
+            step.tag("detail", detail);
+        }
+        return new Phase(this, step, phase, detail);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        publish();
+    }
+
+    void publish() {
+        List<Phase> phases;
+        synchronized (this) {
+            phases = ended;
+            ended = null;
+        }
+        if (phases != null) {
+            phases.forEach(StartupTimeline::record);
+        }
+    }
+
+    private void ended(Phase phase) {
+        synchronized (this) {
+            if (ended != null) {
+                ended.add(phase);
+                return;
+            }
+        }
+        record(phase);
+    }
+
+    private static void record(Phase phase) {
+        Timer.builder("schemaregistry.startup.phase")
+                .tag("phase", phase.phase)
+                .tag("detail", phase.detail)
+                .register(Metrics.globalRegistry)
+                .record(phase.nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static final class Phase implements AutoCloseable {
+
+        private final StartupTimeline timeline;
+        private final StartupStep step;
+        private final String phase;
+        private final String detail;
+        private final long started = System.nanoTime();
+        private long nanos;
+
+        private Phase(StartupTimeline timeline, StartupStep step, String phase, String detail) {
+            this.timeline = timeline;
+            this.step = step;
+            this.phase = phase;
+            this.detail = detail;
+        }
+
+        public Phase tag(String key, String value) {
+            step.tag(key, value);
+            return this;
+        }
+
+        @Override
+        public void close() {
+            nanos = System.nanoTime() - started;
+            step.end();
+            timeline.ended(this);
+        }
+    }
+}
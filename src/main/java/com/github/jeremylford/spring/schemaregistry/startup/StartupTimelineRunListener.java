@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.startup;
+
+import org.springframework.boot.ConfigurableBootstrapContext;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringApplicationRunListener;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.metrics.ApplicationStartup;
+
+/**
+ * Once {@code schemaregistry.startup.timeline} is set to true, switches applications that did not choose an
+ * {@link ApplicationStartup} to a {@link BufferingApplicationStartup} of {@code schemaregistry.startup.buffer-size}
+ * steps, so the startup steps of the registry are available from the actuator startup endpoint.
+ * <p>
+ * Off by default: the registry records its steps into whichever ApplicationStartup the application uses, and an
+ * application can buffer them itself with {@code application.setApplicationStartup(new BufferingApplicationStartup(n))}
+ * before running.  Runs once the environment is prepared, which is before the application context is created.
+ */
+public class StartupTimelineRunListener implements SpringApplicationRunListener, Ordered {
+
+    private final SpringApplication application;
+
+    public StartupTimelineRunListener(SpringApplication application, String[] args) {
+        this.application = application;
+    }
+
+    @Override
+    public void environmentPrepared(ConfigurableBootstrapContext bootstrapContext,
+                                    ConfigurableEnvironment environment) {
+        boolean enabled = environment.getProperty("schemaregistry.startup.timeline", Boolean.class, false);
+        if (enabled && application.getApplicationStartup() == ApplicationStartup.DEFAULT) {
+            int bufferSize = environment.getProperty("schemaregistry.startup.buffer-size", Integer.class, 4096);
+            application.setApplicationStartup(new BufferingApplicationStartup(bufferSize));
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import io.confluent.kafka.schemaregistry.CompatibilityLevel;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.storage.CloseableIterator;
+import io.confluent.kafka.schemaregistry.storage.LookupCache;
+import io.confluent.kafka.schemaregistry.storage.MD5;
+import io.confluent.kafka.schemaregistry.storage.Mode;
+import io.confluent.kafka.schemaregistry.storage.SchemaIdAndSubjects;
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaReference;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreInitializationException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@link LookupCache} that keeps the schema indexes itself instead of leaving them to the wrapped cache.
+ * <p>
+ * Ids map to their subject versions through an {@link IntObjectHashMap} per context, holding a single
+ * {@link SchemaKey} for the common case of an id used by one subject, and one version per subject as InMemoryCache
+ * does.  The live versions of each subject are
+ * a sorted int array, so the latest version is found without scanning the store.  The index callbacks are never
+ * passed on to the wrapped cache, so its own id, hash and reference maps stay empty.
+ */
+public class IndexedLookupCache implements LookupCache<SchemaRegistryKey, SchemaRegistryValue> {
+
+    private static final IntObjectHashMap<Object> NO_IDS = new IntObjectHashMap<>();
+
+    private final LookupCache<SchemaRegistryKey, SchemaRegistryValue> delegate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // guarded by lock
+    private final Map<String, IntObjectHashMap<Object>> idsByContext = new HashMap<>();
+    private final Map<String, Map<MD5, Integer>> hashesByContext = new HashMap<>();
+    private final Map<SchemaKey, int[]> referencedBy = new HashMap<>();
+
+    // arrays are copy-on-write, read without the lock
+    private final Map<String, int[]> liveVersions = new ConcurrentHashMap<>();
+
+    public IndexedLookupCache(LookupCache<SchemaRegistryKey, SchemaRegistryValue> delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the latest version of the subject that is not deleted, or -1 if there is none
+     */
+    public int latestVersion(String subject) {
+        return SortedInts.last(liveVersions.getOrDefault(subject, SortedInts.EMPTY));
+    }
+
+    /**
+     * @return the versions of the subject that are not deleted, in ascending order
+     */
+    public int[] versions(String subject) {
+        return liveVersions.getOrDefault(subject, SortedInts.EMPTY).clone();
+    }
+
+    @Override
+    public SchemaIdAndSubjects schemaIdAndSubjects(Schema schema) throws StoreException {
+        String context = SchemaContexts.contextOf(schema.getSubject());
+        MD5 md5 = MD5.ofSchema(schema);
+        lock.readLock().lock();
+        try {
+            Integer id = hashesByContext.getOrDefault(context, Collections.emptyMap()).get(md5);
+            if (id == null) {
+                return null;
+            }
+            SchemaKey[] keys = keys(ids(context).get(id));
+            if (keys.length == 0) {
+                return null;
+            }
+            SchemaIdAndSubjects schemaIdAndSubjects = new SchemaIdAndSubjects(id);
+            for (SchemaKey key : keys) {
+                schemaIdAndSubjects.addSubjectVersion(key.getSubject(), key.getVersion());
+            }
+            return schemaIdAndSubjects;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsSchema(Schema schema) throws StoreException {
+        String context = SchemaContexts.contextOf(schema.getSubject());
+        MD5 md5 = MD5.ofSchema(schema);
+        lock.readLock().lock();
+        try {
+            return hashesByContext.getOrDefault(context, Collections.emptyMap()).containsKey(md5);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Integer> referencesSchema(SchemaKey schema) throws StoreException {
+        lock.readLock().lock();
+        try {
+            int[] ids = referencedBy.getOrDefault(schema, SortedInts.EMPTY);
+            Set<Integer> result = new HashSet<>(ids.length * 2);
+            for (int id : ids) {
+                result.add(id);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public SchemaKey schemaKeyById(Integer id, String subject) throws StoreException {
+        lock.readLock().lock();
+        try {
+            SchemaKey[] keys = keys(ids(SchemaContexts.contextOf(subject)).get(id));
+            if (keys.length == 0) {
+                return null;
+            }
+            if (subject != null) {
+                for (SchemaKey key : keys) {
+                    if (key.getSubject().equals(subject)) {
+                        return key;
+                    }
+                }
+            }
+            return keys[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void schemaRegistered(SchemaKey schemaKey, SchemaValue schemaValue, SchemaValue oldSchemaValue) {
+        String context = SchemaContexts.contextOf(schemaKey.getSubject());
+        lock.writeLock().lock();
+        try {
+            IntObjectHashMap<Object> ids = idsByContext.computeIfAbsent(context, c -> new IntObjectHashMap<>());
+            ids.put(schemaValue.getId(), addKey(ids.get(schemaValue.getId()), schemaKey));
+            hashesByContext.computeIfAbsent(context, c -> new HashMap<>())
+                    .put(MD5.ofSchema(schemaValue.toSchemaEntity()), schemaValue.getId());
+            if (schemaValue.isDeleted()) {
+                removeReferences(context, schemaValue);
+            } else {
+                addReferences(context, schemaValue);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (schemaValue.isDeleted()) {
+            liveVersions.computeIfPresent(schemaKey.getSubject(),
+                    (subject, versions) -> emptyToNull(SortedInts.remove(versions, schemaKey.getVersion())));
+        } else {
+            liveVersions.merge(schemaKey.getSubject(), new int[]{schemaKey.getVersion()},
+                    (versions, version) -> SortedInts.insert(versions, version[0]));
+        }
+    }
+
+    @Override
+    public void schemaDeleted(SchemaKey schemaKey, SchemaValue schemaValue, SchemaValue oldSchemaValue) {
+        String context = SchemaContexts.contextOf(schemaKey.getSubject());
+        lock.writeLock().lock();
+        try {
+            removeReferences(context, schemaValue);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        liveVersions.computeIfPresent(schemaKey.getSubject(),
+                (subject, versions) -> emptyToNull(SortedInts.remove(versions, schemaKey.getVersion())));
+    }
+
+    @Override
+    public void schemaTombstoned(SchemaKey schemaKey, SchemaValue schemaValue) {
+        if (schemaValue != null) {
+            String context = SchemaContexts.contextOf(schemaKey.getSubject());
+            lock.writeLock().lock();
+            try {
+                IntObjectHashMap<Object> ids = ids(context);
+                Object remaining = removeKey(ids.get(schemaValue.getId()), schemaKey);
+                if (remaining != null) {
+                    ids.put(schemaValue.getId(), remaining);
+                } else {
+                    ids.remove(schemaValue.getId());
+                    Map<MD5, Integer> hashes = hashesByContext.get(context);
+                    if (hashes != null) {
+                        hashes.remove(MD5.ofSchema(schemaValue.toSchemaEntity()), schemaValue.getId());
+                    }
+                }
+                removeReferences(context, schemaValue);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        liveVersions.computeIfPresent(schemaKey.getSubject(),
+                (subject, versions) -> emptyToNull(SortedInts.remove(versions, schemaKey.getVersion())));
+    }
+
+    @Override
+    public void clearSubjects(String subject) throws StoreException {
+        delegate.clearSubjects(subject);
+        lock.writeLock().lock();
+        try {
+            for (IntObjectHashMap<Object> ids : idsByContext.values()) {
+                for (int id : ids.keys()) {
+                    Object remaining = ids.get(id);
+                    for (SchemaKey key : keys(remaining)) {
+                        if (matches(subject, key.getSubject())) {
+                            remaining = removeKey(remaining, key);
+                        }
+                    }
+                    if (remaining != null) {
+                        ids.put(id, remaining);
+                    } else {
+                        ids.remove(id);
+                    }
+                }
+            }
+            for (Map.Entry<String, Map<MD5, Integer>> entry : hashesByContext.entrySet()) {
+                IntObjectHashMap<Object> ids = ids(entry.getKey());
+                entry.getValue().values().removeIf(id -> ids.get(id) == null);
+            }
+            referencedBy.keySet().removeIf(key -> matches(subject, key.getSubject()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        liveVersions.keySet().removeIf(key -> matches(subject, key));
+    }
+
+    @Override
+    public CompatibilityLevel compatibilityLevel(String subject, boolean returnTopLevelIfNotFound,
+                                                 CompatibilityLevel defaultForTopLevel) throws StoreException {
+        return delegate.compatibilityLevel(subject, returnTopLevelIfNotFound, defaultForTopLevel);
+    }
+
+    @Override
+    public Mode mode(String subject, boolean returnTopLevelIfNotFound, Mode defaultForTopLevel)
+            throws StoreException {
+        return delegate.mode(subject, returnTopLevelIfNotFound, defaultForTopLevel);
+    }
+
+    @Override
+    public Set<String> subjects(String subject, boolean lookupDeletedSubjects) throws StoreException {
+        return delegate.subjects(subject, lookupDeletedSubjects);
+    }
+
+    @Override
+    public boolean hasSubjects(String subject, boolean lookupDeletedSubjects) throws StoreException {
+        return delegate.hasSubjects(subject, lookupDeletedSubjects);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        delegate.configure(configs);
+    }
+
+    @Override
+    public void init() throws StoreInitializationException {
+        delegate.init();
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return delegate.isPersistent();
+    }
+
+    @Override
+    public SchemaRegistryValue get(SchemaRegistryKey key) throws StoreException {
+        return delegate.get(key);
+    }
+
+    @Override
+    public SchemaRegistryValue put(SchemaRegistryKey key, SchemaRegistryValue value) throws StoreException {
+        return delegate.put(key, value);
+    }
+
+    @Override
+    public CloseableIterator<SchemaRegistryValue> getAll(SchemaRegistryKey key1, SchemaRegistryKey key2)
+            throws StoreException {
+        return delegate.getAll(key1, key2);
+    }
+
+    @Override
+    public void putAll(Map<SchemaRegistryKey, SchemaRegistryValue> entries) throws StoreException {
+        delegate.putAll(entries);
+    }
+
+    @Override
+    public SchemaRegistryValue delete(SchemaRegistryKey key) throws StoreException {
+        return delegate.delete(key);
+    }
+
+    @Override
+    public CloseableIterator<SchemaRegistryKey> getAllKeys() throws StoreException {
+        return delegate.getAllKeys();
+    }
+
+    @Override
+    public void flush() throws StoreException {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() throws StoreException {
+        delegate.close();
+    }
+
+    private IntObjectHashMap<Object> ids(String context) {
+        IntObjectHashMap<Object> ids = idsByContext.get(context);
+        return ids != null ? ids : NO_IDS;
+    }
+
+    private void addReferences(String context, SchemaValue schemaValue) {
+        if (schemaValue.getReferences() == null) {
+            return;
+        }
+        for (SchemaReference reference : schemaValue.getReferences()) {
+            SchemaKey referenced = new SchemaKey(qualify(context, reference.getSubject()), reference.getVersion());
+            referencedBy.merge(referenced, new int[]{schemaValue.getId()},
+                    (referencing, id) -> SortedInts.insert(referencing, id[0]));
+        }
+    }
+
+    private void removeReferences(String context, SchemaValue schemaValue) {
+        if (schemaValue == null || schemaValue.getReferences() == null) {
+            return;
+        }
+        for (SchemaReference reference : schemaValue.getReferences()) {
+            SchemaKey referenced = new SchemaKey(qualify(context, reference.getSubject()), reference.getVersion());
+            referencedBy.computeIfPresent(referenced,
+                    (key, referencing) -> emptyToNull(SortedInts.remove(referencing, schemaValue.getId())));
+        }
+    }
+
+    /**
+     * An id entry is either a single {@link SchemaKey} or an array of them.
+     */
+    private static SchemaKey[] keys(Object entry) {
+        if (entry == null) {
+            return new SchemaKey[0];
+        }
+        if (entry instanceof SchemaKey) {
+            return new SchemaKey[]{(SchemaKey) entry};
+        }
+        return (SchemaKey[]) entry;
+    }
+
+    /**
+     * Like InMemoryCache, an id maps to one version per subject: a schema registered again under the same subject,
+     * after being soft deleted, replaces the earlier version.
+     */
+    private static Object addKey(Object entry, SchemaKey key) {
+        if (entry == null) {
+            return key;
+        }
+        SchemaKey[] keys = keys(entry);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].getSubject().equals(key.getSubject())) {
+                if (keys[i].equals(key)) {
+                    return entry;
+                }
+                if (keys.length == 1) {
+                    return key;
+                }
+                keys[i] = key;
+                return keys;
+            }
+        }
+        SchemaKey[] copy = Arrays.copyOf(keys, keys.length + 1);
+        copy[keys.length] = key;
+        return copy;
+    }
+
+    private static Object removeKey(Object entry, SchemaKey key) {
+        SchemaKey[] keys = keys(entry);
+        SchemaKey[] remaining = new SchemaKey[keys.length];
+        int count = 0;
+        for (SchemaKey existing : keys) {
+            if (!existing.equals(key)) {
+                remaining[count++] = existing;
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        return count == 1 ? remaining[0] : Arrays.copyOf(remaining, count);
+    }
+
+    private static int[] emptyToNull(int[] values) {
+        return values.length == 0 ? null : values;
+    }
+
+    private static String qualify(String context, String subject) {
+        if (SchemaContexts.DEFAULT_CONTEXT.equals(context) || subject.startsWith(":.")) {
+            return subject;
+        }
+        return ":" + context + ":" + subject;
+    }
+
+    /**
+     * A subject ending in ':' names a whole context.
+     */
+    private static boolean matches(String subjectOrContext, String subject) {
+        if (subjectOrContext.endsWith(":")) {
+            return subject.startsWith(subjectOrContext);
+        }
+        return subject.equals(subjectOrContext);
+    }
+}
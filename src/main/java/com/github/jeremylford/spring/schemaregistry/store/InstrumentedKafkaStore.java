@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import com.github.jeremylford.spring.schemaregistry.jfr.RegistryEvents;
+import com.github.jeremylford.spring.schemaregistry.observation.RegistryObservations;
+import com.github.jeremylford.spring.schemaregistry.slowrequest.RequestPhases;
+import io.confluent.kafka.schemaregistry.rest.SchemaRegistryConfig;
+import io.confluent.kafka.schemaregistry.storage.KafkaStore;
+import io.confluent.kafka.schemaregistry.storage.LookupCache;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.StoreUpdateHandler;
+import io.confluent.kafka.schemaregistry.storage.SubjectKey;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreInitializationException;
+import io.confluent.kafka.schemaregistry.storage.serialization.Serializer;
+
+/**
+ * {@link KafkaStore} that instruments each write, which sends the record and waits until the store reader has
+ * applied it, with a Flight Recorder event, an observation, the store wait phase of slow requests, or all of them.
+ */
+public class InstrumentedKafkaStore extends KafkaStore<SchemaRegistryKey, SchemaRegistryValue> {
+
+    private final boolean jfrEvents;
+    private final RegistryObservations observations;
+    private final boolean slowRequests;
+
+    /**
+     * @param observations the observations to record, or null
+     */
+    public InstrumentedKafkaStore(SchemaRegistryConfig config,
+                                  StoreUpdateHandler<SchemaRegistryKey, SchemaRegistryValue> storeUpdateHandler,
+                                  Serializer<SchemaRegistryKey, SchemaRegistryValue> serializer,
+                                  LookupCache<SchemaRegistryKey, SchemaRegistryValue> localStore,
+                                  SchemaRegistryKey noopKey,
+                                  boolean jfrEvents,
+                                  RegistryObservations observations,
+                                  boolean slowRequests) throws StoreInitializationException {
+        super(config, storeUpdateHandler, serializer, localStore, noopKey);
+        this.jfrEvents = jfrEvents;
+        this.observations = observations;
+        this.slowRequests = slowRequests;
+    }
+
+    @Override
+    public SchemaRegistryValue put(SchemaRegistryKey key, SchemaRegistryValue value) throws StoreException {
+        if (!slowRequests) {
+            return observe(key, value);
+        }
+        return RequestPhases.time(RequestPhases.Phase.STORE_WAIT, () -> observe(key, value));
+    }
+
+    private SchemaRegistryValue observe(SchemaRegistryKey key, SchemaRegistryValue value) throws StoreException {
+        if (observations == null) {
+            return record(key, value);
+        }
+        String subject = key instanceof SubjectKey ? ((SubjectKey) key).getSubject() : null;
+        return observations.observe(RegistryObservations.STORE_WRITE, subject, () -> record(key, value));
+    }
+
+    private SchemaRegistryValue record(SchemaRegistryKey key, SchemaRegistryValue value) throws StoreException {
+        if (!jfrEvents) {
+            return super.put(key, value);
+        }
+        return RegistryEvents.storeProduce(key, value, () -> super.put(key, value));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import io.confluent.kafka.schemaregistry.storage.InMemoryCache;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import io.confluent.kafka.schemaregistry.storage.exceptions.StoreException;
+import io.confluent.kafka.schemaregistry.storage.serialization.Serializer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link InMemoryCache} that swaps each {@link SchemaValue} for an {@link OffHeapSchemaValue} as it is stored, so
+ * only the schema metadata stays on the heap.
+ */
+public class OffHeapLookupCache extends InMemoryCache<SchemaRegistryKey, SchemaRegistryValue> {
+
+    private final SchemaTextStore textStore;
+
+    public OffHeapLookupCache(Serializer<SchemaRegistryKey, SchemaRegistryValue> serializer,
+                              SchemaTextStore textStore) {
+        super(serializer);
+        this.textStore = textStore;
+    }
+
+    @Override
+    public SchemaRegistryValue put(SchemaRegistryKey key, SchemaRegistryValue value) throws StoreException {
+        return super.put(key, offHeap(value));
+    }
+
+    @Override
+    public void putAll(Map<SchemaRegistryKey, SchemaRegistryValue> entries) throws StoreException {
+        Map<SchemaRegistryKey, SchemaRegistryValue> offHeapEntries = new LinkedHashMap<>(entries.size());
+        for (Map.Entry<SchemaRegistryKey, SchemaRegistryValue> entry : entries.entrySet()) {
+            offHeapEntries.put(entry.getKey(), offHeap(entry.getValue()));
+        }
+        super.putAll(offHeapEntries);
+    }
+
+    private SchemaRegistryValue offHeap(SchemaRegistryValue value) {
+        if (value instanceof SchemaValue && !(value instanceof OffHeapSchemaValue)
+                && ((SchemaValue) value).getSchema() != null) {
+            return new OffHeapSchemaValue((SchemaValue) value, textStore);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import io.confluent.kafka.schemaregistry.storage.LookupCache;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.serialization.SchemaRegistrySerializer;
+
+/**
+ * Store that keeps schema text in a {@link SchemaTextStore}.
+ */
+public class OffHeapLookupCacheFactory implements LookupCacheFactory, AutoCloseable {
+
+    private final SchemaTextStore textStore;
+
+    public OffHeapLookupCacheFactory(SchemaTextStore textStore) {
+        this.textStore = textStore;
+    }
+
+    @Override
+    public LookupCache<SchemaRegistryKey, SchemaRegistryValue> create() {
+        return new OffHeapLookupCache(new SchemaRegistrySerializer(), textStore);
+    }
+
+    @Override
+    public void close() {
+        textStore.close();
+    }
+}
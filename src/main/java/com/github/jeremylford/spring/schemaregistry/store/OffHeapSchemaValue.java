@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+
+import java.util.Objects;
+
+/**
+ * {@link SchemaValue} whose schema text lives in a {@link SchemaTextStore} and is inflated on each access.
+ */
+public class OffHeapSchemaValue extends SchemaValue {
+
+    private final SchemaTextStore textStore;
+    private final String context;
+    private volatile SchemaTextStore.Handle handle;
+
+    public OffHeapSchemaValue(SchemaValue schemaValue, SchemaTextStore textStore) {
+        super(schemaValue.getSubject(), schemaValue.getVersion(), schemaValue.getId(), schemaValue.getSchemaType(),
+                schemaValue.getReferences(), null, schemaValue.isDeleted());
+        this.textStore = textStore;
+        this.context = SchemaContexts.contextOf(schemaValue.getSubject());
+        this.handle = textStore.put(schemaValue.getSchema());
+    }
+
+    @Override
+    public String getSchema() {
+        SchemaTextStore.Handle current = handle;
+        return current == null ? null : textStore.get(current, context);
+    }
+
+    @Override
+    public void setSchema(String schema) {
+        // also called by the SchemaValue constructor, before the text store is assigned
+        this.handle = schema == null ? null : textStore.put(schema);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return super.equals(o) && Objects.equals(getSchema(), ((SchemaValue) o).getSchema());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(getSchema());
+    }
+}
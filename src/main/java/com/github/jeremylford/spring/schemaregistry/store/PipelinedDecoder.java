@@ -0,0 +1,257 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.exceptions.SerializationException;
+import io.confluent.kafka.schemaregistry.storage.serialization.Serializer;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Serializer} for the Kafka store that decodes the records of each poll on a worker pool, ahead of the store
+ * reader thread.
+ * <p>
+ * {@link StoreReaderInterceptor} hands every polled batch to {@link #onConsume(ConsumerRecords)}, which starts
+ * decoding it in chunks and returns.  The reader thread then applies the records in offset order as before; its
+ * {@code deserializeKey} and {@code deserializeValue} calls find the decoded result by the identity of the record's
+ * byte arrays and wait only if the chunk is still being decoded.  Without worker threads, records are decoded on the
+ * reader thread and only the catch-up metrics are kept.
+ */
+public class PipelinedDecoder implements Serializer<SchemaRegistryKey, SchemaRegistryValue> {
+
+    /**
+     * Config entry, under the kafkastore. prefix, holding the decoder instance for {@link StoreReaderInterceptor}.
+     */
+    public static final String CONFIG = "spring.schemaregistry.pipelined.decoder";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PipelinedDecoder.class);
+
+    private static final String METRIC_PREFIX = "schemaregistry.store.reader";
+
+    private final Serializer<SchemaRegistryKey, SchemaRegistryValue> delegate;
+    private final ExecutorService decodePool;
+    private final int chunkSize;
+
+    // guarded by this, only the current batch is kept
+    private final Map<byte[], CompletableFuture<Decoded>> pending = new IdentityHashMap<>();
+
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong offset = new AtomicLong(-1);
+    private volatile long catchUpStartNanos;
+    private volatile long catchUpRecords = -1;
+    private volatile double catchUpRate;
+
+    public PipelinedDecoder(Serializer<SchemaRegistryKey, SchemaRegistryValue> delegate, int threads, int chunkSize) {
+        this.delegate = delegate;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.decodePool = threads > 0 ? Executors.newFixedThreadPool(threads, new DecoderThreadFactory()) : null;
+
+        Metrics.more().counter(METRIC_PREFIX + ".records", Tags.empty(), records);
+        Metrics.gauge(METRIC_PREFIX + ".offset", offset);
+        Metrics.gauge(METRIC_PREFIX + ".caught.up", this, decoder -> decoder.catchUpRecords >= 0 ? 1 : 0);
+        Metrics.gauge(METRIC_PREFIX + ".catchup.records.per.second", this, PipelinedDecoder::currentCatchUpRate);
+    }
+
+    /**
+     * @return the number of schema topic records read so far
+     */
+    public long getRecordsRead() {
+        return records.get();
+    }
+
+    public boolean isPipelined() {
+        return decodePool != null;
+    }
+
+    /**
+     * Called with each batch polled from the schemas topic, on the store reader thread.
+     */
+    void onConsume(ConsumerRecords<byte[], byte[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (catchUpStartNanos == 0) {
+            catchUpStartNanos = System.nanoTime();
+        }
+
+        List<ConsumerRecord<byte[], byte[]>> chunk = new ArrayList<>(chunkSize);
+        synchronized (this) {
+            // the reader applies a batch completely before polling again
+            pending.clear();
+            for (ConsumerRecord<byte[], byte[]> record : batch) {
+                records.incrementAndGet();
+                offset.set(record.offset());
+                if (decodePool != null && record.key() != null) {
+                    chunk.add(record);
+                    if (chunk.size() == chunkSize) {
+                        submit(chunk);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(chunk);
+            }
+        }
+    }
+
+    /**
+     * Called once the registry has read the schemas topic up to the end offset it saw at startup.
+     */
+    public void caughtUp() {
+        long count = records.get();
+        long elapsedNanos = catchUpStartNanos == 0 ? 0 : System.nanoTime() - catchUpStartNanos;
+        catchUpRate = elapsedNanos == 0 ? 0 : count / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+        catchUpRecords = count;
+        LOGGER.info("Read {} schema topic records in {} ms ({} records/s, {} decoding)", count,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), (long) catchUpRate,
+                isPipelined() ? "pipelined" : "sequential");
+    }
+
+    private double currentCatchUpRate() {
+        if (catchUpRecords >= 0) {
+            return catchUpRate;
+        }
+        long elapsedNanos = catchUpStartNanos == 0 ? 0 : System.nanoTime() - catchUpStartNanos;
+        return elapsedNanos == 0 ? 0 : records.get() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private void submit(List<ConsumerRecord<byte[], byte[]>> chunk) {
+        List<CompletableFuture<Decoded>> futures = new ArrayList<>(chunk.size());
+        for (ConsumerRecord<byte[], byte[]> record : chunk) {
+            CompletableFuture<Decoded> future = new CompletableFuture<>();
+            futures.add(future);
+            pending.put(record.key(), future);
+            if (record.value() != null) {
+                pending.put(record.value(), future);
+            }
+        }
+        decodePool.execute(() -> {
+            for (int i = 0; i < chunk.size(); i++) {
+                futures.get(i).complete(decode(chunk.get(i)));
+            }
+        });
+    }
+
+    private Decoded decode(ConsumerRecord<byte[], byte[]> record) {
+        try {
+            SchemaRegistryKey key = delegate.deserializeKey(record.key());
+            SchemaRegistryValue value = record.value() == null ? null : delegate.deserializeValue(key, record.value());
+            return new Decoded(key, value, null);
+        } catch (SerializationException | RuntimeException e) {
+            return new Decoded(null, null, e);
+        }
+    }
+
+    private Decoded take(byte[] bytes) throws SerializationException {
+        CompletableFuture<Decoded> future;
+        synchronized (this) {
+            future = pending.remove(bytes);
+        }
+        if (future == null) {
+            return null;
+        }
+        Decoded decoded;
+        try {
+            decoded = future.join();
+        } catch (CompletionException e) {
+            throw new SerializationException("Error decoding schema topic record", e.getCause());
+        }
+        if (decoded.failure instanceof SerializationException) {
+            throw (SerializationException) decoded.failure;
+        } else if (decoded.failure != null) {
+            throw (RuntimeException) decoded.failure;
+        }
+        return decoded;
+    }
+
+    @Override
+    public SchemaRegistryKey deserializeKey(byte[] key) throws SerializationException {
+        Decoded decoded = take(key);
+        return decoded != null ? decoded.key : delegate.deserializeKey(key);
+    }
+
+    @Override
+    public SchemaRegistryValue deserializeValue(SchemaRegistryKey key, byte[] value) throws SerializationException {
+        Decoded decoded = take(value);
+        return decoded != null ? decoded.value : delegate.deserializeValue(key, value);
+    }
+
+    @Override
+    public byte[] serializeKey(SchemaRegistryKey key) throws SerializationException {
+        return delegate.serializeKey(key);
+    }
+
+    @Override
+    public byte[] serializeValue(SchemaRegistryValue value) throws SerializationException {
+        return delegate.serializeValue(value);
+    }
+
+    @Override
+    public void close() {
+        if (decodePool != null) {
+            decodePool.shutdownNow();
+        }
+        delegate.close();
+    }
+
+    private static final class Decoded {
+
+        private final SchemaRegistryKey key;
+        private final SchemaRegistryValue value;
+        private final Exception failure;
+
+        Decoded(SchemaRegistryKey key, SchemaRegistryValue value, Exception failure) {
+            this.key = key;
+            this.value = value;
+            this.failure = failure;
+        }
+    }
+
+    private static final class DecoderThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "schema-registry-decoder-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
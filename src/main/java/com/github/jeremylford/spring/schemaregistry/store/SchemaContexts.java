@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.store;
+
+/**
+ * Schema context names as they appear in qualified subjects.
+ */
+public final class SchemaContexts {
+
+    public static final String DEFAULT_CONTEXT = ".";
+
+    /**
+     * The name shared by the contexts seen after a cap on individually tracked contexts is reached.
+     */
+    public static final String OTHER_CONTEXTS = "_other";
+
+    private SchemaContexts() {
+    }
+
+    /**
+     * Subjects in a context other than the default are qualified as {@code :.context:subject}.
+     *
+     * @return the context, with its leading dot, or {@link #DEFAULT_CONTEXT}
+     */
+    public static String contextOf(String subject) {
+        if (subject != null && subject.startsWith(":.")) {
+            int end = subject.indexOf(':', 1);
+            if (end > 0) {
+                return subject.substring(1, end);
+            }
+        }
+        return DEFAULT_CONTEXT;
+    }
+
+    /**
+     * @return the context without its leading dot, or "default" for the default context, as used in configuration
+     * keys and metric tags
+     */
+    public static String name(String context) {
+        if (context == null || DEFAULT_CONTEXT.equals(context)) {
+            return "default";
+        }
+        return context.startsWith(".") ? context.substring(1) : context;
+    }
+}
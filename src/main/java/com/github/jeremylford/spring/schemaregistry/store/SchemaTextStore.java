@@ -0,0 +1,376 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Keeps schema text outside of the heap.  Each distinct text is stored once, keyed by its SHA-256, deflated into
+ * chunks of direct or memory-mapped buffers, and inflated again on access.  A small LRU of inflated text sits in
+ * front of the buffers for schemas that are read repeatedly.  The LRU can be partitioned by schema context, each
+ * context with its own byte budget, so that a context reading many schemas only evicts its own entries.
+ * <p>
+ * Storage is append-only, like the _schemas topic it mirrors: soft deleted schemas are still served by the registry
+ * and re-registering a schema reuses the existing entry.
+ */
+public class SchemaTextStore implements Closeable {
+
+    public enum Mode {
+        DIRECT,
+        MAPPED
+    }
+
+    private final Mode mode;
+    private final Path directory;
+    private final int chunkSize;
+
+    private final ConcurrentMap<Digest, Handle> handles = new ConcurrentHashMap<>();
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final HotCache hotCache;
+    private final long contextHotCacheMaxBytes;
+    private final Map<String, Long> contextHotCacheSizes;
+    private final int maxContexts;
+    private final ConcurrentMap<String, HotCache> contextHotCaches = new ConcurrentHashMap<>();
+
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final AtomicLong rawBytes = new AtomicLong();
+    private final Counter hotCacheHits;
+    private final Counter hotCacheMisses;
+
+    private ByteBuffer current;
+    private volatile boolean closed;
+
+    public SchemaTextStore(Mode mode, Path directory, int chunkSize, long hotCacheMaxBytes) {
+        this(mode, directory, chunkSize, hotCacheMaxBytes, 0, Collections.emptyMap(), 0);
+    }
+
+    /**
+     * @param contextHotCacheMaxBytes the budget of each context other than the default, 0 to share the default cache
+     * @param contextHotCacheSizes    budgets of individual contexts by {@link SchemaContexts#name(String)}
+     * @param maxContexts             the number of contexts with their own cache, further contexts share one
+     */
+    public SchemaTextStore(Mode mode, Path directory, int chunkSize, long hotCacheMaxBytes,
+                           long contextHotCacheMaxBytes, Map<String, Long> contextHotCacheSizes, int maxContexts) {
+        this.mode = mode;
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.hotCache = new HotCache(hotCacheMaxBytes);
+        this.contextHotCacheMaxBytes = contextHotCacheMaxBytes;
+        this.contextHotCacheSizes = new ConcurrentHashMap<>(contextHotCacheSizes);
+        this.maxContexts = maxContexts;
+
+        this.hotCacheHits = Metrics.counter("schemaregistry.store.text.cache", "result", "hit");
+        this.hotCacheMisses = Metrics.counter("schemaregistry.store.text.cache", "result", "miss");
+        Metrics.gauge("schemaregistry.store.text.stored.bytes", storedBytes, AtomicLong::get);
+        Metrics.gauge("schemaregistry.store.text.raw.bytes", rawBytes, AtomicLong::get);
+        Metrics.gauge("schemaregistry.store.text.distinct", handles, Map::size);
+        Metrics.gauge("schemaregistry.store.text.cache.bytes", Tags.of("context", SchemaContexts.name(null)),
+                hotCache, HotCache::bytes);
+    }
+
+    /**
+     * @throws IllegalStateException if the store is closed
+     */
+    public Handle put(String text) {
+        checkOpen();
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        Digest digest = Digest.of(raw);
+
+        Handle handle = handles.get(digest);
+        if (handle != null) {
+            return handle;
+        }
+        return handles.computeIfAbsent(digest, key -> write(deflate(raw), raw.length));
+    }
+
+    public String get(Handle handle) {
+        return get(handle, SchemaContexts.DEFAULT_CONTEXT);
+    }
+
+    /**
+     * @param context the context of the subject the text is read for, which picks the hot cache partition
+     * @throws IllegalStateException if the store is closed
+     */
+    public String get(Handle handle, String context) {
+        checkOpen();
+        HotCache cache = hotCache(context);
+        String text = cache.get(handle);
+        if (text != null) {
+            hotCacheHits.increment();
+            return text;
+        }
+        hotCacheMisses.increment();
+
+        // the duplicate keeps the buffer reachable, so a read that got this far completes even if the store is closed
+        ByteBuffer chunk;
+        synchronized (chunks) {
+            checkOpen();
+            chunk = chunks.get(handle.chunk).duplicate();
+        }
+        byte[] compressed = new byte[handle.length];
+        chunk.position(handle.offset);
+        chunk.get(compressed);
+
+        text = new String(inflate(compressed, handle.rawLength), StandardCharsets.UTF_8);
+        cache.put(handle, text);
+        return text;
+    }
+
+    @Override
+    public void close() {
+        synchronized (chunks) {
+            closed = true;
+            chunks.clear();
+            current = null;
+        }
+        handles.clear();
+        hotCache.clear();
+        for (HotCache contextHotCache : contextHotCaches.values()) {
+            contextHotCache.clear();
+        }
+    }
+
+    long hotCacheBytes(String context) {
+        return hotCache(context).bytes();
+    }
+
+    boolean isHot(Handle handle, String context) {
+        return hotCache(context).contains(handle);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Schema text store is closed");
+        }
+    }
+
+    private HotCache hotCache(String context) {
+        if (SchemaContexts.DEFAULT_CONTEXT.equals(context)
+                || (contextHotCacheMaxBytes <= 0 && contextHotCacheSizes.isEmpty())) {
+            return hotCache;
+        }
+        HotCache contextHotCache = contextHotCaches.get(context);
+        if (contextHotCache != null) {
+            return contextHotCache;
+        }
+        // contexts beyond the cap share one partition rather than each adding a budget
+        String key = contextHotCaches.size() < maxContexts ? context : SchemaContexts.OTHER_CONTEXTS;
+        return contextHotCaches.computeIfAbsent(key, this::newContextHotCache);
+    }
+
+    private HotCache newContextHotCache(String context) {
+        String name = SchemaContexts.OTHER_CONTEXTS.equals(context) ? context : SchemaContexts.name(context);
+        long maxBytes = contextHotCacheSizes.getOrDefault(name, contextHotCacheMaxBytes);
+        if (maxBytes <= 0) {
+            return hotCache;
+        }
+        HotCache contextHotCache = new HotCache(maxBytes);
+        Metrics.gauge("schemaregistry.store.text.cache.bytes", Tags.of("context", name), contextHotCache, HotCache::bytes);
+        return contextHotCache;
+    }
+
+    private Handle write(byte[] compressed, int rawLength) {
+        synchronized (chunks) {
+            checkOpen();
+            if (current == null || current.remaining() < compressed.length) {
+                current = allocate(Math.max(chunkSize, compressed.length));
+                chunks.add(current);
+            }
+            int offset = current.position();
+            current.put(compressed);
+
+            storedBytes.addAndGet(compressed.length);
+            rawBytes.addAndGet(rawLength);
+            return new Handle(chunks.size() - 1, offset, compressed.length, rawLength);
+        }
+    }
+
+    private ByteBuffer allocate(int size) {
+        if (mode == Mode.DIRECT) {
+            return ByteBuffer.allocateDirect(size);
+        }
+
+        // the file is unlinked when the channel closes, the mapping stays valid until the buffer is collected
+        try {
+            Files.createDirectories(directory);
+            Path file = Files.createTempFile(directory, "schemas-", ".dat");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map schema text storage in " + directory, e);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                read += inflater.inflate(raw, read, rawLength - read);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt schema text", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Location of a stored schema text.
+     */
+    public static final class Handle {
+
+        private final int chunk;
+        private final int offset;
+        private final int length;
+        private final int rawLength;
+
+        Handle(int chunk, int offset, int length, int rawLength) {
+            this.chunk = chunk;
+            this.offset = offset;
+            this.length = length;
+            this.rawLength = rawLength;
+        }
+
+        public int getRawLength() {
+            return rawLength;
+        }
+    }
+
+    private static final class Digest {
+
+        private final byte[] bytes;
+        private final int hash;
+
+        private Digest(byte[] bytes) {
+            this.bytes = bytes;
+            this.hash = Arrays.hashCode(bytes);
+        }
+
+        static Digest of(byte[] raw) {
+            try {
+                return new Digest(MessageDigest.getInstance("SHA-256").digest(raw));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Digest && Arrays.equals(bytes, ((Digest) o).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class HotCache {
+
+        private final long maxBytes;
+        private final LinkedHashMap<Handle, String> entries = new LinkedHashMap<>(256, 0.75f, true);
+        private long bytes;
+
+        HotCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized String get(Handle handle) {
+            return entries.get(handle);
+        }
+
+        synchronized boolean contains(Handle handle) {
+            return entries.containsKey(handle);
+        }
+
+        synchronized void put(Handle handle, String text) {
+            long size = 2L * text.length();
+            if (size > maxBytes) {
+                return;
+            }
+            if (entries.put(handle, text) == null) {
+                bytes += size;
+            }
+            Iterator<Map.Entry<Handle, String>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= 2L * eldest.next().getValue().length();
+                eldest.remove();
+            }
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            bytes = 0;
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import java.util.Arrays;
+
+/**
+ * Copy-on-write operations on sorted, duplicate free int arrays.  The arrays are never modified once published, so
+ * they can be read without holding a lock.
+ */
+final class SortedInts {
+
+    static final int[] EMPTY = new int[0];
+
+    private SortedInts() {
+    }
+
+    /**
+     * @return {@code values} if it already contains {@code value}, otherwise a copy with {@code value} inserted
+     */
+    static int[] insert(int[] values, int value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return values;
+        }
+        int insertAt = -index - 1;
+        int[] copy = new int[values.length + 1];
+        System.arraycopy(values, 0, copy, 0, insertAt);
+        copy[insertAt] = value;
+        System.arraycopy(values, insertAt, copy, insertAt + 1, values.length - insertAt);
+        return copy;
+    }
+
+    /**
+     * @return {@code values} if it does not contain {@code value}, otherwise a copy with {@code value} removed
+     */
+    static int[] remove(int[] values, int value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            return values;
+        }
+        if (values.length == 1) {
+            return EMPTY;
+        }
+        int[] copy = new int[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, index);
+        System.arraycopy(values, index + 1, copy, index, values.length - index - 1);
+        return copy;
+    }
+
+    static boolean contains(int[] values, int value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    /**
+     * @return the largest value, or -1 if the array is empty
+     */
+    static int last(int[] values) {
+        return values.length == 0 ? -1 : values[values.length - 1];
+    }
+}
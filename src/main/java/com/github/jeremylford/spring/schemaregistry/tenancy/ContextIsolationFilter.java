@@ -0,0 +1,181 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.tenancy;
+
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import com.github.jeremylford.spring.schemaregistry.store.SchemaContexts;
+import io.confluent.rest.entities.ErrorMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records request counts and latencies per schema context and optionally caps the requests each context may have in
+ * progress, so a tenant sending bulk traffic to its own context is queued behind its own limit rather than everyone's
+ * threads.  Runs after {@code ContextFilter} has rewritten /contexts/{context}/ paths into qualified subjects.
+ * <p>
+ * Contexts with a configured concurrency limit are always tracked individually.  Other contexts are only tracked
+ * individually once the store holds a schema in them, and only the first seen up to the configured cap.  Anything
+ * else, such as a request naming a context that does not exist, shares one entry, which bounds both the number of
+ * meters and the number of semaphores.
+ */
+@Priority(Priorities.AUTHORIZATION + 200)
+public class ContextIsolationFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    static final int TOO_MANY_REQUESTS = 429;
+
+    private static final String STATE_PROPERTY = ContextIsolationFilter.class.getName() + ".state";
+    private static final String START_PROPERTY = ContextIsolationFilter.class.getName() + ".start";
+    private static final String PERMIT_PROPERTY = ContextIsolationFilter.class.getName() + ".permit";
+
+    private final SchemaRegistryProperties.Contexts contexts;
+    private final StoreContexts storeContexts;
+    private final ConcurrentMap<String, ContextState> states = new ConcurrentHashMap<>();
+
+    public ContextIsolationFilter(SchemaRegistryProperties.Contexts contexts, StoreContexts storeContexts) {
+        this.contexts = contexts;
+        this.storeContexts = storeContexts;
+    }
+
+    /**
+     * @return true if the configuration calls for this filter
+     */
+    public static boolean isEnabled(SchemaRegistryProperties.Contexts contexts) {
+        return contexts.isMetrics() || contexts.getMaxConcurrentRequests() > 0
+                || !contexts.getConcurrencyLimits().isEmpty();
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        ContextState state = state(context(requestContext));
+        requestContext.setProperty(STATE_PROPERTY, state);
+        if (contexts.isMetrics()) {
+            requestContext.setProperty(START_PROPERTY, System.nanoTime());
+        }
+
+        if (state.concurrency != null) {
+            if (!state.concurrency.tryAcquire()) {
+                state.rejected.increment();
+                requestContext.abortWith(Response.status(TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, 1)
+                        .type(MediaType.APPLICATION_JSON_TYPE)
+                        .entity(new ErrorMessage(TOO_MANY_REQUESTS,
+                                "Too many concurrent requests for context " + state.name))
+                        .build());
+                return;
+            }
+            requestContext.setProperty(PERMIT_PROPERTY, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object state = requestContext.getProperty(STATE_PROPERTY);
+        if (!(state instanceof ContextState)) {
+            // the request was aborted before this filter ran
+            return;
+        }
+        ContextState contextState = (ContextState) state;
+
+        if (requestContext.getProperty(PERMIT_PROPERTY) != null) {
+            requestContext.removeProperty(PERMIT_PROPERTY);
+            contextState.concurrency.release();
+        }
+
+        Object start = requestContext.getProperty(START_PROPERTY);
+        if (start instanceof Long) {
+            Timer.builder("schemaregistry.context.requests")
+                    .tag("context", contextState.name)
+                    .tag("class", isWrite(requestContext.getMethod()) ? "write" : "read")
+                    .tag("outcome", outcome(responseContext.getStatus()))
+                    .register(Metrics.globalRegistry)
+                    .record(System.nanoTime() - (Long) start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @return the context of the subject path parameter, or of the subject query parameter for lookups by id
+     */
+    static String context(ContainerRequestContext requestContext) {
+        String subject = requestContext.getUriInfo().getPathParameters().getFirst("subject");
+        if (subject == null) {
+            subject = requestContext.getUriInfo().getQueryParameters().getFirst("subject");
+        }
+        return SchemaContexts.contextOf(subject);
+    }
+
+    private ContextState state(String context) {
+        ContextState state = states.get(context);
+        if (state != null) {
+            return state;
+        }
+        String key = SchemaContexts.OTHER_CONTEXTS;
+        if (contexts.getConcurrencyLimits().containsKey(SchemaContexts.name(context))) {
+            key = context;
+        } else if (storeContexts.contains(context) && states.size() < contexts.getMaxTracked()) {
+            key = context;
+        }
+        return states.computeIfAbsent(key, k -> new ContextState(
+                SchemaContexts.OTHER_CONTEXTS.equals(k) ? k : SchemaContexts.name(k), contexts
+        ));
+    }
+
+    int trackedContexts() {
+        return states.size();
+    }
+
+    private static boolean isWrite(String method) {
+        return !HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method) && !HttpMethod.OPTIONS.equals(method);
+    }
+
+    private static String outcome(int status) {
+        return (status / 100) + "xx";
+    }
+
+    private static final class ContextState {
+
+        private final String name;
+        private final Semaphore concurrency;
+        private final Counter rejected;
+
+        ContextState(String name, SchemaRegistryProperties.Contexts contexts) {
+            this.name = name;
+            Map<String, Integer> limits = contexts.getConcurrencyLimits();
+            int limit = limits.getOrDefault(name, contexts.getMaxConcurrentRequests());
+            this.concurrency = limit > 0 ? new Semaphore(limit) : null;
+            this.rejected = Metrics.counter("schemaregistry.context.rejected", "context", name);
+        }
+    }
+}
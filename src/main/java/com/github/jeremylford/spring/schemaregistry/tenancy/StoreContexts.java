@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.tenancy;
+
+import com.github.jeremylford.spring.schemaregistry.store.SchemaContexts;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The schema contexts that have had a schema registered in the store, as applied by the store reader through
+ * {@link StoreContextsUpdateHandler}.  Contexts are not removed when their subjects are deleted.
+ */
+public class StoreContexts {
+
+    private final Set<String> contexts = ConcurrentHashMap.newKeySet();
+
+    public StoreContexts() {
+        contexts.add(SchemaContexts.DEFAULT_CONTEXT);
+    }
+
+    /**
+     * @param context a context with its leading dot, as returned by {@link SchemaContexts#contextOf(String)}
+     */
+    public boolean contains(String context) {
+        return contexts.contains(context);
+    }
+
+    void add(String context) {
+        contexts.add(context);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 Jeremy Ford
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS ISBASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jeremylford.spring.schemaregistry.tenancy;
+
+import com.github.jeremylford.spring.schemaregistry.store.SchemaContexts;
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaUpdateHandler;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Map;
+
+/**
+ * Store update handler that adds the context of each schema applied by the store reader to the
+ * {@link StoreContexts} found in its configs under {@link #CONFIG}.
+ */
+public class StoreContextsUpdateHandler implements SchemaUpdateHandler {
+
+    public static final String CONFIG = "spring.schemaregistry.store.contexts";
+
+    private StoreContexts storeContexts;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object value = configs.get(CONFIG);
+        if (value instanceof StoreContexts) {
+            storeContexts = (StoreContexts) value;
+        }
+    }
+
+    @Override
+    public void handleUpdate(SchemaRegistryKey key, SchemaRegistryValue value, SchemaRegistryValue oldValue,
+                             TopicPartition tp, long offset, long timestamp) {
+        if (storeContexts != null && key instanceof SchemaKey && value != null) {
+            storeContexts.add(SchemaContexts.contextOf(((SchemaKey) key).getSubject()));
+        }
+    }
+}
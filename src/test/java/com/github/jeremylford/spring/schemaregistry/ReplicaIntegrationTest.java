@@ -0,0 +1,93 @@
+package com.github.jeremylford.spring.schemaregistry;
+
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.schemaregistry.json.JsonSchema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Starts a leader and replicas of it against the same schemas topic.
+ */
+public class ReplicaIntegrationTest {
+
+    private final SchemaRegistryIntegrationTest.RedpandaContainer container =
+            new SchemaRegistryIntegrationTest.RedpandaContainer();
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        container.start();
+    }
+
+    @AfterEach
+    public void after() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+        container.stop();
+    }
+
+    @Test
+    public void replicaServesReadsAndForwardsWrites() throws Exception {
+        // the leader URL has no path, so the leader serves the API at the root
+        int leaderPort = start("--spring.jersey.application-path=/");
+        int replicaPort = start(
+                "--schemaregistry.replica.enabled=true",
+                "--schemaregistry.replica.leader-url=http://localhost:" + leaderPort
+        );
+
+        SchemaRegistryClient replica = new CachedSchemaRegistryClient("http://localhost:" + replicaPort + "/api", 10);
+        JsonSchema schema = new JsonSchema("{\"type\":\"string\"}");
+        int id = replica.register("orders-value", schema, false);
+
+        // a second client, the first one cached the schema when registering it
+        ParsedSchema read = null;
+        SchemaRegistryClient replicaReads = new CachedSchemaRegistryClient(
+                "http://localhost:" + replicaPort + "/api", 10);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (read == null) {
+            try {
+                read = replicaReads.getSchemaById(id);
+            } catch (RestClientException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+        assertEquals(schema.canonicalString(), read.canonicalString());
+    }
+
+    @Test
+    public void replicaWithoutALeaderRejectsWrites() throws Exception {
+        start("--spring.jersey.application-path=/");
+        int replicaPort = start("--schemaregistry.replica.enabled=true");
+
+        SchemaRegistryClient replica = new CachedSchemaRegistryClient("http://localhost:" + replicaPort + "/api", 10);
+        RestClientException e = assertThrows(RestClientException.class,
+                () -> replica.register("orders-value", new JsonSchema("{\"type\":\"string\"}"), false));
+        assertEquals(42205, e.getErrorCode());
+    }
+
+    private int start(String... arguments) {
+        List<String> args = new ArrayList<>(Arrays.asList(arguments));
+        args.add("--schemaregistry.kafkastore.bootstrapServers=localhost:" + container.getMappedPort(9092));
+        args.add("--server.port=0");
+        ConfigurableApplicationContext context =
+                SpringApplication.run(SchemaRegistryApplication.class, args.toArray(new String[0]));
+        contexts.add(context);
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.jeremylford.spring.schemaregistry;
+
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryIdentity;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpringKafkaSchemaRegistryTest {
+
+    @Test
+    public void leaderIdentityKeepsAnExplicitPort() {
+        SchemaRegistryIdentity leader = SpringKafkaSchemaRegistry.leaderIdentity("http://registry:8081");
+        assertEquals("registry", leader.getHost());
+        assertEquals(8081, (int) leader.getPort());
+        assertEquals("http", leader.getScheme());
+        assertTrue(leader.getLeaderEligibility());
+        assertEquals("http://registry:8081", leader.getUrl());
+    }
+
+    @Test
+    public void leaderIdentityDefaultsThePortFromTheScheme() {
+        assertEquals(80, (int) SpringKafkaSchemaRegistry.leaderIdentity("http://registry").getPort());
+        assertEquals(443, (int) SpringKafkaSchemaRegistry.leaderIdentity("https://registry/").getPort());
+    }
+
+    @Test
+    public void theLeaderElectorCanBeReachedToHandOffLeadership() {
+        // fails if an upgrade of KafkaSchemaRegistry renames the field
+        assertNotNull(SpringKafkaSchemaRegistry.leaderElectorField());
+    }
+}
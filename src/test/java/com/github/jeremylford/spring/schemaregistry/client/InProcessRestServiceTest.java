@@ -0,0 +1,249 @@
+package com.github.jeremylford.spring.schemaregistry.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.client.rest.entities.requests.RegisterSchemaRequest;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.schemaregistry.exceptions.IncompatibleSchemaException;
+import io.confluent.kafka.schemaregistry.exceptions.InvalidSchemaException;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryRequestForwardingException;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryStoreException;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryTimeoutException;
+import io.confluent.kafka.schemaregistry.exceptions.UnknownLeaderException;
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InProcessRestServiceTest {
+
+    private static final String SCHEMA = "\"long\"";
+
+    private final StubRegistry registry = new StubRegistry();
+    private HttpServer server;
+
+    @AfterEach
+    public void after() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void errorsUseTheCodesOfTheRestResources() {
+        assertError(new IncompatibleSchemaException("incompatible"), 409, 409);
+        assertError(new InvalidSchemaException("invalid"), 422, 42201);
+        assertError(new SchemaRegistryStoreException("store"), 500, 50001);
+        assertError(new SchemaRegistryTimeoutException("timeout"), 500, 50002);
+        assertError(new SchemaRegistryRequestForwardingException("forwarding"), 500, 50003);
+        assertError(new UnknownLeaderException("no leader"), 500, 50004);
+    }
+
+    @Test
+    public void registrationErrorsReachTheClient() {
+        InProcessRestService restService = new InProcessRestService(registry, () -> "http://unused.invalid");
+        registry.failure = new IncompatibleSchemaException("incompatible");
+
+        RestClientException e = assertThrows(RestClientException.class,
+                () -> restService.registerSchema(Collections.emptyMap(), request(), "orders-value", false));
+        assertEquals(409, e.getStatus());
+        assertEquals(409, e.getErrorCode());
+    }
+
+    @Test
+    public void missingSchemasAreNotFound() {
+        registry.schemas.put("orders-value", new Schema("orders-value", 1, 1, AvroSchema.TYPE,
+                Collections.emptyList(), SCHEMA));
+        InProcessRestService restService = new InProcessRestService(registry, () -> "http://unused.invalid");
+        Map<String, String> properties = Collections.emptyMap();
+
+        assertNotFound(40403, () -> restService.getId(properties, 2, null, false));
+        assertNotFound(40401, () -> restService.getVersion(properties, "payments-value", 1, false));
+        assertNotFound(40402, () -> restService.getVersion(properties, "orders-value", 2, false));
+        assertNotFound(40401, () -> restService.getLatestVersion(properties, "payments-value"));
+        assertNotFound(40401, () -> restService.lookUpSubjectVersion(properties, request(), "payments-value",
+                false, false));
+        registry.lookupMisses = true;
+        assertNotFound(40403, () -> restService.lookUpSubjectVersion(properties, request(), "orders-value",
+                false, false));
+    }
+
+    @Test
+    public void registrationsAreForwardedWithTheRequestProperties() throws Exception {
+        InProcessRestService restService = new InProcessRestService(registry, () -> "http://unused.invalid");
+        Map<String, String> properties = Collections.singletonMap("Authorization", "Basic dXNlcjpwYXNz");
+
+        assertEquals(7, restService.registerSchema(properties, request(), "orders-value", true).getId());
+        assertEquals(properties, registry.forwardedProperties);
+        assertEquals("orders-value", registry.registered.getSubject());
+        assertEquals(SCHEMA, registry.registered.getSchema());
+    }
+
+    @Test
+    public void otherCallsGoToTheFallbackUrlResolvedOnFirstUse() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/subjects", exchange -> {
+            byte[] body = "[\"orders-value\"]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/vnd.schemaregistry.v1+json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        AtomicInteger resolved = new AtomicInteger();
+        InProcessRestService restService = new InProcessRestService(registry, () -> {
+            resolved.incrementAndGet();
+            return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/api";
+        });
+        assertEquals(0, resolved.get());
+
+        assertEquals(Collections.singletonList("orders-value"), restService.getAllSubjects());
+        assertEquals(Collections.singletonList("orders-value"), restService.getAllSubjects());
+        assertEquals(1, resolved.get());
+    }
+
+    @Test
+    public void unresolvedFallbackUrlFailsTheCall() {
+        LocalServerUrl localServerUrl = new LocalServerUrl(false, null, "/api");
+        InProcessRestService restService = new InProcessRestService(registry, localServerUrl);
+
+        assertThrows(IllegalStateException.class, restService::getAllSubjects);
+    }
+
+    @Test
+    public void deletesResetTheClientCache() throws Exception {
+        registry.schemas.put("orders-value", new Schema("orders-value", 1, 1, AvroSchema.TYPE,
+                Collections.emptyList(), SCHEMA));
+        CachedSchemaRegistryClient client = new CachedSchemaRegistryClient(
+                new InProcessRestService(registry, () -> "http://unused.invalid"), 10);
+        ClientCacheInvalidation invalidation = new ClientCacheInvalidation();
+        invalidation.register(client);
+        InvalidatingUpdateHandler handler = new InvalidatingUpdateHandler();
+        handler.configure(Collections.singletonMap(InvalidatingUpdateHandler.CONFIG, invalidation));
+
+        client.getSchemaById(1);
+        client.getSchemaById(1);
+        assertEquals(1, registry.idLookups.get());
+
+        SchemaKey key = new SchemaKey("orders-value", 2);
+        SchemaValue registered = new SchemaValue("orders-value", 2, 2, AvroSchema.TYPE, Collections.emptyList(),
+                SCHEMA, false);
+        handler.handleUpdate(key, registered, null, null, 0, 0);
+        client.getSchemaById(1);
+        assertEquals(1, registry.idLookups.get());
+
+        SchemaValue softDeleted = new SchemaValue("orders-value", 2, 2, AvroSchema.TYPE, Collections.emptyList(),
+                SCHEMA, true);
+        handler.handleUpdate(key, softDeleted, registered, null, 1, 0);
+        client.getSchemaById(1);
+        assertEquals(2, registry.idLookups.get());
+
+        handler.handleUpdate(key, null, softDeleted, null, 2, 0);
+        client.getSchemaById(1);
+        assertEquals(3, registry.idLookups.get());
+    }
+
+    @Test
+    public void localServerUrlUsesTheBindAddress() throws Exception {
+        assertEquals("localhost", LocalServerUrl.host(null));
+        assertEquals("localhost", LocalServerUrl.host(InetAddress.getByName("0.0.0.0")));
+        assertEquals("10.0.0.5", LocalServerUrl.host(InetAddress.getByName("10.0.0.5")));
+        assertEquals("[0:0:0:0:0:0:0:1]", LocalServerUrl.host(InetAddress.getByName("::1")));
+    }
+
+    private static void assertError(SchemaRegistryException e, int status, int errorCode) {
+        RestClientException restClientException = InProcessRestService.restClientException(e);
+        assertEquals(status, restClientException.getStatus(), e.getClass().getSimpleName());
+        assertEquals(errorCode, restClientException.getErrorCode(), e.getClass().getSimpleName());
+        assertTrue(restClientException.getMessage().startsWith(e.getMessage()), restClientException.getMessage());
+    }
+
+    private static void assertNotFound(int errorCode, Call call) {
+        RestClientException e = assertThrows(RestClientException.class, call::run);
+        assertEquals(404, e.getStatus());
+        assertEquals(errorCode, e.getErrorCode());
+    }
+
+    private static RegisterSchemaRequest request() {
+        RegisterSchemaRequest request = new RegisterSchemaRequest();
+        request.setSchema(SCHEMA);
+        return request;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        void run() throws Exception;
+    }
+
+    private static final class StubRegistry implements InProcessRestService.LocalRegistry {
+
+        private final Map<String, Schema> schemas = new HashMap<>();
+        private final AtomicInteger idLookups = new AtomicInteger();
+        private SchemaRegistryException failure;
+        private boolean lookupMisses;
+        private Schema registered;
+        private Map<String, String> forwardedProperties;
+
+        @Override
+        public SchemaString get(int id, String subject, String format, boolean fetchMaxId) {
+            idLookups.incrementAndGet();
+            for (Schema schema : schemas.values()) {
+                if (schema.getId() == id) {
+                    return new SchemaString(schema.getSchema());
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Schema get(String subject, int version, boolean lookupDeletedSchema) {
+            Schema schema = schemas.get(subject);
+            return schema != null && schema.getVersion() == version ? schema : null;
+        }
+
+        @Override
+        public boolean hasSubjects(String subject, boolean lookupDeletedSubjects) {
+            return schemas.containsKey(subject);
+        }
+
+        @Override
+        public Schema getLatestVersion(String subject) {
+            return schemas.get(subject);
+        }
+
+        @Override
+        public Schema lookUpSchemaUnderSubject(String subject, Schema schema, boolean normalize,
+                                               boolean lookupDeletedSchema) {
+            return lookupMisses ? null : schemas.get(subject);
+        }
+
+        @Override
+        public int registerOrForward(String subject, Schema schema, boolean normalize,
+                                     Map<String, String> headerProperties) throws SchemaRegistryException {
+            if (failure != null) {
+                throw failure;
+            }
+            registered = schema;
+            forwardedProperties = headerProperties;
+            return 7;
+        }
+    }
+}
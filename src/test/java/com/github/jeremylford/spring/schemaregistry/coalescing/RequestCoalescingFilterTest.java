@@ -0,0 +1,205 @@
+package com.github.jeremylford.spring.schemaregistry.coalescing;
+
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Priority;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestCoalescingFilterTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final RequestCoalescingFilter filter = new RequestCoalescingFilter(10000);
+    private ApplicationHandler handler;
+
+    @BeforeEach
+    public void before() {
+        handler = new ApplicationHandler(new ResourceConfig()
+                .register(new SlowResource(lookups, release))
+                .register(new HeaderAuthentication())
+                .register(filter));
+    }
+
+    @AfterEach
+    public void after() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void identicalRequestsShareOneLookup() throws Exception {
+        Future<String> leader = get("/schemas/ids/1", null);
+        until(() -> lookups.get() == 1);
+        Future<String> follower = get("/schemas/ids/1", null);
+        until(() -> filter.waitingFollowers() == 1);
+
+        release.countDown();
+
+        assertEquals("200 {\"id\":1}", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("200 {\"id\":1}", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void differentPrincipalsDoNotShare() throws Exception {
+        Future<String> alice = get("/schemas/ids/1", "alice");
+        until(() -> lookups.get() == 1);
+        Future<String> bob = get("/schemas/ids/1", "bob");
+        until(() -> lookups.get() == 2);
+
+        release.countDown();
+
+        assertEquals("200 {\"id\":1}", alice.get(5, TimeUnit.SECONDS));
+        assertEquals("200 {\"id\":1}", bob.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void followersAreFilteredBeforeTheyWait() throws Exception {
+        Future<String> leader = get("/schemas/ids/1", null);
+        until(() -> lookups.get() == 1);
+
+        assertEquals("403 ", get("/schemas/ids/1", "blocked").get(5, TimeUnit.SECONDS));
+        assertEquals(0, filter.waitingFollowers());
+
+        release.countDown();
+        assertEquals("200 {\"id\":1}", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void serverErrorsAreNotShared() throws Exception {
+        Future<String> leader = get("/schemas/ids/500", null);
+        until(() -> lookups.get() == 1);
+        Future<String> follower = get("/schemas/ids/500", null);
+        until(() -> filter.waitingFollowers() == 1);
+
+        release.countDown();
+
+        assertTrue(leader.get(5, TimeUnit.SECONDS).startsWith("500"));
+        assertTrue(follower.get(5, TimeUnit.SECONDS).startsWith("500"));
+        assertEquals(2, lookups.get());
+    }
+
+    private Future<String> get(String path, String user) {
+        return executor.submit(() -> {
+            ContainerRequest request = new ContainerRequest(
+                    URI.create("http://localhost/"), URI.create("http://localhost" + path), "GET",
+                    new Anonymous(), new MapPropertiesDelegate(), handler.getConfiguration()
+            );
+            request.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+            if (user != null) {
+                request.header("X-User", user);
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            ContainerResponse response = handler.apply(request, body).get(5, TimeUnit.SECONDS);
+            return response.getStatus() + " " + new String(body.toByteArray(), StandardCharsets.UTF_8);
+        });
+    }
+
+    private static void until(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+
+    @Path("/schemas")
+    public static class SlowResource {
+
+        private final AtomicInteger lookups;
+        private final CountDownLatch release;
+
+        SlowResource(AtomicInteger lookups, CountDownLatch release) {
+            this.lookups = lookups;
+            this.release = release;
+        }
+
+        @GET
+        @Path("/ids/{id}")
+        @Produces(MediaType.APPLICATION_JSON)
+        public String schema(@PathParam("id") int id) throws InterruptedException {
+            lookups.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            if (id == 500) {
+                throw new WebApplicationException(500);
+            }
+            return "{\"id\":" + id + "}";
+        }
+    }
+
+    @Priority(Priorities.AUTHENTICATION)
+    public static class HeaderAuthentication implements ContainerRequestFilter {
+
+        @Override
+        public void filter(ContainerRequestContext requestContext) {
+            String user = requestContext.getHeaderString("X-User");
+            if ("blocked".equals(user)) {
+                requestContext.abortWith(Response.status(Response.Status.FORBIDDEN).build());
+            } else if (user != null) {
+                Principal principal = () -> user;
+                requestContext.setSecurityContext(new Anonymous() {
+                    @Override
+                    public Principal getUserPrincipal() {
+                        return principal;
+                    }
+                });
+            }
+        }
+    }
+
+    private static class Anonymous implements SecurityContext {
+
+        @Override
+        public Principal getUserPrincipal() {
+            return null;
+        }
+
+        @Override
+        public boolean isUserInRole(String role) {
+            return false;
+        }
+
+        @Override
+        public boolean isSecure() {
+            return false;
+        }
+
+        @Override
+        public String getAuthenticationScheme() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.jeremylford.spring.schemaregistry.compatibility;
+
+import io.confluent.kafka.schemaregistry.CompatibilityLevel;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompatibilityExecutorTest {
+
+    private final CompatibilityExecutor executor = new CompatibilityExecutor(4, 2);
+    private final CompatibilityExecutor sequential = new CompatibilityExecutor(0, 2);
+
+    @AfterEach
+    public void after() {
+        executor.close();
+        sequential.close();
+    }
+
+    @Test
+    public void onlyTransitiveLevelsAreParallel() {
+        assertTrue(executor.isParallel(CompatibilityLevel.BACKWARD_TRANSITIVE, 10));
+        assertTrue(executor.isParallel(CompatibilityLevel.FULL_TRANSITIVE, 10));
+        assertFalse(executor.isParallel(CompatibilityLevel.BACKWARD, 10));
+        assertFalse(executor.isParallel(CompatibilityLevel.BACKWARD_TRANSITIVE, 1));
+        assertFalse(sequential.isParallel(CompatibilityLevel.BACKWARD_TRANSITIVE, 10));
+    }
+
+    @Test
+    public void compatibleHistory() {
+        List<ParsedSchema> history = history(50);
+
+        List<String> errors = executor.isCompatible(CompatibilityLevel.FULL_TRANSITIVE, schema(50), history);
+
+        assertTrue(errors.isEmpty());
+        assertEquals(
+                schema(50).isCompatible(CompatibilityLevel.FULL_TRANSITIVE, history).isEmpty(),
+                errors.isEmpty()
+        );
+    }
+
+    @Test
+    public void incompatibleVersionInHistory() {
+        List<ParsedSchema> history = history(50);
+        history.set(7, new AvroSchema("{\"type\":\"record\",\"name\":\"Test\",\"fields\":[{\"name\":\"f0\",\"type\":\"int\"}]}"));
+
+        List<String> errors = executor.isCompatible(CompatibilityLevel.BACKWARD_TRANSITIVE, schema(50), history);
+
+        assertFalse(errors.isEmpty());
+    }
+
+    @Test
+    public void sameIncompatibleVersionIsReportedAsTheSequentialCheck() {
+        List<ParsedSchema> history = history(50);
+        history.set(7, new AvroSchema("{\"type\":\"record\",\"name\":\"Test\",\"fields\":[{\"name\":\"f0\",\"type\":\"int\"}]}"));
+        history.set(40, new AvroSchema("{\"type\":\"record\",\"name\":\"Test\",\"fields\":[{\"name\":\"f0\",\"type\":\"boolean\"}]}"));
+        List<String> expected = schema(50).isCompatible(CompatibilityLevel.BACKWARD_TRANSITIVE, history);
+        assertFalse(expected.isEmpty());
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(expected, executor.isCompatible(CompatibilityLevel.BACKWARD_TRANSITIVE, schema(50), history));
+        }
+        // the result does not depend on how the history is split either
+        CompatibilityExecutor fine = new CompatibilityExecutor(2, 1);
+        try {
+            assertEquals(expected, fine.isCompatible(CompatibilityLevel.BACKWARD_TRANSITIVE, schema(50), history));
+        } finally {
+            fine.close();
+        }
+    }
+
+    private static List<ParsedSchema> history(int versions) {
+        List<ParsedSchema> history = new ArrayList<>(versions);
+        for (int i = 0; i < versions; i++) {
+            history.add(schema(i));
+        }
+        return history;
+    }
+
+    private static ParsedSchema schema(int optionalFields) {
+        StringBuilder fields = new StringBuilder("{\"name\":\"f0\",\"type\":\"string\"}");
+        for (int i = 1; i <= optionalFields; i++) {
+            fields.append(",{\"name\":\"f").append(i).append("\",\"type\":[\"null\",\"string\"],\"default\":null}");
+        }
+        return new AvroSchema("{\"type\":\"record\",\"name\":\"Test\",\"fields\":[" + fields + "]}");
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.jeremylford.spring.schemaregistry.connector;
+
+import com.github.jeremylford.spring.schemaregistry.ConfluentUtils;
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import org.apache.kafka.common.config.ConfigException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ListenerConnectorCustomizerTest {
+
+    @Test
+    public void skipsMainPort() {
+        SchemaRegistryProperties properties = new SchemaRegistryProperties();
+        properties.setListeners(new String[]{"http://0.0.0.0:8081", "internal://0.0.0.0:8083", "http://0.0.0.0:8084"});
+        properties.getListenerProtocolMap().put("internal", "http");
+        properties.getConnectors().getMaxThreads().put("internal", 8);
+
+        List<ConfluentUtils.NamedURI> listeners = ListenerConnectorCustomizer.additionalListeners(properties, 8081);
+
+        assertEquals(2, listeners.size());
+        assertEquals("internal", listeners.get(0).getName());
+        assertEquals("http", listeners.get(0).getUri().getScheme());
+        assertEquals(8083, listeners.get(0).getUri().getPort());
+        assertEquals(8, ListenerConnectorCustomizer.maxThreads(properties.getConnectors(), listeners.get(0)));
+        assertEquals(50, ListenerConnectorCustomizer.maxThreads(properties.getConnectors(), listeners.get(1)));
+    }
+
+    @Test
+    public void noListenersConfigured() {
+        assertTrue(ListenerConnectorCustomizer.additionalListeners(new SchemaRegistryProperties(), 8081).isEmpty());
+    }
+
+    @Test
+    public void rejectsTlsAndDuplicatePorts() {
+        SchemaRegistryProperties tls = new SchemaRegistryProperties();
+        tls.setListeners(new String[]{"https://0.0.0.0:8443"});
+        assertThrows(ConfigException.class, () -> ListenerConnectorCustomizer.additionalListeners(tls, 8081));
+
+        SchemaRegistryProperties duplicate = new SchemaRegistryProperties();
+        duplicate.setListeners(new String[]{"internal://0.0.0.0:8083", "admin://0.0.0.0:8083"});
+        duplicate.getListenerProtocolMap().put("internal", "http");
+        duplicate.getListenerProtocolMap().put("admin", "http");
+        assertThrows(ConfigException.class, () -> ListenerConnectorCustomizer.additionalListeners(duplicate, 8081));
+    }
+
+    @Test
+    public void selectsH2cListenersByNameOrPort() {
+        SchemaRegistryProperties properties = new SchemaRegistryProperties();
+        properties.setListeners(new String[]{"http://0.0.0.0:8081", "internal://0.0.0.0:8083", "http://0.0.0.0:8084"});
+        properties.getListenerProtocolMap().put("internal", "http");
+        properties.getHttp2().setEnabled(true);
+        properties.getHttp2().setListeners(new String[]{"internal", "8081"});
+
+        List<ConfluentUtils.NamedURI> listeners = ListenerConnectorCustomizer.additionalListeners(properties, 8081);
+
+        assertTrue(ListenerConnectorCustomizer.isH2cOnMainPort(properties, 8081));
+        assertTrue(ListenerConnectorCustomizer.isH2c(properties.getHttp2(), listeners.get(0)));
+        assertFalse(ListenerConnectorCustomizer.isH2c(properties.getHttp2(), listeners.get(1)));
+    }
+
+    @Test
+    public void h2cOnAllListenersWhenNoneSelected() {
+        SchemaRegistryProperties properties = new SchemaRegistryProperties();
+        assertFalse(ListenerConnectorCustomizer.isH2cOnMainPort(properties, 8081));
+
+        properties.getHttp2().setEnabled(true);
+        assertTrue(ListenerConnectorCustomizer.isH2cOnMainPort(properties, 8081));
+
+        properties.getHttp2().setListeners(new String[]{"internal"});
+        assertFalse(ListenerConnectorCustomizer.isH2cOnMainPort(properties, 8081));
+    }
+}
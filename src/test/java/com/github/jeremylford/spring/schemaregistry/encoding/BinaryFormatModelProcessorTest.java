@@ -0,0 +1,25 @@
+package com.github.jeremylford.spring.schemaregistry.encoding;
+
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.MediaType;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinaryFormatModelProcessorTest {
+
+    @Test
+    public void registryMediaTypesAreJson() {
+        assertTrue(BinaryFormatModelProcessor.isJson(MediaType.APPLICATION_JSON_TYPE));
+        assertTrue(BinaryFormatModelProcessor.isJson(MediaType.valueOf("application/vnd.schemaregistry.v1+json; qs=0.9")));
+        assertTrue(BinaryFormatModelProcessor.isJson(MediaType.valueOf("application/vnd.schemaregistry+json")));
+    }
+
+    @Test
+    public void otherMediaTypesAreNotJson() {
+        assertFalse(BinaryFormatModelProcessor.isJson(MediaType.TEXT_PLAIN_TYPE));
+        assertFalse(BinaryFormatModelProcessor.isJson(MediaType.valueOf("application/octet-stream")));
+        assertFalse(BinaryFormatModelProcessor.isJson(MediaType.valueOf("application/x-jackson-smile")));
+    }
+}
@@ -0,0 +1,138 @@
+package com.github.jeremylford.spring.schemaregistry.encoding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.jackson.JacksonFeature;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BinaryFormatProvidersTest {
+
+    private static final String SCHEMA = "{\"type\":\"record\",\"name\":\"Order\",\"fields\":[]}";
+    private static final String SMILE = "application/x-jackson-smile";
+    private static final String CBOR = "application/cbor";
+    private static final String REGISTRY_JSON = "application/vnd.schemaregistry.v1+json";
+
+    @Test
+    public void binaryFormatsAreServedWhenAskedFor() throws Exception {
+        ApplicationHandler handler = handler(true, true);
+
+        Result smile = get(handler, "/schemas/ids/1", SMILE);
+        assertEquals(200, smile.status);
+        assertEquals(MediaType.valueOf(SMILE), withoutParameters(smile.mediaType));
+        assertEquals(Collections.singletonMap("schema", SCHEMA),
+                new ObjectMapper(new SmileFactory()).readValue(smile.body, Map.class));
+
+        Result cbor = get(handler, "/schemas/ids/1", CBOR);
+        assertEquals(200, cbor.status);
+        assertEquals(MediaType.valueOf(CBOR), withoutParameters(cbor.mediaType));
+        assertEquals(Collections.singletonMap("schema", SCHEMA),
+                new ObjectMapper(new CBORFactory()).readValue(cbor.body, Map.class));
+    }
+
+    @Test
+    public void jsonIsPreferredByClientsThatAcceptAnything() throws Exception {
+        ApplicationHandler handler = handler(true, true);
+
+        for (String accept : new String[]{MediaType.WILDCARD, REGISTRY_JSON, REGISTRY_JSON + ", " + SMILE}) {
+            Result json = get(handler, "/schemas/ids/1", accept);
+            assertEquals(200, json.status, accept);
+            assertEquals(MediaType.valueOf(REGISTRY_JSON), withoutParameters(json.mediaType), accept);
+            assertEquals(Collections.singletonMap("schema", SCHEMA),
+                    new ObjectMapper().readValue(json.body, Map.class));
+        }
+    }
+
+    @Test
+    public void disabledFormatsAreNotAcceptable() throws Exception {
+        ApplicationHandler handler = handler(true, false);
+
+        assertEquals(200, get(handler, "/schemas/ids/1", SMILE).status);
+        assertEquals(406, get(handler, "/schemas/ids/1", CBOR).status);
+        assertEquals(406, get(handler(false, false), "/schemas/ids/1", SMILE).status);
+    }
+
+    @Test
+    public void methodsThatDoNotProduceJsonAreLeftAlone() throws Exception {
+        ApplicationHandler handler = handler(true, true);
+
+        assertEquals(406, get(handler, "/schemas/ids/1/schema", SMILE).status);
+        assertEquals(200, get(handler, "/schemas/ids/1/schema", MediaType.TEXT_PLAIN).status);
+    }
+
+    private static ApplicationHandler handler(boolean smile, boolean cbor) {
+        SchemaRegistryProperties.BinaryFormats binaryFormats = new SchemaRegistryProperties.BinaryFormats();
+        binaryFormats.setSmile(smile);
+        binaryFormats.setCbor(cbor);
+        ResourceConfig config = new ResourceConfig()
+                .register(new SchemaResource())
+                .register(JacksonFeature.class);
+        BinaryFormatProviders.register(config, binaryFormats);
+        return new ApplicationHandler(config);
+    }
+
+    private static Result get(ApplicationHandler handler, String path, String accept) throws Exception {
+        ContainerRequest request = new ContainerRequest(
+                URI.create("http://localhost/"), URI.create("http://localhost" + path), "GET",
+                null, new MapPropertiesDelegate(), handler.getConfiguration()
+        );
+        request.header(HttpHeaders.ACCEPT, accept);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ContainerResponse response = handler.apply(request, body).get(5, TimeUnit.SECONDS);
+        return new Result(response.getStatus(), response.getMediaType(), body.toByteArray());
+    }
+
+    private static MediaType withoutParameters(MediaType mediaType) {
+        return new MediaType(mediaType.getType(), mediaType.getSubtype());
+    }
+
+    private static final class Result {
+
+        private final int status;
+        private final MediaType mediaType;
+        private final byte[] body;
+
+        Result(int status, MediaType mediaType, byte[] body) {
+            this.status = status;
+            this.mediaType = mediaType;
+            this.body = body;
+        }
+    }
+
+    @Path("/schemas")
+    public static class SchemaResource {
+
+        @GET
+        @Path("/ids/1")
+        @Produces({REGISTRY_JSON, "application/vnd.schemaregistry+json; qs=0.9", "application/json; qs=0.5"})
+        public Map<String, String> schema() {
+            return Collections.singletonMap("schema", SCHEMA);
+        }
+
+        @GET
+        @Path("/ids/1/schema")
+        @Produces(MediaType.TEXT_PLAIN)
+        public String rawSchema() {
+            return SCHEMA;
+        }
+    }
+}
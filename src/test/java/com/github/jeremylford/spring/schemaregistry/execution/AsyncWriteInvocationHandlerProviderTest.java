@@ -0,0 +1,204 @@
+package com.github.jeremylford.spring.schemaregistry.execution;
+
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import org.glassfish.jersey.server.model.Invocable;
+import org.glassfish.jersey.server.model.MethodHandler;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.container.TimeoutHandler;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncWriteInvocationHandlerProviderTest {
+
+    private final Queue<Runnable> queued = new ArrayDeque<>();
+    private final AsyncWriteInvocationHandlerProvider provider = new AsyncWriteInvocationHandlerProvider(
+            new RequestExecutor(new SchemaRegistryProperties.RequestExecution()), 1000, queued::add
+    );
+    private final TestResource resource = new TestResource();
+
+    @Test
+    public void onlySuspendedWritesAreHandled() throws Exception {
+        assertNotNull(provider.create(invocable("register", String.class, AsyncResponse.class)));
+        assertNull(provider.create(invocable("lookup", AsyncResponse.class)));
+        assertNull(provider.create(invocable("update", String.class)));
+    }
+
+    @Test
+    public void writeRunsOnTheExecutor() throws Throwable {
+        RecordingAsyncResponse asyncResponse = new RecordingAsyncResponse();
+
+        invoke("ok", asyncResponse);
+        assertEquals(0, resource.writes.get());
+        assertEquals(1000, asyncResponse.timeoutMs);
+
+        queued.remove().run();
+        assertEquals(1, resource.writes.get());
+    }
+
+    @Test
+    public void writeNotStartedBeforeTheTimeoutIsDropped() throws Throwable {
+        RecordingAsyncResponse asyncResponse = new RecordingAsyncResponse();
+
+        invoke("ok", asyncResponse);
+        asyncResponse.timeoutHandler.handleTimeout(asyncResponse);
+        queued.remove().run();
+
+        assertTrue(asyncResponse.resumed instanceof ServiceUnavailableException);
+        assertEquals(0, resource.writes.get());
+    }
+
+    @Test
+    public void startedWriteIsNotTimedOut() throws Throwable {
+        RecordingAsyncResponse asyncResponse = new RecordingAsyncResponse();
+
+        invoke("ok", asyncResponse);
+        queued.remove().run();
+        asyncResponse.timeoutMs = 0;
+        asyncResponse.timeoutHandler.handleTimeout(asyncResponse);
+
+        assertEquals(1, resource.writes.get());
+        assertNull(asyncResponse.resumed);
+        assertEquals(1000, asyncResponse.timeoutMs);
+    }
+
+    @Test
+    public void failureResumesTheResponse() throws Throwable {
+        RecordingAsyncResponse asyncResponse = new RecordingAsyncResponse();
+
+        invoke("fail", asyncResponse);
+        queued.remove().run();
+
+        assertTrue(asyncResponse.resumed instanceof IllegalArgumentException);
+    }
+
+    private void invoke(String body, AsyncResponse asyncResponse) throws Throwable {
+        Invocable invocable = invocable("register", String.class, AsyncResponse.class);
+        InvocationHandler handler = provider.create(invocable);
+        handler.invoke(resource, invocable.getHandlingMethod(), new Object[]{body, asyncResponse});
+    }
+
+    private Invocable invocable(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        Method method = TestResource.class.getMethod(name, parameterTypes);
+        return Invocable.create(MethodHandler.create(resource), method);
+    }
+
+    public static class TestResource {
+
+        private final AtomicInteger writes = new AtomicInteger();
+
+        @POST
+        public void register(String body, @Suspended AsyncResponse asyncResponse) {
+            writes.incrementAndGet();
+            if ("fail".equals(body)) {
+                throw new IllegalArgumentException(body);
+            }
+        }
+
+        @GET
+        public void lookup(@Suspended AsyncResponse asyncResponse) {
+        }
+
+        @POST
+        public String update(String body) {
+            return body;
+        }
+    }
+
+    private static final class RecordingAsyncResponse implements AsyncResponse {
+
+        private TimeoutHandler timeoutHandler;
+        private long timeoutMs;
+        private Object resumed;
+
+        @Override
+        public boolean resume(Object response) {
+            resumed = response;
+            return true;
+        }
+
+        @Override
+        public boolean resume(Throwable response) {
+            resumed = response;
+            return true;
+        }
+
+        @Override
+        public boolean cancel() {
+            return false;
+        }
+
+        @Override
+        public boolean cancel(int retryAfter) {
+            return false;
+        }
+
+        @Override
+        public boolean cancel(Date retryAfter) {
+            return false;
+        }
+
+        @Override
+        public boolean isSuspended() {
+            return resumed == null;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return resumed != null;
+        }
+
+        @Override
+        public boolean setTimeout(long time, TimeUnit unit) {
+            timeoutMs = unit.toMillis(time);
+            return true;
+        }
+
+        @Override
+        public void setTimeoutHandler(TimeoutHandler handler) {
+            timeoutHandler = handler;
+        }
+
+        @Override
+        public Collection<Class<?>> register(Class<?> callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<Class<?>> register(Object callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.jeremylford.spring.schemaregistry.execution;
+
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LimitedExecutorServiceTest {
+
+    private final ExecutorService delegate = Executors.newCachedThreadPool();
+    private final Counter rejected = new SimpleMeterRegistry().counter("rejected");
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void after() {
+        release.countDown();
+        delegate.shutdownNow();
+    }
+
+    @Test
+    public void abortsBeyondMaxConcurrency() throws Exception {
+        RequestExecutor.LimitedExecutorService executor = new RequestExecutor.LimitedExecutorService(
+                delegate, 2, SchemaRegistryProperties.RequestExecution.Rejection.ABORT, rejected);
+
+        CountDownLatch running = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                running.countDown();
+                RequestExecutorTest.await(release);
+            });
+        }
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        assertEquals(2, executor.inFlight());
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+        }));
+        assertEquals(1, rejected.count());
+    }
+
+    @Test
+    public void callerRunsBeyondMaxConcurrency() throws Exception {
+        RequestExecutor.LimitedExecutorService executor = new RequestExecutor.LimitedExecutorService(
+                delegate, 1, SchemaRegistryProperties.RequestExecution.Rejection.CALLER_RUNS, rejected);
+
+        CountDownLatch running = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            RequestExecutorTest.await(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        executor.execute(() -> ranOn.set(Thread.currentThread()));
+        assertSame(Thread.currentThread(), ranOn.get());
+        assertEquals(1, rejected.count());
+    }
+
+    @Test
+    public void permitsAreReleasedWhenTasksCompleteOrFail() throws Exception {
+        RequestExecutor.LimitedExecutorService executor = new RequestExecutor.LimitedExecutorService(
+                delegate, 1, SchemaRegistryProperties.RequestExecution.Rejection.ABORT, rejected);
+
+        executor.submit(() -> {
+            throw new IllegalStateException("failed");
+        });
+        for (int i = 0; i < 10; i++) {
+            int value = i;
+            assertEquals(value, executor.submit(() -> value).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0, executor.inFlight());
+    }
+
+    @Test
+    public void permitIsReleasedWhenTheDelegateRejects() {
+        RequestExecutor.LimitedExecutorService executor = new RequestExecutor.LimitedExecutorService(
+                delegate, 1, SchemaRegistryProperties.RequestExecution.Rejection.ABORT, rejected);
+        delegate.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+        }));
+        assertEquals(0, executor.inFlight());
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.jeremylford.spring.schemaregistry.execution;
+
+import io.confluent.rest.entities.ErrorMessage;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RejectedExecutionExceptionMapperTest {
+
+    @Test
+    public void serviceUnavailableWithRetryAfter() {
+        Response response = new RejectedExecutionExceptionMapper(3)
+                .toResponse(new RejectedExecutionException("Request executor is saturated"));
+
+        assertEquals(503, response.getStatus());
+        assertEquals("3", response.getHeaderString(HttpHeaders.RETRY_AFTER));
+        assertEquals(MediaType.APPLICATION_JSON_TYPE, response.getMediaType());
+        ErrorMessage entity = (ErrorMessage) response.getEntity();
+        assertEquals(503, entity.getErrorCode());
+        assertEquals("Request executor is saturated", entity.getMessage());
+    }
+}
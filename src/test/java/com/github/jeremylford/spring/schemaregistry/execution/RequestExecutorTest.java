@@ -0,0 +1,121 @@
+package com.github.jeremylford.spring.schemaregistry.execution;
+
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private RequestExecutor requestExecutor;
+
+    @AfterEach
+    public void after() throws InterruptedException {
+        release.countDown();
+        if (requestExecutor != null) {
+            requestExecutor.close();
+        }
+    }
+
+    @Test
+    public void containerModeHasNoExecutor() {
+        requestExecutor = new RequestExecutor(new SchemaRegistryProperties.RequestExecution());
+
+        assertFalse(requestExecutor.isEnabled());
+        assertNull(requestExecutor.getExecutorService());
+    }
+
+    @Test
+    public void boundedRunsOnPoolThreads() throws Exception {
+        requestExecutor = new RequestExecutor(execution(SchemaRegistryProperties.RequestExecution.Mode.BOUNDED,
+                SchemaRegistryProperties.RequestExecution.Rejection.ABORT));
+
+        assertTrue(requestExecutor.isEnabled());
+        String thread = requestExecutor.getExecutorService().submit(() -> Thread.currentThread().getName())
+                .get(5, TimeUnit.SECONDS);
+        assertTrue(thread.startsWith("schema-registry-request-"), thread);
+    }
+
+    @Test
+    public void boundedAbortsOnceThreadsAndQueueAreFull() throws Exception {
+        requestExecutor = new RequestExecutor(execution(SchemaRegistryProperties.RequestExecution.Mode.BOUNDED,
+                SchemaRegistryProperties.RequestExecution.Rejection.ABORT));
+        ExecutorService executorService = requestExecutor.getExecutorService();
+
+        CountDownLatch running = new CountDownLatch(1);
+        executorService.execute(() -> {
+            running.countDown();
+            await(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        executorService.execute(() -> await(release));
+
+        assertThrows(RejectedExecutionException.class, () -> executorService.execute(() -> {
+        }));
+    }
+
+    @Test
+    public void boundedCallerRunsOnceThreadsAndQueueAreFull() throws Exception {
+        requestExecutor = new RequestExecutor(execution(SchemaRegistryProperties.RequestExecution.Mode.BOUNDED,
+                SchemaRegistryProperties.RequestExecution.Rejection.CALLER_RUNS));
+        ExecutorService executorService = requestExecutor.getExecutorService();
+
+        CountDownLatch running = new CountDownLatch(1);
+        executorService.execute(() -> {
+            running.countDown();
+            await(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        executorService.execute(() -> await(release));
+
+        Thread caller = Thread.currentThread();
+        Future<Thread> ranOn = executorService.submit(Thread::currentThread);
+        assertSame(caller, ranOn.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void virtualFallsBackToBoundedWithoutVirtualThreads() throws Exception {
+        requestExecutor = new RequestExecutor(execution(SchemaRegistryProperties.RequestExecution.Mode.VIRTUAL,
+                SchemaRegistryProperties.RequestExecution.Rejection.ABORT));
+
+        assertEquals(VirtualThreads.isSupported()
+                        ? SchemaRegistryProperties.RequestExecution.Mode.VIRTUAL
+                        : SchemaRegistryProperties.RequestExecution.Mode.BOUNDED,
+                requestExecutor.getMode());
+        Thread thread = requestExecutor.getExecutorService().submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+        assertNotEquals(Thread.currentThread(), thread);
+    }
+
+    private static SchemaRegistryProperties.RequestExecution execution(
+            SchemaRegistryProperties.RequestExecution.Mode mode,
+            SchemaRegistryProperties.RequestExecution.Rejection rejection) {
+        SchemaRegistryProperties.RequestExecution execution = new SchemaRegistryProperties.RequestExecution();
+        execution.setMode(mode);
+        execution.setThreads(1);
+        execution.setQueueCapacity(1);
+        execution.setRejection(rejection);
+        return execution;
+    }
+
+    static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
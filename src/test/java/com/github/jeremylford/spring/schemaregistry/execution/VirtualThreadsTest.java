@@ -0,0 +1,26 @@
+package com.github.jeremylford.spring.schemaregistry.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void supportedOnlyWhenVirtualThreadsCanBeCreated() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            assertThrows(IllegalStateException.class, () -> VirtualThreads.newThreadPerTaskExecutor("test-"));
+            return;
+        }
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+        try {
+            assertEquals("test-0", executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.github.jeremylford.spring.schemaregistry.feed;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.BadRequestException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChangeFeedTest {
+
+    private final ChangeFeed changeFeed = new ChangeFeed(3, 10, 0);
+
+    @AfterEach
+    public void tearDown() {
+        changeFeed.close();
+    }
+
+    @Test
+    public void replaysEventsAfterTheOffset() {
+        changeFeed.publish(registered(10, "a"));
+        changeFeed.publish(registered(12, "b"));
+        changeFeed.publish(registered(15, "c"));
+
+        ChangeFeed.Replay replay = changeFeed.replay(10);
+        assertFalse(replay.isTruncated());
+        assertEquals(2, replay.getEvents().size());
+        assertEquals(12, replay.getEvents().get(0).getOffset());
+        assertEquals(15, replay.getEvents().get(1).getOffset());
+
+        assertTrue(changeFeed.replay(15).getEvents().isEmpty());
+        assertTrue(changeFeed.replay(-1).getEvents().isEmpty());
+    }
+
+    @Test
+    public void reportsDroppedEvents() {
+        for (int offset = 1; offset <= 5; offset++) {
+            changeFeed.publish(registered(offset, "s" + offset));
+        }
+
+        assertTrue(changeFeed.replay(1).isTruncated());
+        assertFalse(changeFeed.replay(2).isTruncated());
+        assertEquals(3, changeFeed.replay(2).getEvents().size());
+    }
+
+    @Test
+    public void deliversReplayThenNewEvents() throws InterruptedException {
+        changeFeed.publish(registered(1, "a"));
+        changeFeed.publish(registered(2, "b"));
+
+        BlockingQueue<Long> offsets = new LinkedBlockingQueue<>();
+        changeFeed.subscribe(1, new ChangeFeed.Subscriber() {
+            @Override
+            public boolean onReplay(ChangeFeed.Replay replay) {
+                for (ChangeEvent event : replay.getEvents()) {
+                    offsets.add(event.getOffset());
+                }
+                return true;
+            }
+
+            @Override
+            public boolean onEvent(ChangeEvent event) {
+                offsets.add(event.getOffset());
+                return true;
+            }
+        });
+        changeFeed.publish(registered(3, "c"));
+
+        assertEquals(2L, offsets.poll(5, TimeUnit.SECONDS));
+        assertEquals(3L, offsets.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void aBlockedSubscriberDoesNotHoldUpTheOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            changeFeed.subscribe(-1, new Recorder(new LinkedBlockingQueue<>()) {
+                @Override
+                public boolean onEvent(ChangeEvent event) {
+                    awaitUninterruptibly(release);
+                    return true;
+                }
+            });
+            BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+            changeFeed.subscribe(-1, new Recorder(received));
+
+            changeFeed.publish(registered(1, "a"));
+            changeFeed.publish(registered(2, "b"));
+
+            assertEquals(1L, received.poll(5, TimeUnit.SECONDS));
+            assertEquals(2L, received.poll(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void dropsASubscriberThatFallsBehindTheBuffer() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch dropped = new CountDownLatch(1);
+        try {
+            changeFeed.subscribe(-1, new Recorder(new LinkedBlockingQueue<>()) {
+                @Override
+                public boolean onEvent(ChangeEvent event) {
+                    awaitUninterruptibly(release);
+                    return true;
+                }
+
+                @Override
+                public void onDropped() {
+                    dropped.countDown();
+                }
+            });
+
+            // one event is being delivered, three more fill the queue
+            for (int offset = 1; offset <= 5; offset++) {
+                changeFeed.publish(registered(offset, "s" + offset));
+            }
+
+            assertTrue(dropped.await(5, TimeUnit.SECONDS));
+            assertEquals(0, changeFeed.subscriberCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void heartbeatsRemoveSubscribersThatWentAway() throws InterruptedException {
+        try (ChangeFeed heartbeating = new ChangeFeed(3, 10, 10)) {
+            BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+            heartbeating.subscribe(-1, new Recorder(received) {
+                @Override
+                public boolean onHeartbeat() {
+                    received.add(HEARTBEAT);
+                    return false;
+                }
+            });
+
+            assertEquals(HEARTBEAT, received.poll(5, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (heartbeating.subscriberCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, heartbeating.subscriberCount());
+        }
+    }
+
+    @Test
+    public void resumesFromANumericLastEventId() {
+        assertEquals(42, ChangeFeedResource.resumeOffset(" 42 ", -1));
+        assertEquals(7, ChangeFeedResource.resumeOffset(null, 7));
+        assertEquals(7, ChangeFeedResource.resumeOffset("", 7));
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> ChangeFeedResource.resumeOffset("not-an-offset", -1));
+        assertEquals(400, e.getResponse().getStatus());
+    }
+
+    @Test
+    public void filtersBySubjectPrefixAndContext() {
+        ChangeFilter prefix = new ChangeFilter("orders", null);
+        assertTrue(prefix.matches(registered(1, "orders-value")));
+        assertTrue(prefix.matches(registered(1, ":.tenant1:orders-value")));
+        assertFalse(prefix.matches(registered(1, "payments-value")));
+
+        ChangeFilter context = new ChangeFilter(null, "tenant1");
+        assertTrue(context.matches(registered(1, ":.tenant1:orders-value")));
+        assertFalse(context.matches(registered(1, "orders-value")));
+        assertTrue(context.matches(new ChangeEvent(ChangeEvent.Type.CONFIG_CHANGED, 1, 0, null, null, null)));
+    }
+
+    private static ChangeEvent registered(long offset, String subject) {
+        return new ChangeEvent(ChangeEvent.Type.SCHEMA_REGISTERED, offset, 0, subject, 1, (int) offset);
+    }
+
+    private static final String HEARTBEAT = "heartbeat";
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Records the offsets of the events it receives.
+     */
+    private static class Recorder implements ChangeFeed.Subscriber {
+
+        private final BlockingQueue<Object> received;
+
+        Recorder(BlockingQueue<Object> received) {
+            this.received = received;
+        }
+
+        @Override
+        public boolean onReplay(ChangeFeed.Replay replay) {
+            for (ChangeEvent event : replay.getEvents()) {
+                received.add(event.getOffset());
+            }
+            return true;
+        }
+
+        @Override
+        public boolean onEvent(ChangeEvent event) {
+            received.add(event.getOffset());
+            return true;
+        }
+    }
+}
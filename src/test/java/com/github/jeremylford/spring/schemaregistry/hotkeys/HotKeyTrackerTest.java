@@ -0,0 +1,87 @@
+package com.github.jeremylford.spring.schemaregistry.hotkeys;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HotKeyTrackerTest {
+
+    @Test
+    public void sketchNeverUndercounts() {
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add("key-" + (i % 100));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(sketch.estimate("key-" + i) >= 10);
+        }
+
+        sketch.halve();
+        assertTrue(sketch.estimate("key-0") >= 5);
+    }
+
+    @Test
+    public void tracksHottestKeysAmongNoise() {
+        HotKeyTracker tracker = new HotKeyTracker(3, 1024, 4);
+        for (int round = 0; round < 200; round++) {
+            tracker.recordSubject("orders-value");
+            if (round % 2 == 0) {
+                tracker.recordSubject("payments-value");
+            }
+            if (round % 4 == 0) {
+                tracker.recordSubject("users-value");
+            }
+            tracker.recordSubject("noise-" + round);
+        }
+
+        List<String> subjects = tracker.getSubjects().stream()
+                .map(HotKeyTracker.HotKey::getKey)
+                .collect(Collectors.toList());
+        assertEquals(List.of("orders-value", "payments-value", "users-value"), subjects);
+    }
+
+    @Test
+    public void topKReplacesColdestKey() {
+        TopK<String> topK = new TopK<>(2);
+        topK.offer("a", 5);
+        topK.offer("b", 1);
+        topK.offer("c", 1);
+        topK.offer("c", 3);
+
+        List<TopK.Entry<String>> entries = topK.entries();
+        assertEquals(2, entries.size());
+        assertEquals("a", entries.get(0).getKey());
+        assertEquals("c", entries.get(1).getKey());
+        assertEquals(3, entries.get(1).getCount());
+    }
+
+    @Test
+    public void parsesIds() {
+        assertEquals(42, HotKeyFilter.parseId("42"));
+        assertEquals(-1, HotKeyFilter.parseId(""));
+        assertEquals(-1, HotKeyFilter.parseId("4x"));
+        assertEquals(-1, HotKeyFilter.parseId("99999999999"));
+    }
+
+    @Test
+    public void fileRoundTrip(@TempDir Path directory) throws Exception {
+        HotKeyTracker tracker = new HotKeyTracker(10, 256, 4);
+        tracker.recordId(7, null);
+        tracker.recordId(7, null);
+        tracker.recordId(9, ":.ctx:orders");
+        tracker.recordSubject("orders-value");
+
+        Path file = directory.resolve("nested").resolve("hot-keys.txt");
+        HotKeyFile.write(file, tracker);
+        HotKeyFile hotKeyFile = HotKeyFile.read(file);
+
+        assertEquals(List.of("7", "9::.ctx:orders"), hotKeyFile.ids);
+        assertEquals(List.of("orders-value"), hotKeyFile.subjects);
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.jeremylford.spring.schemaregistry.jfr;
+
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegistryEventsTest {
+
+    @Test
+    public void disabledUnlessConfigured() {
+        assertFalse(JfrEvents.isEnabled(Collections.emptyMap()));
+        assertEquals(JfrEvents.isAvailable(), JfrEvents.isEnabled(Collections.singletonMap(JfrEvents.CONFIG, "true")));
+    }
+
+    @Test
+    public void recordsLookupById(@TempDir Path directory) throws Exception {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("schemaregistry.LookupById");
+            recording.start();
+
+            SchemaString schema = new SchemaString("{\"type\": \"string\"}");
+            RegistryEvents.lookupById(7, ":.orders:payments-value", () -> schema);
+            assertThrows(SchemaRegistryException.class, () -> RegistryEvents.lookupById(8, null, () -> {
+                throw new SchemaRegistryException("failed");
+            }));
+
+            recording.stop();
+            Path file = directory.resolve("recording.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        assertEquals(2, events.size());
+        RecordedEvent found = events.get(0);
+        assertEquals(7, found.getInt("id"));
+        assertEquals(":.orders:payments-value", found.getString("subject"));
+        assertEquals(".orders", found.getString("context"));
+        assertEquals("AVRO", found.getString("schemaType"));
+        assertTrue(found.getBoolean("succeeded"));
+
+        RecordedEvent failed = events.get(1);
+        assertEquals(8, failed.getInt("id"));
+        assertEquals(".", failed.getString("context"));
+        assertFalse(failed.getBoolean("succeeded"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.jeremylford.spring.schemaregistry.observation;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.SenderContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RegistryObservationsTest {
+
+    private final List<Observation.Context> started = new ArrayList<>();
+    private final ObservationRegistry registry = ObservationRegistry.create();
+    private final RegistryObservations observations = new RegistryObservations(registry);
+
+    public RegistryObservationsTest() {
+        registry.observationConfig().observationHandler(new ObservationHandler<Observation.Context>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void onStart(Observation.Context context) {
+                started.add(context);
+                if (context instanceof SenderContext) {
+                    SenderContext<Object> sender = (SenderContext<Object>) context;
+                    sender.getSetter().set(sender.getCarrier(), "traceparent", "00-trace-span-01");
+                }
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+    }
+
+    @Test
+    public void forwardPropagatesTraceContext() {
+        Map<String, String> headers = Collections.singletonMap("Authorization", "Basic x");
+
+        Map<String, String> sent = observations.forward("register", "orders-value", headers, forwarded -> forwarded);
+
+        assertEquals("Basic x", sent.get("Authorization"));
+        assertEquals("00-trace-span-01", sent.get("traceparent"));
+        assertFalse(headers.containsKey("traceparent"));
+        assertEquals(RegistryObservations.LEADER_FORWARD, started.get(0).getName());
+    }
+
+    @Test
+    public void childrenNestUnderCurrentObservation() throws Exception {
+        Observation request = Observation.start(RegistryObservations.SERVER_REQUESTS, registry);
+        try (Observation.Scope ignored = request.openScope()) {
+            observations.observe(RegistryObservations.COMPATIBILITY_CHECK, ":.orders:payments-value", () -> null);
+        }
+        request.stop();
+
+        Observation.Context check = started.get(1);
+        assertEquals(RegistryObservations.COMPATIBILITY_CHECK, check.getName());
+        assertSame(request, check.getParentObservation());
+        assertEquals("orders", check.getLowCardinalityKeyValue("context").getValue());
+    }
+
+    @Test
+    public void executorPropagatesScope() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicReference<Observation> current = new AtomicReference<>();
+        Observation request = Observation.start(RegistryObservations.SERVER_REQUESTS, registry);
+        try (Observation.Scope ignored = request.openScope()) {
+            observations.propagating(executor).execute(() -> current.set(registry.getCurrentObservation()));
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        request.stop();
+
+        assertSame(request, current.get());
+    }
+}
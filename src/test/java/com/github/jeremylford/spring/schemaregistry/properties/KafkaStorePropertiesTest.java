@@ -0,0 +1,62 @@
+package com.github.jeremylford.spring.schemaregistry.properties;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KafkaStorePropertiesTest {
+
+    @Test
+    public void passesClientSettingsThroughWithPrefix() {
+        SchemaRegistryProperties.KafkaStore kafkaStore = new SchemaRegistryProperties.KafkaStore();
+        kafkaStore.setSecurityProtocol("SASL_SSL");
+        kafkaStore.getSasl().setMechanism("PLAIN");
+        kafkaStore.getSsl().setTruststoreLocation("/etc/kafka/truststore.jks");
+        kafkaStore.getProducer().put("compression.type", "lz4");
+        kafkaStore.getProducer().put("linger.ms", "5");
+        kafkaStore.getConsumer().put("max.poll.records", "2000");
+
+        Properties properties = kafkaStore.asProperties();
+
+        assertEquals("SASL_SSL", properties.get("kafkastore.security.protocol"));
+        assertEquals("PLAIN", properties.get("kafkastore.sasl.mechanism"));
+        assertEquals("/etc/kafka/truststore.jks", properties.get("kafkastore.ssl.truststore.location"));
+        assertEquals("lz4", properties.get("kafkastore.compression.type"));
+        assertEquals("5", properties.get("kafkastore.linger.ms"));
+        assertEquals("2000", properties.get("kafkastore.max.poll.records"));
+        assertFalse(properties.containsKey("kafkastore.fetch.max.wait.ms"));
+    }
+
+    @Test
+    public void consumerSettingsOverrideBootstrapProfile() {
+        SchemaRegistryProperties.KafkaStore kafkaStore = new SchemaRegistryProperties.KafkaStore();
+        kafkaStore.setReaderProfile(SchemaRegistryProperties.KafkaStore.ReaderProfile.BOOTSTRAP);
+        kafkaStore.getConsumer().put("max.poll.records", "2000");
+
+        Properties properties = kafkaStore.asProperties();
+
+        assertEquals("1", properties.get("kafkastore.fetch.min.bytes"));
+        assertTrue(properties.containsKey("kafkastore.max.partition.fetch.bytes"));
+        assertEquals("2000", properties.get("kafkastore.max.poll.records"));
+    }
+
+    @Test
+    public void rejectsUnknownAndInvalidSettings() {
+        SchemaRegistryProperties.KafkaStore unknown = new SchemaRegistryProperties.KafkaStore();
+        unknown.getProducer().put("linger.msec", "5");
+        assertThrows(IllegalArgumentException.class, unknown::asProperties);
+
+        SchemaRegistryProperties.KafkaStore invalid = new SchemaRegistryProperties.KafkaStore();
+        invalid.getProducer().put("compression.type", "brotli");
+        assertThrows(IllegalArgumentException.class, invalid::asProperties);
+
+        SchemaRegistryProperties.KafkaStore reserved = new SchemaRegistryProperties.KafkaStore();
+        reserved.getConsumer().put("auto.offset.reset", "latest");
+        assertThrows(IllegalArgumentException.class, reserved::asProperties);
+    }
+}
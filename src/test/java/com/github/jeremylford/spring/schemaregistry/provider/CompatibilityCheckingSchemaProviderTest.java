@@ -0,0 +1,95 @@
+package com.github.jeremylford.spring.schemaregistry.provider;
+
+import com.github.jeremylford.spring.schemaregistry.compatibility.CompatibilityCheck;
+import com.github.jeremylford.spring.schemaregistry.compatibility.CompatibilityExecutor;
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import io.confluent.kafka.schemaregistry.CompatibilityLevel;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompatibilityCheckingSchemaProviderTest {
+
+    private static final String ID = "{\"type\":\"record\",\"name\":\"Order\",\"fields\":["
+            + "{\"name\":\"id\",\"type\":\"long\"}]}";
+    private static final String ID_AND_NAME = "{\"type\":\"record\",\"name\":\"Order\",\"fields\":["
+            + "{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"name\",\"type\":\"string\"}]}";
+
+    private final CompatibilityExecutor executor = new CompatibilityExecutor(2, 1);
+    private final AtomicInteger checks = new AtomicInteger();
+    private final CompatibilityCheck check = new CompatibilityCheck(executor, false, null, false) {
+        @Override
+        public List<String> isCompatible(CompatibilityLevel level, ParsedSchema schema,
+                                         List<? extends ParsedSchema> previousSchemas) {
+            checks.incrementAndGet();
+            assertFalse(schema instanceof CheckedSchema);
+            previousSchemas.forEach(previousSchema -> assertFalse(previousSchema instanceof CheckedSchema));
+            return super.isCompatible(level, schema, previousSchemas);
+        }
+    };
+
+    @AfterEach
+    public void after() {
+        executor.close();
+    }
+
+    @Test
+    public void checksRunThroughTheCompatibilityCheck() {
+        CompatibilityCheckingSchemaProvider provider = provider(check);
+        ParsedSchema previous = parse(provider, ID);
+        ParsedSchema candidate = parse(provider, ID_AND_NAME);
+
+        List<ParsedSchema> history = Collections.singletonList(previous);
+        assertEquals(new AvroSchema(ID_AND_NAME).isCompatible(CompatibilityLevel.BACKWARD_TRANSITIVE,
+                Collections.singletonList(new AvroSchema(ID))),
+                candidate.isCompatible(CompatibilityLevel.BACKWARD_TRANSITIVE, history));
+        assertTrue(candidate.isCompatible(CompatibilityLevel.FORWARD_TRANSITIVE, history).isEmpty());
+        assertEquals(2, checks.get());
+    }
+
+    @Test
+    public void parsedSchemasEqualTheOnesOfTheBuiltInProvider() {
+        ParsedSchema parsed = parse(provider(check), ID);
+
+        assertEquals(new AvroSchema(ID), parsed);
+        assertEquals(new AvroSchema(ID).hashCode(), parsed.hashCode());
+        assertTrue(parsed.deepEquals(new AvroSchema(ID)));
+        assertEquals(new AvroSchema(ID).canonicalString(), parsed.canonicalString());
+    }
+
+    @Test
+    public void withoutACheckTheSchemasOfTheBuiltInProviderAreReturned() {
+        assertEquals(AvroSchema.class, parse(provider(null), ID).getClass());
+    }
+
+    @Test
+    public void providesEachType() throws Exception {
+        for (SchemaRegistryProperties.SchemaType schemaType : SchemaRegistryProperties.SchemaType.values()) {
+            CompatibilityCheckingSchemaProvider provider =
+                    CompatibilityCheckingSchemaProvider.forType(schemaType).getConstructor().newInstance();
+
+            assertEquals(schemaType.name(), provider.schemaType());
+        }
+    }
+
+    private static CompatibilityCheckingSchemaProvider provider(CompatibilityCheck check) {
+        CompatibilityCheckingSchemaProvider provider = new CompatibilityCheckingSchemaProvider.Avro();
+        provider.configure(check != null
+                ? Collections.singletonMap(CompatibilityCheck.CONFIG, check)
+                : Collections.emptyMap());
+        return provider;
+    }
+
+    private static ParsedSchema parse(CompatibilityCheckingSchemaProvider provider, String schema) {
+        return provider.parseSchema(schema, Collections.emptyList(), true).orElseThrow(AssertionError::new);
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.jeremylford.spring.schemaregistry.provider;
+
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class DisabledSchemaProviderTest {
+
+    @Test
+    public void replacesTheProviderOfItsType() throws Exception {
+        for (SchemaRegistryProperties.SchemaType schemaType : SchemaRegistryProperties.SchemaType.values()) {
+            DisabledSchemaProvider provider = DisabledSchemaProvider.forType(schemaType).getConstructor().newInstance();
+
+            assertEquals(schemaType.name(), provider.schemaType());
+            assertFalse(provider.parseSchema("{\"type\":\"string\"}", Collections.emptyList(), true).isPresent());
+        }
+    }
+}
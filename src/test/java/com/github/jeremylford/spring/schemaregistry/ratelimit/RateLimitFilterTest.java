@@ -0,0 +1,88 @@
+package com.github.jeremylford.spring.schemaregistry.ratelimit;
+
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimitFilterTest {
+
+    @Test
+    public void subjectRejectionDoesNotConsumeTheClientPermit() {
+        SchemaRegistryProperties.RateLimit rateLimit = new SchemaRegistryProperties.RateLimit();
+        rateLimit.getClient().setRead(limit(0.001, 2));
+        rateLimit.getSubject().setRead(limit(0.001, 1));
+        RateLimitFilter filter = new RateLimitFilter(rateLimit);
+
+        assertEquals(0, filter.tryAcquire("client", false, "hot", false));
+        assertTrue(filter.tryAcquire("client", false, "hot", false) > 0);
+        assertTrue(filter.tryAcquire("client", false, "hot", false) > 0);
+
+        // one permit was taken by the accepted request, the rejected ones gave theirs back
+        assertEquals(0, filter.tryAcquire("client", false, "other", false));
+        assertTrue(filter.tryAcquire("client", false, "another", false) > 0);
+    }
+
+    @Test
+    public void forwardedWritesAreHeldToTheForwardedLimits() {
+        SchemaRegistryProperties.RateLimit rateLimit = new SchemaRegistryProperties.RateLimit();
+        rateLimit.getClient().setWrite(limit(0.001, 1));
+        rateLimit.getForwarded().setWrite(limit(0.001, 2));
+        RateLimitFilter filter = new RateLimitFilter(rateLimit);
+
+        assertEquals(0, filter.tryAcquire("client", false, null, true));
+        assertTrue(filter.tryAcquire("client", false, null, true) > 0);
+
+        // the follower forwards with the credentials of the throttled client
+        assertEquals(0, filter.tryAcquire("http://follower:8081", true, null, true));
+        assertEquals(0, filter.tryAcquire("http://follower:8081", true, null, true));
+        assertTrue(filter.tryAcquire("http://follower:8081", true, null, true) > 0);
+    }
+
+    @Test
+    public void unlimitedClassHasNoBucket() {
+        RateLimitFilter.Budget budget = new RateLimitFilter.Budget("test", limits(0, 1), 10);
+
+        assertNull(budget.bucket("client", false));
+    }
+
+    @Test
+    public void keysBeyondTheCapShareABucketWhileTrackedOnesRefill() {
+        RateLimitFilter.Budget budget = new RateLimitFilter.Budget("test", limits(0.001, 1), 2);
+
+        budget.tryAcquire(budget.bucket("a", false), false);
+        budget.tryAcquire(budget.bucket("b", false), false);
+
+        assertSame(budget.bucket("c", false), budget.bucket("d", false));
+    }
+
+    @Test
+    public void refilledBucketsAreEvictedToMakeRoom() throws InterruptedException {
+        RateLimitFilter.Budget budget = new RateLimitFilter.Budget("test", limits(1000, 1), 2);
+
+        budget.tryAcquire(budget.bucket("a", false), false);
+        budget.tryAcquire(budget.bucket("b", false), false);
+        Thread.sleep(10);
+
+        TokenBucket c = budget.bucket("c", false);
+        assertSame(c, budget.bucket("c", false));
+        assertNotSame(c, budget.bucket("d", false));
+    }
+
+    private static SchemaRegistryProperties.RateLimit.Limits limits(double permitsPerSecond, int burst) {
+        SchemaRegistryProperties.RateLimit.Limits limits = new SchemaRegistryProperties.RateLimit.Limits();
+        limits.setRead(limit(permitsPerSecond, burst));
+        return limits;
+    }
+
+    private static SchemaRegistryProperties.RateLimit.Limit limit(double permitsPerSecond, int burst) {
+        SchemaRegistryProperties.RateLimit.Limit limit = new SchemaRegistryProperties.RateLimit.Limit();
+        limit.setPermitsPerSecond(permitsPerSecond);
+        limit.setBurst(burst);
+        return limit;
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.jeremylford.spring.schemaregistry.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTest {
+
+    @Test
+    public void burstThenSustainedRate() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = TimeUnit.SECONDS.toNanos(100);
+
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+
+        long wait = bucket.tryAcquire(now);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+
+        assertEquals(0, bucket.tryAcquire(now + wait));
+        assertTrue(bucket.tryAcquire(now + wait) > 0);
+    }
+
+    @Test
+    public void refillsAfterIdle() {
+        TokenBucket bucket = new TokenBucket(1, 2);
+        long now = TimeUnit.SECONDS.toNanos(100);
+
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now) > 0);
+
+        long later = now + TimeUnit.SECONDS.toNanos(10);
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    public void releaseGivesBackAPermit() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+        long now = TimeUnit.SECONDS.toNanos(100);
+
+        assertEquals(0, bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now) > 0);
+
+        bucket.release();
+        assertEquals(0, bucket.tryAcquire(now));
+    }
+
+    @Test
+    public void fullOnceRefilled() {
+        TokenBucket bucket = new TokenBucket(10, 2);
+        long now = TimeUnit.SECONDS.toNanos(100);
+        assertTrue(bucket.isFull(now));
+
+        bucket.tryAcquire(now);
+        assertFalse(bucket.isFull(now));
+        assertFalse(bucket.isFull(now + TimeUnit.MILLISECONDS.toNanos(50)));
+        assertTrue(bucket.isFull(now + TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+}
@@ -0,0 +1,242 @@
+package com.github.jeremylford.spring.schemaregistry.reactive;
+
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryStoreException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReactiveReadServerTest {
+
+    private static final String ORDER = "{\"type\":\"record\",\"name\":\"Order\",\"fields\":[]}";
+    private static final String ORDER_V2 =
+            "{\"type\":\"record\",\"name\":\"Order\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}";
+
+    private final InMemoryReads reads = new InMemoryReads();
+    private ReactiveReadServer server;
+
+    @BeforeEach
+    public void setup() {
+        reads.add(new Schema("orders-value", 1, 1, AvroSchema.TYPE, Collections.emptyList(), ORDER));
+        reads.add(new Schema("orders-value", 2, 2, AvroSchema.TYPE, Collections.emptyList(), ORDER_V2));
+        reads.add(new Schema(":.tenant1:orders-value", 1, 1, AvroSchema.TYPE, Collections.emptyList(), ORDER));
+
+        SchemaRegistryProperties.ReadFrontEnd properties = new SchemaRegistryProperties.ReadFrontEnd();
+        properties.setHost("127.0.0.1");
+        properties.setPort(0);
+        properties.setBasePath("/api");
+        properties.setIoThreads(1);
+        server = new ReactiveReadServer(reads, properties);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void emptyBasePathServesFromRoot() {
+        assertEquals("", ReactiveReadServer.basePath(null));
+        assertEquals("", ReactiveReadServer.basePath(""));
+        assertEquals("", ReactiveReadServer.basePath("/"));
+    }
+
+    @Test
+    public void basePathIsNormalized() {
+        assertEquals("/api", ReactiveReadServer.basePath("api"));
+        assertEquals("/api", ReactiveReadServer.basePath("/api/"));
+        assertEquals("/api/v1", ReactiveReadServer.basePath("/api/v1"));
+    }
+
+    @Test
+    public void refusesToServeReadsWithoutTheResourceExtensions() {
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new ReactiveReadServer(
+                reads, new SchemaRegistryProperties.ReadFrontEnd(), Collections.singletonList("com.example.Auth")));
+        assertTrue(e.getMessage().contains("com.example.Auth"));
+    }
+
+    @Test
+    public void schemasById() throws IOException {
+        Response schema = get("/api/schemas/ids/2");
+        assertEquals(200, schema.status);
+        assertEquals(ReactiveReadServer.CONTENT_TYPE, schema.contentType);
+        assertTrue(schema.body.contains("\"schema\":\"{\\\"type\\\":\\\"record\\\""), schema.body);
+
+        Response raw = get("/api/schemas/ids/2/schema");
+        assertEquals(200, raw.status);
+        assertEquals(ORDER_V2, raw.body);
+
+        assertError(get("/api/schemas/ids/99"), 404, 40403);
+        assertError(get("/api/schemas/ids/abc"), 404, 40403);
+    }
+
+    @Test
+    public void subjectsAndVersions() throws IOException {
+        Response subjects = get("/api/subjects");
+        assertEquals(200, subjects.status);
+        assertEquals("[\":.tenant1:orders-value\",\"orders-value\"]", subjects.body);
+
+        assertEquals("[1,2]", get("/api/subjects/orders-value/versions").body);
+        assertError(get("/api/subjects/payments-value/versions"), 404, 40401);
+    }
+
+    @Test
+    public void singleVersions() throws IOException {
+        Response latest = get("/api/subjects/orders-value/versions/latest");
+        assertEquals(200, latest.status);
+        assertTrue(latest.body.contains("\"version\":2"), latest.body);
+
+        assertTrue(get("/api/subjects/orders-value/versions/1").body.contains("\"version\":1"));
+        assertEquals(ORDER, get("/api/subjects/orders-value/versions/1/schema").body);
+
+        assertError(get("/api/subjects/orders-value/versions/7"), 404, 40402);
+        assertError(get("/api/subjects/payments-value/versions/1"), 404, 40401);
+        assertError(get("/api/subjects/orders-value/versions/abc"), 422, 42202);
+        assertError(get("/api/subjects/orders-value/versions/0"), 422, 42202);
+    }
+
+    @Test
+    public void subjectsAreDecoded() throws IOException {
+        Response tenant = get("/api/subjects/%3A.tenant1%3Aorders-value/versions/1");
+        assertEquals(200, tenant.status);
+        assertTrue(tenant.body.contains("\"subject\":\":.tenant1:orders-value\""), tenant.body);
+    }
+
+    @Test
+    public void storeErrorsAreReported() throws IOException {
+        reads.failing = true;
+        assertError(get("/api/subjects"), 500, 50001);
+    }
+
+    @Test
+    public void onlyTheReadRoutesUnderTheBasePathAreServed() throws IOException {
+        assertEquals(404, get("/subjects").status);
+        assertEquals(404, get("/api/mode").status);
+        assertEquals(404, get("/api/config").status);
+    }
+
+    private static void assertError(Response response, int status, int errorCode) {
+        assertEquals(status, response.status, response.body);
+        assertTrue(response.body.contains("\"error_code\":" + errorCode), response.body);
+    }
+
+    private Response get(String path) throws IOException {
+        HttpURLConnection connection =
+                (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+        try {
+            int status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            if (in != null) {
+                try (InputStream stream = in) {
+                    byte[] buffer = new byte[4096];
+                    int read;
+                    while ((read = stream.read(buffer)) != -1) {
+                        body.write(buffer, 0, read);
+                    }
+                }
+            }
+            return new Response(status, connection.getContentType(),
+                    new String(body.toByteArray(), StandardCharsets.UTF_8));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static final class Response {
+
+        private final int status;
+        private final String contentType;
+        private final String body;
+
+        Response(int status, String contentType, String body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    private static final class InMemoryReads implements ReactiveReadServer.Reads {
+
+        private final Map<String, TreeMap<Integer, Schema>> subjects = new TreeMap<>();
+        private volatile boolean failing;
+
+        void add(Schema schema) {
+            subjects.computeIfAbsent(schema.getSubject(), s -> new TreeMap<>()).put(schema.getVersion(), schema);
+        }
+
+        @Override
+        public SchemaString get(int id, String subject) throws SchemaRegistryException {
+            check();
+            for (TreeMap<Integer, Schema> versions : subjects.values()) {
+                for (Schema schema : versions.values()) {
+                    if (schema.getId() == id) {
+                        return new SchemaString(schema.getSchema());
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Set<String> listSubjects(boolean deleted) throws SchemaRegistryException {
+            check();
+            return subjects.keySet();
+        }
+
+        @Override
+        public Iterator<Schema> getAllVersions(String subject, boolean deleted) throws SchemaRegistryException {
+            check();
+            List<Schema> versions = new ArrayList<>(subjects.getOrDefault(subject, new TreeMap<>()).values());
+            return versions.iterator();
+        }
+
+        @Override
+        public boolean hasSubjects(String subject, boolean deleted) throws SchemaRegistryException {
+            check();
+            return subjects.containsKey(subject);
+        }
+
+        @Override
+        public Schema getLatestVersion(String subject) throws SchemaRegistryException {
+            check();
+            TreeMap<Integer, Schema> versions = subjects.get(subject);
+            return versions == null ? null : versions.lastEntry().getValue();
+        }
+
+        @Override
+        public Schema get(String subject, int version, boolean deleted) throws SchemaRegistryException {
+            check();
+            return subjects.getOrDefault(subject, new TreeMap<>()).get(version);
+        }
+
+        private void check() throws SchemaRegistryException {
+            if (failing) {
+                throw new SchemaRegistryStoreException("Store unavailable");
+            }
+        }
+    }
+}
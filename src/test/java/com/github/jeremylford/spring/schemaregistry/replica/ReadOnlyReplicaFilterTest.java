@@ -0,0 +1,96 @@
+package com.github.jeremylford.spring.schemaregistry.replica;
+
+import io.confluent.kafka.schemaregistry.rest.resources.CompatibilityResource;
+import io.confluent.kafka.schemaregistry.rest.resources.ConfigResource;
+import io.confluent.kafka.schemaregistry.rest.resources.ModeResource;
+import io.confluent.kafka.schemaregistry.rest.resources.SubjectVersionsResource;
+import io.confluent.kafka.schemaregistry.rest.resources.SubjectsResource;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs requests against the registry resources in memory.  The resources have no registry behind them, so a request
+ * the filter lets through is answered by a later filter instead.
+ */
+public class ReadOnlyReplicaFilterTest {
+
+    private static final int PASSED = 204;
+    private static final String SCHEMA = "{\"schema\":\"\\\"string\\\"\"}";
+
+    private final ApplicationHandler handler = new ApplicationHandler(new ResourceConfig()
+            .register(new ReadOnlyReplicaFilter())
+            .register(new Passed())
+            .register(new CompatibilityResource(null))
+            .register(new ConfigResource(null))
+            .register(new ModeResource(null))
+            .register(new SubjectsResource(null))
+            .register(new SubjectVersionsResource(null)));
+
+    @Test
+    public void readsAreAllowed() throws Exception {
+        assertEquals(PASSED, request("GET", "/subjects/orders-value/versions"));
+        assertEquals(PASSED, request("POST", "/subjects/orders-value"));
+        assertEquals(PASSED, request("POST", "/compatibility/subjects/orders-value/versions/latest"));
+    }
+
+    @Test
+    public void lookupsUnderSubjectsWithAnEncodedSlashAreAllowed() throws Exception {
+        assertEquals(PASSED, request("POST", "/subjects/team%2Forders-value"));
+        assertEquals(PASSED, request("POST", "/compatibility/subjects/team%2Forders-value/versions/latest"));
+    }
+
+    @Test
+    public void writesAreRejected() throws Exception {
+        assertEquals(ReadOnlyReplicaFilter.UNPROCESSABLE_ENTITY, request("POST", "/subjects/orders-value/versions"));
+        assertEquals(ReadOnlyReplicaFilter.UNPROCESSABLE_ENTITY,
+                request("POST", "/subjects/team%2Forders-value/versions"));
+        assertEquals(ReadOnlyReplicaFilter.UNPROCESSABLE_ENTITY, request("DELETE", "/subjects/orders-value"));
+        assertEquals(ReadOnlyReplicaFilter.UNPROCESSABLE_ENTITY, request("PUT", "/config"));
+        assertEquals(ReadOnlyReplicaFilter.UNPROCESSABLE_ENTITY, request("PUT", "/mode/orders-value"));
+    }
+
+    @Test
+    public void unmatchedPostsAreLeftToJersey() throws Exception {
+        assertEquals(404, request("POST", "/unknown"));
+    }
+
+    private int request(String method, String path) throws Exception {
+        ContainerRequest request = new ContainerRequest(
+                URI.create("http://localhost/"), URI.create("http://localhost" + path), method,
+                null, new MapPropertiesDelegate(), handler.getConfiguration()
+        );
+        request.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+        if (!"GET".equals(method) && !"DELETE".equals(method)) {
+            request.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+            request.setEntityStream(new ByteArrayInputStream(SCHEMA.getBytes(StandardCharsets.UTF_8)));
+        }
+        return handler.apply(request, new ByteArrayOutputStream()).get(5, TimeUnit.SECONDS).getStatus();
+    }
+
+    @Priority(Priorities.USER)
+    static class Passed implements ContainerRequestFilter {
+
+        @Override
+        public void filter(ContainerRequestContext requestContext) {
+            requestContext.abortWith(Response.status(PASSED).build());
+        }
+    }
+}
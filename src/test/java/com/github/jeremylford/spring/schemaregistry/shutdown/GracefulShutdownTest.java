@@ -0,0 +1,117 @@
+package com.github.jeremylford.spring.schemaregistry.shutdown;
+
+import io.confluent.kafka.schemaregistry.exceptions.SchemaRegistryException;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GracefulShutdownTest {
+
+    private final RequestDrain requestDrain = new RequestDrain(1);
+    private final RecordingRegistry registry = new RecordingRegistry();
+
+    @Test
+    public void relinquishesLeadershipOnceTheWritesAreDrained() throws Exception {
+        GracefulShutdown gracefulShutdown = new GracefulShutdown(registry, requestDrain, 10_000);
+        requestDrain.started();
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> stopped = executorService.submit(gracefulShutdown::stop);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!requestDrain.isDraining() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertTrue(requestDrain.isDraining());
+            assertTrue(registry.calls.isEmpty());
+
+            requestDrain.finished();
+            stopped.get(5, TimeUnit.SECONDS);
+            assertEquals(Collections.singletonList("relinquish"), registry.calls);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void relinquishesLeadershipAfterTheDrainTimeout() {
+        GracefulShutdown gracefulShutdown = new GracefulShutdown(registry, requestDrain, 10);
+        requestDrain.started();
+
+        gracefulShutdown.stop();
+
+        assertEquals(Collections.singletonList("relinquish"), registry.calls);
+        assertEquals(1, requestDrain.getWritesInFlight());
+    }
+
+    @Test
+    public void aFailureToLeaveTheGroupDoesNotFailTheShutdown() {
+        registry.failure = new SchemaRegistryException("no elector");
+        GracefulShutdown gracefulShutdown = new GracefulShutdown(registry, requestDrain, 10);
+
+        gracefulShutdown.stop();
+
+        assertTrue(requestDrain.isDraining());
+        assertEquals(Collections.singletonList("relinquish"), registry.calls);
+    }
+
+    @Test
+    public void stopsOnceOnTheCloseOfItsOwnContext() {
+        GracefulShutdown gracefulShutdown = new GracefulShutdown(registry, requestDrain, 10);
+        GenericApplicationContext context = new GenericApplicationContext();
+        GenericApplicationContext child = new GenericApplicationContext(context);
+        gracefulShutdown.setApplicationContext(context);
+
+        gracefulShutdown.onApplicationEvent(new ContextClosedEvent(child));
+        assertFalse(requestDrain.isDraining());
+
+        gracefulShutdown.onApplicationEvent(new ContextClosedEvent(context));
+        gracefulShutdown.onApplicationEvent(new ContextClosedEvent(context));
+        assertTrue(requestDrain.isDraining());
+        assertEquals(Collections.singletonList("relinquish"), registry.calls);
+    }
+
+    @Test
+    public void isRegisteredAsAListenerOfTheContext() {
+        GracefulShutdown gracefulShutdown = new GracefulShutdown(registry, requestDrain, 10);
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(GracefulShutdown.class, () -> gracefulShutdown);
+        context.refresh();
+
+        context.close();
+
+        assertTrue(requestDrain.isDraining());
+        assertEquals(Collections.singletonList("relinquish"), registry.calls);
+    }
+
+    private static final class RecordingRegistry implements GracefulShutdown.Registry {
+
+        private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        private SchemaRegistryException failure;
+
+        @Override
+        public boolean isLeader() {
+            return true;
+        }
+
+        @Override
+        public void relinquishLeadership() throws SchemaRegistryException {
+            calls.add("relinquish");
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.jeremylford.spring.schemaregistry.shutdown;
+
+import io.confluent.kafka.schemaregistry.rest.resources.SubjectVersionsResource;
+import io.confluent.kafka.schemaregistry.rest.resources.SubjectsResource;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestDrainTest {
+
+    @Test
+    public void nothingToDrain() throws Exception {
+        RequestDrain requestDrain = new RequestDrain(1);
+        requestDrain.startDraining();
+        assertTrue(requestDrain.awaitWrites(0));
+    }
+
+    @Test
+    public void timesOutWhileWritesAreInFlight() throws Exception {
+        RequestDrain requestDrain = new RequestDrain(1);
+        requestDrain.started();
+        requestDrain.startDraining();
+
+        assertFalse(requestDrain.awaitWrites(20));
+        assertEquals(1, requestDrain.getWritesInFlight());
+    }
+
+    @Test
+    public void returnsOnceTheLastWriteFinishes() throws Exception {
+        RequestDrain requestDrain = new RequestDrain(1);
+        requestDrain.started();
+        requestDrain.started();
+        requestDrain.startDraining();
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> drained = executorService.submit(() -> requestDrain.awaitWrites(10_000));
+            requestDrain.finished();
+            assertEquals(1, requestDrain.getWritesInFlight());
+            requestDrain.finished();
+            assertTrue(drained.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void countsMatchedWritesWhileTheyRun() throws Exception {
+        RequestDrain requestDrain = new RequestDrain(1);
+        List<Integer> inFlight = new ArrayList<>();
+        ApplicationHandler handler = handler(requestDrain, inFlight);
+
+        assertEquals(204, post(handler, "/subjects/orders-value/versions").getStatus());
+        assertEquals(204, post(handler, "/subjects/team%2Forders-value").getStatus());
+        assertEquals(204, post(handler, "/subjects/team%2Forders-value/versions").getStatus());
+
+        assertEquals(Arrays.asList(1, 0, 1), inFlight);
+        assertEquals(0, requestDrain.getWritesInFlight());
+    }
+
+    @Test
+    public void rejectsWritesOnceDraining() throws Exception {
+        RequestDrain requestDrain = new RequestDrain(7);
+        ApplicationHandler handler = handler(requestDrain, new ArrayList<>());
+        requestDrain.startDraining();
+
+        ContainerResponse rejected = post(handler, "/subjects/team%2Forders-value/versions");
+        assertEquals(503, rejected.getStatus());
+        assertEquals("7", rejected.getHeaderString(HttpHeaders.RETRY_AFTER));
+        assertEquals(204, post(handler, "/subjects/team%2Forders-value").getStatus());
+        assertEquals(0, requestDrain.getWritesInFlight());
+    }
+
+    private static ApplicationHandler handler(RequestDrain requestDrain, List<Integer> inFlight) {
+        // the resources have no registry behind them, so requests the drain lets through are answered here
+        @Priority(Priorities.USER)
+        class Passed implements ContainerRequestFilter {
+
+            @Override
+            public void filter(ContainerRequestContext requestContext) {
+                inFlight.add(requestDrain.getWritesInFlight());
+                requestContext.abortWith(Response.noContent().build());
+            }
+        }
+        return new ApplicationHandler(new ResourceConfig()
+                .register(requestDrain)
+                .register(new Passed())
+                .register(new SubjectsResource(null))
+                .register(new SubjectVersionsResource(null)));
+    }
+
+    private static ContainerResponse post(ApplicationHandler handler, String path) throws Exception {
+        ContainerRequest request = new ContainerRequest(
+                URI.create("http://localhost/"), URI.create("http://localhost" + path), "POST",
+                null, new MapPropertiesDelegate(), handler.getConfiguration()
+        );
+        request.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+        request.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+        request.setEntityStream(new ByteArrayInputStream(
+                "{\"schema\":\"\\\"string\\\"\"}".getBytes(StandardCharsets.UTF_8)));
+        return handler.apply(request, new ByteArrayOutputStream()).get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.jeremylford.spring.schemaregistry.slowrequest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestPhasesTest {
+
+    @Test
+    public void timesOnlyTheAttachedRequest() throws Exception {
+        assertEquals("result", RequestPhases.time(RequestPhases.Phase.COMPATIBILITY, () -> "result"));
+
+        RequestPhases phases = new RequestPhases();
+        RequestPhases previous = RequestPhases.attach(phases);
+        try {
+            RequestPhases.time(RequestPhases.Phase.STORE_WAIT, () -> {
+                Thread.sleep(5);
+                return null;
+            });
+        } finally {
+            RequestPhases.attach(previous);
+        }
+
+        assertTrue(phases.get(RequestPhases.Phase.STORE_WAIT) >= TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(0, phases.get(RequestPhases.Phase.COMPATIBILITY));
+    }
+
+    @Test
+    public void propagatesToExecutor() throws Exception {
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            RequestPhases phases = new RequestPhases();
+            RequestPhases[] seen = new RequestPhases[2];
+            RequestPhases previous = RequestPhases.attach(phases);
+            try {
+                RequestPhases.propagating(executorService).execute(() -> seen[0] = RequestPhases.attach(null));
+            } finally {
+                RequestPhases.attach(previous);
+            }
+            executorService.submit(() -> seen[1] = RequestPhases.attach(null)).get();
+
+            assertSame(phases, seen[0]);
+            assertNull(seen[1]);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void methodThresholdWinsOverRouteThreshold() {
+        Map<String, Long> millis = new LinkedHashMap<>();
+        millis.put("/subjects/{subject}/versions", 200L);
+        millis.put("POST /subjects/{subject}/versions", 500L);
+        SlowRequestThresholds thresholds = new SlowRequestThresholds(1000, millis);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), thresholds.nanos("POST", "/subjects/{subject}/versions"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), thresholds.nanos("GET", "/subjects/{subject}/versions"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), thresholds.nanos("GET", "/schemas/ids/{id}"));
+    }
+}
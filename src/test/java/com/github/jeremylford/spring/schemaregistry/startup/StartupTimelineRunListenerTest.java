@@ -0,0 +1,51 @@
+package com.github.jeremylford.spring.schemaregistry.startup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.metrics.ApplicationStartup;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StartupTimelineRunListenerTest {
+
+    @Test
+    public void leavesTheApplicationStartupAloneByDefault() {
+        SpringApplication application = new SpringApplication();
+
+        new StartupTimelineRunListener(application, new String[0]).environmentPrepared(null, new StandardEnvironment());
+
+        assertSame(ApplicationStartup.DEFAULT, application.getApplicationStartup());
+    }
+
+    @Test
+    public void buffersStepsOnceEnabled() {
+        SpringApplication application = new SpringApplication();
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test",
+                Collections.singletonMap("schemaregistry.startup.timeline", "true")));
+
+        new StartupTimelineRunListener(application, new String[0]).environmentPrepared(null, environment);
+
+        assertTrue(application.getApplicationStartup() instanceof BufferingApplicationStartup);
+    }
+
+    @Test
+    public void keepsTheApplicationStartupOfTheApplication() {
+        SpringApplication application = new SpringApplication();
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(16);
+        application.setApplicationStartup(applicationStartup);
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test",
+                Collections.singletonMap("schemaregistry.startup.timeline", "true")));
+
+        new StartupTimelineRunListener(application, new String[0]).environmentPrepared(null, environment);
+
+        assertSame(applicationStartup, application.getApplicationStartup());
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.jeremylford.spring.schemaregistry.startup;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.core.metrics.StartupStep;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class StartupTimelineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setup() {
+        Metrics.addRegistry(meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Metrics.removeRegistry(meterRegistry);
+    }
+
+    @Test
+    public void recordsStepsAndTimers() {
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(16);
+        StartupTimeline timeline = new StartupTimeline(applicationStartup);
+
+        try (StartupTimeline.Phase phase = timeline.start("store.init")) {
+            phase.tag("records", "42");
+        }
+        try (StartupTimeline.Phase ignored = timeline.start("jersey.extension", "com.example.Extension")) {
+            // registration
+        }
+
+        List<TimelineEvent> events = applicationStartup.getBufferedTimeline().getEvents();
+        assertEquals(2, events.size());
+        assertEquals("schemaregistry.store.init", events.get(0).getStartupStep().getName());
+        StartupStep.Tag records = events.get(0).getStartupStep().getTags().iterator().next();
+        assertEquals("records", records.getKey());
+        assertEquals("42", records.getValue());
+
+        timeline.publish();
+        Timer extension = meterRegistry.find("schemaregistry.startup.phase")
+                .tag("phase", "jersey.extension")
+                .tag("detail", "com.example.Extension")
+                .timer();
+        assertNotNull(extension);
+        assertEquals(1, extension.count());
+    }
+
+    @Test
+    public void keepsTimersUntilARegistryIsAvailable() {
+        Metrics.removeRegistry(meterRegistry);
+        StartupTimeline timeline = new StartupTimeline(new BufferingApplicationStartup(16));
+
+        try (StartupTimeline.Phase ignored = timeline.start("store.create")) {
+            // created before the meter registry
+        }
+        Metrics.addRegistry(meterRegistry);
+        assertNull(meterRegistry.find("schemaregistry.startup.phase").timer());
+
+        timeline.publish();
+        Timer storeCreate = meterRegistry.find("schemaregistry.startup.phase").tag("phase", "store.create").timer();
+        assertNotNull(storeCreate);
+        assertEquals(1, storeCreate.count());
+
+        try (StartupTimeline.Phase ignored = timeline.start("cache.warm")) {
+            // ended once the application is ready
+        }
+        assertEquals(1, meterRegistry.find("schemaregistry.startup.phase").tag("phase", "cache.warm").timer().count());
+
+        timeline.publish();
+        assertEquals(1, storeCreate.count());
+    }
+}
@@ -0,0 +1,206 @@
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.storage.InMemoryCache;
+import io.confluent.kafka.schemaregistry.storage.LookupCache;
+import io.confluent.kafka.schemaregistry.storage.SchemaIdAndSubjects;
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryValue;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import io.confluent.kafka.schemaregistry.storage.serialization.SchemaRegistrySerializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Applies the same store updates to an {@link IndexedLookupCache} and to a plain {@link InMemoryCache}, and checks
+ * that both answer the id and hash lookups the same way.
+ */
+public class IndexedLookupCacheTest {
+
+    private static final String ORDERS = "orders-value";
+    private static final String PAYMENTS = "payments-value";
+    private static final String TENANT_ORDERS = ":.tenant1:orders-value";
+
+    private final LookupCache<SchemaRegistryKey, SchemaRegistryValue> reference =
+            new InMemoryCache<>(new SchemaRegistrySerializer());
+    private final IndexedLookupCache indexed =
+            new IndexedLookupCache(new InMemoryCache<>(new SchemaRegistrySerializer()));
+
+    @Test
+    public void registeredSchemasAreFoundByIdAndHash() throws Exception {
+        SchemaValue orders = register(ORDERS, 1, 1, schema("Order"));
+        register(ORDERS, 2, 2, schema("OrderV2"));
+
+        assertSameKey(1, ORDERS);
+        assertSameKey(2, ORDERS);
+        assertEquals(new SchemaKey(ORDERS, 1), indexed.schemaKeyById(1, ORDERS));
+        assertSameSubjects(orders);
+        assertEquals(2, indexed.latestVersion(ORDERS));
+        assertArrayEquals(new int[]{1, 2}, indexed.versions(ORDERS));
+    }
+
+    @Test
+    public void anIdSharedBySubjectsPrefersTheRequestedSubject() throws Exception {
+        SchemaValue orders = register(ORDERS, 1, 7, schema("Shared"));
+        register(PAYMENTS, 3, 7, schema("Shared"));
+
+        assertSameKey(7, ORDERS);
+        assertSameKey(7, PAYMENTS);
+        assertEquals(new SchemaKey(PAYMENTS, 3), indexed.schemaKeyById(7, PAYMENTS));
+        assertSameSubjects(orders);
+        assertEquals(2, indexed.schemaIdAndSubjects(orders.toSchemaEntity()).allSubjectVersions().size());
+
+        // without a subject either may be returned, InMemoryCache does not define which
+        SchemaKey any = indexed.schemaKeyById(7, null);
+        assertTrue(new HashSet<>(Arrays.asList(new SchemaKey(ORDERS, 1), new SchemaKey(PAYMENTS, 3))).contains(any));
+        assertNotNull(reference.schemaKeyById(7, null));
+    }
+
+    @Test
+    public void contextsAreIndexedSeparately() throws Exception {
+        SchemaValue orders = register(ORDERS, 1, 1, schema("Order"));
+        SchemaValue tenantOrders = register(TENANT_ORDERS, 1, 1, schema("Order"));
+        register(TENANT_ORDERS, 2, 2, schema("OrderV2"));
+
+        assertSameKey(1, ORDERS);
+        assertSameKey(1, TENANT_ORDERS);
+        assertSameKey(2, TENANT_ORDERS);
+        assertSameKey(2, ORDERS);
+        assertEquals(new SchemaKey(TENANT_ORDERS, 1), indexed.schemaKeyById(1, TENANT_ORDERS));
+        assertNull(indexed.schemaKeyById(2, ORDERS));
+        assertSameSubjects(orders);
+        assertSameSubjects(tenantOrders);
+        assertEquals(Collections.singletonMap(TENANT_ORDERS, 1),
+                indexed.schemaIdAndSubjects(tenantOrders.toSchemaEntity()).allSubjectVersions());
+
+        assertEquals(1, indexed.latestVersion(ORDERS));
+        assertEquals(2, indexed.latestVersion(TENANT_ORDERS));
+    }
+
+    @Test
+    public void softDeletedVersionsStayFindableButAreNotLatest() throws Exception {
+        register(ORDERS, 1, 1, schema("Order"));
+        SchemaValue v2 = register(ORDERS, 2, 2, schema("OrderV2"));
+        SchemaValue deleted = softDelete(v2);
+
+        assertSameKey(2, ORDERS);
+        assertEquals(new SchemaKey(ORDERS, 2), indexed.schemaKeyById(2, ORDERS));
+        assertSameSubjects(deleted);
+        assertEquals(1, indexed.latestVersion(ORDERS));
+        assertArrayEquals(new int[]{1}, indexed.versions(ORDERS));
+    }
+
+    @Test
+    public void reRegisteringADeletedSchemaReplacesTheVersionForItsId() throws Exception {
+        SchemaValue v1 = register(ORDERS, 1, 1, schema("Order"));
+        softDelete(v1);
+        SchemaValue v2 = register(ORDERS, 2, 1, schema("Order"));
+
+        assertSameKey(1, ORDERS);
+        assertEquals(new SchemaKey(ORDERS, 2), indexed.schemaKeyById(1, ORDERS));
+        assertSameSubjects(v2);
+        assertEquals(2, indexed.latestVersion(ORDERS));
+
+        // tombstoning the replaced version leaves the id in place
+        tombstone(softDelete(v1));
+        assertSameKey(1, ORDERS);
+        assertSameSubjects(v2);
+    }
+
+    @Test
+    public void tombstonedSchemasAreForgotten() throws Exception {
+        SchemaValue orders = register(ORDERS, 1, 1, schema("Order"));
+        SchemaValue payments = register(PAYMENTS, 1, 1, schema("Order"));
+
+        tombstone(softDelete(orders));
+        assertSameKey(1, ORDERS);
+        assertEquals(new SchemaKey(PAYMENTS, 1), indexed.schemaKeyById(1, ORDERS));
+        assertSameSubjects(payments);
+        assertEquals(-1, indexed.latestVersion(ORDERS));
+
+        tombstone(softDelete(payments));
+        assertSameKey(1, PAYMENTS);
+        assertNull(indexed.schemaKeyById(1, PAYMENTS));
+        assertNull(indexed.schemaIdAndSubjects(payments.toSchemaEntity()));
+        assertNull(reference.schemaIdAndSubjects(payments.toSchemaEntity()));
+        assertEquals(-1, indexed.latestVersion(PAYMENTS));
+    }
+
+    @Test
+    public void tombstonesInOneContextLeaveOthersAlone() throws Exception {
+        register(ORDERS, 1, 1, schema("Order"));
+        SchemaValue tenantOrders = register(TENANT_ORDERS, 1, 1, schema("Order"));
+
+        tombstone(softDelete(tenantOrders));
+
+        assertSameKey(1, ORDERS);
+        assertSameKey(1, TENANT_ORDERS);
+        assertEquals(new SchemaKey(ORDERS, 1), indexed.schemaKeyById(1, ORDERS));
+        assertNull(indexed.schemaKeyById(1, TENANT_ORDERS));
+        assertEquals(1, indexed.latestVersion(ORDERS));
+        assertEquals(-1, indexed.latestVersion(TENANT_ORDERS));
+    }
+
+    private SchemaValue register(String subject, int version, int id, String schema) throws Exception {
+        SchemaKey key = new SchemaKey(subject, version);
+        SchemaValue value = new SchemaValue(subject, version, id, AvroSchema.TYPE, Collections.emptyList(), schema,
+                false);
+        for (LookupCache<SchemaRegistryKey, SchemaRegistryValue> cache : caches()) {
+            SchemaValue old = (SchemaValue) cache.put(key, value);
+            cache.schemaRegistered(key, value, old);
+        }
+        return value;
+    }
+
+    private SchemaValue softDelete(SchemaValue value) throws Exception {
+        SchemaKey key = new SchemaKey(value.getSubject(), value.getVersion());
+        SchemaValue deleted = new SchemaValue(value.getSubject(), value.getVersion(), value.getId(),
+                value.getSchemaType(), value.getReferences(), value.getSchema(), true);
+        for (LookupCache<SchemaRegistryKey, SchemaRegistryValue> cache : caches()) {
+            SchemaValue old = (SchemaValue) cache.put(key, deleted);
+            cache.schemaDeleted(key, deleted, old);
+        }
+        return deleted;
+    }
+
+    private void tombstone(SchemaValue value) throws Exception {
+        SchemaKey key = new SchemaKey(value.getSubject(), value.getVersion());
+        for (LookupCache<SchemaRegistryKey, SchemaRegistryValue> cache : caches()) {
+            SchemaValue old = (SchemaValue) cache.delete(key);
+            cache.schemaTombstoned(key, old);
+        }
+    }
+
+    private Iterable<LookupCache<SchemaRegistryKey, SchemaRegistryValue>> caches() {
+        return Arrays.asList(reference, indexed);
+    }
+
+    private void assertSameKey(int id, String subject) throws Exception {
+        assertEquals(reference.schemaKeyById(id, subject), indexed.schemaKeyById(id, subject),
+                "schemaKeyById(" + id + ", " + subject + ")");
+    }
+
+    private void assertSameSubjects(SchemaValue value) throws Exception {
+        SchemaIdAndSubjects expected = reference.schemaIdAndSubjects(value.toSchemaEntity());
+        SchemaIdAndSubjects actual = indexed.schemaIdAndSubjects(value.toSchemaEntity());
+        assertNotNull(expected);
+        assertNotNull(actual);
+        assertEquals(expected.getSchemaId(), actual.getSchemaId());
+        assertEquals(new HashMap<>(expected.allSubjectVersions()), new HashMap<>(actual.allSubjectVersions()));
+    }
+
+    private static String schema(String name) {
+        return "{\"type\":\"record\",\"name\":\"" + name + "\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}";
+    }
+}
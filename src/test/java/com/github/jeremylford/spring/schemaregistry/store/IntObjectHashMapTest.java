@@ -0,0 +1,54 @@
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class IntObjectHashMapTest {
+
+    @Test
+    public void putGetRemove() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+
+        assertNull(map.put(1, "one"));
+        assertNull(map.put(2, "two"));
+        assertEquals("one", map.put(1, "uno"));
+
+        assertEquals("uno", map.get(1));
+        assertEquals("two", map.get(2));
+        assertNull(map.get(3));
+        assertEquals(2, map.size());
+
+        assertEquals("uno", map.remove(1));
+        assertNull(map.remove(1));
+        assertNull(map.get(1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomOperations() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.size(), map.keys().length);
+        for (int key = 0; key < 2_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+}
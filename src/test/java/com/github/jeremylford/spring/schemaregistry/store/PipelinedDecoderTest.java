@@ -0,0 +1,64 @@
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaRegistryKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import io.confluent.kafka.schemaregistry.storage.serialization.SchemaRegistrySerializer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PipelinedDecoderTest {
+
+    private final SchemaRegistrySerializer serializer = new SchemaRegistrySerializer();
+
+    @Test
+    public void decodesBatchAheadOfReaderInOrder() throws Exception {
+        PipelinedDecoder decoder = new PipelinedDecoder(serializer, 4, 3);
+        try {
+            List<ConsumerRecord<byte[], byte[]>> records = new ArrayList<>();
+            for (int version = 1; version <= 20; version++) {
+                SchemaKey key = new SchemaKey("subject", version);
+                byte[] value = version % 5 == 0 ? null : serializer.serializeValue(value(key));
+                records.add(new ConsumerRecord<>("_schemas", 0, version, serializer.serializeKey(key), value));
+            }
+            decoder.onConsume(new ConsumerRecords<>(
+                    Collections.singletonMap(new TopicPartition("_schemas", 0), records)));
+
+            for (int version = 1; version <= 20; version++) {
+                ConsumerRecord<byte[], byte[]> record = records.get(version - 1);
+                SchemaRegistryKey key = decoder.deserializeKey(record.key());
+                assertEquals(new SchemaKey("subject", version), key);
+                if (record.value() == null) {
+                    continue;
+                }
+                assertEquals(value((SchemaKey) key), decoder.deserializeValue(key, record.value()));
+            }
+        } finally {
+            decoder.close();
+        }
+    }
+
+    @Test
+    public void decodesOnCallerWithoutThreads() throws Exception {
+        PipelinedDecoder decoder = new PipelinedDecoder(serializer, 0, 256);
+        SchemaKey key = new SchemaKey("subject", 1);
+
+        assertEquals(key, decoder.deserializeKey(serializer.serializeKey(key)));
+        assertEquals(value(key), decoder.deserializeValue(key, serializer.serializeValue(value(key))));
+        decoder.close();
+    }
+
+    private static SchemaValue value(SchemaKey key) {
+        return new SchemaValue(key.getSubject(), key.getVersion(), key.getVersion(), AvroSchema.TYPE,
+                Collections.emptyList(), "\"string\"", false);
+    }
+}
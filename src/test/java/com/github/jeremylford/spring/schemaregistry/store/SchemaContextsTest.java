@@ -0,0 +1,27 @@
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SchemaContextsTest {
+
+    @Test
+    public void unqualifiedSubjectsAreInTheDefaultContext() {
+        assertEquals(SchemaContexts.DEFAULT_CONTEXT, SchemaContexts.contextOf(null));
+        assertEquals(SchemaContexts.DEFAULT_CONTEXT, SchemaContexts.contextOf("orders-value"));
+        assertEquals(SchemaContexts.DEFAULT_CONTEXT, SchemaContexts.contextOf(":orders-value"));
+    }
+
+    @Test
+    public void qualifiedSubjectsCarryTheirContext() {
+        assertEquals(".tenant1", SchemaContexts.contextOf(":.tenant1:orders-value"));
+        assertEquals(".tenant1", SchemaContexts.contextOf(":.tenant1:"));
+    }
+
+    @Test
+    public void namesDropTheLeadingDot() {
+        assertEquals("default", SchemaContexts.name(SchemaContexts.DEFAULT_CONTEXT));
+        assertEquals("tenant1", SchemaContexts.name(".tenant1"));
+    }
+}
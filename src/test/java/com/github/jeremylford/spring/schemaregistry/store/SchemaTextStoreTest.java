@@ -0,0 +1,206 @@
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchemaTextStoreTest {
+
+    private static final String DEFAULT = SchemaContexts.DEFAULT_CONTEXT;
+    private static final String TENANT1 = SchemaContexts.contextOf(":.tenant1:orders-value");
+
+    @TempDir
+    Path directory;
+
+    private SchemaTextStore store;
+
+    @AfterEach
+    public void after() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    public void identicalTextIsStoredOnce() {
+        store = new SchemaTextStore(SchemaTextStore.Mode.DIRECT, directory, 1024, 0);
+
+        SchemaTextStore.Handle first = store.put(text(1, 200));
+        assertSame(first, store.put(text(1, 200)));
+        assertNotSame(first, store.put(text(2, 200)));
+    }
+
+    @Test
+    public void directRoundTrip() {
+        store = new SchemaTextStore(SchemaTextStore.Mode.DIRECT, directory, 1024, 0);
+        roundTrip();
+    }
+
+    @Test
+    public void mappedRoundTrip() {
+        store = new SchemaTextStore(SchemaTextStore.Mode.MAPPED, directory, 1024, 0);
+        roundTrip();
+    }
+
+    @Test
+    public void textsRollOverIntoNewChunks() {
+        store = new SchemaTextStore(SchemaTextStore.Mode.DIRECT, directory, 256, 0);
+
+        List<String> texts = new ArrayList<>();
+        List<SchemaTextStore.Handle> handles = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            texts.add(text(i, 100));
+            handles.add(store.put(texts.get(i)));
+        }
+        // larger than a chunk, gets a chunk of its own
+        texts.add(text(1000, 5000));
+        handles.add(store.put(texts.get(200)));
+
+        for (int i = 0; i < texts.size(); i++) {
+            assertEquals(texts.get(i), store.get(handles.get(i)));
+        }
+    }
+
+    @Test
+    public void hotCacheEvictsTheLeastRecentlyRead() {
+        // room for two texts of 100 chars, at 2 bytes per char
+        store = new SchemaTextStore(SchemaTextStore.Mode.DIRECT, directory, 1024, 450);
+        SchemaTextStore.Handle a = store.put(text(1, 100));
+        SchemaTextStore.Handle b = store.put(text(2, 100));
+        SchemaTextStore.Handle c = store.put(text(3, 100));
+
+        store.get(a);
+        store.get(b);
+        store.get(a);
+        store.get(c);
+
+        assertTrue(store.isHot(a, DEFAULT));
+        assertFalse(store.isHot(b, DEFAULT));
+        assertTrue(store.isHot(c, DEFAULT));
+        assertEquals(400, store.hotCacheBytes(DEFAULT));
+        assertEquals(text(2, 100), store.get(b));
+    }
+
+    @Test
+    public void textLargerThanTheHotCacheIsNotCached() {
+        store = new SchemaTextStore(SchemaTextStore.Mode.DIRECT, directory, 1024, 100);
+        SchemaTextStore.Handle handle = store.put(text(1, 100));
+
+        assertEquals(text(1, 100), store.get(handle));
+        assertFalse(store.isHot(handle, DEFAULT));
+        assertEquals(0, store.hotCacheBytes(DEFAULT));
+    }
+
+    @Test
+    public void contextsEvictOnlyFromTheirOwnHotCache() {
+        // the default cache has room for two texts, each other context for one
+        store = new SchemaTextStore(SchemaTextStore.Mode.DIRECT, directory, 4096, 450, 250, Collections.emptyMap(), 10);
+        SchemaTextStore.Handle a = store.put(text(1, 100));
+        SchemaTextStore.Handle b = store.put(text(2, 100));
+        List<SchemaTextStore.Handle> tenant = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tenant.add(store.put(text(10 + i, 100)));
+        }
+
+        store.get(a, DEFAULT);
+        store.get(b, DEFAULT);
+        for (int i = 0; i < tenant.size(); i++) {
+            assertEquals(text(10 + i, 100), store.get(tenant.get(i), TENANT1));
+        }
+
+        assertTrue(store.isHot(a, DEFAULT));
+        assertTrue(store.isHot(b, DEFAULT));
+        assertEquals(400, store.hotCacheBytes(DEFAULT));
+        assertTrue(store.isHot(tenant.get(4), TENANT1));
+        assertFalse(store.isHot(tenant.get(0), TENANT1));
+        assertFalse(store.isHot(tenant.get(4), DEFAULT));
+        assertEquals(200, store.hotCacheBytes(TENANT1));
+    }
+
+    @Test
+    public void contextSizesOverrideTheDefaultBudget() {
+        Map<String, Long> sizes = new HashMap<>();
+        sizes.put("tenant1", 450L);
+        sizes.put("tenant2", 0L);
+        store = new SchemaTextStore(SchemaTextStore.Mode.DIRECT, directory, 4096, 450, 250, sizes, 10);
+        SchemaTextStore.Handle a = store.put(text(1, 100));
+        SchemaTextStore.Handle b = store.put(text(2, 100));
+        SchemaTextStore.Handle c = store.put(text(3, 100));
+
+        store.get(a, TENANT1);
+        store.get(b, TENANT1);
+        assertEquals(400, store.hotCacheBytes(TENANT1));
+
+        // a budget of 0 reads through the default cache
+        store.get(c, ".tenant2");
+        assertTrue(store.isHot(c, DEFAULT));
+        assertEquals(200, store.hotCacheBytes(DEFAULT));
+    }
+
+    @Test
+    public void contextsBeyondTheCapShareOneHotCache() {
+        store = new SchemaTextStore(SchemaTextStore.Mode.DIRECT, directory, 4096, 450, 250, Collections.emptyMap(), 1);
+        SchemaTextStore.Handle a = store.put(text(1, 100));
+        SchemaTextStore.Handle b = store.put(text(2, 100));
+        SchemaTextStore.Handle c = store.put(text(3, 100));
+
+        store.get(a, TENANT1);
+        store.get(b, ".tenant2");
+        assertTrue(store.isHot(b, ".tenant3"));
+
+        store.get(c, ".tenant3");
+        assertFalse(store.isHot(b, ".tenant2"));
+        assertTrue(store.isHot(c, ".tenant2"));
+        assertTrue(store.isHot(a, TENANT1));
+        assertEquals(200, store.hotCacheBytes(TENANT1));
+    }
+
+    @Test
+    public void closedStoreRejectsReadsAndWrites() {
+        store = new SchemaTextStore(SchemaTextStore.Mode.DIRECT, directory, 1024, 0);
+        SchemaTextStore.Handle handle = store.put(text(1, 100));
+        store.close();
+
+        assertThrows(IllegalStateException.class, () -> store.get(handle));
+        assertThrows(IllegalStateException.class, () -> store.put(text(2, 100)));
+    }
+
+    private void roundTrip() {
+        String schema = "{\"type\":\"record\",\"name\":\"Test\",\"fields\":[{\"name\":\"f\",\"type\":\"string\"}]}";
+        String unicode = "{\"type\":\"string\",\"doc\":\"\u00e9\u4e2d\ud83d\ude00\"}";
+        SchemaTextStore.Handle first = store.put(schema);
+        SchemaTextStore.Handle second = store.put(unicode);
+
+        assertEquals(schema, store.get(first));
+        assertEquals(unicode, store.get(second));
+        assertEquals(unicode.getBytes(StandardCharsets.UTF_8).length, second.getRawLength());
+    }
+
+    /**
+     * @return random, so barely compressible, text of the given length
+     */
+    static String text(int seed, int length) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.jeremylford.spring.schemaregistry.store;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SortedIntsTest {
+
+    @Test
+    public void insertKeepsOrderAndSkipsDuplicates() {
+        int[] values = SortedInts.insert(SortedInts.EMPTY, 3);
+        values = SortedInts.insert(values, 1);
+        values = SortedInts.insert(values, 2);
+        assertArrayEquals(new int[]{1, 2, 3}, values);
+        assertSame(values, SortedInts.insert(values, 2));
+        assertEquals(3, SortedInts.last(values));
+    }
+
+    @Test
+    public void remove() {
+        int[] values = {1, 2, 3};
+        assertArrayEquals(new int[]{1, 3}, SortedInts.remove(values, 2));
+        assertSame(values, SortedInts.remove(values, 4));
+        assertSame(SortedInts.EMPTY, SortedInts.remove(new int[]{1}, 1));
+        assertEquals(-1, SortedInts.last(SortedInts.EMPTY));
+    }
+}
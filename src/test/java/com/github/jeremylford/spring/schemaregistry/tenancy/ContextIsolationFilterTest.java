@@ -0,0 +1,199 @@
+package com.github.jeremylford.spring.schemaregistry.tenancy;
+
+import com.github.jeremylford.spring.schemaregistry.properties.SchemaRegistryProperties;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.storage.SchemaKey;
+import io.confluent.kafka.schemaregistry.storage.SchemaValue;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContextIsolationFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger inProgress = new AtomicInteger();
+    private final SchemaRegistryProperties.Contexts contexts = new SchemaRegistryProperties.Contexts();
+    private final StoreContexts storeContexts = new StoreContexts();
+    private ContextIsolationFilter filter;
+    private ApplicationHandler handler;
+
+    @BeforeEach
+    public void before() {
+        Metrics.addRegistry(meterRegistry);
+        contexts.setMetrics(true);
+        contexts.setMaxTracked(3);
+    }
+
+    @AfterEach
+    public void after() {
+        release.countDown();
+        executor.shutdownNow();
+        Metrics.removeRegistry(meterRegistry);
+    }
+
+    @Test
+    public void contextsMissingFromTheStoreShareOneEntry() throws Exception {
+        start();
+        for (int i = 0; i < 20; i++) {
+            assertEquals(200, get("/subjects/:.random" + i + ":orders-value/versions").get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, filter.trackedContexts());
+        assertEquals(20, requests("_other").count());
+        assertNull(requests("random0"));
+    }
+
+    @Test
+    public void contextsInTheStoreAreTrackedUpToTheCap() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            storeContexts.add(".tenant" + i);
+        }
+        start();
+
+        assertEquals(200, get("/subjects/orders-value/versions").get(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, get("/subjects/:.tenant" + i + ":orders-value/versions").get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, requests("default").count());
+        assertEquals(1, requests("tenant0").count());
+        assertEquals(1, requests("tenant1").count());
+        assertNull(requests("tenant2"));
+        assertEquals(3, requests("_other").count());
+    }
+
+    @Test
+    public void lookupsByIdUseTheSubjectQueryParameter() throws Exception {
+        storeContexts.add(".tenant1");
+        start();
+
+        assertEquals(200, get("/schemas/ids/1?subject=:.tenant1:orders-value").get(5, TimeUnit.SECONDS));
+        assertEquals(200, get("/schemas/ids/1").get(5, TimeUnit.SECONDS));
+
+        assertEquals(1, requests("tenant1").count());
+        assertEquals(1, requests("default").count());
+    }
+
+    @Test
+    public void configuredContextsAreLimitedBeforeTheyReachTheStore() throws Exception {
+        contexts.setMaxTracked(0);
+        contexts.setConcurrencyLimits(Collections.singletonMap("tenant1", 1));
+        start();
+
+        Future<Integer> first = get("/subjects/:.tenant1:orders-value/versions?block=true");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (inProgress.get() == 0) {
+            assertTrue(System.nanoTime() < deadline, "request did not start");
+            Thread.sleep(5);
+        }
+        assertEquals(ContextIsolationFilter.TOO_MANY_REQUESTS,
+                get("/subjects/:.tenant1:orders-value/versions").get(5, TimeUnit.SECONDS));
+        // other contexts are not held up by tenant1
+        assertEquals(200, get("/subjects/orders-value/versions").get(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        assertEquals(200, first.get(5, TimeUnit.SECONDS));
+        assertEquals(200, get("/subjects/:.tenant1:orders-value/versions").get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("schemaregistry.context.rejected").tag("context", "tenant1").counter()
+                .count());
+    }
+
+    @Test
+    public void updateHandlerAddsTheContextsOfRegisteredSchemas() {
+        StoreContextsUpdateHandler updateHandler = new StoreContextsUpdateHandler();
+        updateHandler.configure(Collections.singletonMap(StoreContextsUpdateHandler.CONFIG, storeContexts));
+
+        String subject = ":.tenant1:orders-value";
+        SchemaValue value = new SchemaValue(subject, 1, 1, AvroSchema.TYPE, Collections.emptyList(), "\"long\"",
+                false);
+        assertFalse(storeContexts.contains(".tenant1"));
+        updateHandler.handleUpdate(new SchemaKey(subject, 1), value, null, null, 0, 0);
+
+        assertTrue(storeContexts.contains(".tenant1"));
+        assertTrue(storeContexts.contains("."));
+    }
+
+    private void start() {
+        filter = new ContextIsolationFilter(contexts, storeContexts);
+        handler = new ApplicationHandler(new ResourceConfig()
+                .register(new Resource(inProgress, release))
+                .register(filter));
+    }
+
+    private Timer requests(String context) {
+        return meterRegistry.find("schemaregistry.context.requests").tag("context", context).timer();
+    }
+
+    private Future<Integer> get(String pathAndQuery) {
+        return executor.submit(() -> {
+            ContainerRequest request = new ContainerRequest(
+                    URI.create("http://localhost/"), URI.create("http://localhost" + pathAndQuery), "GET",
+                    null, new MapPropertiesDelegate(), handler.getConfiguration()
+            );
+            return handler.apply(request, new ByteArrayOutputStream()).get(5, TimeUnit.SECONDS).getStatus();
+        });
+    }
+
+    @Path("/")
+    public static class Resource {
+
+        private final AtomicInteger inProgress;
+        private final CountDownLatch release;
+
+        Resource(AtomicInteger inProgress, CountDownLatch release) {
+            this.inProgress = inProgress;
+            this.release = release;
+        }
+
+        @GET
+        @Path("/subjects/{subject}/versions")
+        @Produces(MediaType.APPLICATION_JSON)
+        public String versions(@PathParam("subject") String subject, @QueryParam("block") boolean block)
+                throws InterruptedException {
+            assertNotNull(subject);
+            if (block) {
+                inProgress.incrementAndGet();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return "[1]";
+        }
+
+        @GET
+        @Path("/schemas/ids/{id}")
+        @Produces(MediaType.APPLICATION_JSON)
+        public String schema(@PathParam("id") int id) {
+            return "{}";
+        }
+    }
+}